@@ -0,0 +1,30 @@
+package com.example.mrquiz.config;
+
+import com.example.mrquiz.service.quiz.AdvisoryLeaderLock;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    // Time source of the scheduled jobs, replaced in tests to move time forward
+    @Bean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+
+    // Leader locks keep their connection open while they lead, so they connect straight
+    // through the driver rather than pinning connections of the application pool
+    @Bean
+    public AdvisoryLeaderLock.ConnectionSource leaderLockConnections(DataSourceProperties properties) {
+        DataSource dataSource = properties.initializeDataSourceBuilder().type(SimpleDriverDataSource.class).build();
+        return dataSource::getConnection;
+    }
+}
@@ -1,15 +1,63 @@
 package com.example.mrquiz.config;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+import java.util.Arrays;
+
+@Slf4j
 @Configuration
 public class SecurityConfig {
 
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+    private static final int CALIBRATION_ROUNDS = 3;
+
+    /**
+     * BCrypt encoder whose strength is either fixed by {@code mrquiz.security.bcrypt.strength}
+     * or calibrated at startup to the highest cost that hashes within the target time
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${mrquiz.security.bcrypt.strength:0}") int strength,
+                                           @Value("${mrquiz.security.bcrypt.target-hash-time:PT0.25S}") Duration targetHashTime,
+                                           @Value("${mrquiz.security.bcrypt.min-strength:10}") int minStrength,
+                                           @Value("${mrquiz.security.bcrypt.max-strength:14}") int maxStrength) {
+        int resolvedStrength = strength > 0 ? strength : calibrateStrength(targetHashTime, minStrength, maxStrength);
+        log.info("Using BCrypt strength {}", resolvedStrength);
+        return new BCryptPasswordEncoder(resolvedStrength);
+    }
+
+    private int calibrateStrength(Duration targetHashTime, int minStrength, int maxStrength) {
+        // Each extra round doubles the cost, so one measurement at the minimum is enough to extrapolate
+        long baseNanos = medianHashNanos(minStrength);
+        long targetNanos = targetHashTime.toNanos();
+        int strength = minStrength;
+        while (strength < maxStrength && baseNanos << (strength + 1 - minStrength) <= targetNanos) {
+            strength++;
+        }
+
+        // Confirm the extrapolation on this machine
+        while (strength > minStrength && medianHashNanos(strength) > targetNanos * 3 / 2) {
+            strength--;
+        }
+        return strength;
+    }
+
+    private long medianHashNanos(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        encoder.encode(CALIBRATION_PASSWORD); // warm-up
+
+        long[] samples = new long[CALIBRATION_ROUNDS];
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long start = System.nanoTime();
+            encoder.encode(CALIBRATION_PASSWORD);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[CALIBRATION_ROUNDS / 2];
     }
-}
\ No newline at end of file
+}
@@ -16,7 +16,8 @@ import java.util.Map;
 @Entity
 @Table(name = "auth_tokens", indexes = {
     @Index(name = "idx_token_hash", columnList = "tokenHash"),
-    @Index(name = "idx_token_user_type", columnList = "user_id, tokenType")
+    @Index(name = "idx_token_user_type", columnList = "user_id, tokenType"),
+    @Index(name = "idx_token_used_at", columnList = "usedAt")
 })
 public class AuthToken extends BaseEntity {
     
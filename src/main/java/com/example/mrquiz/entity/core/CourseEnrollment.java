@@ -4,6 +4,7 @@ import com.example.mrquiz.entity.BaseEntity;
 import com.example.mrquiz.entity.auth.User;
 import com.example.mrquiz.enums.EnrollmentStatus;
 import com.example.mrquiz.enums.EnrollmentType;
+import com.example.mrquiz.service.quiz.EnrollmentAccessListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -20,6 +21,7 @@ import java.time.LocalDateTime;
            @Index(name = "idx_course_enrollments_student", columnList = "user_id, status"),
            @Index(name = "idx_course_enrollments_course", columnList = "course_id, status")
        })
+@EntityListeners(EnrollmentAccessListener.class)
 public class CourseEnrollment extends BaseEntity {
     
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
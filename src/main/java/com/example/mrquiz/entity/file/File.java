@@ -17,7 +17,7 @@ import java.util.Map;
 @EqualsAndHashCode(callSuper = true)
 @Entity
 @Table(name = "files", indexes = {
-    @Index(name = "idx_files_uploader", columnList = "uploadedBy, createdAt"),
+    @Index(name = "idx_files_uploader", columnList = "uploaded_by, created_at, id"),
     @Index(name = "idx_files_status", columnList = "status"),
     @Index(name = "idx_files_hash", columnList = "fileHash"),
     @Index(name = "idx_files_type_public", columnList = "fileType, isPublic")
@@ -7,6 +7,11 @@ import com.example.mrquiz.entity.core.Institution;
 import com.example.mrquiz.enums.DifficultyLevel;
 import com.example.mrquiz.enums.QuestionStatus;
 import com.example.mrquiz.enums.QuestionType;
+import com.example.mrquiz.service.quiz.QuestionDefinitionListener;
+import com.example.mrquiz.service.quiz.QuestionFacetListener;
+import com.example.mrquiz.service.quiz.QuestionPointsListener;
+import com.example.mrquiz.service.quiz.QuestionSignatureListener;
+import com.example.mrquiz.service.quiz.TagIndexListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -24,8 +29,10 @@ import java.util.UUID;
 @Table(name = "questions", indexes = {
     @Index(name = "idx_questions_creator_status", columnList = "creator_id, status"),
     @Index(name = "idx_questions_type_difficulty", columnList = "question_type, difficulty_level"),
-    @Index(name = "idx_questions_tags", columnList = "tags")
+    @Index(name = "idx_questions_updated", columnList = "updated_at")
 })
+@EntityListeners({QuestionSignatureListener.class, TagIndexListener.class, QuestionFacetListener.class,
+                  QuestionDefinitionListener.class, QuestionPointsListener.class})
 public class Question extends BaseEntity {
     
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -143,4 +150,18 @@ public class Question extends BaseEntity {
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private QuestionStatus status = QuestionStatus.ACTIVE;
+    
+    // Near-duplicate detection; MinHash signature of text and question data, and its LSH band keys
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "minhash_signature", columnDefinition = "integer[]")
+    private int[] minhashSignature;
+    
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "minhash_bands", columnDefinition = "bigint[]")
+    private long[] minhashBands;
+    
+    // Default points as last loaded or saved, used to adjust quiz totals by the change
+    @Transient
+    @EqualsAndHashCode.Exclude
+    private BigDecimal loadedPoints;
 }
\ No newline at end of file
@@ -52,6 +52,10 @@ public class QuestionResponse extends BaseEntity {
     @Column(name = "partial_credit", precision = 5, scale = 2)
     private BigDecimal partialCredit;
     
+    // Set when a teacher grades or overrides the response; bulk grading and regrades leave it alone
+    @Column(name = "graded_manually")
+    private Boolean gradedManually = false;
+    
     // Response metadata
     @Column(name = "time_spent")
     private Integer timeSpent = 0; // Time spent on this question in seconds
@@ -7,6 +7,7 @@ import com.example.mrquiz.entity.core.Institution;
 import com.example.mrquiz.entity.file.File;
 import com.example.mrquiz.enums.QuizStatus;
 import com.example.mrquiz.enums.QuizType;
+import com.example.mrquiz.service.quiz.TagIndexListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -22,10 +23,14 @@ import java.util.Map;
 @EqualsAndHashCode(callSuper = true)
 @Entity
 @Table(name = "quizzes", indexes = {
-    @Index(name = "idx_quizzes_creator_status", columnList = "creator_id, status"),
+    @Index(name = "idx_quizzes_creator_status", columnList = "creator_id, status, created_at, id"),
+    @Index(name = "idx_quizzes_creator_created", columnList = "creator_id, created_at, id"),
     @Index(name = "idx_quizzes_course", columnList = "course_id, status"),
-    @Index(name = "idx_quizzes_availability", columnList = "availability_start, availability_end")
+    @Index(name = "idx_quizzes_availability", columnList = "availability_start, availability_end"),
+    @Index(name = "idx_quizzes_status_start", columnList = "status, availability_start"),
+    @Index(name = "idx_quizzes_status_end", columnList = "status, availability_end")
 })
+@EntityListeners(TagIndexListener.class)
 public class Quiz extends BaseEntity {
     
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -3,6 +3,8 @@ package com.example.mrquiz.entity.quiz;
 import com.example.mrquiz.entity.BaseEntity;
 import com.example.mrquiz.entity.auth.User;
 import com.example.mrquiz.enums.AttemptStatus;
+import com.example.mrquiz.service.quiz.AttemptDeadlineListener;
+import com.example.mrquiz.service.quiz.QuizAttemptStatsListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -20,9 +22,12 @@ import java.util.Map;
        uniqueConstraints = @UniqueConstraint(columnNames = {"quiz_id", "user_id", "attempt_number"}),
        indexes = {
            @Index(name = "idx_quiz_attempts_user_quiz", columnList = "user_id, quiz_id"),
+           @Index(name = "idx_quiz_attempts_user_created", columnList = "user_id, created_at, id"),
+           @Index(name = "idx_quiz_attempts_quiz_started", columnList = "quiz_id, started_at, id"),
            @Index(name = "idx_quiz_attempts_status", columnList = "status, created_at"),
            @Index(name = "idx_quiz_attempts_session", columnList = "session_id")
        })
+@EntityListeners({QuizAttemptStatsListener.class, AttemptDeadlineListener.class})
 public class QuizAttempt extends BaseEntity {
     
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -67,7 +72,7 @@ public class QuizAttempt extends BaseEntity {
     @Column(name = "time_spent")
     private Integer timeSpent = 0; // Total time spent in seconds
     
-    @Column(name = "started_at")
+    @Column(name = "started_at", nullable = false)
     private LocalDateTime startedAt = LocalDateTime.now();
     
     @Column(name = "submitted_at")
@@ -76,6 +81,10 @@ public class QuizAttempt extends BaseEntity {
     @Column(name = "graded_at")
     private LocalDateTime gradedAt;
     
+    // Set once bulk grading has graded the automatic responses and left the rest to a teacher
+    @Column(name = "grading_deferred_at")
+    private LocalDateTime gradingDeferredAt;
+    
     // Technical information
     @Column(name = "ip_address")
     private String ipAddress;
@@ -108,4 +117,13 @@ public class QuizAttempt extends BaseEntity {
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(columnDefinition = "jsonb")
     private Map<String, Object> metadata;
-}
\ No newline at end of file
+    
+    // State as last loaded or saved, used to derive quiz stats deltas
+    @Transient
+    @EqualsAndHashCode.Exclude
+    private AttemptStatus loadedStatus;
+    
+    @Transient
+    @EqualsAndHashCode.Exclude
+    private BigDecimal loadedPercentage;
+}
@@ -0,0 +1,27 @@
+package com.example.mrquiz.entity.quiz;
+
+import com.example.mrquiz.entity.BaseEntity;
+import com.example.mrquiz.entity.auth.User;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Table(name = "quiz_collaborators", 
+       uniqueConstraints = @UniqueConstraint(columnNames = {"quiz_id", "user_id"}),
+       indexes = @Index(name = "idx_quiz_collaborators_user", columnList = "user_id"))
+public class QuizCollaborator extends BaseEntity {
+    
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "quiz_id", nullable = false)
+    private Quiz quiz;
+    
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
+    @Column(nullable = false, length = 50)
+    private String permission;
+}
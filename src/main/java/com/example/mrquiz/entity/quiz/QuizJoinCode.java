@@ -0,0 +1,47 @@
+package com.example.mrquiz.entity.quiz;
+
+import com.example.mrquiz.entity.BaseEntity;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Table(name = "quiz_join_codes", indexes = {
+    @Index(name = "idx_quiz_join_codes_code", columnList = "code", unique = true),
+    @Index(name = "idx_quiz_join_codes_quiz", columnList = "quiz_id, source"),
+    @Index(name = "idx_quiz_join_codes_expires", columnList = "expires_at"),
+    @Index(name = "idx_quiz_join_codes_updated", columnList = "updated_at")
+})
+public class QuizJoinCode extends BaseEntity {
+    
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "quiz_id", nullable = false)
+    private Quiz quiz;
+    
+    @Column(nullable = false, length = 16)
+    private String code;
+    
+    @Column(nullable = false, length = 50)
+    private String source = "quiz"; // quiz, invitation
+    
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+    
+    // Usage tracking
+    @Column(name = "usage_count", nullable = false)
+    private Integer usageCount = 0;
+    
+    @Column(name = "last_used_at")
+    private LocalDateTime lastUsedAt;
+    
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private Map<String, Object> settings;
+}
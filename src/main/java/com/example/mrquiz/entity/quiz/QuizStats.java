@@ -0,0 +1,32 @@
+package com.example.mrquiz.entity.quiz;
+
+import com.example.mrquiz.entity.BaseEntity;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.math.BigDecimal;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Table(name = "quiz_stats")
+public class QuizStats extends BaseEntity {
+    
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "quiz_id", nullable = false, unique = true)
+    private Quiz quiz;
+    
+    // Counters maintained from quiz attempt changes
+    @Column(name = "attempt_count", nullable = false)
+    private Long attemptCount = 0L;
+    
+    @Column(name = "graded_count", nullable = false)
+    private Long gradedCount = 0L;
+    
+    @Column(name = "percentage_sum", nullable = false, precision = 14, scale = 2)
+    private BigDecimal percentageSum = BigDecimal.ZERO;
+    
+    @Column(name = "participant_count", nullable = false)
+    private Long participantCount = 0L;
+}
@@ -0,0 +1,37 @@
+package com.example.mrquiz.entity.quiz;
+
+import com.example.mrquiz.entity.BaseEntity;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.util.Map;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Table(name = "quiz_versions", 
+       uniqueConstraints = @UniqueConstraint(columnNames = {"quiz_id", "version_number"}),
+       indexes = @Index(name = "idx_quiz_versions_quiz", columnList = "quiz_id, version_number"))
+public class QuizVersion extends BaseEntity {
+    
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "quiz_id", nullable = false)
+    private Quiz quiz;
+    
+    @Column(name = "version_number", nullable = false)
+    private Integer versionNumber;
+    
+    @Column(columnDefinition = "TEXT")
+    private String note;
+    
+    // Full snapshot when true, otherwise a merge patch against the previous version
+    @Column(nullable = false)
+    private Boolean checkpoint = false;
+    
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb", nullable = false)
+    private Map<String, Object> data;
+}
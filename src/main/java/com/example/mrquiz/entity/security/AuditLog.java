@@ -17,7 +17,8 @@ import java.util.UUID;
 @EqualsAndHashCode(callSuper = true)
 @Entity
 @Table(name = "audit_logs", indexes = {
-    @Index(name = "idx_audit_logs_user_created", columnList = "user_id, created_at"),
+    @Index(name = "idx_audit_logs_user_created", columnList = "user_id, created_at, id"),
+    @Index(name = "idx_audit_logs_created", columnList = "created_at, id"),
     @Index(name = "idx_audit_logs_entity", columnList = "entity_type, entity_id, created_at")
 })
 public class AuditLog extends BaseEntity {
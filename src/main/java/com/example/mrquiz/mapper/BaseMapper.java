@@ -6,6 +6,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -35,9 +36,27 @@ public abstract class BaseMapper<E, CD, UD, RD> {
         if (createDto == null) {
             return null;
         }
-        E entity = modelMapper.map(createDto, entityClass);
-        afterCreateMapping(createDto, entity);
-        return entity;
+        return toEntities(List.of(createDto)).get(0);
+    }
+
+    /**
+     * Maps a list of CreateDtos to new Entities, loading their references in one batch
+     */
+    public List<E> toEntities(List<CD> createDtos) {
+        if (createDtos == null) {
+            return null;
+        }
+        ReferenceBatch references = new ReferenceBatch();
+        createDtos.forEach(createDto -> collectCreateReferences(createDto, references));
+        references.resolve();
+
+        List<E> entities = new ArrayList<>(createDtos.size());
+        for (CD createDto : createDtos) {
+            E entity = modelMapper.map(createDto, entityClass);
+            afterCreateMapping(createDto, entity, references);
+            entities.add(entity);
+        }
+        return entities;
     }
 
     /**
@@ -47,8 +66,24 @@ public abstract class BaseMapper<E, CD, UD, RD> {
         if (updateDto == null || entity == null) {
             return;
         }
-        modelMapper.map(updateDto, entity);
-        afterUpdateMapping(updateDto, entity);
+        updateEntities(List.of(updateDto), List.of(entity));
+    }
+
+    /**
+     * Maps each UpdateDto onto the Entity at the same position, loading their references in one batch
+     */
+    public void updateEntities(List<UD> updateDtos, List<E> entities) {
+        if (updateDtos.size() != entities.size()) {
+            throw new IllegalArgumentException("Expected one entity per update");
+        }
+        ReferenceBatch references = new ReferenceBatch();
+        updateDtos.forEach(updateDto -> collectUpdateReferences(updateDto, references));
+        references.resolve();
+
+        for (int i = 0; i < updateDtos.size(); i++) {
+            modelMapper.map(updateDtos.get(i), entities.get(i));
+            afterUpdateMapping(updateDtos.get(i), entities.get(i), references);
+        }
     }
 
     /**
@@ -94,6 +129,22 @@ public abstract class BaseMapper<E, CD, UD, RD> {
         // Default implementation does nothing
     }
 
+    /**
+     * Hook method called before mapping a batch of CreateDtos
+     * Override to request the entities the DTO refers to
+     */
+    protected void collectCreateReferences(CD createDto, ReferenceBatch references) {
+        // Default implementation does nothing
+    }
+
+    /**
+     * Hook method called after mapping CreateDto to Entity, with the batch's references loaded
+     * Defaults to the single-entity hook
+     */
+    protected void afterCreateMapping(CD createDto, E entity, ReferenceBatch references) {
+        afterCreateMapping(createDto, entity);
+    }
+
     /**
      * Hook method called after mapping UpdateDto to Entity
      * Override in subclasses for custom post-mapping logic
@@ -102,6 +153,22 @@ public abstract class BaseMapper<E, CD, UD, RD> {
         // Default implementation does nothing
     }
 
+    /**
+     * Hook method called before mapping a batch of UpdateDtos
+     * Override to request the entities the DTO refers to
+     */
+    protected void collectUpdateReferences(UD updateDto, ReferenceBatch references) {
+        // Default implementation does nothing
+    }
+
+    /**
+     * Hook method called after mapping UpdateDto to Entity, with the batch's references loaded
+     * Defaults to the single-entity hook
+     */
+    protected void afterUpdateMapping(UD updateDto, E entity, ReferenceBatch references) {
+        afterUpdateMapping(updateDto, entity);
+    }
+
     /**
      * Hook method called after mapping Entity to ResponseDto
      * Override in subclasses for custom post-mapping logic
@@ -0,0 +1,87 @@
+package com.example.mrquiz.mapper;
+
+import com.example.mrquiz.entity.BaseEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Entity references of a batch of DTOs, loaded with one findAllById per repository.
+ *
+ * Mappers first request every id their DTOs refer to, then read the loaded entities back
+ * while mapping. Ids that do not exist resolve to nothing, as a single findById would.
+ */
+public class ReferenceBatch {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final Map<JpaRepository<?, UUID>, Set<UUID>> requested = new LinkedHashMap<>();
+    private final Map<JpaRepository<?, UUID>, Map<UUID, Object>> resolved = new HashMap<>();
+
+    // ============================================================================
+    // COLLECTING
+    // ============================================================================
+
+    public void request(JpaRepository<? extends BaseEntity, UUID> repository, UUID id) {
+        if (id != null) {
+            requested.computeIfAbsent(repository, key -> new LinkedHashSet<>()).add(id);
+        }
+    }
+
+    public void requestAll(JpaRepository<? extends BaseEntity, UUID> repository, Collection<UUID> ids) {
+        if (ids != null) {
+            ids.forEach(id -> request(repository, id));
+        }
+    }
+
+    /**
+     * Load everything requested so far; ids already loaded are not fetched again
+     */
+    void resolve() {
+        for (Map.Entry<JpaRepository<?, UUID>, Set<UUID>> entry : requested.entrySet()) {
+            Map<UUID, Object> entities = resolved.computeIfAbsent(entry.getKey(), key -> new HashMap<>());
+            List<UUID> missing = entry.getValue().stream()
+                    .filter(id -> !entities.containsKey(id))
+                    .toList();
+            for (int from = 0; from < missing.size(); from += CHUNK_SIZE) {
+                List<UUID> chunk = missing.subList(from, Math.min(from + CHUNK_SIZE, missing.size()));
+                for (Object entity : entry.getKey().findAllById(chunk)) {
+                    entities.put(((BaseEntity) entity).getId(), entity);
+                }
+            }
+        }
+        requested.clear();
+    }
+
+    // ============================================================================
+    // LOOKUP
+    // ============================================================================
+
+    @SuppressWarnings("unchecked")
+    public <T extends BaseEntity> Optional<T> find(JpaRepository<T, UUID> repository, UUID id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable((T) resolved.getOrDefault(repository, Map.of()).get(id));
+    }
+
+    /**
+     * The entities of the given ids that exist, in the order of the ids
+     */
+    public <T extends BaseEntity> List<T> findAll(JpaRepository<T, UUID> repository, Collection<UUID> ids) {
+        List<T> entities = new ArrayList<>();
+        if (ids != null) {
+            ids.forEach(id -> find(repository, id).ifPresent(entities::add));
+        }
+        return entities;
+    }
+}
@@ -7,15 +7,15 @@ import com.example.mrquiz.entity.auth.User;
 import com.example.mrquiz.entity.file.File;
 import com.example.mrquiz.mapper.BaseMapper;
 import com.example.mrquiz.repository.file.FileRepository;
+import com.example.mrquiz.service.auth.PasswordHashingService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 @Component
 public class UserMapper extends BaseMapper<User, UserCreateDto, UserUpdateDto, UserResponseDto> {
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
     @Autowired
     private FileRepository fileRepository;
@@ -28,9 +28,26 @@ public class UserMapper extends BaseMapper<User, UserCreateDto, UserUpdateDto, U
     protected void afterCreateMapping(UserCreateDto createDto, User entity) {
         // Hash password
         if (createDto.getPassword() != null) {
-            entity.setPasswordHash(passwordEncoder.encode(createDto.getPassword()));
+            entity.setPasswordHash(passwordHashingService.encode(createDto.getPassword()));
         }
 
+        applyCreateDefaults(createDto, entity);
+    }
+
+    /**
+     * Maps CreateDto to Entity using a password hash computed by the caller
+     */
+    public User toEntity(UserCreateDto createDto, String passwordHash) {
+        if (createDto == null) {
+            return null;
+        }
+        User entity = modelMapper.map(createDto, entityClass);
+        entity.setPasswordHash(passwordHash);
+        applyCreateDefaults(createDto, entity);
+        return entity;
+    }
+
+    private void applyCreateDefaults(UserCreateDto createDto, User entity) {
         // Set profile image if provided
         if (createDto.getProfileImageId() != null) {
             fileRepository.findById(createDto.getProfileImageId())
@@ -70,7 +87,7 @@ public class UserMapper extends BaseMapper<User, UserCreateDto, UserUpdateDto, U
      */
     public void updatePassword(User user, String newPassword) {
         if (newPassword != null && !newPassword.trim().isEmpty()) {
-            user.setPasswordHash(passwordEncoder.encode(newPassword));
+            user.setPasswordHash(passwordHashingService.encode(newPassword));
         }
     }
 
@@ -97,6 +114,6 @@ public class UserMapper extends BaseMapper<User, UserCreateDto, UserUpdateDto, U
      * Verify password against hash
      */
     public boolean verifyPassword(String plainPassword, String hashedPassword) {
-        return passwordEncoder.matches(plainPassword, hashedPassword);
+        return passwordHashingService.matches(plainPassword, hashedPassword);
     }
 }
\ No newline at end of file
@@ -3,8 +3,10 @@ package com.example.mrquiz.mapper.quiz;
 import com.example.mrquiz.dto.quiz.QuestionCreateDto;
 import com.example.mrquiz.dto.quiz.QuestionResponseDto;
 import com.example.mrquiz.dto.quiz.QuestionUpdateDto;
+import com.example.mrquiz.entity.file.File;
 import com.example.mrquiz.entity.quiz.Question;
 import com.example.mrquiz.mapper.BaseMapper;
+import com.example.mrquiz.mapper.ReferenceBatch;
 import com.example.mrquiz.repository.auth.UserRepository;
 import com.example.mrquiz.repository.core.CourseRepository;
 import com.example.mrquiz.repository.core.InstitutionRepository;
@@ -14,6 +16,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Component
@@ -39,38 +42,35 @@ public class QuestionMapper extends BaseMapper<Question, QuestionCreateDto, Ques
     }
 
     @Override
-    protected void afterCreateMapping(QuestionCreateDto createDto, Question entity) {
+    protected void collectCreateReferences(QuestionCreateDto createDto, ReferenceBatch references) {
+        references.request(userRepository, createDto.getCreatorId());
+        references.request(courseRepository, createDto.getCourseId());
+        references.request(institutionRepository, createDto.getInstitutionId());
+        references.request(questionRepository, createDto.getParentQuestionId());
+        references.requestAll(fileRepository, createDto.getQuestionFiles());
+    }
+
+    @Override
+    protected void afterCreateMapping(QuestionCreateDto createDto, Question entity, ReferenceBatch references) {
         // Set creator
-        if (createDto.getCreatorId() != null) {
-            userRepository.findById(createDto.getCreatorId())
-                    .ifPresent(entity::setCreator);
-        }
+        references.find(userRepository, createDto.getCreatorId())
+                .ifPresent(entity::setCreator);
 
         // Set course if provided
-        if (createDto.getCourseId() != null) {
-            courseRepository.findById(createDto.getCourseId())
-                    .ifPresent(entity::setCourse);
-        }
+        references.find(courseRepository, createDto.getCourseId())
+                .ifPresent(entity::setCourse);
 
         // Set institution if provided
-        if (createDto.getInstitutionId() != null) {
-            institutionRepository.findById(createDto.getInstitutionId())
-                    .ifPresent(entity::setInstitution);
-        }
+        references.find(institutionRepository, createDto.getInstitutionId())
+                .ifPresent(entity::setInstitution);
 
         // Set parent question if provided
-        if (createDto.getParentQuestionId() != null) {
-            questionRepository.findById(createDto.getParentQuestionId())
-                    .ifPresent(entity::setParentQuestion);
-        }
+        references.find(questionRepository, createDto.getParentQuestionId())
+                .ifPresent(entity::setParentQuestion);
 
-        // Set question files if provided
+        // Set question files if provided, keeping only files that exist
         if (createDto.getQuestionFiles() != null && !createDto.getQuestionFiles().isEmpty()) {
-            List<com.example.mrquiz.entity.file.File> files = createDto.getQuestionFiles().stream()
-                    .map(fileId -> fileRepository.findById(fileId).orElse(null))
-                    .filter(file -> file != null)
-                    .collect(Collectors.toList());
-            entity.setQuestionFiles(files.stream().map(file -> file.getId()).toArray(java.util.UUID[]::new));
+            entity.setQuestionFiles(existingFileIds(createDto.getQuestionFiles(), references));
         }
 
         // Set default values
@@ -89,48 +89,36 @@ public class QuestionMapper extends BaseMapper<Question, QuestionCreateDto, Ques
     }
 
     @Override
-    protected void afterUpdateMapping(QuestionUpdateDto updateDto, Question entity) {
+    protected void collectUpdateReferences(QuestionUpdateDto updateDto, ReferenceBatch references) {
+        references.request(courseRepository, updateDto.getCourseId());
+        references.request(institutionRepository, updateDto.getInstitutionId());
+        references.request(questionRepository, updateDto.getParentQuestionId());
+        references.requestAll(fileRepository, updateDto.getQuestionFiles());
+    }
+
+    @Override
+    protected void afterUpdateMapping(QuestionUpdateDto updateDto, Question entity, ReferenceBatch references) {
         // Update course if provided
         if (shouldUpdate(updateDto.getCourseId())) {
-            if (updateDto.getCourseId() != null) {
-                courseRepository.findById(updateDto.getCourseId())
-                        .ifPresent(entity::setCourse);
-            } else {
-                entity.setCourse(null);
-            }
+            references.find(courseRepository, updateDto.getCourseId())
+                    .ifPresent(entity::setCourse);
         }
 
         // Update institution if provided
         if (shouldUpdate(updateDto.getInstitutionId())) {
-            if (updateDto.getInstitutionId() != null) {
-                institutionRepository.findById(updateDto.getInstitutionId())
-                        .ifPresent(entity::setInstitution);
-            } else {
-                entity.setInstitution(null);
-            }
+            references.find(institutionRepository, updateDto.getInstitutionId())
+                    .ifPresent(entity::setInstitution);
         }
 
         // Update parent question if provided
         if (shouldUpdate(updateDto.getParentQuestionId())) {
-            if (updateDto.getParentQuestionId() != null) {
-                questionRepository.findById(updateDto.getParentQuestionId())
-                        .ifPresent(entity::setParentQuestion);
-            } else {
-                entity.setParentQuestion(null);
-            }
+            references.find(questionRepository, updateDto.getParentQuestionId())
+                    .ifPresent(entity::setParentQuestion);
         }
 
         // Update question files if provided
         if (shouldUpdate(updateDto.getQuestionFiles())) {
-            if (updateDto.getQuestionFiles() != null && !updateDto.getQuestionFiles().isEmpty()) {
-                List<com.example.mrquiz.entity.file.File> files = updateDto.getQuestionFiles().stream()
-                        .map(fileId -> fileRepository.findById(fileId).orElse(null))
-                        .filter(file -> file != null)
-                        .collect(Collectors.toList());
-                entity.setQuestionFiles(files.stream().map(file -> file.getId()).toArray(java.util.UUID[]::new));
-            } else {
-                entity.setQuestionFiles(new java.util.UUID[0]);
-            }
+            entity.setQuestionFiles(existingFileIds(updateDto.getQuestionFiles(), references));
         }
     }
 
@@ -138,10 +126,19 @@ public class QuestionMapper extends BaseMapper<Question, QuestionCreateDto, Ques
     protected void afterResponseMapping(Question entity, QuestionResponseDto responseDto) {
         // Convert UUID array back to List for response
         if (entity.getQuestionFiles() != null) {
-            responseDto.setQuestionFiles(List.of(entity.getQuestionFiles()));
+            responseDto.setQuestionFiles(List.copyOf(entity.getQuestionFiles()));
         }
     }
 
+    /**
+     * Ids of the referenced files that exist, in the given order
+     */
+    private List<UUID> existingFileIds(List<UUID> fileIds, ReferenceBatch references) {
+        return references.findAll(fileRepository, fileIds).stream()
+                .map(File::getId)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Create a summary response DTO for question bank listing
      */
@@ -1,11 +1,57 @@
 package com.example.mrquiz.repository;
 
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.repository.NoRepositoryBean;
 
+import java.util.List;
 import java.util.UUID;
 
 @NoRepositoryBean
 public interface BaseRepository<T> extends JpaRepository<T, UUID>, JpaSpecificationExecutor<T> {
-}
\ No newline at end of file
+    
+    String KEYSET_ID_PROPERTY = "id";
+    
+    /**
+     * Find the page after the cursor ordered by sortProperty then id, without a count query.
+     * The sort property must be non-null; pass a null cursor for the first page.
+     *
+     * Spring Data expresses the seek as {@code key < ? OR (key = ? AND id < ?)}, which Postgres
+     * only applies as a filter, so deep pages would still scan every row before the cursor.
+     * The redundant {@code key <= ?} bound lets the index range scan start at the cursor.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    default KeysetSlice<T> findSlice(Specification<T> spec, String sortProperty, Sort.Direction direction,
+                                     String cursor, int size) {
+        List<String> keys = List.of(sortProperty, KEYSET_ID_PROPERTY);
+        Sort sort = Sort.by(direction, sortProperty).and(Sort.by(direction, KEYSET_ID_PROPERTY));
+        ScrollPosition position = KeysetCursor.decode(cursor, keys);
+        
+        Specification<T> bounded = spec;
+        if (position instanceof KeysetScrollPosition keyset
+                && keyset.getKeys().get(sortProperty) instanceof Comparable last) {
+            Specification<T> bound = (root, query, cb) -> direction.isDescending()
+                    ? cb.lessThanOrEqualTo(root.get(sortProperty), last)
+                    : cb.greaterThanOrEqualTo(root.get(sortProperty), last);
+            bounded = spec.and(bound);
+        }
+        
+        Window<T> window = findBy(bounded, query -> query.sortBy(sort).limit(size).scroll(position));
+        String nextCursor = window.hasNext() && !window.isEmpty()
+                ? KeysetCursor.encode(window.positionAt(window.size() - 1), keys)
+                : null;
+        return new KeysetSlice<>(window.getContent(), nextCursor);
+    }
+    
+    /**
+     * Find the page after the cursor, newest first
+     */
+    default KeysetSlice<T> findSlice(Specification<T> spec, String cursor, int size) {
+        return findSlice(spec, "createdAt", Sort.Direction.DESC, cursor, size);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.mrquiz.repository;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Encodes the last {@code (sort key, id)} of a keyset page as an opaque URL-safe cursor.
+ *
+ * Only the values are encoded, each tagged with its type; property names come from the
+ * caller on decode, so a cursor cannot steer the query to other columns.
+ */
+public final class KeysetCursor {
+
+    private static final char SEPARATOR = '\n';
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(ScrollPosition position, List<String> properties) {
+        if (!(position instanceof KeysetScrollPosition keyset)) {
+            throw new IllegalArgumentException("Not a keyset position");
+        }
+        StringBuilder encoded = new StringBuilder();
+        for (String property : properties) {
+            if (!encoded.isEmpty()) {
+                encoded.append(SEPARATOR);
+            }
+            encoded.append(encodeValue(keyset.getKeys().get(property)));
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(encoded.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Position after the cursor, or the first page for a null or blank cursor
+     */
+    public static ScrollPosition decode(String cursor, List<String> properties) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+
+        List<String> values = split(decoded);
+        if (values.size() != properties.size()) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (int i = 0; i < properties.size(); i++) {
+            keys.put(properties.get(i), decodeValue(values.get(i)));
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private static String encodeValue(Object value) {
+        if (value instanceof LocalDateTime dateTime) {
+            return "T" + dateTime;
+        }
+        if (value instanceof UUID uuid) {
+            return "U" + uuid;
+        }
+        if (value instanceof Long) {
+            return "L" + value;
+        }
+        if (value instanceof Integer) {
+            return "I" + value;
+        }
+        if (value instanceof BigDecimal decimal) {
+            return "D" + decimal.toPlainString();
+        }
+        if (value instanceof String string && string.indexOf(SEPARATOR) < 0) {
+            return "S" + string;
+        }
+        // Nulls cannot be sought past; keyset listings sort on non-null columns
+        throw new IllegalArgumentException("Unsupported keyset value: " + value);
+    }
+
+    private static Object decodeValue(String value) {
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        String body = value.substring(1);
+        try {
+            return switch (value.charAt(0)) {
+                case 'T' -> LocalDateTime.parse(body);
+                case 'U' -> UUID.fromString(body);
+                case 'L' -> Long.parseLong(body);
+                case 'I' -> Integer.parseInt(body);
+                case 'D' -> new BigDecimal(body);
+                case 'S' -> body;
+                default -> throw new IllegalArgumentException("Invalid cursor");
+            };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    private static List<String> split(String decoded) {
+        List<String> values = new ArrayList<>();
+        int start = 0;
+        int end;
+        while ((end = decoded.indexOf(SEPARATOR, start)) >= 0) {
+            values.add(decoded.substring(start, end));
+            start = end + 1;
+        }
+        values.add(decoded.substring(start));
+        return values;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.mrquiz.repository;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset listing: its rows and the opaque cursor of the next page, if any
+ */
+public record KeysetSlice<T>(List<T> content, String nextCursor) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    public int size() {
+        return content.size();
+    }
+
+    public <R> KeysetSlice<R> map(Function<? super T, ? extends R> mapper) {
+        return new KeysetSlice<>(content.stream().<R>map(mapper).toList(), nextCursor);
+    }
+}
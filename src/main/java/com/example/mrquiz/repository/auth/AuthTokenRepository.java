@@ -42,6 +42,27 @@ public interface AuthTokenRepository extends BaseRepository<AuthToken> {
                                                 @Param("tokenType") TokenType tokenType,
                                                 @Param("now") LocalDateTime now);
     
+    /**
+     * Find valid tokens of a type that still carry a BCrypt hash (issued before selector/verifier tokens)
+     */
+    @Query("SELECT t FROM AuthToken t WHERE t.tokenType = :tokenType AND t.tokenHash LIKE '$2%' " +
+           "AND t.expiresAt > :now AND t.usedAt IS NULL")
+    List<AuthToken> findValidLegacyTokensByType(@Param("tokenType") TokenType tokenType,
+                                               @Param("now") LocalDateTime now);
+    
+    /**
+     * Count tokens that still carry a BCrypt hash
+     */
+    @Query("SELECT COUNT(t) FROM AuthToken t WHERE t.tokenHash LIKE '$2%' " +
+           "AND t.expiresAt > :now AND t.usedAt IS NULL")
+    Long countValidLegacyTokens(@Param("now") LocalDateTime now);
+    
+    /**
+     * Ids of tokens used or revoked after the given time (cross-node cache invalidation)
+     */
+    @Query("SELECT t.id FROM AuthToken t WHERE t.usedAt > :since")
+    List<UUID> findTokenIdsUsedSince(@Param("since") LocalDateTime since);
+    
     // ===== TOKEN LIFECYCLE MANAGEMENT =====
     
     /**
@@ -70,6 +91,13 @@ public interface AuthTokenRepository extends BaseRepository<AuthToken> {
     @Query("UPDATE AuthToken t SET t.usedAt = :usedAt WHERE t.id = :tokenId")
     void markTokenAsUsed(@Param("tokenId") UUID tokenId, @Param("usedAt") LocalDateTime usedAt);
     
+    /**
+     * Replace a token's stored hash (legacy token migration)
+     */
+    @Modifying
+    @Query("UPDATE AuthToken t SET t.tokenHash = :tokenHash WHERE t.id = :tokenId")
+    void updateTokenHash(@Param("tokenId") UUID tokenId, @Param("tokenHash") String tokenHash);
+    
     /**
      * Delete expired tokens
      */
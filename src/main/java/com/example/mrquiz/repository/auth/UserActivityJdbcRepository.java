@@ -0,0 +1,73 @@
+package com.example.mrquiz.repository.auth;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Batched last-activity writes for users and sessions.
+ *
+ * Each chunk is a single {@code UPDATE ... FROM (VALUES ...)} statement; rows that
+ * already carry a newer timestamp are left untouched.
+ */
+@Repository
+public class UserActivityJdbcRepository {
+
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Update users.last_activity for all given users
+     */
+    public int updateUserLastActivity(Map<UUID, LocalDateTime> lastActivity) {
+        return updateLastActivity("users", lastActivity);
+    }
+
+    /**
+     * Update user_sessions.last_activity for all given sessions
+     */
+    public int updateSessionLastActivity(Map<UUID, LocalDateTime> lastActivity) {
+        return updateLastActivity("user_sessions", lastActivity);
+    }
+
+    private int updateLastActivity(String table, Map<UUID, LocalDateTime> lastActivity) {
+        List<Map.Entry<UUID, LocalDateTime>> rows = new ArrayList<>(lastActivity.entrySet());
+        int updated = 0;
+        for (int from = 0; from < rows.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<Map.Entry<UUID, LocalDateTime>> chunk =
+                    rows.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, rows.size()));
+            updated += jdbcTemplate.update(buildUpdate(table, chunk.size()), toParameters(chunk));
+        }
+        return updated;
+    }
+
+    private String buildUpdate(String table, int rowCount) {
+        StringBuilder sql = new StringBuilder("UPDATE ").append(table)
+                .append(" t SET last_activity = v.last_activity FROM (VALUES ");
+        for (int i = 0; i < rowCount; i++) {
+            sql.append(i == 0 ? "" : ", ").append("(CAST(? AS uuid), CAST(? AS timestamp))");
+        }
+        sql.append(") AS v(id, last_activity) WHERE t.id = v.id ")
+           .append("AND (t.last_activity IS NULL OR t.last_activity < v.last_activity)");
+        return sql.toString();
+    }
+
+    private Object[] toParameters(List<Map.Entry<UUID, LocalDateTime>> rows) {
+        Object[] parameters = new Object[rows.size() * 2];
+        int i = 0;
+        for (Map.Entry<UUID, LocalDateTime> row : rows) {
+            parameters[i++] = row.getKey();
+            parameters[i++] = Timestamp.valueOf(row.getValue());
+        }
+        return parameters;
+    }
+}
@@ -59,6 +59,12 @@ public interface CourseEnrollmentRepository extends BaseRepository<CourseEnrollm
            "ORDER BY ce.enrolledAt DESC")
     List<CourseEnrollment> findActiveEnrollmentsForUser(@Param("userId") UUID userId);
     
+    /**
+     * Find ids of courses a user is actively enrolled in
+     */
+    @Query("SELECT ce.course.id FROM CourseEnrollment ce WHERE ce.user.id = :userId AND ce.status = 'ACTIVE'")
+    List<UUID> findActiveCourseIdsByUserId(@Param("userId") UUID userId);
+    
     /**
      * Find active enrollments for course
      */
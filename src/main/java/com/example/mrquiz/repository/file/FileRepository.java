@@ -4,6 +4,7 @@ import com.example.mrquiz.entity.file.File;
 import com.example.mrquiz.enums.FileStatus;
 import com.example.mrquiz.enums.FileType;
 import com.example.mrquiz.repository.BaseRepository;
+import com.example.mrquiz.repository.KeysetSlice;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Modifying;
@@ -29,6 +30,13 @@ public interface FileRepository extends BaseRepository<File> {
      */
     Page<File> findByUploadedById(UUID uploadedById, Pageable pageable);
     
+    /**
+     * Find files by uploader, newest first, with keyset pagination
+     */
+    default KeysetSlice<File> findByUploadedById(UUID uploadedById, String cursor, int size) {
+        return findSlice((root, query, cb) -> cb.equal(root.get("uploadedBy").get("id"), uploadedById), cursor, size);
+    }
+    
     /**
      * Find files by type
      */
@@ -0,0 +1,123 @@
+package com.example.mrquiz.repository.quiz;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Reads and write-behind updates of the navigation state of in-progress attempts.
+ *
+ * The current question index and shuffle seed live in the attempt's metadata under
+ * {@code currentQuestionIndex} and {@code shuffleSeed}; which questions are answered is
+ * derived from question_responses. Deadlines follow {@link AttemptDeadlineJdbcRepository}.
+ */
+@Repository
+public class ActiveAttemptJdbcRepository {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String SELECT_ATTEMPT =
+            "SELECT a.id, a.quiz_id, a.status, a.time_spent, a.metadata ->> 'currentQuestionIndex', " +
+            "a.metadata ->> 'shuffleSeed', " + AttemptDeadlineJdbcRepository.DEADLINE + " " +
+            "FROM quiz_attempts a JOIN quizzes q ON q.id = a.quiz_id ";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // ============================================================================
+    // READS
+    // ============================================================================
+
+    public Optional<AttemptRow> findAttempt(UUID attemptId) {
+        List<AttemptRow> rows = jdbcTemplate.query(SELECT_ATTEMPT + "WHERE a.id = ?",
+                                                   (rs, rowNum) -> attemptRow(rs), attemptId);
+        return rows.stream().findFirst();
+    }
+
+    /**
+     * Current status and deadline of the given attempts; attempts that no longer exist are left out
+     */
+    public List<AttemptRow> findAttempts(Collection<UUID> attemptIds) {
+        List<UUID> ids = new ArrayList<>(attemptIds);
+        List<AttemptRow> rows = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            String[] batch = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size())).stream()
+                    .map(UUID::toString).toArray(String[]::new);
+            rows.addAll(jdbcTemplate.query(SELECT_ATTEMPT + "WHERE a.id = ANY(CAST(? AS uuid[]))",
+                                           (rs, rowNum) -> attemptRow(rs), (Object) batch));
+        }
+        return rows;
+    }
+
+    public List<UUID> findAnsweredQuestionIds(UUID attemptId) {
+        return jdbcTemplate.query(
+                "SELECT question_id FROM question_responses WHERE attempt_id = ?",
+                (rs, rowNum) -> rs.getObject(1, UUID.class),
+                attemptId);
+    }
+
+    // ============================================================================
+    // WRITES
+    // ============================================================================
+
+    /**
+     * Write progress of attempts that are still in progress; time spent never goes backwards.
+     * Returns the attempts that were not written because they are no longer in progress.
+     */
+    public List<UUID> updateProgress(List<Progress> progress, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        List<UUID> ended = new ArrayList<>();
+        for (int from = 0; from < progress.size(); from += BATCH_SIZE) {
+            List<Progress> rows = progress.subList(from, Math.min(from + BATCH_SIZE, progress.size()));
+            List<Object[]> batch = new ArrayList<>();
+            for (Progress row : rows) {
+                batch.add(new Object[]{row.timeSpent(), row.currentQuestionIndex(), String.valueOf(row.shuffleSeed()),
+                                       timestamp, row.attemptId()});
+            }
+            int[] counts = jdbcTemplate.batchUpdate(
+                    "UPDATE quiz_attempts SET time_spent = GREATEST(COALESCE(time_spent, 0), ?), " +
+                    "metadata = COALESCE(metadata, '{}'::jsonb) || jsonb_build_object(" +
+                    "'currentQuestionIndex', CAST(? AS integer), 'shuffleSeed', CAST(? AS text)), updated_at = ? " +
+                    "WHERE id = ? AND status = 'IN_PROGRESS'", batch);
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    ended.add(rows.get(i).attemptId());
+                }
+            }
+        }
+        return ended;
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private static AttemptRow attemptRow(ResultSet rs) throws SQLException {
+        Timestamp deadline = rs.getTimestamp(7);
+        return new AttemptRow(
+                rs.getObject(1, UUID.class),
+                rs.getObject(2, UUID.class),
+                rs.getString(3),
+                rs.getInt(4),
+                rs.getString(5) != null ? Integer.valueOf(rs.getString(5)) : null,
+                rs.getString(6) != null ? Long.valueOf(rs.getString(6)) : null,
+                deadline != null ? deadline.toLocalDateTime() : null);
+    }
+
+    public record AttemptRow(UUID attemptId, UUID quizId, String status, int timeSpent,
+                             Integer currentQuestionIndex, Long shuffleSeed, LocalDateTime deadline) {
+    }
+
+    public record Progress(UUID attemptId, int timeSpent, int currentQuestionIndex, long shuffleSeed) {
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.mrquiz.repository.quiz;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Deadlines of in-progress attempts and the set-based updates that end them.
+ *
+ * An attempt's deadline is its start plus its own time limit, else the quiz's time limit,
+ * else the quiz's time per question times its number of questions; attempts with none of
+ * these have no deadline.
+ */
+@Repository
+public class AttemptDeadlineJdbcRepository {
+
+    // Shared with ActiveAttemptJdbcRepository; expects the attempt aliased a and its quiz q
+    static final String DEADLINE =
+            "a.started_at + make_interval(secs => CAST(COALESCE(a.time_limit * 60, q.time_limit * 60, " +
+            "q.time_per_question * (SELECT COUNT(*) FROM quiz_questions qq WHERE qq.quiz_id = q.id)) " +
+            "AS double precision))";
+
+    private static final String SELECT_DEADLINES =
+            "SELECT id, deadline FROM (SELECT a.id, " + DEADLINE + " AS deadline " +
+            "FROM quiz_attempts a JOIN quizzes q ON q.id = a.quiz_id WHERE a.status = 'IN_PROGRESS' AND ";
+
+    // Re-checks status and deadline, so attempts submitted or given more time since they were
+    // armed are left alone; time spent is capped at the deadline
+    private static final String EXPIRE_SQL =
+            "UPDATE quiz_attempts a SET status = ?, submitted_at = COALESCE(a.submitted_at, ?), " +
+            "time_spent = GREATEST(COALESCE(a.time_spent, 0), " +
+            "CAST(EXTRACT(EPOCH FROM (LEAST(?, " + DEADLINE + ") - a.started_at)) AS integer)), updated_at = ? " +
+            "FROM quizzes q WHERE q.id = a.quiz_id AND a.id = ANY(CAST(? AS uuid[])) " +
+            "AND a.status = 'IN_PROGRESS' AND " + DEADLINE + " <= ? RETURNING a.id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Whether the partial index behind the deadline queries exists and is usable
+     */
+    public boolean isInProgressIndexValid() {
+        Boolean valid = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid " +
+                "WHERE c.relname = 'idx_quiz_attempts_in_progress' AND i.indisvalid)", Boolean.class);
+        return Boolean.TRUE.equals(valid);
+    }
+
+    /**
+     * Partial index behind the deadline queries; in-progress attempts are a small share of all
+     * attempts. Replaces an INVALID leftover of an interrupted build; must run outside a transaction
+     */
+    public void createInProgressIndex() {
+        jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS idx_quiz_attempts_in_progress");
+        jdbcTemplate.execute("CREATE INDEX CONCURRENTLY idx_quiz_attempts_in_progress " +
+                             "ON quiz_attempts (started_at) WHERE status = 'IN_PROGRESS'");
+    }
+
+    /**
+     * Deadlines of in-progress attempts started at or after the given time
+     */
+    public List<Deadline> findDeadlines(LocalDateTime startedSince) {
+        return jdbcTemplate.query(
+                SELECT_DEADLINES + "a.started_at >= ?) d WHERE deadline IS NOT NULL",
+                (rs, rowNum) -> new Deadline(rs.getObject(1, UUID.class), rs.getTimestamp(2).toLocalDateTime()),
+                Timestamp.valueOf(startedSince));
+    }
+
+    /**
+     * Deadlines of those of the given attempts that are still in progress
+     */
+    public List<Deadline> findDeadlines(Collection<UUID> attemptIds) {
+        if (attemptIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+                SELECT_DEADLINES + "a.id = ANY(CAST(? AS uuid[]))) d WHERE deadline IS NOT NULL",
+                (rs, rowNum) -> new Deadline(rs.getObject(1, UUID.class), rs.getTimestamp(2).toLocalDateTime()),
+                (Object) attemptIds.stream().map(UUID::toString).toArray(String[]::new));
+    }
+
+    /**
+     * Move the given in-progress attempts whose deadline is at or before {@code dueBy} to the
+     * given status; returns the ids that changed
+     */
+    public List<UUID> expireAttempts(Collection<UUID> attemptIds, String status, LocalDateTime dueBy,
+                                     LocalDateTime now) {
+        if (attemptIds.isEmpty()) {
+            return List.of();
+        }
+        Timestamp timestamp = Timestamp.valueOf(now);
+        return jdbcTemplate.query(EXPIRE_SQL,
+                (rs, rowNum) -> rs.getObject(1, UUID.class),
+                status, timestamp, timestamp, timestamp,
+                attemptIds.stream().map(UUID::toString).toArray(String[]::new), Timestamp.valueOf(dueBy));
+    }
+
+    public record Deadline(UUID attemptId, LocalDateTime deadline) {
+    }
+}
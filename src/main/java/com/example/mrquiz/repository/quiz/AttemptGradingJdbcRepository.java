@@ -0,0 +1,179 @@
+package com.example.mrquiz.repository.quiz;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Set-based reads and writes for grading submitted attempts in bulk.
+ *
+ * Attempt grades are only written while the attempt is still SUBMITTED, so the status is
+ * the checkpoint: an attempt graded before a crash is not graded again, and one whose
+ * responses were written but not its grade is simply graded once more with the same result.
+ * Attempts waiting for a teacher carry {@code grading_deferred_at} and are no longer paged.
+ */
+@Repository
+public class AttemptGradingJdbcRepository {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final TypeReference<Map<String, Object>> JSON_MAP = new TypeReference<>() {
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // ============================================================================
+    // READS
+    // ============================================================================
+
+    /**
+     * Submitted attempts of automatically graded quizzes with ids after the given one, in id order,
+     * leaving out attempts already deferred to a teacher
+     */
+    public List<SubmittedAttempt> findSubmittedAttempts(UUID afterId, int limit) {
+        return jdbcTemplate.query(
+                "SELECT a.id, a.quiz_id FROM quiz_attempts a JOIN quizzes q ON q.id = a.quiz_id " +
+                "WHERE a.status = 'SUBMITTED' AND a.grading_deferred_at IS NULL " +
+                "AND COALESCE(q.grading_method, 'automatic') = 'automatic' AND a.id > ? ORDER BY a.id LIMIT ?",
+                (rs, rowNum) -> new SubmittedAttempt(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class)),
+                afterId, limit);
+    }
+
+    /**
+     * Responses of the given attempts
+     */
+    public List<Response> findResponses(Collection<UUID> attemptIds) {
+        if (attemptIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+                "SELECT id, attempt_id, question_id, CAST(answer_data AS text) FROM question_responses " +
+                "WHERE attempt_id = ANY(CAST(? AS uuid[]))",
+                (rs, rowNum) -> new Response(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class),
+                                             rs.getObject(3, UUID.class), readMap(rs.getString(4))),
+                (Object) attemptIds.stream().map(UUID::toString).toArray(String[]::new));
+    }
+
+    /**
+     * Sum of the stored response points of each of the given attempts; attempts without graded
+     * responses are left out
+     */
+    public Map<UUID, BigDecimal> findScores(Collection<UUID> attemptIds) {
+        Map<UUID, BigDecimal> scores = new HashMap<>();
+        if (attemptIds.isEmpty()) {
+            return scores;
+        }
+        jdbcTemplate.query(
+                "SELECT attempt_id, SUM(points_earned) FROM question_responses " +
+                "WHERE attempt_id = ANY(CAST(? AS uuid[])) AND points_earned IS NOT NULL GROUP BY attempt_id",
+                rs -> {
+                    scores.put(rs.getObject(1, UUID.class), rs.getBigDecimal(2));
+                },
+                (Object) attemptIds.stream().map(UUID::toString).toArray(String[]::new));
+        return scores;
+    }
+
+    // ============================================================================
+    // WRITES
+    // ============================================================================
+
+    /**
+     * Write grades of responses nobody has graded yet, so a teacher's grade is never overwritten
+     */
+    public void updateResponseGrades(List<ResponseGrade> grades, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        for (int from = 0; from < grades.size(); from += BATCH_SIZE) {
+            List<Object[]> batch = new ArrayList<>();
+            for (ResponseGrade grade : grades.subList(from, Math.min(from + BATCH_SIZE, grades.size()))) {
+                batch.add(new Object[]{grade.pointsEarned(), grade.maxPoints(), grade.correct(),
+                                       grade.partialCredit(), timestamp, grade.responseId()});
+            }
+            jdbcTemplate.batchUpdate(
+                    "UPDATE question_responses SET points_earned = ?, max_points = ?, is_correct = ?, " +
+                    "partial_credit = ?, updated_at = ? WHERE id = ? AND is_correct IS NULL", batch);
+        }
+    }
+
+    /**
+     * Grade attempts that are still submitted; returns, per grade, whether it was written
+     */
+    public boolean[] updateAttemptGrades(List<AttemptGrade> grades, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        boolean[] written = new boolean[grades.size()];
+        for (int from = 0; from < grades.size(); from += BATCH_SIZE) {
+            List<Object[]> batch = new ArrayList<>();
+            for (AttemptGrade grade : grades.subList(from, Math.min(from + BATCH_SIZE, grades.size()))) {
+                batch.add(new Object[]{grade.score(), grade.totalPoints(), grade.percentage(), grade.grade(),
+                                       grade.passed(), timestamp, timestamp, grade.attemptId()});
+            }
+            int[] counts = jdbcTemplate.batchUpdate(
+                    "UPDATE quiz_attempts SET status = 'GRADED', score = ?, total_points = ?, percentage = ?, " +
+                    "grade = ?, passed = ?, graded_at = ?, updated_at = ? WHERE id = ? AND status = 'SUBMITTED'",
+                    batch);
+            for (int i = 0; i < counts.length; i++) {
+                // The driver may report SUCCESS_NO_INFO (-2) for batched statements
+                written[from + i] = counts[i] != 0;
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Take submitted attempts that need a teacher out of bulk grading
+     */
+    public void markDeferred(Collection<UUID> attemptIds, LocalDateTime now) {
+        if (attemptIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(
+                "UPDATE quiz_attempts SET grading_deferred_at = ?, updated_at = ? " +
+                "WHERE id = ANY(CAST(? AS uuid[])) AND status = 'SUBMITTED' AND grading_deferred_at IS NULL",
+                Timestamp.valueOf(now), Timestamp.valueOf(now),
+                (Object) attemptIds.stream().map(UUID::toString).toArray(String[]::new));
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private Map<String, Object> readMap(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, JSON_MAP);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    public record SubmittedAttempt(UUID attemptId, UUID quizId) {
+    }
+
+    public record Response(UUID responseId, UUID attemptId, UUID questionId, Map<String, Object> answerData) {
+    }
+
+    public record ResponseGrade(UUID responseId, BigDecimal pointsEarned, BigDecimal maxPoints, boolean correct,
+                                BigDecimal partialCredit) {
+    }
+
+    public record AttemptGrade(UUID attemptId, UUID quizId, BigDecimal score, BigDecimal totalPoints,
+                               BigDecimal percentage, String grade, Boolean passed) {
+    }
+}
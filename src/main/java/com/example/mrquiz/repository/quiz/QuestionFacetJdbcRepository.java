@@ -0,0 +1,102 @@
+package com.example.mrquiz.repository.quiz;
+
+import com.example.mrquiz.enums.DifficultyLevel;
+import com.example.mrquiz.enums.QuestionStatus;
+import com.example.mrquiz.enums.QuestionType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Streams the facet metadata of questions for the in-memory question bank projection
+ */
+@Repository
+public class QuestionFacetJdbcRepository {
+
+    private static final int FETCH_SIZE = 5000;
+    private static final TypeReference<List<String>> STRING_LIST = new TypeReference<>() {
+    };
+
+    private static final String COLUMNS =
+            "SELECT id, status, question_type, difficulty_level, bloom_taxonomy, CAST(subject_areas AS text), " +
+            "course_id, institution_id, creator_id, COALESCE(is_public, false), created_at, updated_at FROM questions ";
+
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public QuestionFacetJdbcRepository(DataSource dataSource) {
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    /**
+     * Stream every active question
+     */
+    @Transactional(readOnly = true)
+    public void streamActive(Consumer<Row> consumer) {
+        streamingJdbcTemplate.query(COLUMNS + "WHERE status = 'ACTIVE'", rs -> {
+            consumer.accept(mapRow(rs));
+        });
+    }
+
+    /**
+     * Stream questions of any status updated after the given time
+     */
+    @Transactional(readOnly = true)
+    public void streamUpdatedSince(LocalDateTime since, Consumer<Row> consumer) {
+        streamingJdbcTemplate.query(COLUMNS + "WHERE updated_at > ?", rs -> {
+            consumer.accept(mapRow(rs));
+        }, Timestamp.valueOf(since));
+    }
+
+    private Row mapRow(ResultSet rs) throws SQLException {
+        String difficulty = rs.getString(4);
+        return new Row(
+                rs.getObject(1, UUID.class),
+                QuestionStatus.valueOf(rs.getString(2)),
+                QuestionType.valueOf(rs.getString(3)),
+                difficulty != null ? DifficultyLevel.valueOf(difficulty) : null,
+                rs.getString(5),
+                readStrings(rs.getString(6)),
+                rs.getObject(7, UUID.class),
+                rs.getObject(8, UUID.class),
+                rs.getObject(9, UUID.class),
+                rs.getBoolean(10),
+                rs.getTimestamp(11).toLocalDateTime(),
+                rs.getTimestamp(12).toLocalDateTime());
+    }
+
+    private List<String> readStrings(String json) {
+        if (json == null) {
+            return List.of();
+        }
+        try {
+            return objectMapper.readValue(json, STRING_LIST);
+        } catch (JsonProcessingException e) {
+            return List.of();
+        }
+    }
+
+    /**
+     * Facet metadata of one question
+     */
+    public record Row(UUID id, QuestionStatus status, QuestionType questionType, DifficultyLevel difficultyLevel,
+                      String bloomTaxonomy, List<String> subjectAreas, UUID courseId, UUID institutionId,
+                      UUID creatorId, boolean isPublic, LocalDateTime createdAt, LocalDateTime updatedAt) {
+    }
+}
@@ -279,7 +279,8 @@ public interface QuestionRepository extends BaseRepository<Question> {
      * Bulk update question status
      */
     @Modifying
-    @Query("UPDATE Question q SET q.status = :status WHERE q.creator.id = :teacherId AND q.id IN :questionIds")
+    @Query("UPDATE Question q SET q.status = :status, q.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE q.creator.id = :teacherId AND q.id IN :questionIds")
     void bulkUpdateQuestionStatus(@Param("teacherId") UUID teacherId,
                                  @Param("questionIds") List<UUID> questionIds,
                                  @Param("status") QuestionStatus status);
@@ -288,7 +289,7 @@ public interface QuestionRepository extends BaseRepository<Question> {
      * Update question tags
      */
     @Modifying
-    @Query("UPDATE Question q SET q.tags = :tags WHERE q.id = :questionId")
+    @Query("UPDATE Question q SET q.tags = :tags, q.updatedAt = CURRENT_TIMESTAMP WHERE q.id = :questionId")
     void updateQuestionTags(@Param("questionId") UUID questionId, @Param("tags") List<String> tags);
     
     // ===== STATISTICS AND REPORTING =====
@@ -0,0 +1,192 @@
+package com.example.mrquiz.repository.quiz;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * MinHash signatures of questions and their LSH band keys.
+ *
+ * questions.minhash_bands is served by a GIN index, so the questions sharing any band key
+ * with a signature are found with one array-overlap lookup instead of comparing against the
+ * whole bank.
+ */
+@Repository
+public class QuestionSimilarityJdbcRepository {
+
+    private static final int FETCH_SIZE = 5000;
+    private static final int BATCH_SIZE = 1000;
+    private static final TypeReference<Map<String, Object>> JSON_MAP = new TypeReference<>() {
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    public QuestionSimilarityJdbcRepository(DataSource dataSource) {
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    // ============================================================================
+    // SCHEMA
+    // ============================================================================
+
+    public boolean isBandIndexValid() {
+        Boolean valid = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid " +
+                "WHERE c.relname = 'idx_questions_minhash_bands' AND i.indisvalid)", Boolean.class);
+        return Boolean.TRUE.equals(valid);
+    }
+
+    /**
+     * Build the band key index without blocking writes, replacing an INVALID leftover of an
+     * interrupted build; must run outside a transaction
+     */
+    public void createBandIndex() {
+        jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS idx_questions_minhash_bands");
+        jdbcTemplate.execute("CREATE INDEX CONCURRENTLY idx_questions_minhash_bands " +
+                             "ON questions USING gin (minhash_bands)");
+    }
+
+    /**
+     * Up to limit questions saved before signatures existed with an id after the given one, by id
+     */
+    public List<Unsigned> findUnsigned(UUID afterId, int limit) {
+        return jdbcTemplate.query(
+                "SELECT id, question_text, CAST(question_data AS text) FROM questions " +
+                "WHERE minhash_signature IS NULL AND id > ? ORDER BY id LIMIT ?",
+                (rs, rowNum) -> new Unsigned(rs.getObject(1, UUID.class), rs.getString(2), readMap(rs.getString(3))),
+                afterId, limit);
+    }
+
+    public void updateSignatures(List<Signed> signed) {
+        for (int from = 0; from < signed.size(); from += BATCH_SIZE) {
+            List<Object[]> batch = new ArrayList<>();
+            for (Signed question : signed.subList(from, Math.min(from + BATCH_SIZE, signed.size()))) {
+                batch.add(new Object[]{boxed(question.signature()), boxed(question.bands()), question.id()});
+            }
+            jdbcTemplate.batchUpdate(
+                    "UPDATE questions SET minhash_signature = CAST(? AS integer[]), " +
+                    "minhash_bands = CAST(? AS bigint[]) WHERE id = ?", batch);
+        }
+    }
+
+    // ============================================================================
+    // LOOKUP
+    // ============================================================================
+
+    /**
+     * Questions sharing at least one band key, optionally limited to one institution. Those
+     * sharing the most band keys come first, since they are the likeliest to be similar, so
+     * the limit cuts off the weakest candidates
+     */
+    public List<Candidate> findCandidates(long[] bands, UUID excludedId, UUID institutionId, int limit) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, minhash_signature FROM questions WHERE minhash_bands && CAST(? AS bigint[]) ");
+        List<Object> parameters = new ArrayList<>();
+        Long[] bandKeys = boxed(bands);
+        parameters.add(bandKeys);
+        if (excludedId != null) {
+            sql.append("AND id <> ? ");
+            parameters.add(excludedId);
+        }
+        if (institutionId != null) {
+            sql.append("AND institution_id = ? ");
+            parameters.add(institutionId);
+        }
+        sql.append("ORDER BY (SELECT COUNT(*) FROM unnest(minhash_bands) b WHERE b = ANY(CAST(? AS bigint[]))) DESC, " +
+                   "id LIMIT ?");
+        parameters.add(bandKeys);
+        parameters.add(limit);
+        return jdbcTemplate.query(sql.toString(),
+                (rs, rowNum) -> new Candidate(rs.getObject(1, UUID.class), readSignature(rs)),
+                parameters.toArray());
+    }
+
+    /**
+     * Stream the signature of every signed question of an institution
+     */
+    @Transactional(readOnly = true)
+    public void streamSignatures(UUID institutionId, Consumer<Candidate> consumer) {
+        streamingJdbcTemplate.query(
+                "SELECT id, minhash_signature FROM questions " +
+                "WHERE institution_id = ? AND minhash_signature IS NOT NULL", rs -> {
+                    consumer.accept(new Candidate(rs.getObject(1, UUID.class), readSignature(rs)));
+                }, institutionId);
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private int[] readSignature(ResultSet rs) throws SQLException {
+        Array array = rs.getArray(2);
+        if (array == null) {
+            return null;
+        }
+        Integer[] values = (Integer[]) array.getArray();
+        int[] signature = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            signature[i] = values[i];
+        }
+        return signature;
+    }
+
+    private Map<String, Object> readMap(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, JSON_MAP);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static Integer[] boxed(int[] values) {
+        Integer[] boxed = new Integer[values.length];
+        for (int i = 0; i < values.length; i++) {
+            boxed[i] = values[i];
+        }
+        return boxed;
+    }
+
+    private static Long[] boxed(long[] values) {
+        Long[] boxed = new Long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            boxed[i] = values[i];
+        }
+        return boxed;
+    }
+
+    /**
+     * A question still to be signed
+     */
+    public record Unsigned(UUID id, String questionText, Map<String, Object> questionData) {
+    }
+
+    public record Signed(UUID id, int[] signature, long[] bands) {
+    }
+
+    public record Candidate(UUID id, int[] signature) {
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.mrquiz.repository.quiz;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Change checks for the entries of the quiz access index, one statement per batch of cached ids
+ */
+@Repository
+public class QuizAccessJdbcRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Of the given quizzes, those deleted or updated after the given time
+     */
+    public List<UUID> findChangedQuizzes(Collection<UUID> quizIds, LocalDateTime since) {
+        if (quizIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.queryForList(
+                "SELECT ids.id FROM unnest(CAST(? AS uuid[])) AS ids(id) LEFT JOIN quizzes z ON z.id = ids.id " +
+                "WHERE z.id IS NULL OR z.updated_at > ?",
+                UUID.class, toIdArray(quizIds), Timestamp.valueOf(since));
+    }
+
+    /**
+     * Of the given users, those with a collaboration or enrollment updated after the given time,
+     * or whose number of collaborations or active enrollments no longer matches the cached one.
+     * The counts catch rows that were deleted outright, which leave no updated_at behind.
+     */
+    public List<UUID> findChangedUsers(Collection<CachedUser> users, LocalDateTime since) {
+        if (users.isEmpty()) {
+            return List.of();
+        }
+        Timestamp timestamp = Timestamp.valueOf(since);
+        return jdbcTemplate.queryForList(
+                "SELECT u.id FROM unnest(CAST(? AS uuid[]), CAST(? AS int[]), CAST(? AS int[])) " +
+                "AS u(id, collaborations, courses) " +
+                "WHERE EXISTS (SELECT 1 FROM quiz_collaborators c WHERE c.user_id = u.id AND c.updated_at > ?) " +
+                "OR EXISTS (SELECT 1 FROM course_enrollments e WHERE e.user_id = u.id AND e.updated_at > ?) " +
+                "OR (SELECT COUNT(*) FROM quiz_collaborators c WHERE c.user_id = u.id) <> u.collaborations " +
+                "OR (SELECT COUNT(*) FROM course_enrollments e WHERE e.user_id = u.id AND e.status = 'ACTIVE') " +
+                "<> u.courses",
+                UUID.class,
+                users.stream().map(user -> user.userId().toString()).toArray(String[]::new),
+                users.stream().map(user -> String.valueOf(user.collaborations())).toArray(String[]::new),
+                users.stream().map(user -> String.valueOf(user.courses())).toArray(String[]::new),
+                timestamp, timestamp);
+    }
+
+    private String[] toIdArray(Collection<UUID> ids) {
+        return ids.stream().map(UUID::toString).toArray(String[]::new);
+    }
+
+    /**
+     * A cached user with the number of collaborations and active enrollments it was loaded with
+     */
+    public record CachedUser(UUID userId, int collaborations, int courses) {
+    }
+}
@@ -3,8 +3,10 @@ package com.example.mrquiz.repository.quiz;
 import com.example.mrquiz.entity.quiz.QuizAttempt;
 import com.example.mrquiz.enums.AttemptStatus;
 import com.example.mrquiz.repository.BaseRepository;
+import com.example.mrquiz.repository.KeysetSlice;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -24,6 +26,13 @@ public interface QuizAttemptRepository extends BaseRepository<QuizAttempt> {
      */
     Page<QuizAttempt> findByUserId(UUID userId, Pageable pageable);
     
+    /**
+     * Find attempts by user, newest first, with keyset pagination
+     */
+    default KeysetSlice<QuizAttempt> findByUserId(UUID userId, String cursor, int size) {
+        return findSlice((root, query, cb) -> cb.equal(root.get("user").get("id"), userId), cursor, size);
+    }
+    
     /**
      * Find attempts by quiz
      */
@@ -88,9 +97,23 @@ public interface QuizAttemptRepository extends BaseRepository<QuizAttempt> {
      * Find all attempts for teacher's quizzes
      */
     @Query("SELECT qa FROM QuizAttempt qa WHERE qa.quiz.creator.id = :teacherId " +
-           "ORDER BY qa.startedAt DESC")
+           "ORDER BY qa.startedAt DESC, qa.id DESC")
     Page<QuizAttempt> findTeacherQuizAttempts(@Param("teacherId") UUID teacherId, Pageable pageable);
     
+    /**
+     * Find all attempts for teacher's quizzes, latest started first, with keyset pagination.
+     *
+     * The creator lives on quizzes, so no index orders a teacher's attempts. Postgres finds the
+     * quizzes through idx_quizzes_creator_created, range-scans idx_quiz_attempts_quiz_started
+     * below the cursor in each and keeps the page in a top-N sort. A page therefore reads the
+     * teacher's attempts started before the cursor: bounded by one teacher's attempts, not by
+     * the table, but not the flat seek of the per-user listings either.
+     */
+    default KeysetSlice<QuizAttempt> findTeacherQuizAttempts(UUID teacherId, String cursor, int size) {
+        return findSlice((root, query, cb) -> cb.equal(root.get("quiz").get("creator").get("id"), teacherId),
+                         "startedAt", Sort.Direction.DESC, cursor, size);
+    }
+    
     /**
      * Find attempts for specific teacher's quiz
      */
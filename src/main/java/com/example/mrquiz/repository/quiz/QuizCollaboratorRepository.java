@@ -0,0 +1,80 @@
+package com.example.mrquiz.repository.quiz;
+
+import com.example.mrquiz.entity.quiz.QuizCollaborator;
+import com.example.mrquiz.repository.BaseRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface QuizCollaboratorRepository extends BaseRepository<QuizCollaborator> {
+    
+    // ===== COLLABORATOR QUERIES =====
+    
+    /**
+     * Find collaborators of a quiz
+     */
+    List<QuizCollaborator> findByQuizId(UUID quizId);
+    
+    /**
+     * Find quiz id and permission of every quiz a user collaborates on
+     */
+    @Query("SELECT c.quiz.id, c.permission FROM QuizCollaborator c WHERE c.user.id = :userId")
+    List<Object[]> findQuizPermissionsByUserId(@Param("userId") UUID userId);
+    
+    // ===== COLLABORATOR MANAGEMENT =====
+    
+    /**
+     * Add a collaborator or change their permission
+     */
+    @Modifying
+    @Query(value = "INSERT INTO quiz_collaborators (id, quiz_id, user_id, permission, created_at, updated_at) " +
+                   "VALUES (gen_random_uuid(), :quizId, :userId, :permission, now(), now()) " +
+                   "ON CONFLICT (quiz_id, user_id) DO UPDATE SET permission = EXCLUDED.permission, updated_at = now()",
+           nativeQuery = true)
+    int upsertCollaborator(@Param("quizId") UUID quizId, @Param("userId") UUID userId,
+                           @Param("permission") String permission);
+    
+    /**
+     * Remove a collaborator
+     */
+    @Modifying
+    @Query("DELETE FROM QuizCollaborator c WHERE c.quiz.id = :quizId AND c.user.id = :userId")
+    int deleteByQuizIdAndUserId(@Param("quizId") UUID quizId, @Param("userId") UUID userId);
+    
+    // ===== MIGRATION =====
+    
+    /**
+     * Serialize the settings migration across nodes until the end of the transaction
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext('quiz_collaborators_migration'))", nativeQuery = true)
+    Integer lockSettingsMigration();
+    
+    /**
+     * Count quizzes that still keep collaborators in their settings
+     */
+    @Query(value = "SELECT COUNT(*) FROM quizzes WHERE settings -> 'collaborators' IS NOT NULL", nativeQuery = true)
+    long countQuizSettingsCollaborators();
+    
+    /**
+     * Copy collaborators still stored in quiz settings into the collaborator table
+     */
+    @Modifying
+    @Query(value = "INSERT INTO quiz_collaborators (id, quiz_id, user_id, permission, created_at, updated_at) " +
+                   "SELECT gen_random_uuid(), q.id, u.id, c.value, now(), now() " +
+                   "FROM quizzes q CROSS JOIN LATERAL jsonb_each_text(q.settings -> 'collaborators') AS c " +
+                   "JOIN users u ON CAST(u.id AS text) = c.key " +
+                   "WHERE jsonb_typeof(q.settings -> 'collaborators') = 'object' " +
+                   "ON CONFLICT (quiz_id, user_id) DO NOTHING", nativeQuery = true)
+    int backfillFromQuizSettings();
+    
+    /**
+     * Drop the collaborators key from quiz settings once it has been copied, so the backfill finds nothing next time
+     */
+    @Modifying
+    @Query(value = "UPDATE quizzes SET settings = settings - 'collaborators', updated_at = now() " +
+                   "WHERE settings -> 'collaborators' IS NOT NULL", nativeQuery = true)
+    int clearQuizSettingsCollaborators();
+}
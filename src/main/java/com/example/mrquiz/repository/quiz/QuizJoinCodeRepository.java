@@ -0,0 +1,102 @@
+package com.example.mrquiz.repository.quiz;
+
+import com.example.mrquiz.entity.quiz.QuizJoinCode;
+import com.example.mrquiz.repository.BaseRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface QuizJoinCodeRepository extends BaseRepository<QuizJoinCode> {
+    
+    // ===== BASIC JOIN CODE QUERIES =====
+    
+    /**
+     * Find join code by code
+     */
+    Optional<QuizJoinCode> findByCode(String code);
+    
+    /**
+     * Check whether a code is taken
+     */
+    boolean existsByCode(String code);
+    
+    /**
+     * Find join codes for a quiz
+     */
+    List<QuizJoinCode> findByQuizIdOrderByCreatedAtDesc(UUID quizId);
+    
+    /**
+     * Find code, quiz id and expiry of every active join code
+     */
+    @Query("SELECT j.code, j.quiz.id, j.expiresAt FROM QuizJoinCode j " +
+           "WHERE j.expiresAt IS NULL OR j.expiresAt > :now")
+    List<Object[]> findActiveCodeEntries(@Param("now") LocalDateTime now);
+    
+    /**
+     * Find code, quiz id and expiry of an active join code
+     */
+    @Query("SELECT j.code, j.quiz.id, j.expiresAt FROM QuizJoinCode j WHERE j.code = :code " +
+           "AND (j.expiresAt IS NULL OR j.expiresAt > :now)")
+    List<Object[]> findActiveCodeEntry(@Param("code") String code, @Param("now") LocalDateTime now);
+    
+    /**
+     * Find code, quiz id, expiry and update time of join codes created or changed after the given time
+     */
+    @Query("SELECT j.code, j.quiz.id, j.expiresAt, j.updatedAt FROM QuizJoinCode j WHERE j.updatedAt > :since")
+    List<Object[]> findCodeEntriesUpdatedSince(@Param("since") LocalDateTime since);
+    
+    /**
+     * Find active codes of a quiz from a given source
+     */
+    @Query("SELECT j.code FROM QuizJoinCode j WHERE j.quiz.id = :quizId AND j.source = :source " +
+           "AND (j.expiresAt IS NULL OR j.expiresAt > :now)")
+    List<String> findActiveCodesByQuizAndSource(@Param("quizId") UUID quizId,
+                                               @Param("source") String source,
+                                               @Param("now") LocalDateTime now);
+    
+    // ===== JOIN CODE LIFECYCLE =====
+    
+    /**
+     * Expire join codes
+     */
+    @Modifying
+    @Query("UPDATE QuizJoinCode j SET j.expiresAt = :now, j.updatedAt = :now WHERE j.code IN :codes " +
+           "AND (j.expiresAt IS NULL OR j.expiresAt > :now)")
+    int expireCodes(@Param("codes") List<String> codes, @Param("now") LocalDateTime now);
+    
+    /**
+     * Record a use of a join code
+     */
+    @Modifying
+    @Query("UPDATE QuizJoinCode j SET j.usageCount = j.usageCount + 1, j.lastUsedAt = :now WHERE j.code = :code")
+    int incrementUsage(@Param("code") String code, @Param("now") LocalDateTime now);
+    
+    /**
+     * Copy join codes still stored in quiz settings into the join code table
+     */
+    @Modifying
+    @Query(value = "INSERT INTO quiz_join_codes (id, quiz_id, code, source, usage_count, created_at, updated_at) " +
+                   "SELECT gen_random_uuid(), q.id, q.settings ->> 'joinCode', 'quiz', 0, now(), now() " +
+                   "FROM quizzes q WHERE q.settings ->> 'joinCode' IS NOT NULL " +
+                   "ON CONFLICT (code) DO NOTHING", nativeQuery = true)
+    int backfillFromQuizSettings();
+    
+    /**
+     * Count quizzes that still keep a join code in their settings
+     */
+    @Query(value = "SELECT COUNT(*) FROM quizzes q WHERE q.settings ->> 'joinCode' IS NOT NULL", nativeQuery = true)
+    long countQuizSettingsJoinCodes();
+    
+    /**
+     * Drop join codes from quiz settings once they are copied, so the backfill finds nothing next time
+     */
+    @Modifying
+    @Query(value = "UPDATE quizzes SET settings = settings - 'joinCode', updated_at = now() " +
+                   "WHERE settings ->> 'joinCode' IS NOT NULL", nativeQuery = true)
+    int clearQuizSettingsJoinCodes();
+}
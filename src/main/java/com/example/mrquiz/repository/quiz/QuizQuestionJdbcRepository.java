@@ -0,0 +1,145 @@
+package com.example.mrquiz.repository.quiz;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Set-based writes on quiz_questions that would otherwise cost one statement per row, and the
+ * reads that check them.
+ */
+@Repository
+public class QuizQuestionJdbcRepository {
+
+    private static final String TOTALS_SQL =
+            "SELECT ids.id AS quiz_id, COALESCE(SUM(COALESCE(qq.points, q.points)), 0) AS total " +
+            "FROM unnest(CAST(? AS uuid[])) AS ids(id) " +
+            "LEFT JOIN quiz_questions qq ON qq.quiz_id = ids.id " +
+            "LEFT JOIN questions q ON q.id = qq.question_id " +
+            "GROUP BY ids.id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Renumber all questions of a quiz from 1: the given questions first, in the given
+     * order, followed by any others in their current order.
+     *
+     * The (quiz_id, order_index) constraint is checked row by row, so the quiz's indexes
+     * are first moved to the negative range, where they cannot collide with the final ones.
+     */
+    public int reorder(UUID quizId, List<UUID> questionIds) {
+        if (questionIds.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.update("UPDATE quiz_questions SET order_index = -order_index - 1 WHERE quiz_id = ?", quizId);
+
+        StringBuilder sql = new StringBuilder(
+                "UPDATE quiz_questions t SET order_index = o.new_index, updated_at = ? FROM (" +
+                "SELECT qq.id, ROW_NUMBER() OVER (ORDER BY v.position NULLS LAST, qq.order_index DESC) AS new_index " +
+                "FROM quiz_questions qq LEFT JOIN (VALUES ");
+        Object[] parameters = new Object[questionIds.size() * 2 + 2];
+        parameters[0] = Timestamp.valueOf(LocalDateTime.now());
+        for (int i = 0; i < questionIds.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(CAST(? AS uuid), ?)");
+            parameters[i * 2 + 1] = questionIds.get(i);
+            parameters[i * 2 + 2] = i;
+        }
+        sql.append(") AS v(question_id, position) ON v.question_id = qq.question_id ")
+           .append("WHERE qq.quiz_id = ?) o WHERE t.id = o.id");
+        parameters[parameters.length - 1] = quizId;
+
+        return jdbcTemplate.update(sql.toString(), parameters);
+    }
+
+    /**
+     * Copy every question entry of one quiz to another in a single INSERT ... SELECT
+     */
+    public int copyQuizQuestions(UUID sourceQuizId, UUID targetQuizId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.update(
+                "INSERT INTO quiz_questions (id, quiz_id, question_id, order_index, section, page_number, " +
+                "points, time_limit, required, settings, created_at, updated_at) " +
+                "SELECT gen_random_uuid(), ?, question_id, order_index, section, page_number, " +
+                "points, time_limit, required, settings, ?, ? FROM quiz_questions WHERE quiz_id = ?",
+                targetQuizId, now, now, sourceQuizId);
+    }
+
+    /**
+     * Recompute quizzes.total_points of the given quizzes in one statement
+     */
+    public int recomputeTotalPoints(Collection<UUID> quizIds) {
+        if (quizIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(
+                "UPDATE quizzes z SET total_points = s.total, updated_at = ? FROM (" + TOTALS_SQL + ") s " +
+                "WHERE z.id = s.quiz_id AND z.total_points IS DISTINCT FROM s.total",
+                Timestamp.valueOf(LocalDateTime.now()), toIdArray(quizIds));
+    }
+
+    /**
+     * Ids of quizzes whose stored total_points no longer match their questions
+     */
+    public List<UUID> findTotalPointsDrift(int limit) {
+        return jdbcTemplate.queryForList(
+                "SELECT z.id FROM quizzes z LEFT JOIN (" +
+                "SELECT qq.quiz_id, SUM(COALESCE(qq.points, q.points)) AS total FROM quiz_questions qq " +
+                "JOIN questions q ON q.id = qq.question_id GROUP BY qq.quiz_id) s ON s.quiz_id = z.id " +
+                "WHERE z.total_points IS DISTINCT FROM COALESCE(s.total, 0) LIMIT ?",
+                UUID.class, limit);
+    }
+
+    /**
+     * Remove a question from a quiz and subtract its points from the quiz total in one statement
+     */
+    public int removeQuestionAndAdjustTotal(UUID quizId, UUID questionId) {
+        return jdbcTemplate.update(
+                "WITH removed AS (DELETE FROM quiz_questions qq USING questions q " +
+                "WHERE qq.quiz_id = ? AND qq.question_id = ? AND q.id = qq.question_id " +
+                "RETURNING COALESCE(qq.points, q.points) AS points) " +
+                "UPDATE quizzes SET total_points = COALESCE(total_points, 0) - (SELECT SUM(points) FROM removed), " +
+                "updated_at = ? WHERE id = ? AND EXISTS (SELECT 1 FROM removed)",
+                quizId, questionId, Timestamp.valueOf(LocalDateTime.now()), quizId);
+    }
+
+    /**
+     * Add a change of a question's default points to the totals of the quizzes using it
+     * without a points override, once per entry. Returns the number of updated quizzes
+     */
+    public int adjustTotalPointsForQuestion(UUID questionId, BigDecimal delta) {
+        return jdbcTemplate.update(
+                "UPDATE quizzes z SET total_points = COALESCE(z.total_points, 0) + ? * s.entries, updated_at = ? " +
+                "FROM (SELECT quiz_id, COUNT(*) AS entries FROM quiz_questions " +
+                "WHERE question_id = ? AND points IS NULL GROUP BY quiz_id) s WHERE z.id = s.quiz_id",
+                delta, Timestamp.valueOf(LocalDateTime.now()), questionId);
+    }
+
+    /**
+     * Of the given quizzes, those deleted or changed after the given time, counting changes to
+     * their question entries and to the questions themselves
+     */
+    public List<UUID> findChangedQuizzes(Collection<UUID> quizIds, LocalDateTime since) {
+        if (quizIds.isEmpty()) {
+            return List.of();
+        }
+        Timestamp timestamp = Timestamp.valueOf(since);
+        return jdbcTemplate.queryForList(
+                "SELECT ids.id FROM unnest(CAST(? AS uuid[])) AS ids(id) LEFT JOIN quizzes z ON z.id = ids.id " +
+                "WHERE z.id IS NULL OR z.updated_at > ? OR EXISTS (SELECT 1 FROM quiz_questions qq " +
+                "JOIN questions q ON q.id = qq.question_id WHERE qq.quiz_id = ids.id " +
+                "AND (qq.updated_at > ? OR q.updated_at > ?))",
+                UUID.class, toIdArray(quizIds), timestamp, timestamp, timestamp);
+    }
+
+    private String[] toIdArray(Collection<UUID> ids) {
+        return ids.stream().map(UUID::toString).toArray(String[]::new);
+    }
+}
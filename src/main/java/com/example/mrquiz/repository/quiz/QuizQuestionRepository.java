@@ -0,0 +1,67 @@
+package com.example.mrquiz.repository.quiz;
+
+import com.example.mrquiz.entity.quiz.QuizQuestion;
+import com.example.mrquiz.repository.BaseRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface QuizQuestionRepository extends BaseRepository<QuizQuestion> {
+    
+    // ===== BASIC QUIZ QUESTION QUERIES =====
+    
+    /**
+     * Find questions of a quiz in order, with their question rows
+     */
+    @Query("SELECT qq FROM QuizQuestion qq JOIN FETCH qq.question WHERE qq.quiz.id = :quizId " +
+           "ORDER BY qq.orderIndex")
+    List<QuizQuestion> findByQuizIdOrderByOrderIndex(@Param("quizId") UUID quizId);
+    
+    /**
+     * Find a question's entry in a quiz
+     */
+    Optional<QuizQuestion> findByQuizIdAndQuestionId(UUID quizId, UUID questionId);
+    
+    /**
+     * Count questions in a quiz
+     */
+    long countByQuizId(UUID quizId);
+    
+    /**
+     * Find highest order index in a quiz
+     */
+    @Query("SELECT COALESCE(MAX(qq.orderIndex), 0) FROM QuizQuestion qq WHERE qq.quiz.id = :quizId")
+    Integer findMaxOrderIndex(@Param("quizId") UUID quizId);
+    
+    // ===== POINTS =====
+    
+    /**
+     * Calculate total points of a quiz, using the quiz-level override when set
+     */
+    @Query("SELECT COALESCE(SUM(COALESCE(qq.points, q.points)), 0) FROM QuizQuestion qq " +
+           "JOIN qq.question q WHERE qq.quiz.id = :quizId")
+    BigDecimal calculateTotalPoints(@Param("quizId") UUID quizId);
+    
+    // ===== BULK OPERATIONS =====
+    
+    /**
+     * Update order of a single question
+     */
+    @Modifying
+    @Query("UPDATE QuizQuestion qq SET qq.orderIndex = :orderIndex " +
+           "WHERE qq.quiz.id = :quizId AND qq.question.id = :questionId")
+    int updateQuestionOrder(@Param("quizId") UUID quizId, @Param("questionId") UUID questionId,
+                            @Param("orderIndex") Integer orderIndex);
+    
+    /**
+     * Remove a question from a quiz
+     */
+    @Modifying
+    @Query("DELETE FROM QuizQuestion qq WHERE qq.quiz.id = :quizId AND qq.question.id = :questionId")
+    int deleteByQuizIdAndQuestionId(@Param("quizId") UUID quizId, @Param("questionId") UUID questionId);
+}
@@ -4,6 +4,7 @@ import com.example.mrquiz.entity.quiz.Quiz;
 import com.example.mrquiz.enums.QuizStatus;
 import com.example.mrquiz.enums.QuizType;
 import com.example.mrquiz.repository.BaseRepository;
+import com.example.mrquiz.repository.KeysetSlice;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Modifying;
@@ -30,6 +31,22 @@ public interface QuizRepository extends BaseRepository<Quiz> {
      */
     Page<Quiz> findByCreatorId(UUID creatorId, Pageable pageable);
     
+    /**
+     * Find quizzes by creator, newest first, with keyset pagination
+     */
+    default KeysetSlice<Quiz> findByCreatorId(UUID creatorId, String cursor, int size) {
+        return findSlice((root, query, cb) -> cb.equal(root.get("creator").get("id"), creatorId), cursor, size);
+    }
+    
+    /**
+     * Find quizzes by creator and status, newest first, with keyset pagination
+     */
+    default KeysetSlice<Quiz> findByCreatorIdAndStatus(UUID creatorId, QuizStatus status, String cursor, int size) {
+        return findSlice((root, query, cb) -> cb.and(
+                cb.equal(root.get("creator").get("id"), creatorId),
+                cb.equal(root.get("status"), status)), cursor, size);
+    }
+    
     /**
      * Find quizzes by status
      */
@@ -180,26 +197,15 @@ public interface QuizRepository extends BaseRepository<Quiz> {
            "AND q.availabilityEnd < :now AND q.status = 'PUBLISHED'")
     List<Quiz> findExpiredQuizzes(@Param("now") LocalDateTime now);
     
-    // ===== QUIZ ANALYTICS SUPPORT =====
-    
     /**
-     * Find most popular quizzes by attempt count
+     * Find id, start and end of quizzes with a lifecycle boundary before the horizon
      */
-    @Query("SELECT q, COUNT(qa) as attemptCount FROM Quiz q " +
-           "LEFT JOIN QuizAttempt qa ON q.id = qa.quiz.id " +
-           "WHERE q.status = 'PUBLISHED' " +
-           "GROUP BY q.id ORDER BY attemptCount DESC")
-    List<Object[]> findMostPopularQuizzes(Pageable pageable);
+    @Query("SELECT q.id, q.availabilityStart, q.availabilityEnd FROM Quiz q " +
+           "WHERE (q.status = 'SCHEDULED' AND q.availabilityStart <= :horizon) " +
+           "OR (q.status IN ('SCHEDULED', 'PUBLISHED') AND q.availabilityEnd <= :horizon)")
+    List<Object[]> findLifecycleBoundaries(@Param("horizon") LocalDateTime horizon);
     
-    /**
-     * Find highest rated quizzes
-     */
-    @Query("SELECT q, AVG(qa.percentage) as avgScore FROM Quiz q " +
-           "JOIN QuizAttempt qa ON q.id = qa.quiz.id " +
-           "WHERE q.status = 'PUBLISHED' AND qa.status = 'GRADED' " +
-           "GROUP BY q.id HAVING COUNT(qa) >= :minAttempts " +
-           "ORDER BY avgScore DESC")
-    List<Object[]> findHighestRatedQuizzes(@Param("minAttempts") Long minAttempts, Pageable pageable);
+    // ===== QUIZ ANALYTICS SUPPORT =====
     
     /**
      * Get quiz performance summary
@@ -232,6 +238,20 @@ public interface QuizRepository extends BaseRepository<Quiz> {
     @Query("UPDATE Quiz q SET q.totalPoints = :totalPoints WHERE q.id = :quizId")
     void updateTotalPoints(@Param("quizId") UUID quizId, @Param("totalPoints") BigDecimal totalPoints);
     
+    /**
+     * Add a delta to quiz total points
+     */
+    @Modifying
+    @Query("UPDATE Quiz q SET q.totalPoints = COALESCE(q.totalPoints, 0) + :delta WHERE q.id = :quizId")
+    int adjustTotalPoints(@Param("quizId") UUID quizId, @Param("delta") BigDecimal delta);
+    
+    /**
+     * Update quiz time limit
+     */
+    @Modifying
+    @Query("UPDATE Quiz q SET q.timeLimit = :timeLimit WHERE q.id = :quizId")
+    int updateTimeLimit(@Param("quizId") UUID quizId, @Param("timeLimit") Integer timeLimit);
+    
     /**
      * Bulk update quiz status for teacher
      */
@@ -241,6 +261,29 @@ public interface QuizRepository extends BaseRepository<Quiz> {
                              @Param("quizIds") List<UUID> quizIds, 
                              @Param("status") QuizStatus status);
     
+    /**
+     * Bulk update quiz status
+     */
+    @Modifying
+    @Query("UPDATE Quiz q SET q.status = :status WHERE q.id IN :quizIds")
+    int bulkUpdateStatus(@Param("quizIds") List<UUID> quizIds, @Param("status") QuizStatus status);
+    
+    /**
+     * Bulk publish scheduled quizzes whose availability has started
+     */
+    @Modifying
+    @Query("UPDATE Quiz q SET q.status = 'PUBLISHED' WHERE q.id IN :quizIds " +
+           "AND q.status = 'SCHEDULED' AND q.availabilityStart <= :now")
+    int bulkUpdateStatusStarted(@Param("quizIds") List<UUID> quizIds, @Param("now") LocalDateTime now);
+    
+    /**
+     * Bulk complete scheduled or published quizzes whose availability has ended
+     */
+    @Modifying
+    @Query("UPDATE Quiz q SET q.status = 'COMPLETED' WHERE q.id IN :quizIds " +
+           "AND q.status IN ('SCHEDULED', 'PUBLISHED') AND q.availabilityEnd <= :now")
+    int bulkUpdateStatusEnded(@Param("quizIds") List<UUID> quizIds, @Param("now") LocalDateTime now);
+    
     // ===== COLLABORATION AND VERSION CONTROL =====
     
     /**
@@ -251,22 +294,27 @@ public interface QuizRepository extends BaseRepository<Quiz> {
     List<Quiz> findQuizVersions(@Param("parentQuizId") String parentQuizId);
     
     /**
-     * Find collaborative quizzes where user has edit access
+     * Find quizzes a user created or collaborates on
      */
     @Query("SELECT q FROM Quiz q WHERE q.creator.id = :userId " +
-           "OR JSON_CONTAINS(q.settings, :userId, '$.collaborators')")
-    List<Quiz> findCollaborativeQuizzes(@Param("userId") String userId);
+           "OR EXISTS (SELECT c FROM QuizCollaborator c WHERE c.quiz = q AND c.user.id = :userId)")
+    List<Quiz> findCollaborativeQuizzes(@Param("userId") UUID userId);
     
-    // ===== STUDENT ACCESS AND INVITATION =====
+    /**
+     * Find creator id, course id, status and guest access flag of a quiz
+     */
+    @Query(value = "SELECT creator_id, course_id, status, " +
+                   "COALESCE(CAST(settings ->> 'allowGuestAccess' AS boolean), false) " +
+                   "FROM quizzes WHERE id = :quizId", nativeQuery = true)
+    List<Object[]> findAccessAttributes(@Param("quizId") UUID quizId);
     
     /**
-     * Find quizzes accessible to student via join codes
+     * Find ids of quizzes that still keep their version history in settings
      */
-    @Query("SELECT q FROM Quiz q WHERE JSON_EXTRACT(q.settings, '$.joinCode') = :joinCode " +
-           "AND q.status = 'PUBLISHED' " +
-           "AND (q.availabilityStart IS NULL OR q.availabilityStart <= :now) " +
-           "AND (q.availabilityEnd IS NULL OR q.availabilityEnd >= :now)")
-    Optional<Quiz> findByJoinCode(@Param("joinCode") String joinCode, @Param("now") LocalDateTime now);
+    @Query(value = "SELECT id FROM quizzes WHERE settings -> 'versions' IS NOT NULL LIMIT :limit", nativeQuery = true)
+    List<UUID> findQuizIdsWithSettingsVersions(@Param("limit") int limit);
+    
+    // ===== STUDENT ACCESS AND INVITATION =====
     
     /**
      * Find quizzes with guest access enabled
@@ -0,0 +1,186 @@
+package com.example.mrquiz.repository.quiz;
+
+import com.example.mrquiz.enums.QuizType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Full-text search over quizzes.
+ *
+ * quizzes.search_vector holds a weighted tsvector of title (A), tags (B), description (B)
+ * and instructions (C), kept current by a trigger and served by a GIN index. Trigram GIN
+ * indexes on lower(title) give typo tolerance here and let the remaining
+ * {@code LOWER(x) LIKE '%term%'} queries on quizzes, sessions, files and questions use an index.
+ */
+@Repository
+public class QuizSearchJdbcRepository {
+
+    private static final String TEXT_SEARCH_CONFIG = "english";
+    private static final long SCHEMA_LOCK_KEY = 7310586L;
+
+    private static final String SEARCH_DOCUMENT_FUNCTION_SQL =
+            "CREATE OR REPLACE FUNCTION quiz_search_document(title text, description text, instructions text, " +
+            "settings jsonb) RETURNS tsvector LANGUAGE sql IMMUTABLE AS $$ " +
+            "SELECT setweight(to_tsvector('" + TEXT_SEARCH_CONFIG + "', coalesce(title, '')), 'A') " +
+            "|| setweight(to_tsvector('" + TEXT_SEARCH_CONFIG + "', coalesce((SELECT string_agg(tag, ' ') " +
+            "FROM jsonb_array_elements_text(CASE WHEN jsonb_typeof(settings -> 'tags') = 'array' " +
+            "THEN settings -> 'tags' ELSE '[]'::jsonb END) AS tag), '')), 'B') " +
+            "|| setweight(to_tsvector('" + TEXT_SEARCH_CONFIG + "', coalesce(description, '')), 'B') " +
+            "|| setweight(to_tsvector('" + TEXT_SEARCH_CONFIG + "', coalesce(instructions, '')), 'C') $$";
+
+    private static final String TRIGGER_FUNCTION_SQL =
+            "CREATE OR REPLACE FUNCTION quizzes_search_vector_update() RETURNS trigger LANGUAGE plpgsql AS $$ " +
+            "BEGIN NEW.search_vector := quiz_search_document(NEW.title, NEW.description, NEW.instructions, " +
+            "NEW.settings); RETURN NEW; END $$";
+
+    // Index name to definition; built concurrently, so an interrupted build leaves an INVALID index behind
+    private static final Map<String, String> INDEXES = new LinkedHashMap<>();
+
+    static {
+        INDEXES.put("idx_quizzes_search_vector", "quizzes USING gin (search_vector)");
+        INDEXES.put("idx_quizzes_title_trgm", "quizzes USING gin (lower(title) gin_trgm_ops)");
+        INDEXES.put("idx_quiz_sessions_name_trgm", "quiz_sessions USING gin (lower(name) gin_trgm_ops)");
+        INDEXES.put("idx_files_filename_trgm", "files USING gin (lower(filename) gin_trgm_ops)");
+        INDEXES.put("idx_files_original_filename_trgm", "files USING gin (lower(original_filename) gin_trgm_ops)");
+        INDEXES.put("idx_questions_title_trgm", "questions USING gin (lower(title) gin_trgm_ops)");
+        INDEXES.put("idx_questions_text_trgm", "questions USING gin (lower(question_text) gin_trgm_ops)");
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // ============================================================================
+    // SCHEMA
+    // ============================================================================
+
+    /**
+     * Whether the search column and the trigram extension the search query needs exist
+     */
+    public boolean isSearchSchemaInstalled() {
+        Boolean installed = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_attribute WHERE attrelid = 'quizzes'::regclass " +
+                "AND attname = 'search_vector' AND NOT attisdropped) " +
+                "AND EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'pg_trgm')", Boolean.class);
+        return Boolean.TRUE.equals(installed);
+    }
+
+    /**
+     * Whether the search column and its trigger already exist
+     */
+    public boolean isSearchTriggerInstalled() {
+        Boolean installed = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_trigger WHERE tgname = 'trg_quizzes_search_vector' " +
+                "AND tgrelid = 'quizzes'::regclass)", Boolean.class);
+        return Boolean.TRUE.equals(installed);
+    }
+
+    /**
+     * Create the search column, document function and trigger; nodes starting together take turns
+     */
+    @Transactional
+    public void installSearchTrigger() {
+        jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?)", Object.class, SCHEMA_LOCK_KEY);
+        jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+        jdbcTemplate.execute("ALTER TABLE quizzes ADD COLUMN IF NOT EXISTS search_vector tsvector");
+        jdbcTemplate.execute(SEARCH_DOCUMENT_FUNCTION_SQL);
+        jdbcTemplate.execute(TRIGGER_FUNCTION_SQL);
+        jdbcTemplate.execute("DROP TRIGGER IF EXISTS trg_quizzes_search_vector ON quizzes");
+        jdbcTemplate.execute("CREATE TRIGGER trg_quizzes_search_vector BEFORE INSERT OR UPDATE OF title, " +
+                             "description, instructions, settings ON quizzes " +
+                             "FOR EACH ROW EXECUTE FUNCTION quizzes_search_vector_update()");
+    }
+
+    /**
+     * Search indexes that are missing or were left INVALID by an interrupted concurrent build
+     */
+    public List<String> findUnusableSearchIndexes() {
+        List<String> valid = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid " +
+                "WHERE c.relname = ANY(?) AND i.indisvalid",
+                String.class, (Object) INDEXES.keySet().toArray(String[]::new));
+        return INDEXES.keySet().stream().filter(name -> !valid.contains(name)).toList();
+    }
+
+    /**
+     * Build a search index without blocking writes, replacing an INVALID leftover; must run
+     * outside a transaction
+     */
+    public void createSearchIndex(String name) {
+        jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + name);
+        jdbcTemplate.execute("CREATE INDEX CONCURRENTLY " + name + " ON " + INDEXES.get(name));
+    }
+
+    /**
+     * Fill search_vector for up to batchSize quizzes that predate the trigger
+     */
+    public int backfillSearchVectors(int batchSize) {
+        return jdbcTemplate.update(
+                "UPDATE quizzes SET search_vector = quiz_search_document(title, description, instructions, settings) " +
+                "WHERE id IN (SELECT id FROM quizzes WHERE search_vector IS NULL LIMIT ?)", batchSize);
+    }
+
+    // ============================================================================
+    // SEARCH
+    // ============================================================================
+
+    /**
+     * Ids of published quizzes matching the prefix tsquery or, for typos, close to the term
+     * by trigram word similarity, best match first
+     */
+    public List<UUID> search(String prefixQuery, String term, QuizType quizType, UUID institutionId,
+                             int limit, long offset) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT id FROM quizzes WHERE status = 'PUBLISHED' " +
+                "AND (search_vector @@ to_tsquery('" + TEXT_SEARCH_CONFIG + "', ?) OR ? <% lower(title)) ");
+        List<Object> parameters = new ArrayList<>(List.of(prefixQuery, term));
+        appendFilters(sql, parameters, quizType, institutionId);
+        sql.append("ORDER BY ts_rank_cd(search_vector, to_tsquery('" + TEXT_SEARCH_CONFIG + "', ?), 32) " +
+                   "+ word_similarity(?, lower(title)) DESC, id LIMIT ? OFFSET ?");
+        parameters.add(prefixQuery);
+        parameters.add(term);
+        parameters.add(limit);
+        parameters.add(offset);
+
+        return jdbcTemplate.queryForList(sql.toString(), UUID.class, parameters.toArray());
+    }
+
+    /**
+     * Ids of published quizzes whose title contains every word, most recently updated first;
+     * served while the search schema is not installed
+     */
+    public List<UUID> searchTitles(List<String> words, QuizType quizType, UUID institutionId,
+                                   int limit, long offset) {
+        StringBuilder sql = new StringBuilder("SELECT id FROM quizzes WHERE status = 'PUBLISHED' ");
+        List<Object> parameters = new ArrayList<>();
+        for (String word : words) {
+            sql.append("AND strpos(lower(title), ?) > 0 ");
+            parameters.add(word);
+        }
+        appendFilters(sql, parameters, quizType, institutionId);
+        sql.append("ORDER BY updated_at DESC, id LIMIT ? OFFSET ?");
+        parameters.add(limit);
+        parameters.add(offset);
+
+        return jdbcTemplate.queryForList(sql.toString(), UUID.class, parameters.toArray());
+    }
+
+    private static void appendFilters(StringBuilder sql, List<Object> parameters, QuizType quizType,
+                                      UUID institutionId) {
+        if (quizType != null) {
+            sql.append("AND quiz_type = ? ");
+            parameters.add(quizType.name());
+        }
+        if (institutionId != null) {
+            sql.append("AND institution_id = ? ");
+            parameters.add(institutionId);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.mrquiz.repository.quiz;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Key-level updates of quizzes.settings.
+ *
+ * Every operation is one UPDATE that rewrites the JSON in the database with
+ * {@code ||} or {@code jsonb_set}, so the Quiz entity is never loaded and concurrent
+ * writers to different keys (or appends to the same array) cannot overwrite each other.
+ * Methods return the number of updated rows, i.e. 0 when the quiz does not exist.
+ */
+@Repository
+public class QuizSettingsRepository {
+
+    private static final String SETTINGS = "COALESCE(settings, '{}'::jsonb)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Set a top-level key
+     */
+    public int set(UUID quizId, String key, Object value) {
+        return setAll(quizId, Collections.singletonMap(key, value));
+    }
+
+    /**
+     * Set several top-level keys at once
+     */
+    public int setAll(UUID quizId, Map<String, ?> values) {
+        return update("settings = " + SETTINGS + " || CAST(? AS jsonb)", quizId, toJson(values));
+    }
+
+    /**
+     * Merge entries into the object stored under a key, creating it if needed
+     */
+    public int mergeInto(UUID quizId, String key, Map<String, ?> entries) {
+        return update("settings = jsonb_set(" + SETTINGS + ", CAST(ARRAY[?] AS text[]), " +
+                      "CASE WHEN jsonb_typeof(settings -> CAST(? AS text)) = 'object' " +
+                      "THEN settings -> CAST(? AS text) ELSE '{}'::jsonb END || CAST(? AS jsonb), true)",
+                      quizId, key, key, key, toJson(entries));
+    }
+
+    /**
+     * Append a value to the array stored under a key, creating it if needed
+     */
+    public int append(UUID quizId, String key, Object value) {
+        return update("settings = jsonb_set(" + SETTINGS + ", CAST(ARRAY[?] AS text[]), " +
+                      "CASE WHEN jsonb_typeof(settings -> CAST(? AS text)) = 'array' " +
+                      "THEN settings -> CAST(? AS text) ELSE '[]'::jsonb END || jsonb_build_array(CAST(? AS jsonb)), true)",
+                      quizId, key, key, key, toJson(value));
+    }
+
+    /**
+     * Remove a top-level key
+     */
+    public int remove(UUID quizId, String key) {
+        return update("settings = " + SETTINGS + " - CAST(? AS text)", quizId, key);
+    }
+
+    private int update(String assignment, UUID quizId, Object... parameters) {
+        Object[] all = new Object[parameters.length + 2];
+        System.arraycopy(parameters, 0, all, 0, parameters.length);
+        all[parameters.length] = Timestamp.valueOf(LocalDateTime.now());
+        all[parameters.length + 1] = quizId;
+        return jdbcTemplate.update("UPDATE quizzes SET " + assignment + ", updated_at = ? WHERE id = ?", all);
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Quiz settings value is not serializable to JSON", e);
+        }
+    }
+}
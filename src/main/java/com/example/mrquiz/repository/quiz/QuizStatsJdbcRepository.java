@@ -0,0 +1,143 @@
+package com.example.mrquiz.repository.quiz;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reads and writes the per-quiz counters in quiz_stats.
+ *
+ * A participant is counted by the user's first attempt (attempt_number 1), the same rule
+ * {@code QuizAttemptStatsListener} applies to deltas, so the nightly recount agrees with them.
+ */
+@Repository
+public class QuizStatsJdbcRepository {
+
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private static final String FRESH_COUNTERS_SQL =
+            "SELECT quiz_id, COUNT(*) AS attempt_count, " +
+            "COUNT(*) FILTER (WHERE status = 'GRADED' AND percentage IS NOT NULL) AS graded_count, " +
+            "COALESCE(SUM(percentage) FILTER (WHERE status = 'GRADED'), 0) AS percentage_sum, " +
+            "COUNT(*) FILTER (WHERE attempt_number = 1) AS participant_count " +
+            "FROM quiz_attempts GROUP BY quiz_id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Add counter deltas, creating missing rows, in one upsert per chunk
+     */
+    public int applyDeltas(Map<UUID, Counters> deltas) {
+        List<Map.Entry<UUID, Counters>> rows = new ArrayList<>(deltas.entrySet());
+        int updated = 0;
+        for (int from = 0; from < rows.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<Map.Entry<UUID, Counters>> chunk =
+                    rows.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, rows.size()));
+
+            StringBuilder sql = new StringBuilder(
+                    "INSERT INTO quiz_stats (id, quiz_id, attempt_count, graded_count, percentage_sum, " +
+                    "participant_count, created_at, updated_at) VALUES ");
+            Object[] parameters = new Object[chunk.size() * 5];
+            int i = 0;
+            for (Map.Entry<UUID, Counters> row : chunk) {
+                sql.append(i == 0 ? "" : ", ").append("(gen_random_uuid(), ?, ?, ?, ?, ?, now(), now())");
+                parameters[i++] = row.getKey();
+                parameters[i++] = row.getValue().attemptCount();
+                parameters[i++] = row.getValue().gradedCount();
+                parameters[i++] = row.getValue().percentageSum();
+                parameters[i++] = row.getValue().participantCount();
+            }
+            sql.append(" ON CONFLICT (quiz_id) DO UPDATE SET ")
+               .append("attempt_count = quiz_stats.attempt_count + EXCLUDED.attempt_count, ")
+               .append("graded_count = quiz_stats.graded_count + EXCLUDED.graded_count, ")
+               .append("percentage_sum = quiz_stats.percentage_sum + EXCLUDED.percentage_sum, ")
+               .append("participant_count = quiz_stats.participant_count + EXCLUDED.participant_count, ")
+               .append("updated_at = now()");
+            updated += jdbcTemplate.update(sql.toString(), parameters);
+        }
+        return updated;
+    }
+
+    /**
+     * Counters of every published quiz
+     */
+    public Map<UUID, Counters> findPublishedCounters() {
+        Map<UUID, Counters> counters = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT s.quiz_id, s.attempt_count, s.graded_count, s.percentage_sum, s.participant_count " +
+                "FROM quiz_stats s JOIN quizzes q ON q.id = s.quiz_id WHERE q.status = 'PUBLISHED'",
+                rs -> {
+                    counters.put(rs.getObject(1, UUID.class), new Counters(
+                            rs.getLong(2), rs.getLong(3), rs.getBigDecimal(4), rs.getLong(5)));
+                });
+        return counters;
+    }
+
+    /**
+     * Number of quizzes whose stored counters differ from a recount of their attempts
+     */
+    public int countDrift() {
+        Integer drift = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM quiz_stats s FULL OUTER JOIN (" + FRESH_COUNTERS_SQL + ") f " +
+                "ON f.quiz_id = s.quiz_id " +
+                "WHERE COALESCE(s.attempt_count, 0) <> COALESCE(f.attempt_count, 0) " +
+                "OR COALESCE(s.graded_count, 0) <> COALESCE(f.graded_count, 0) " +
+                "OR COALESCE(s.percentage_sum, 0) <> COALESCE(f.percentage_sum, 0) " +
+                "OR COALESCE(s.participant_count, 0) <> COALESCE(f.participant_count, 0)",
+                Integer.class);
+        return drift != null ? drift : 0;
+    }
+
+    /**
+     * Recompute every quiz's counters from its attempts
+     */
+    public int rebuild() {
+        int updated = jdbcTemplate.update(
+                "INSERT INTO quiz_stats (id, quiz_id, attempt_count, graded_count, percentage_sum, " +
+                "participant_count, created_at, updated_at) " +
+                "SELECT gen_random_uuid(), f.quiz_id, f.attempt_count, f.graded_count, f.percentage_sum, " +
+                "f.participant_count, now(), now() FROM (" + FRESH_COUNTERS_SQL + ") f " +
+                "ON CONFLICT (quiz_id) DO UPDATE SET attempt_count = EXCLUDED.attempt_count, " +
+                "graded_count = EXCLUDED.graded_count, percentage_sum = EXCLUDED.percentage_sum, " +
+                "participant_count = EXCLUDED.participant_count, updated_at = now()");
+        updated += jdbcTemplate.update(
+                "UPDATE quiz_stats s SET attempt_count = 0, graded_count = 0, percentage_sum = 0, " +
+                "participant_count = 0, updated_at = now() " +
+                "WHERE NOT EXISTS (SELECT 1 FROM quiz_attempts a WHERE a.quiz_id = s.quiz_id) " +
+                "AND (s.attempt_count <> 0 OR s.graded_count <> 0 OR s.percentage_sum <> 0 OR s.participant_count <> 0)");
+        return updated;
+    }
+
+    /**
+     * Counter values, or deltas to them, for one quiz
+     */
+    public record Counters(long attemptCount, long gradedCount, BigDecimal percentageSum, long participantCount) {
+
+        public static final Counters ZERO = new Counters(0, 0, BigDecimal.ZERO, 0);
+
+        public Counters plus(Counters other) {
+            return new Counters(attemptCount + other.attemptCount, gradedCount + other.gradedCount,
+                                percentageSum.add(other.percentageSum), participantCount + other.participantCount);
+        }
+
+        public Counters negate() {
+            return new Counters(-attemptCount, -gradedCount, percentageSum.negate(), -participantCount);
+        }
+
+        public boolean isZero() {
+            return attemptCount == 0 && gradedCount == 0 && percentageSum.signum() == 0 && participantCount == 0;
+        }
+
+        public double averagePercentage() {
+            return gradedCount > 0 ? percentageSum.doubleValue() / gradedCount : 0;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.mrquiz.repository.quiz;
+
+import com.example.mrquiz.entity.quiz.QuizVersion;
+import com.example.mrquiz.repository.BaseRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface QuizVersionRepository extends BaseRepository<QuizVersion> {
+    
+    // ===== LOCKING =====
+    
+    /**
+     * Serialize version numbering of a quiz until the end of the transaction
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext('quiz_versions'), hashtext(CAST(:quizId AS text)))",
+           nativeQuery = true)
+    Integer lockVersions(@Param("quizId") UUID quizId);
+    
+    // ===== VERSION HISTORY =====
+    
+    /**
+     * Find version number, note, checkpoint flag and creation time of each version, newest first
+     */
+    @Query("SELECT v.versionNumber, v.note, v.checkpoint, v.createdAt FROM QuizVersion v " +
+           "WHERE v.quiz.id = :quizId ORDER BY v.versionNumber DESC")
+    List<Object[]> findVersionSummaries(@Param("quizId") UUID quizId);
+    
+    /**
+     * Find latest version number of a quiz
+     */
+    @Query("SELECT COALESCE(MAX(v.versionNumber), 0) FROM QuizVersion v WHERE v.quiz.id = :quizId")
+    Integer findLatestVersionNumber(@Param("quizId") UUID quizId);
+    
+    // ===== REPLAY =====
+    
+    /**
+     * Find latest checkpoint at or before a version
+     */
+    @Query("SELECT MAX(v.versionNumber) FROM QuizVersion v WHERE v.quiz.id = :quizId " +
+           "AND v.checkpoint = true AND v.versionNumber <= :versionNumber")
+    Integer findCheckpointAtOrBefore(@Param("quizId") UUID quizId, @Param("versionNumber") Integer versionNumber);
+    
+    /**
+     * Find versions in a range, oldest first
+     */
+    List<QuizVersion> findByQuizIdAndVersionNumberBetweenOrderByVersionNumber(UUID quizId, Integer from, Integer to);
+}
@@ -0,0 +1,174 @@
+package com.example.mrquiz.repository.quiz;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reads and set-based writes for regrading the responses to one question.
+ */
+@Repository
+public class RegradeJdbcRepository {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final TypeReference<Map<String, Object>> JSON_MAP = new TypeReference<>() {
+    };
+
+    // Letter bands match AttemptGradingService.letterGrade
+    private static final String RECOMPUTE_ATTEMPTS_SQL =
+            "WITH totals AS (" +
+            "  SELECT attempt_id, GREATEST(COALESCE(SUM(points_earned), 0), 0) AS score FROM question_responses " +
+            "  WHERE attempt_id = ANY(CAST(? AS uuid[])) GROUP BY attempt_id), " +
+            "old AS (" +
+            "  SELECT a.id, a.quiz_id, a.score, a.percentage, a.grade, a.passed, a.total_points, t.score AS new_score, " +
+            "  LEAST(100, ROUND(t.score * 100 / NULLIF(a.total_points, 0), 2)) AS new_percentage, q.passing_score " +
+            "  FROM quiz_attempts a JOIN totals t ON t.attempt_id = a.id JOIN quizzes q ON q.id = a.quiz_id " +
+            "  WHERE a.status = 'GRADED' AND a.score IS DISTINCT FROM t.score FOR UPDATE OF a) " +
+            "UPDATE quiz_attempts a SET score = old.new_score, " +
+            "  percentage = COALESCE(old.new_percentage, 0), " +
+            "  grade = CASE WHEN COALESCE(old.new_percentage, 0) >= 90 THEN 'A' " +
+            "    WHEN COALESCE(old.new_percentage, 0) >= 80 THEN 'B' WHEN COALESCE(old.new_percentage, 0) >= 70 THEN 'C' " +
+            "    WHEN COALESCE(old.new_percentage, 0) >= 60 THEN 'D' ELSE 'F' END, " +
+            "  passed = CASE WHEN old.passing_score IS NULL THEN NULL " +
+            "    ELSE COALESCE(old.new_percentage, 0) >= old.passing_score END, " +
+            "  updated_at = ? " +
+            "FROM old WHERE a.id = old.id " +
+            "RETURNING a.id, a.quiz_id, old.score, a.score, old.percentage, a.percentage, old.grade, a.grade, " +
+            "old.passed, a.passed";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // ============================================================================
+    // READS
+    // ============================================================================
+
+    /**
+     * Graded responses to the question, after the given response id, in id order: those of
+     * graded attempts, and those of submitted attempts that bulk grading already wrote, such as
+     * attempts deferred to a teacher. Responses a teacher graded by hand are left out. Points are
+     * those the question is worth in the response's quiz.
+     */
+    public List<GradedResponse> findGradedResponses(UUID questionId, UUID afterId, int limit) {
+        return jdbcTemplate.query(
+                "SELECT r.id, r.attempt_id, a.quiz_id, CAST(r.answer_data AS text), COALESCE(qq.points, q.points), " +
+                "r.points_earned, r.is_correct, r.partial_credit " +
+                "FROM question_responses r " +
+                "JOIN quiz_attempts a ON a.id = r.attempt_id " +
+                "JOIN questions q ON q.id = r.question_id " +
+                "LEFT JOIN quiz_questions qq ON qq.id = r.quiz_question_id " +
+                "WHERE r.question_id = ? AND r.id > ? AND r.graded_manually IS NOT TRUE AND (a.status = 'GRADED' " +
+                "OR (a.status = 'SUBMITTED' AND r.is_correct IS NOT NULL)) ORDER BY r.id LIMIT ?",
+                (rs, rowNum) -> new GradedResponse(
+                        rs.getObject(1, UUID.class),
+                        rs.getObject(2, UUID.class),
+                        rs.getObject(3, UUID.class),
+                        readMap(rs.getString(4)),
+                        rs.getBigDecimal(5),
+                        rs.getBigDecimal(6),
+                        (Boolean) rs.getObject(7),
+                        rs.getBigDecimal(8)),
+                questionId, afterId, limit);
+    }
+
+    // ============================================================================
+    // WRITES
+    // ============================================================================
+
+    /**
+     * Give up rather than queue behind online traffic holding the same rows; call inside a transaction
+     */
+    public void limitLockWait(Duration timeout) {
+        jdbcTemplate.execute("SET LOCAL lock_timeout = '" + timeout.toMillis() + "ms'");
+    }
+
+    /**
+     * Write regraded responses, except those a teacher has graded by hand since they were read
+     */
+    public void updateResponseGrades(List<ResponseChange> changes, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        for (int from = 0; from < changes.size(); from += BATCH_SIZE) {
+            List<Object[]> batch = new ArrayList<>();
+            for (ResponseChange change : changes.subList(from, Math.min(from + BATCH_SIZE, changes.size()))) {
+                batch.add(new Object[]{change.newPoints(), change.maxPoints(), change.newCorrect(),
+                                       change.newPartialCredit(), timestamp, change.responseId()});
+            }
+            jdbcTemplate.batchUpdate(
+                    "UPDATE question_responses SET points_earned = ?, max_points = ?, is_correct = ?, " +
+                    "partial_credit = ?, updated_at = ? WHERE id = ? AND graded_manually IS NOT TRUE", batch);
+        }
+    }
+
+    /**
+     * Recompute score, percentage, grade and passed of the given graded attempts from their
+     * responses, in one statement; only attempts whose score changed are written and returned.
+     * Submitted attempts are left to whoever grades them.
+     */
+    public List<AttemptChange> recomputeAttempts(Collection<UUID> attemptIds, LocalDateTime now) {
+        if (attemptIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(RECOMPUTE_ATTEMPTS_SQL,
+                (rs, rowNum) -> new AttemptChange(
+                        rs.getObject(1, UUID.class),
+                        rs.getObject(2, UUID.class),
+                        rs.getBigDecimal(3),
+                        rs.getBigDecimal(4),
+                        rs.getBigDecimal(5),
+                        rs.getBigDecimal(6),
+                        rs.getString(7),
+                        rs.getString(8),
+                        (Boolean) rs.getObject(9),
+                        (Boolean) rs.getObject(10)),
+                attemptIds.stream().map(UUID::toString).toArray(String[]::new), Timestamp.valueOf(now));
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private Map<String, Object> readMap(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, JSON_MAP);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    public record GradedResponse(UUID responseId, UUID attemptId, UUID quizId, Map<String, Object> answerData,
+                                 BigDecimal points, BigDecimal pointsEarned, Boolean correct,
+                                 BigDecimal partialCredit) {
+    }
+
+    public record ResponseChange(UUID responseId, UUID attemptId, BigDecimal maxPoints,
+                                 BigDecimal oldPoints, BigDecimal newPoints,
+                                 Boolean oldCorrect, boolean newCorrect,
+                                 BigDecimal oldPartialCredit, BigDecimal newPartialCredit) {
+    }
+
+    public record AttemptChange(UUID attemptId, UUID quizId,
+                                BigDecimal oldScore, BigDecimal newScore,
+                                BigDecimal oldPercentage, BigDecimal newPercentage,
+                                String oldGrade, String newGrade,
+                                Boolean oldPassed, Boolean newPassed) {
+    }
+}
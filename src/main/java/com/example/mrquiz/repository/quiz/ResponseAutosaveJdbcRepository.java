@@ -0,0 +1,136 @@
+package com.example.mrquiz.repository.quiz;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Upserts autosaved answers into question_responses.
+ */
+@Repository
+public class ResponseAutosaveJdbcRepository {
+
+    private static final int MAX_ROWS_PER_STATEMENT = 500;
+    private static final int PARAMETERS_PER_ROW = 11;
+
+    private static final String ROW =
+            "(CAST(? AS uuid), CAST(? AS uuid), CAST(? AS uuid), CAST(? AS jsonb), CAST(? AS integer), " +
+            "CAST(? AS integer), CAST(? AS integer), CAST(? AS boolean), CAST(? AS timestamp), " +
+            "CAST(? AS timestamp), CAST(? AS jsonb))";
+
+    // Rows only land while the attempt is in progress, and never replace a later save, so
+    // replaying a save that was already written (or belongs to a submitted attempt) does nothing
+    private static final String UPSERT_SUFFIX =
+            ") AS v(attempt_id, question_id, quiz_question_id, answer_data, time_spent, attempt_count, " +
+            "confidence_level, flagged_for_review, first_answered_at, last_modified_at, response_metadata) " +
+            "WHERE EXISTS (SELECT 1 FROM quiz_attempts a WHERE a.id = v.attempt_id AND a.status = 'IN_PROGRESS') " +
+            "ON CONFLICT (attempt_id, question_id) DO UPDATE SET answer_data = EXCLUDED.answer_data, " +
+            "time_spent = COALESCE(EXCLUDED.time_spent, question_responses.time_spent), " +
+            "attempt_count = COALESCE(question_responses.attempt_count, 0) + EXCLUDED.attempt_count, " +
+            "confidence_level = COALESCE(EXCLUDED.confidence_level, question_responses.confidence_level), " +
+            "flagged_for_review = EXCLUDED.flagged_for_review, " +
+            "first_answered_at = COALESCE(question_responses.first_answered_at, EXCLUDED.first_answered_at), " +
+            "last_modified_at = EXCLUDED.last_modified_at, response_metadata = EXCLUDED.response_metadata, " +
+            "updated_at = now() " +
+            "WHERE question_responses.last_modified_at IS NULL " +
+            "OR question_responses.last_modified_at < EXCLUDED.last_modified_at";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Insert or update the responses, in one multi-row upsert per chunk. At most one response
+     * per attempt and question may be given.
+     */
+    public int upsertResponses(List<AutosavedResponse> responses) {
+        int updated = 0;
+        for (int from = 0; from < responses.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<AutosavedResponse> chunk =
+                    responses.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, responses.size()));
+
+            StringBuilder sql = new StringBuilder(
+                    "INSERT INTO question_responses (id, attempt_id, question_id, quiz_question_id, answer_data, " +
+                    "time_spent, attempt_count, confidence_level, flagged_for_review, first_answered_at, " +
+                    "last_modified_at, answered_at, response_metadata, created_at, updated_at) " +
+                    "SELECT gen_random_uuid(), v.attempt_id, v.question_id, v.quiz_question_id, v.answer_data, " +
+                    "COALESCE(v.time_spent, 0), v.attempt_count, v.confidence_level, v.flagged_for_review, " +
+                    "v.first_answered_at, v.last_modified_at, v.first_answered_at, v.response_metadata, " +
+                    "now(), now() FROM (VALUES ");
+            Object[] parameters = new Object[chunk.size() * PARAMETERS_PER_ROW];
+            int i = 0;
+            for (AutosavedResponse response : chunk) {
+                sql.append(i == 0 ? "" : ", ").append(ROW);
+                parameters[i++] = response.attemptId();
+                parameters[i++] = response.questionId();
+                parameters[i++] = response.quizQuestionId();
+                parameters[i++] = toJson(response.answerData());
+                parameters[i++] = response.timeSpent();
+                parameters[i++] = response.saveCount();
+                parameters[i++] = response.confidenceLevel();
+                parameters[i++] = Boolean.TRUE.equals(response.flaggedForReview());
+                parameters[i++] = Timestamp.valueOf(response.firstSavedAt());
+                parameters[i++] = Timestamp.valueOf(response.lastSavedAt());
+                parameters[i++] = toJson(response.responseMetadata());
+            }
+            sql.append(UPSERT_SUFFIX);
+            updated += jdbcTemplate.update(sql.toString(), parameters);
+        }
+        return updated;
+    }
+
+    private String toJson(Map<String, Object> value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize response", e);
+        }
+    }
+
+    /**
+     * The latest autosave of one answer, standing for {@code saveCount} saves between
+     * {@code firstSavedAt} and {@code lastSavedAt}
+     */
+    public record AutosavedResponse(UUID attemptId,
+                                    UUID questionId,
+                                    UUID quizQuestionId,
+                                    Map<String, Object> answerData,
+                                    Map<String, Object> responseMetadata,
+                                    Integer timeSpent,
+                                    Integer confidenceLevel,
+                                    Boolean flaggedForReview,
+                                    LocalDateTime firstSavedAt,
+                                    LocalDateTime lastSavedAt,
+                                    int saveCount) {
+
+        /**
+         * Coalesce two saves of the same answer, in either order: the later one's values win,
+         * except that a time spent or confidence level it leaves out keeps the earlier one's,
+         * as the upsert does
+         */
+        public AutosavedResponse plus(AutosavedResponse other) {
+            AutosavedResponse later = other.lastSavedAt.isBefore(lastSavedAt) ? this : other;
+            AutosavedResponse earlier = later == this ? other : this;
+            LocalDateTime first = other.firstSavedAt.isBefore(firstSavedAt) ? other.firstSavedAt : firstSavedAt;
+            return new AutosavedResponse(attemptId, questionId, later.quizQuestionId, later.answerData,
+                                         later.responseMetadata,
+                                         later.timeSpent != null ? later.timeSpent : earlier.timeSpent,
+                                         later.confidenceLevel != null ? later.confidenceLevel : earlier.confidenceLevel,
+                                         later.flaggedForReview, first, later.lastSavedAt,
+                                         saveCount + other.saveCount);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.mrquiz.repository.quiz;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Reads the tags of published quizzes (settings.tags) and active questions (tags) for the tag index.
+ * Untagged rows are read too, with no tags, since NOT queries match them.
+ *
+ * Full snapshots are streamed with a server-side cursor so they never sit in memory as rows.
+ */
+@Repository
+public class TagSnapshotJdbcRepository {
+
+    private static final int FETCH_SIZE = 5000;
+    private static final TypeReference<List<String>> TAG_LIST = new TypeReference<>() {
+    };
+
+    private static final String QUIZ_TAGS_SQL =
+            "SELECT id, CASE WHEN jsonb_typeof(settings -> 'tags') = 'array' THEN CAST(settings -> 'tags' AS text) END " +
+            "FROM quizzes WHERE status = 'PUBLISHED'";
+
+    private static final String QUESTION_TAGS_SQL =
+            "SELECT id, CASE WHEN jsonb_typeof(tags) = 'array' THEN CAST(tags AS text) END " +
+            "FROM questions WHERE status = 'ACTIVE'";
+
+    private static final String UPDATED_QUIZ_TAGS_SQL =
+            "SELECT id, CASE WHEN jsonb_typeof(settings -> 'tags') = 'array' THEN CAST(settings -> 'tags' AS text) END, " +
+            "status = 'PUBLISHED', updated_at FROM quizzes WHERE updated_at > ?";
+
+    private static final String UPDATED_QUESTION_TAGS_SQL =
+            "SELECT id, CASE WHEN jsonb_typeof(tags) = 'array' THEN CAST(tags AS text) END, " +
+            "status = 'ACTIVE', updated_at FROM questions WHERE updated_at > ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public TagSnapshotJdbcRepository(JdbcTemplate jdbcTemplate, DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    /**
+     * Stream the tags of every published quiz; Postgres only uses a cursor inside a transaction
+     */
+    @Transactional(readOnly = true)
+    public void streamQuizTags(BiConsumer<UUID, List<String>> consumer) {
+        streamingJdbcTemplate.query(QUIZ_TAGS_SQL, rs -> {
+            consumer.accept(rs.getObject(1, UUID.class), readTags(rs));
+        });
+    }
+
+    /**
+     * Stream the tags of every active question
+     */
+    @Transactional(readOnly = true)
+    public void streamQuestionTags(BiConsumer<UUID, List<String>> consumer) {
+        streamingJdbcTemplate.query(QUESTION_TAGS_SQL, rs -> {
+            consumer.accept(rs.getObject(1, UUID.class), readTags(rs));
+        });
+    }
+
+    /**
+     * Stream the quizzes updated after the given time, published or not, so the caller can
+     * drop those that were unpublished
+     */
+    @Transactional(readOnly = true)
+    public void streamQuizTagsUpdatedSince(LocalDateTime since, Consumer<UpdatedTags> consumer) {
+        streamingJdbcTemplate.query(UPDATED_QUIZ_TAGS_SQL, rs -> {
+            consumer.accept(readUpdatedTags(rs));
+        }, Timestamp.valueOf(since));
+    }
+
+    /**
+     * Stream the questions updated after the given time, active or not
+     */
+    @Transactional(readOnly = true)
+    public void streamQuestionTagsUpdatedSince(LocalDateTime since, Consumer<UpdatedTags> consumer) {
+        streamingJdbcTemplate.query(UPDATED_QUESTION_TAGS_SQL, rs -> {
+            consumer.accept(readUpdatedTags(rs));
+        }, Timestamp.valueOf(since));
+    }
+
+    /**
+     * Tags of the given quizzes; quizzes that are not published are absent
+     */
+    public Map<UUID, List<String>> findQuizTags(Collection<UUID> quizIds) {
+        Map<UUID, List<String>> tags = new HashMap<>();
+        if (quizIds.isEmpty()) {
+            return tags;
+        }
+        jdbcTemplate.query(QUIZ_TAGS_SQL + " AND id = ANY(CAST(? AS uuid[]))",
+                rs -> {
+                    tags.put(rs.getObject(1, UUID.class), readTags(rs));
+                },
+                (Object) quizIds.stream().map(UUID::toString).toArray(String[]::new));
+        return tags;
+    }
+
+    private UpdatedTags readUpdatedTags(ResultSet rs) throws SQLException {
+        return new UpdatedTags(rs.getObject(1, UUID.class), readTags(rs), rs.getBoolean(3),
+                               rs.getTimestamp(4).toLocalDateTime());
+    }
+
+    private List<String> readTags(ResultSet rs) throws SQLException {
+        String json = rs.getString(2);
+        if (json == null) {
+            return List.of();
+        }
+        try {
+            return objectMapper.readValue(json, TAG_LIST);
+        } catch (JsonProcessingException e) {
+            // Tags that are not all strings are skipped rather than failing the whole snapshot
+            return List.of();
+        }
+    }
+
+    /**
+     * Tags of a row read by the change poll; indexed is false for rows the index must not hold
+     */
+    public record UpdatedTags(UUID id, List<String> tags, boolean indexed, LocalDateTime updatedAt) {
+    }
+}
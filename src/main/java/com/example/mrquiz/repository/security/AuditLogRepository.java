@@ -3,6 +3,7 @@ package com.example.mrquiz.repository.security;
 import com.example.mrquiz.entity.security.AuditLog;
 import com.example.mrquiz.enums.SeverityLevel;
 import com.example.mrquiz.repository.BaseRepository;
+import com.example.mrquiz.repository.KeysetSlice;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
@@ -21,6 +22,13 @@ public interface AuditLogRepository extends BaseRepository<AuditLog> {
      */
     Page<AuditLog> findByUserId(UUID userId, Pageable pageable);
     
+    /**
+     * Find audit logs by user, newest first, with keyset pagination
+     */
+    default KeysetSlice<AuditLog> findByUserId(UUID userId, String cursor, int size) {
+        return findSlice((root, query, cb) -> cb.equal(root.get("user").get("id"), userId), cursor, size);
+    }
+    
     /**
      * Find audit logs by entity type
      */
@@ -47,11 +55,19 @@ public interface AuditLogRepository extends BaseRepository<AuditLog> {
      * Find audit logs in time range
      */
     @Query("SELECT al FROM AuditLog al WHERE al.createdAt BETWEEN :startTime AND :endTime " +
-           "ORDER BY al.createdAt DESC")
+           "ORDER BY al.createdAt DESC, al.id DESC")
     Page<AuditLog> findByTimeRange(@Param("startTime") LocalDateTime startTime,
                                   @Param("endTime") LocalDateTime endTime,
                                   Pageable pageable);
     
+    /**
+     * Find audit logs in time range, newest first, with keyset pagination
+     */
+    default KeysetSlice<AuditLog> findByTimeRange(LocalDateTime startTime, LocalDateTime endTime,
+                                                  String cursor, int size) {
+        return findSlice((root, query, cb) -> cb.between(root.get("createdAt"), startTime, endTime), cursor, size);
+    }
+    
     /**
      * Find recent audit logs
      */
@@ -0,0 +1,126 @@
+package com.example.mrquiz.service.auth;
+
+import com.example.mrquiz.repository.auth.UserActivityJdbcRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * Coalesces last-activity updates for users and sessions in memory.
+ *
+ * Only the latest timestamp per id is kept. Buffered timestamps are written in one
+ * batched UPDATE per table every {@code mrquiz.activity.flush-interval}, which is
+ * therefore the upper bound on how stale {@code last_activity} can be in the database,
+ * and once more on shutdown. A buffer that grows past {@code mrquiz.activity.max-pending}
+ * ids before then is flushed early by the caller that pushed it over.
+ *
+ * Session timestamps are recorded by whatever resolves a request to its session.
+ */
+@Slf4j
+@Component
+public class ActivityTracker {
+
+    @Autowired
+    private UserActivityJdbcRepository userActivityJdbcRepository;
+
+    private final ConcurrentHashMap<UUID, LocalDateTime> userActivity = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, LocalDateTime> sessionActivity = new ConcurrentHashMap<>();
+    private final int maxPending;
+
+    public ActivityTracker(@Value("${mrquiz.activity.max-pending:50000}") int maxPending) {
+        this.maxPending = maxPending;
+    }
+
+    // ============================================================================
+    // RECORDING
+    // ============================================================================
+
+    public void recordUserActivity(UUID userId, LocalDateTime timestamp) {
+        userActivity.merge(userId, timestamp, ActivityTracker::latest);
+        if (userActivity.size() > maxPending) {
+            flushEarly();
+        }
+    }
+
+    public void recordSessionActivity(UUID sessionId, LocalDateTime timestamp) {
+        sessionActivity.merge(sessionId, timestamp, ActivityTracker::latest);
+        if (sessionActivity.size() > maxPending) {
+            flushEarly();
+        }
+    }
+
+    public int getPendingUserCount() {
+        return userActivity.size();
+    }
+
+    public int getPendingSessionCount() {
+        return sessionActivity.size();
+    }
+
+    // ============================================================================
+    // FLUSHING
+    // ============================================================================
+
+    @Scheduled(fixedDelayString = "${mrquiz.activity.flush-interval:PT10S}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Entries stay buffered and are retried on the next tick
+            log.warn("Failed to flush activity buffer", e);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    public synchronized void flush() {
+        drain(userActivity, userActivityJdbcRepository::updateUserLastActivity);
+        drain(sessionActivity, userActivityJdbcRepository::updateSessionLastActivity);
+    }
+
+    /**
+     * Flush a buffer that outgrew its bound. Callers that crossed it together queue here,
+     * and those after the first find it drained
+     */
+    private synchronized void flushEarly() {
+        if (userActivity.size() <= maxPending && sessionActivity.size() <= maxPending) {
+            return;
+        }
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Entries stay buffered; the request that recorded them goes on
+            log.warn("Failed to flush activity buffer early", e);
+        }
+    }
+
+    private void drain(ConcurrentHashMap<UUID, LocalDateTime> buffer,
+                       ToIntFunction<Map<UUID, LocalDateTime>> writer) {
+        if (buffer.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, LocalDateTime> snapshot = new HashMap<>(buffer);
+        writer.applyAsInt(snapshot);
+
+        // Keep any id whose timestamp moved on while we were writing
+        snapshot.forEach(buffer::remove);
+    }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
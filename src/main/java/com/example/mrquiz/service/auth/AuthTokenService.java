@@ -13,9 +13,11 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -31,15 +33,27 @@ public class AuthTokenService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private TokenHasher tokenHasher;
+
+    @Autowired
+    private ValidatedTokenCache validatedTokenCache;
+
+    @Autowired
+    private LegacyTokenFallback legacyTokenFallback;
+
     private final SecureRandom secureRandom = new SecureRandom();
 
+    // Long-lived tokens that are presented on many requests; single-use tokens are never cached
+    private static final Set<TokenType> CACHEABLE_TOKEN_TYPES = EnumSet.of(TokenType.API_TOKEN, TokenType.REFRESH_TOKEN);
+
     // ============================================================================
     // TOKEN CREATION
     // ============================================================================
 
     public AuthTokenResponseDto createToken(AuthTokenCreateDto createDto) {
-        String token = generateSecureToken();
-        String tokenHash = passwordEncoder.encode(token);
+        String token = tokenHasher.generateToken();
+        String tokenHash = tokenHasher.digest(token);
         
         AuthToken authToken = mappingService.map(createDto, AuthToken.class);
         authToken.setTokenHash(tokenHash);
@@ -112,15 +126,28 @@ public class AuthTokenService {
     // ============================================================================
 
     public Optional<AuthTokenResponseDto> validateToken(String token, TokenType tokenType) {
-        List<AuthToken> tokens = authTokenRepository.findValidTokensByType(tokenType);
-        
-        for (AuthToken authToken : tokens) {
-            if (passwordEncoder.matches(token, authToken.getTokenHash())) {
-                return Optional.of(mappingService.map(authToken, AuthTokenResponseDto.class));
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+
+        String digest = lookupDigest(token);
+        ValidatedTokenCache.Lookup cached = validatedTokenCache.get(digest, tokenType);
+        if (!cached.isMiss()) {
+            return cached.asOptional();
+        }
+
+        long generation = validatedTokenCache.generation();
+        Optional<AuthTokenResponseDto> validated = findValidToken(token, digest, tokenType)
+                .map(authToken -> mappingService.map(authToken, AuthTokenResponseDto.class));
+        if (validated.isEmpty()) {
+            // A legacy token turned away by the scan throttle is unavailable, not unknown
+            if (!tokenHasher.isLegacyToken(token) || !legacyTokenFallback.mayScanLater(digest, LocalDateTime.now())) {
+                validatedTokenCache.putUnknown(digest, tokenType);
             }
+        } else if (CACHEABLE_TOKEN_TYPES.contains(tokenType)) {
+            validatedTokenCache.put(digest, validated.get(), generation);
         }
-        
-        return Optional.empty();
+        return validated;
     }
 
     public boolean verifyEmailToken(String token, UUID userId) {
@@ -161,14 +188,17 @@ public class AuthTokenService {
 
     public void markTokenAsUsed(UUID tokenId) {
         authTokenRepository.markTokenAsUsed(tokenId, LocalDateTime.now());
+        validatedTokenCache.invalidateToken(tokenId);
     }
 
     public void revokeUserTokens(UUID userId, TokenType tokenType) {
         authTokenRepository.markTokensAsUsed(userId, tokenType);
+        validatedTokenCache.invalidateUser(userId, tokenType);
     }
 
     public void revokeAllUserTokens(UUID userId) {
         authTokenRepository.revokeAllUserTokens(userId);
+        validatedTokenCache.invalidateUser(userId);
     }
 
     public void deleteExpiredTokens() {
@@ -233,6 +263,18 @@ public class AuthTokenService {
         return authTokenRepository.countExpiredTokens(LocalDateTime.now());
     }
 
+    public long countUnmigratedLegacyTokens() {
+        return authTokenRepository.countValidLegacyTokens(LocalDateTime.now());
+    }
+
+    public Map<String, Object> getTokenCacheStats() {
+        return validatedTokenCache.getStats();
+    }
+
+    public Map<String, Object> getLegacyTokenFallbackStats() {
+        return legacyTokenFallback.getStats();
+    }
+
     // ============================================================================
     // CLEANUP OPERATIONS
     // ============================================================================
@@ -254,18 +296,38 @@ public class AuthTokenService {
     // HELPER METHODS
     // ============================================================================
 
-    private String generateSecureToken() {
-        byte[] tokenBytes = new byte[32];
-        secureRandom.nextBytes(tokenBytes);
-        return bytesToHex(tokenBytes);
+    private String lookupDigest(String token) {
+        return tokenHasher.isSelectorVerifierToken(token) ? tokenHasher.digest(token) : tokenHasher.legacyDigest(token);
     }
 
-    private String bytesToHex(byte[] bytes) {
-        StringBuilder result = new StringBuilder();
-        for (byte b : bytes) {
-            result.append(String.format("%02x", b));
+    private Optional<AuthToken> findValidToken(String token, String digest, TokenType tokenType) {
+        LocalDateTime now = LocalDateTime.now();
+        boolean selectorVerifier = tokenHasher.isSelectorVerifierToken(token);
+
+        // Single lookup on idx_token_hash
+        Optional<AuthToken> authToken = authTokenRepository.findValidToken(digest, now)
+                .filter(t -> t.getTokenType() == tokenType && tokenHasher.matches(digest, t.getTokenHash()));
+        if (authToken.isPresent() || selectorVerifier) {
+            return authToken;
+        }
+
+        // Tokens issued before selector/verifier still carry a BCrypt hash
+        if (tokenHasher.isLegacyToken(token) && legacyTokenFallback.tryAcquire(digest, now)) {
+            return migrateLegacyToken(token, digest, tokenType, now);
         }
-        return result.toString();
+        return Optional.empty();
+    }
+
+    private Optional<AuthToken> migrateLegacyToken(String token, String digest, TokenType tokenType, LocalDateTime now) {
+        for (AuthToken authToken : authTokenRepository.findValidLegacyTokensByType(tokenType, now)) {
+            if (passwordEncoder.matches(token, authToken.getTokenHash())) {
+                // Re-key so the next presentation of this token is an indexed lookup
+                authTokenRepository.updateTokenHash(authToken.getId(), digest);
+                return Optional.of(authToken);
+            }
+        }
+        legacyTokenFallback.failed(digest);
+        return Optional.empty();
     }
 
     // Generate numeric OTP for MFA
@@ -0,0 +1,120 @@
+package com.example.mrquiz.service.auth;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Guards the BCrypt scan that migrates tokens issued before the selector/verifier format.
+ *
+ * A token of the legacy shape that misses the index costs one BCrypt match per valid
+ * legacy token of its type, so the scan is off unless enabled, stops for good at the
+ * configured deadline, runs at most a fixed number of times per second per node, and
+ * is never repeated for a digest that already failed it. Legacy tokens are no longer
+ * issued, so a digest that matched nothing once will never match.
+ */
+@Component
+public class LegacyTokenFallback {
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Map<String, Boolean> failedDigests = new ConcurrentHashMap<>();
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger scansInWindow = new AtomicInteger();
+
+    private final LongAdder scans = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder knownFailures = new LongAdder();
+
+    private final boolean enabled;
+    private final LocalDateTime deadline;
+    private final int maxScansPerSecond;
+    private final int maxFailedDigests;
+
+    public LegacyTokenFallback(@Value("${mrquiz.auth.legacy-token-fallback:false}") boolean enabled,
+                               @Value("${mrquiz.auth.legacy-token-deadline:}") String deadline,
+                               @Value("${mrquiz.auth.legacy-token-scans-per-second:5}") int maxScansPerSecond,
+                               @Value("${mrquiz.auth.legacy-token-max-failed-digests:100000}") int maxFailedDigests) {
+        if (enabled && (deadline == null || deadline.isBlank())) {
+            throw new IllegalStateException("mrquiz.auth.legacy-token-deadline is required when mrquiz.auth.legacy-token-fallback is on");
+        }
+        this.enabled = enabled;
+        this.deadline = deadline == null || deadline.isBlank() ? null : LocalDateTime.parse(deadline);
+        this.maxScansPerSecond = maxScansPerSecond;
+        this.maxFailedDigests = maxFailedDigests;
+    }
+
+    /**
+     * Whether a legacy token with this digest may be BCrypt-scanned now; a granted
+     * scan that finds nothing must be reported through {@link #failed(String)}
+     */
+    public boolean tryAcquire(String digest, LocalDateTime now) {
+        if (!enabled || !now.isBefore(deadline)) {
+            return false;
+        }
+        if (failedDigests.containsKey(digest)) {
+            knownFailures.increment();
+            return false;
+        }
+        if (!acquirePermit()) {
+            throttled.increment();
+            return false;
+        }
+        scans.increment();
+        return true;
+    }
+
+    /**
+     * Whether a legacy token with this digest could still be granted a scan, so a miss on it
+     * only means it was throttled and must not be remembered as unknown
+     */
+    public boolean mayScanLater(String digest, LocalDateTime now) {
+        return enabled && now.isBefore(deadline) && !failedDigests.containsKey(digest);
+    }
+
+    public void failed(String digest) {
+        if (failedDigests.size() >= maxFailedDigests) {
+            // Drop about a tenth, arbitrary ones; a dropped digest costs at most one more scan
+            int target = maxFailedDigests - Math.max(1, maxFailedDigests / 10);
+            Iterator<String> it = failedDigests.keySet().iterator();
+            while (failedDigests.size() > target && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        failedDigests.put(digest, Boolean.TRUE);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("deadline", deadline);
+        stats.put("scans", scans.sum());
+        stats.put("throttled", throttled.sum());
+        stats.put("knownFailures", knownFailures.sum());
+        stats.put("failedDigests", failedDigests.size());
+        return stats;
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private boolean acquirePermit() {
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+            scansInWindow.set(0);
+        }
+        return scansInWindow.incrementAndGet() <= maxScansPerSecond;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.mrquiz.service.auth;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password hashing on a dedicated pool sized to the available cores.
+ *
+ * The work queue is bounded: when it is full, submitters wait up to
+ * {@code mrquiz.security.password-hashing.queue-timeout} for a slot and are then
+ * rejected, so a burst of sign-ups cannot take more CPU than the pool allows.
+ *
+ * The blocking methods park the calling thread until the pool has done the work, queue wait
+ * included; callers that must not block, or that hash many passwords, use the async ones.
+ */
+@Service
+public class PasswordHashingService {
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private final ThreadPoolExecutor executor;
+
+    public PasswordHashingService(@Value("${mrquiz.security.password-hashing.threads:0}") int threads,
+                                  @Value("${mrquiz.security.password-hashing.queue-capacity:256}") int queueCapacity,
+                                  @Value("${mrquiz.security.password-hashing.queue-timeout:PT5S}") Duration queueTimeout) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), hashingThreadFactory(), waitForCapacity(queueTimeout));
+    }
+
+    // ============================================================================
+    // HASHING
+    // ============================================================================
+
+    public CompletableFuture<String> encodeAsync(String rawPassword) {
+        return CompletableFuture.supplyAsync(() -> passwordEncoder.encode(rawPassword), executor);
+    }
+
+    /**
+     * Hash on the pool and wait for the result; blocks the caller
+     */
+    public String encode(String rawPassword) {
+        return await(encodeAsync(rawPassword));
+    }
+
+    public CompletableFuture<Boolean> matchesAsync(String rawPassword, String passwordHash) {
+        return CompletableFuture.supplyAsync(() -> passwordEncoder.matches(rawPassword, passwordHash), executor);
+    }
+
+    /**
+     * Check on the pool and wait for the result; blocks the caller
+     */
+    public boolean matches(String rawPassword, String passwordHash) {
+        if (rawPassword == null || passwordHash == null) {
+            return false;
+        }
+        return await(matchesAsync(rawPassword, passwordHash));
+    }
+
+    /**
+     * Whether the hash was produced with a lower cost than the current encoder uses
+     */
+    public boolean needsRehash(String passwordHash) {
+        return passwordHash != null && passwordEncoder.upgradeEncoding(passwordHash);
+    }
+
+    public int getPoolSize() {
+        return executor.getCorePoolSize();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("poolSize", executor.getCorePoolSize());
+        stats.put("activeThreads", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("completed", executor.getCompletedTaskCount());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    /**
+     * Wait for a future of this service, rethrowing the failure of the hashing itself rather
+     * than the {@link CompletionException} wrapping it
+     */
+    public <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static RejectedExecutionHandler waitForCapacity(Duration queueTimeout) {
+        return (task, pool) -> {
+            if (pool.isShutdown()) {
+                throw new RejectedExecutionException("Password hashing service is shut down");
+            }
+            try {
+                if (!pool.getQueue().offer(task, queueTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                    throw new RejectedExecutionException("Password hashing queue is full");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for password hashing capacity", e);
+            }
+        };
+    }
+
+    private static ThreadFactory hashingThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.mrquiz.service.auth;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.regex.Pattern;
+
+/**
+ * Issues and digests auth tokens in selector/verifier form.
+ *
+ * A token is handed out as {@code <selector>.<verifier>}. Only
+ * {@code <selector>$<HMAC-SHA-256(verifier)>} is persisted in {@code token_hash},
+ * so validation is a single indexed equality lookup instead of a BCrypt scan.
+ * Tokens issued before this format (plain hex, BCrypt-hashed) are migrated to a
+ * {@code legacy$<HMAC-SHA-256(token)>} digest the first time they are presented
+ * while {@link LegacyTokenFallback} allows it.
+ */
+@Component
+public class TokenHasher {
+
+    static final String SEPARATOR = ".";
+    static final String DIGEST_SEPARATOR = "$";
+    static final String LEGACY_PREFIX = "legacy" + DIGEST_SEPARATOR;
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int SELECTOR_BYTES = 12;
+    private static final int VERIFIER_BYTES = 32;
+    private static final Pattern LEGACY_TOKEN_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+
+    public TokenHasher(@Value("${mrquiz.auth.token-hmac-secret:}") String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("mrquiz.auth.token-hmac-secret is not set (MRQUIZ_TOKEN_HMAC_SECRET)");
+        }
+        if (secret.length() < 32 || secret.chars().distinct().count() < 8) {
+            throw new IllegalStateException("mrquiz.auth.token-hmac-secret must be at least 32 characters and not trivially repetitive");
+        }
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * Generate a new plain token; the caller returns it to the client exactly once
+     */
+    public String generateToken() {
+        return randomUrlSafe(SELECTOR_BYTES) + SEPARATOR + randomUrlSafe(VERIFIER_BYTES);
+    }
+
+    /**
+     * Digest to persist and look up for a selector/verifier token,
+     * or null if the token is not in that format
+     */
+    public String digest(String token) {
+        if (!isSelectorVerifierToken(token)) {
+            return null;
+        }
+        int split = token.indexOf(SEPARATOR);
+        String selector = token.substring(0, split);
+        String verifier = token.substring(split + 1);
+        return selector + DIGEST_SEPARATOR + hmac(verifier);
+    }
+
+    /**
+     * Digest used for tokens issued before the selector/verifier format
+     */
+    public String legacyDigest(String token) {
+        return LEGACY_PREFIX + hmac(token);
+    }
+
+    /**
+     * Constant-time comparison of a stored digest with a computed one
+     */
+    public boolean matches(String expectedDigest, String storedDigest) {
+        if (expectedDigest == null || storedDigest == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(expectedDigest.getBytes(StandardCharsets.UTF_8),
+                                     storedDigest.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Whether the token has the shape of a pre-selector/verifier token (64 hex characters)
+     */
+    public boolean isLegacyToken(String token) {
+        return token != null && LEGACY_TOKEN_PATTERN.matcher(token).matches();
+    }
+
+    /**
+     * Whether the token has the {@code <selector>.<verifier>} shape
+     */
+    public boolean isSelectorVerifierToken(String token) {
+        if (token == null) {
+            return false;
+        }
+        int split = token.indexOf(SEPARATOR);
+        return split > 0 && split < token.length() - 1 && token.indexOf(SEPARATOR, split + 1) < 0;
+    }
+
+    private String hmac(String value) {
+        byte[] mac = macs.get().doFinal(value.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(mac);
+    }
+
+    private String randomUrlSafe(int numBytes) {
+        byte[] bytes = new byte[numBytes];
+        secureRandom.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA-256 is not available", e);
+        }
+    }
+}
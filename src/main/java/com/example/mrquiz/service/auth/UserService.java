@@ -17,10 +17,14 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @Transactional
@@ -41,6 +45,14 @@ public class UserService {
     @Autowired
     private AuthTokenService authTokenService;
 
+    @Autowired
+    private ActivityTracker activityTracker;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    private static final int BULK_INSERT_BATCH_SIZE = 100;
+
     // ============================================================================
     // BASIC USER OPERATIONS
     // ============================================================================
@@ -62,6 +74,53 @@ public class UserService {
         return mappingService.getUserMapper().toResponseDto(user);
     }
 
+    /**
+     * Create many users at once. Passwords are hashed in parallel on the hashing pool
+     * while earlier users are already being inserted.
+     */
+    public List<UserResponseDto> bulkCreateUsers(List<UserCreateDto> createDtos) {
+        Set<String> emails = new HashSet<>();
+        for (UserCreateDto createDto : createDtos) {
+            if (!emails.add(createDto.getEmail())) {
+                throw new RuntimeException("Duplicate email in request: " + createDto.getEmail());
+            }
+        }
+        List<String> existingEmails = userRepository.findExistingEmails(emails);
+        if (!existingEmails.isEmpty()) {
+            throw new RuntimeException("Email already exists: " + String.join(", ", existingEmails));
+        }
+
+        // Bounded window of in-flight hashes so a large import never waits on the pool's backpressure
+        int window = passwordHashingService.getPoolSize() * 4;
+        List<CompletableFuture<String>> hashes = new ArrayList<>(createDtos.size());
+        for (int i = 0; i < Math.min(window, createDtos.size()); i++) {
+            hashes.add(hashPassword(createDtos.get(i).getPassword()));
+        }
+
+        List<User> created = new ArrayList<>(createDtos.size());
+        List<User> batch = new ArrayList<>(BULK_INSERT_BATCH_SIZE);
+        for (int i = 0; i < createDtos.size(); i++) {
+            if (i + window < createDtos.size()) {
+                hashes.add(hashPassword(createDtos.get(i + window).getPassword()));
+            }
+
+            batch.add(mappingService.getUserMapper().toEntity(createDtos.get(i), passwordHashingService.await(hashes.get(i))));
+            if (batch.size() == BULK_INSERT_BATCH_SIZE) {
+                created.addAll(userRepository.saveAll(batch));
+                batch.clear();
+            }
+        }
+        created.addAll(userRepository.saveAll(batch));
+
+        for (User user : created) {
+            if (!user.getEmailVerified()) {
+                authTokenService.createEmailVerificationToken(user.getId());
+            }
+        }
+
+        return mappingService.getUserMapper().toResponseDtoList(created);
+    }
+
     public UserResponseDto updateUser(UUID userId, UserUpdateDto updateDto) {
         User user = findUserById(userId);
         mappingService.getUserMapper().updateEntity(updateDto, user);
@@ -238,7 +297,7 @@ public class UserService {
     }
 
     public void updateLastActivity(UUID userId) {
-        userRepository.updateLastActivity(userId, LocalDateTime.now());
+        activityTracker.recordUserActivity(userId, LocalDateTime.now());
     }
 
     public List<UserResponseDto> getLockedUsers() {
@@ -258,7 +317,7 @@ public class UserService {
     public void bulkUpdateLastActivity(List<UUID> userIds) {
         LocalDateTime timestamp = LocalDateTime.now();
         for (UUID userId : userIds) {
-            userRepository.updateLastActivity(userId, timestamp);
+            activityTracker.recordUserActivity(userId, timestamp);
         }
     }
 
@@ -349,6 +408,16 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
+    /**
+     * Users created without a password, such as invited ones, get no hash
+     */
+    private CompletableFuture<String> hashPassword(String rawPassword) {
+        if (rawPassword == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return passwordHashingService.encodeAsync(rawPassword);
+    }
+
     public boolean isEmailAvailable(String email) {
         return !userRepository.findByEmail(email).isPresent();
     }
@@ -357,6 +426,29 @@ public class UserService {
         return !userRepository.findByUsername(username).isPresent();
     }
 
+    /**
+     * Check credentials and, when the BCrypt cost has been raised since the password
+     * was stored, transparently re-hash it with the current cost
+     */
+    public Optional<UserResponseDto> verifyCredentials(String identifier, String password) {
+        Optional<User> userOpt = userRepository.findByEmailOrUsername(identifier);
+        if (userOpt.isEmpty()) {
+            return Optional.empty();
+        }
+
+        User user = userOpt.get();
+        if (!passwordHashingService.matches(password, user.getPasswordHash())) {
+            return Optional.empty();
+        }
+
+        if (passwordHashingService.needsRehash(user.getPasswordHash())) {
+            user.setPasswordHash(passwordHashingService.encode(password));
+        }
+        user.setLastLogin(LocalDateTime.now());
+        user = userRepository.save(user);
+        return Optional.of(mappingService.getUserMapper().toResponseDto(user));
+    }
+
     public void changePassword(UUID userId, String currentPassword, String newPassword) {
         User user = findUserById(userId);
         // Verify current password
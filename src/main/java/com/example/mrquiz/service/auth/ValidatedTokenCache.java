@@ -0,0 +1,367 @@
+package com.example.mrquiz.service.auth;
+
+import com.example.mrquiz.dto.auth.AuthTokenResponseDto;
+import com.example.mrquiz.enums.TokenType;
+import com.example.mrquiz.repository.auth.AuthTokenRepository;
+import com.example.mrquiz.service.TransactionHooks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Bounded in-process cache of validated auth tokens, keyed by token digest.
+ *
+ * Positive entries live until the token's expiresAt or the configured TTL, whichever
+ * comes first. Digests that matched no valid token of the requested type are
+ * remembered in a separate negative cache so repeated guesses never reach the database.
+ *
+ * Revocations through {@link AuthTokenService} invalidate immediately and again after commit.
+ * Every invalidation bumps a generation; a validation stamps the generation it read the token
+ * under and {@link #put} drops the entry if it has moved since, so a read that raced a
+ * revocation is never cached. Revocations made on other nodes set used_at, which is polled
+ * every {@code mrquiz.auth.token-cache.revocation-poll-interval}; tokens deleted outright are
+ * only dropped when the TTL runs out.
+ */
+@Component
+public class ValidatedTokenCache {
+
+    private final Map<String, CachedToken> entries = new ConcurrentHashMap<>();
+    private final Map<UUID, String> digestsByTokenId = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<String>> digestsByUser = new ConcurrentHashMap<>();
+    private final Map<String, Long> unknownDigests = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder stalePuts = new LongAdder();
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    private AuthTokenRepository authTokenRepository;
+
+    @Value("${mrquiz.auth.token-cache.revocation-overlap:PT1M}")
+    private Duration revocationOverlap;
+
+    private volatile LocalDateTime revocationWatermark = LocalDateTime.now();
+    // Ids the last poll returned; the overlap returns them again, and they need no second pass
+    private volatile Set<UUID> polledRevocations = Set.of();
+
+    private final int maxEntries;
+    private final int maxNegativeEntries;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+
+    public ValidatedTokenCache(@Value("${mrquiz.auth.token-cache.max-entries:100000}") int maxEntries,
+                               @Value("${mrquiz.auth.token-cache.max-negative-entries:50000}") int maxNegativeEntries,
+                               @Value("${mrquiz.auth.token-cache.ttl:PT5M}") Duration ttl,
+                               @Value("${mrquiz.auth.token-cache.negative-ttl:PT30S}") Duration negativeTtl) {
+        this.maxEntries = maxEntries;
+        this.maxNegativeEntries = maxNegativeEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.negativeTtlNanos = negativeTtl.toNanos();
+    }
+
+    // ============================================================================
+    // LOOKUP
+    // ============================================================================
+
+    /**
+     * Cached validation result for a digest: a token, {@link Lookup#UNKNOWN} for a
+     * recently rejected digest, or {@link Lookup#MISS} when the database must be asked
+     */
+    public Lookup get(String digest, TokenType tokenType) {
+        long now = System.nanoTime();
+
+        CachedToken cached = entries.get(digest);
+        if (cached != null) {
+            if (now - cached.expiresAtNanos >= 0) {
+                remove(digest, cached);
+                evictions.increment();
+            } else if (cached.token.getTokenType() == tokenType) {
+                hits.increment();
+                return Lookup.found(copyOf(cached.token));
+            } else {
+                negativeHits.increment();
+                return Lookup.UNKNOWN;
+            }
+        }
+
+        String unknownKey = unknownKey(digest, tokenType);
+        Long unknownUntil = unknownDigests.get(unknownKey);
+        if (unknownUntil != null) {
+            if (now - unknownUntil < 0) {
+                negativeHits.increment();
+                return Lookup.UNKNOWN;
+            }
+            unknownDigests.remove(unknownKey, unknownUntil);
+        }
+
+        misses.increment();
+        return Lookup.MISS;
+    }
+
+    /**
+     * Current invalidation generation; read it before loading the token that is passed to {@link #put}
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Cache a validated token unless something was invalidated since it was read under the
+     * given generation
+     */
+    public void put(String digest, AuthTokenResponseDto token, long readGeneration) {
+        long now = System.nanoTime();
+        long expiresAtNanos = now + Math.min(ttlNanos, nanosUntil(token.getExpiresAt()));
+        if (expiresAtNanos - now <= 0 || generation.get() != readGeneration) {
+            return;
+        }
+
+        if (entries.size() >= maxEntries) {
+            evict(entries, maxEntries, entry -> now - entry.expiresAtNanos >= 0);
+        }
+        unknownDigests.remove(unknownKey(digest, token.getTokenType()));
+        CachedToken cached = new CachedToken(copyOf(token), expiresAtNanos);
+        entries.put(digest, cached);
+        digestsByTokenId.put(token.getId(), digest);
+        digestsByUser.compute(token.getUserId(), (userId, digests) -> {
+            Set<String> userDigests = digests != null ? digests : ConcurrentHashMap.newKeySet();
+            userDigests.add(digest);
+            return userDigests;
+        });
+        // Invalidations bump the generation before removing, so one that ran during the
+        // insert is either seen here or removes the entry itself
+        if (generation.get() != readGeneration) {
+            remove(digest, cached);
+            stalePuts.increment();
+        }
+    }
+
+    /**
+     * Remember that no valid token of this type has the digest
+     */
+    public void putUnknown(String digest, TokenType tokenType) {
+        long now = System.nanoTime();
+        if (unknownDigests.size() >= maxNegativeEntries) {
+            evict(unknownDigests, maxNegativeEntries, until -> now - until >= 0);
+        }
+        unknownDigests.put(unknownKey(digest, tokenType), now + negativeTtlNanos);
+    }
+
+    // ============================================================================
+    // INVALIDATION
+    // ============================================================================
+
+    public void invalidateToken(UUID tokenId) {
+        TransactionHooks.nowAndAfterCommit(() -> removeToken(tokenId));
+    }
+
+    public void invalidateUser(UUID userId, TokenType tokenType) {
+        TransactionHooks.nowAndAfterCommit(() -> {
+            generation.incrementAndGet();
+            Set<String> digests = digestsByUser.get(userId);
+            if (digests == null) {
+                return;
+            }
+            for (String digest : List.copyOf(digests)) {
+                CachedToken cached = entries.get(digest);
+                if (cached != null && (tokenType == null || cached.token.getTokenType() == tokenType)
+                        && remove(digest, cached)) {
+                    invalidations.increment();
+                }
+            }
+        });
+    }
+
+    public void invalidateUser(UUID userId) {
+        invalidateUser(userId, null);
+    }
+
+    public void invalidateAll() {
+        TransactionHooks.nowAndAfterCommit(() -> {
+            generation.incrementAndGet();
+            invalidations.add(entries.size());
+            entries.clear();
+            digestsByTokenId.clear();
+            digestsByUser.clear();
+        });
+    }
+
+    /**
+     * Drop tokens used or revoked on any node since the last poll; overlaps the previous
+     * poll so revocations committed late, or stamped by a node whose clock lags, are not missed.
+     * Ids the previous poll already dropped are skipped, and the rest go under one generation bump
+     */
+    @Scheduled(fixedDelayString = "${mrquiz.auth.token-cache.revocation-poll-interval:PT5S}")
+    public void pollRevocations() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = revocationWatermark.minus(revocationOverlap);
+        if (!entries.isEmpty()) {
+            Set<UUID> polled = Set.copyOf(authTokenRepository.findTokenIdsUsedSince(since));
+            Set<UUID> processed = polledRevocations;
+            List<UUID> fresh = polled.stream().filter(tokenId -> !processed.contains(tokenId)).toList();
+            if (!fresh.isEmpty()) {
+                removeTokens(fresh);
+            }
+            polledRevocations = polled;
+        }
+        revocationWatermark = now;
+    }
+
+    // ============================================================================
+    // METRICS
+    // ============================================================================
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long negativeHitCount = negativeHits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + negativeHitCount + missCount;
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", entries.size());
+        stats.put("negativeSize", unknownDigests.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hitCount);
+        stats.put("negativeHits", negativeHitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", requests > 0 ? (double) (hitCount + negativeHitCount) / requests : 0);
+        stats.put("evictions", evictions.sum());
+        stats.put("invalidations", invalidations.sum());
+        stats.put("stalePuts", stalePuts.sum());
+        return stats;
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private String unknownKey(String digest, TokenType tokenType) {
+        return tokenType.name() + ':' + digest;
+    }
+
+    private void removeToken(UUID tokenId) {
+        removeTokens(List.of(tokenId));
+    }
+
+    private void removeTokens(Collection<UUID> tokenIds) {
+        generation.incrementAndGet();
+        for (UUID tokenId : tokenIds) {
+            String digest = digestsByTokenId.get(tokenId);
+            CachedToken cached = digest != null ? entries.get(digest) : null;
+            if (cached != null && remove(digest, cached)) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    private boolean remove(String digest, CachedToken cached) {
+        if (!entries.remove(digest, cached)) {
+            return false;
+        }
+        forget(digest, cached);
+        return true;
+    }
+
+    private void forget(String digest, CachedToken cached) {
+        digestsByTokenId.remove(cached.token.getId(), digest);
+        digestsByUser.computeIfPresent(cached.token.getUserId(), (userId, digests) -> {
+            digests.remove(digest);
+            return digests.isEmpty() ? null : digests;
+        });
+    }
+
+    /**
+     * Drop expired entries, then arbitrary ones, until the map is 10% under its bound
+     */
+    private <V> void evict(Map<String, V> map, int bound, Predicate<V> expired) {
+        int target = bound - Math.max(1, bound / 10);
+        Iterator<Map.Entry<String, V>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, V> entry = it.next();
+            if (expired.test(entry.getValue())) {
+                evictEntry(it, entry);
+            }
+        }
+        it = map.entrySet().iterator();
+        while (map.size() > target && it.hasNext()) {
+            evictEntry(it, it.next());
+        }
+    }
+
+    private <V> void evictEntry(Iterator<Map.Entry<String, V>> it, Map.Entry<String, V> entry) {
+        it.remove();
+        if (entry.getValue() instanceof CachedToken cached) {
+            forget(entry.getKey(), cached);
+        }
+        evictions.increment();
+    }
+
+    private long nanosUntil(LocalDateTime expiresAt) {
+        if (expiresAt == null) {
+            return ttlNanos;
+        }
+        long millis = expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() - System.currentTimeMillis();
+        return Duration.ofMillis(millis).toNanos();
+    }
+
+    private AuthTokenResponseDto copyOf(AuthTokenResponseDto token) {
+        AuthTokenResponseDto copy = new AuthTokenResponseDto();
+        copy.setId(token.getId());
+        copy.setUserId(token.getUserId());
+        copy.setTokenType(token.getTokenType());
+        copy.setExpiresAt(token.getExpiresAt());
+        copy.setUsedAt(token.getUsedAt());
+        copy.setMetadata(token.getMetadata() != null ? new HashMap<>(token.getMetadata()) : null);
+        copy.setCreatedAt(token.getCreatedAt());
+        return copy;
+    }
+
+    private record CachedToken(AuthTokenResponseDto token, long expiresAtNanos) {
+    }
+
+    /**
+     * Result of a cache lookup
+     */
+    public record Lookup(AuthTokenResponseDto token, boolean known) {
+
+        static final Lookup MISS = new Lookup(null, true);
+        static final Lookup UNKNOWN = new Lookup(null, false);
+
+        static Lookup found(AuthTokenResponseDto token) {
+            return new Lookup(token, true);
+        }
+
+        public boolean isMiss() {
+            return token == null && known;
+        }
+
+        public boolean isUnknown() {
+            return !known;
+        }
+
+        public Optional<AuthTokenResponseDto> asOptional() {
+            return Optional.ofNullable(token);
+        }
+    }
+}
@@ -0,0 +1,471 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.repository.quiz.ActiveAttemptJdbcRepository;
+import com.example.mrquiz.repository.quiz.ActiveAttemptJdbcRepository.AttemptRow;
+import com.example.mrquiz.repository.quiz.ActiveAttemptJdbcRepository.Progress;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compact in-memory state of in-progress attempts, so navigating an attempt reads no rows.
+ *
+ * Each attempt keeps its current question index, a bitset of answered questions by position
+ * in the quiz definition, its time spent, its deadline and the seed its question order is
+ * shuffled with; the order itself is recomputed from the seed when asked for. The seed is
+ * derived from the attempt id, so every node shuffles an attempt the same way. Navigation
+ * and time spent are written behind every {@code mrquiz.attempt.active.flush-interval}, and
+ * attempts idle for {@code mrquiz.attempt.active.idle-timeout} are dropped once written. A
+ * miss, including after a failover to another node, rehydrates the attempt from its row
+ * and its responses.
+ *
+ * Attempts are held per node, so one may be submitted or expired elsewhere. Every hit checks
+ * the deadline, the status of all held attempts is re-read every
+ * {@code mrquiz.attempt.active.revalidate-interval}, and a write-behind that finds the
+ * attempt no longer in progress drops it; once dropped, reads and navigation are refused.
+ *
+ * Per attempt, with compressed references, the state object is 64 bytes, the bitset 16
+ * bytes plus 8 per 64 questions, and the map node with its UUID key 64 bytes, so about
+ * 160 bytes for a 100-question quiz. Answer payloads are not held here.
+ * {@link #getStats()} reports that estimate summed over the live attempts;
+ * ActiveAttemptRegistryMemoryTest checks it against a JOL measurement.
+ */
+@Slf4j
+@Component
+public class ActiveAttemptRegistry {
+
+    private static final String IN_PROGRESS = "IN_PROGRESS";
+
+    static final int MAP_ENTRY_BYTES = 32 + 32;
+    static final int STATE_BYTES = 64;
+    static final int ARRAY_HEADER_BYTES = 16;
+
+    @Autowired
+    private ActiveAttemptJdbcRepository activeAttemptJdbcRepository;
+
+    @Autowired
+    private QuizDefinitionService quizDefinitionService;
+
+    @Value("${mrquiz.attempt.active.idle-timeout:PT15M}")
+    private Duration idleTimeout;
+
+    @Value("${mrquiz.attempt.active.max-counted-gap:PT2M}")
+    private Duration maxCountedGap;
+
+    @Value("${mrquiz.attempt.deadline.grace:PT10S}")
+    private Duration deadlineGrace;
+
+    @Value("${mrquiz.autosave.flush-interval:PT1S}")
+    private Duration autosaveFlushInterval;
+
+    private final ConcurrentHashMap<UUID, ActiveAttempt> attempts = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder rehydrations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder endedElsewhere = new LongAdder();
+
+    // ============================================================================
+    // LOOKUP AND NAVIGATION
+    // ============================================================================
+
+    /**
+     * Current state of an in-progress attempt, counting the time since it was last touched
+     */
+    public AttemptState get(UUID attemptId) {
+        ActiveAttempt attempt = resolve(attemptId);
+        synchronized (attempt) {
+            long now = System.currentTimeMillis();
+            checkInProgress(attemptId, attempt, now);
+            attempt.touch(now, maxCountedGap.toMillis());
+            return attempt.state(attemptId, quizDefinitionService.getStudentView(attempt.quizId));
+        }
+    }
+
+    /**
+     * Move an attempt to the question at the given position of its question order
+     */
+    public AttemptState navigate(UUID attemptId, int questionIndex) {
+        ActiveAttempt attempt = resolve(attemptId);
+        synchronized (attempt) {
+            long now = System.currentTimeMillis();
+            checkInProgress(attemptId, attempt, now);
+            if (questionIndex < 0 || questionIndex >= attempt.questionCount) {
+                throw new RuntimeException("Question index out of range");
+            }
+            attempt.touch(now, maxCountedGap.toMillis());
+            attempt.currentIndex = questionIndex;
+            attempt.dirty = true;
+            return attempt.state(attemptId, quizDefinitionService.getStudentView(attempt.quizId));
+        }
+    }
+
+    /**
+     * Mark a question answered, refusing attempts that are no longer in progress. Answers are
+     * taken until one autosave flush interval before the deadline grace ends: the deadline
+     * service only flushes its own node's buffer, so an answer buffered on another node must
+     * be written by then.
+     */
+    public void answered(UUID attemptId, UUID questionId) {
+        ActiveAttempt attempt = resolve(attemptId);
+        int position = position(quizDefinitionService.getStudentView(attempt.quizId), questionId);
+        synchronized (attempt) {
+            long now = System.currentTimeMillis();
+            long window = Math.max(0, deadlineGrace.minus(autosaveFlushInterval).toMillis());
+            if (attempt.ended || now - window >= attempt.deadlineMillis) {
+                throw new RuntimeException("Attempt is not in progress");
+            }
+            attempt.touch(now, maxCountedGap.toMillis());
+            if (position >= 0 && position < attempt.questionCount) {
+                attempt.answered[position >>> 6] |= 1L << position;
+            }
+        }
+    }
+
+    /**
+     * Write and drop an attempt that is no longer in progress
+     */
+    public void attemptEnded(UUID attemptId) {
+        ActiveAttempt attempt = attempts.remove(attemptId);
+        if (attempt != null) {
+            Progress progress;
+            synchronized (attempt) {
+                attempt.ended = true;
+                progress = attempt.progress(attemptId);
+            }
+            write(List.of(progress));
+        }
+    }
+
+    /**
+     * Drop attempts that were closed by a set-based update, without writing them
+     */
+    public void attemptsEnded(Collection<UUID> attemptIds) {
+        attemptIds.forEach(this::drop);
+    }
+
+    public Map<String, Object> getStats() {
+        long bytes = 0;
+        for (ActiveAttempt attempt : attempts.values()) {
+            bytes += attempt.estimatedBytes();
+        }
+        int size = attempts.size();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", size);
+        stats.put("estimatedBytes", bytes);
+        stats.put("estimatedBytesPerAttempt", size > 0 ? bytes / size : 0);
+        stats.put("hits", hits.sum());
+        stats.put("rehydrations", rehydrations.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("endedElsewhere", endedElsewhere.sum());
+        return stats;
+    }
+
+    // ============================================================================
+    // WRITE-BEHIND AND EVICTION
+    // ============================================================================
+
+    @Scheduled(fixedDelayString = "${mrquiz.attempt.active.flush-interval:PT5S}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Attempts stay dirty and are retried on the next tick
+            log.warn("Failed to write active attempt state", e);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    public synchronized void flush() {
+        long idleBefore = System.currentTimeMillis() - idleTimeout.toMillis();
+        List<Progress> progress = new ArrayList<>();
+        List<ActiveAttempt> written = new ArrayList<>();
+        List<UUID> idle = new ArrayList<>();
+        attempts.forEach((attemptId, attempt) -> {
+            synchronized (attempt) {
+                if (attempt.dirty) {
+                    progress.add(attempt.progress(attemptId));
+                    attempt.dirty = false;
+                    written.add(attempt);
+                }
+                if (attempt.lastTouchMillis < idleBefore) {
+                    idle.add(attemptId);
+                }
+            }
+        });
+
+        try {
+            // Attempts submitted or expired by another node since they were loaded
+            for (UUID attemptId : write(progress)) {
+                drop(attemptId);
+                endedElsewhere.increment();
+            }
+        } catch (RuntimeException e) {
+            written.forEach(attempt -> {
+                synchronized (attempt) {
+                    attempt.dirty = true;
+                }
+            });
+            throw e;
+        }
+
+        for (UUID attemptId : idle) {
+            ActiveAttempt attempt = attempts.get(attemptId);
+            // Only evict what was written above; an attempt touched since stays
+            if (attempt != null && !attempt.isDirty() && attempts.remove(attemptId, attempt)) {
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Re-read the status and deadline of every held attempt, dropping those that ended on
+     * another node and picking up deadlines that moved
+     */
+    @Scheduled(fixedDelayString = "${mrquiz.attempt.active.revalidate-interval:PT5S}")
+    public void revalidate() {
+        if (attempts.isEmpty()) {
+            return;
+        }
+        try {
+            Set<UUID> held = new HashSet<>(attempts.keySet());
+            for (AttemptRow row : activeAttemptJdbcRepository.findAttempts(held)) {
+                held.remove(row.attemptId());
+                ActiveAttempt attempt = attempts.get(row.attemptId());
+                if (attempt == null) {
+                    continue;
+                }
+                if (!IN_PROGRESS.equals(row.status())) {
+                    drop(row.attemptId());
+                    endedElsewhere.increment();
+                    continue;
+                }
+                synchronized (attempt) {
+                    attempt.deadlineMillis = toEpochMillis(row.deadline());
+                }
+            }
+            // Deleted attempts
+            held.forEach(this::drop);
+        } catch (RuntimeException e) {
+            log.warn("Failed to revalidate active attempts", e);
+        }
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    /**
+     * Refuse an attempt that was dropped or whose time ran out; caller holds the attempt's monitor
+     */
+    private void checkInProgress(UUID attemptId, ActiveAttempt attempt, long nowMillis) {
+        if (attempt.ended) {
+            throw new RuntimeException("Attempt is not in progress");
+        }
+        if (nowMillis >= attempt.deadlineMillis) {
+            // The deadline service closes it; until then nothing more is counted against it
+            attempt.ended = true;
+            attempts.remove(attemptId, attempt);
+            throw new RuntimeException("Attempt time limit exceeded");
+        }
+    }
+
+    /**
+     * Forget an attempt without writing it; callers still holding it see it as ended
+     */
+    private void drop(UUID attemptId) {
+        ActiveAttempt attempt = attempts.remove(attemptId);
+        if (attempt != null) {
+            synchronized (attempt) {
+                attempt.ended = true;
+            }
+        }
+    }
+
+    private ActiveAttempt resolve(UUID attemptId) {
+        ActiveAttempt attempt = attempts.get(attemptId);
+        if (attempt != null) {
+            hits.increment();
+            return attempt;
+        }
+
+        AttemptRow row = activeAttemptJdbcRepository.findAttempt(attemptId)
+                .orElseThrow(() -> new RuntimeException("Attempt not found"));
+        if (!IN_PROGRESS.equals(row.status())) {
+            throw new RuntimeException("Attempt is not in progress");
+        }
+        QuizDefinition.StudentView quiz = quizDefinitionService.getStudentView(row.quizId());
+        ActiveAttempt loaded = new ActiveAttempt(quiz.quizId(), quiz.questions().size(), row.timeSpent(),
+                                                 System.currentTimeMillis());
+        loaded.deadlineMillis = toEpochMillis(row.deadline());
+        for (UUID questionId : activeAttemptJdbcRepository.findAnsweredQuestionIds(attemptId)) {
+            int position = position(quiz, questionId);
+            if (position >= 0) {
+                loaded.answered[position >>> 6] |= 1L << position;
+            }
+        }
+        if (row.currentQuestionIndex() != null && row.currentQuestionIndex() < loaded.questionCount) {
+            loaded.currentIndex = Math.max(0, row.currentQuestionIndex());
+        }
+        // Attempts loaded before seeds were derived from the id keep the seed they were shown with
+        loaded.shuffleSeed = row.shuffleSeed() != null ? row.shuffleSeed() : shuffleSeed(attemptId);
+        rehydrations.increment();
+
+        ActiveAttempt existing = attempts.putIfAbsent(attemptId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    /**
+     * Write progress; returns the attempts that are no longer in progress
+     */
+    private List<UUID> write(List<Progress> progress) {
+        if (progress.isEmpty()) {
+            return List.of();
+        }
+        return activeAttemptJdbcRepository.updateProgress(progress, LocalDateTime.now());
+    }
+
+    /**
+     * The same seed on every node, without a write to agree on it
+     */
+    static long shuffleSeed(UUID attemptId) {
+        return attemptId.getMostSignificantBits() ^ attemptId.getLeastSignificantBits();
+    }
+
+    private static long toEpochMillis(LocalDateTime deadline) {
+        return deadline != null ? deadline.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : Long.MAX_VALUE;
+    }
+
+    /**
+     * Position of a question in the quiz definition, or -1
+     */
+    private static int position(QuizDefinition.StudentView quiz, UUID questionId) {
+        List<QuizDefinition.StudentQuestion> questions = quiz.questions();
+        for (int i = 0; i < questions.size(); i++) {
+            if (questions.get(i).questionId().equals(questionId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Mutable state of one attempt; guarded by its own monitor
+     */
+    static final class ActiveAttempt {
+
+        private final UUID quizId;
+        private final int questionCount;
+        private final long[] answered;
+        private int currentIndex;
+        private int timeSpentSeconds;
+        private long lastTouchMillis;
+        private long deadlineMillis = Long.MAX_VALUE;
+        private long shuffleSeed;
+        private boolean dirty;
+        private boolean ended;
+
+        ActiveAttempt(UUID quizId, int questionCount, int timeSpentSeconds, long nowMillis) {
+            this.quizId = quizId;
+            this.questionCount = questionCount;
+            this.answered = new long[(questionCount + 63) >>> 6];
+            this.timeSpentSeconds = timeSpentSeconds;
+            this.lastTouchMillis = nowMillis;
+        }
+
+        /**
+         * Count the time since the last touch, unless the gap is too long to have been spent on the attempt
+         */
+        void touch(long nowMillis, long maxCountedGapMillis) {
+            long gap = nowMillis - lastTouchMillis;
+            if (gap > 0 && gap <= maxCountedGapMillis) {
+                int seconds = (int) (gap / 1000);
+                if (seconds > 0) {
+                    timeSpentSeconds += seconds;
+                    // Keep the remainder for the next touch
+                    lastTouchMillis += seconds * 1000L;
+                    dirty = true;
+                }
+                return;
+            }
+            lastTouchMillis = nowMillis;
+        }
+
+        synchronized boolean isDirty() {
+            return dirty;
+        }
+
+        Progress progress(UUID attemptId) {
+            return new Progress(attemptId, timeSpentSeconds, currentIndex, shuffleSeed);
+        }
+
+        AttemptState state(UUID attemptId, QuizDefinition.StudentView quiz) {
+            List<UUID> order = questionOrder(quiz);
+            List<UUID> answeredIds = new ArrayList<>();
+            for (int i = 0; i < order.size() && i < questionCount; i++) {
+                if ((answered[i >>> 6] & (1L << i)) != 0) {
+                    answeredIds.add(quiz.questions().get(i).questionId());
+                }
+            }
+            UUID current = currentIndex < order.size() ? order.get(currentIndex) : null;
+            return new AttemptState(attemptId, quizId, currentIndex, current, order, answeredIds,
+                                    timeSpentSeconds, shuffleSeed);
+        }
+
+        /**
+         * Question ids in the order this attempt sees them: the definition order, or a
+         * Fisher-Yates shuffle of it seeded with the attempt's seed
+         */
+        private List<UUID> questionOrder(QuizDefinition.StudentView quiz) {
+            List<UUID> order = new ArrayList<>(quiz.questions().size());
+            quiz.questions().forEach(question -> order.add(question.questionId()));
+            if (Boolean.TRUE.equals(quiz.shuffleQuestions())) {
+                SplittableRandom random = new SplittableRandom(shuffleSeed);
+                for (int i = order.size() - 1; i > 0; i--) {
+                    int j = random.nextInt(i + 1);
+                    order.set(j, order.set(i, order.get(j)));
+                }
+            }
+            return order;
+        }
+
+        long estimatedBytes() {
+            return MAP_ENTRY_BYTES + STATE_BYTES + ARRAY_HEADER_BYTES + 8L * answered.length;
+        }
+    }
+
+    /**
+     * What a page load needs about an attempt. Answered questions are listed in definition order.
+     */
+    public record AttemptState(UUID attemptId,
+                               UUID quizId,
+                               int currentIndex,
+                               UUID currentQuestionId,
+                               List<UUID> questionOrder,
+                               List<UUID> answeredQuestionIds,
+                               int timeSpentSeconds,
+                               long shuffleSeed) {
+    }
+}
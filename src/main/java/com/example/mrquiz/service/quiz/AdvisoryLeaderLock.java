@@ -0,0 +1,124 @@
+package com.example.mrquiz.service.quiz;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leadership held through a session-level Postgres advisory lock.
+ *
+ * The lock lives as long as the dedicated connection that took it, so a node that dies or
+ * loses its connection gives up leadership without any cleanup, and another node picks
+ * it up on its next {@link #tryAcquire()}. The connection comes from a {@link ConnectionSource}
+ * outside the application pool, since it stays open for as long as the node leads. It is
+ * validated at most every {@value #VALIDATION_INTERVAL_SECONDS} seconds, so a lost session is
+ * noticed that late at worst and leader work must tolerate a short overlap.
+ * Not thread-safe; callers synchronize.
+ */
+@Slf4j
+public class AdvisoryLeaderLock {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final int VALIDATION_INTERVAL_SECONDS = 5;
+
+    private final ConnectionSource connectionSource;
+    private final long lockKey;
+
+    private Connection connection;
+    private long validatedAt;
+
+    public AdvisoryLeaderLock(ConnectionSource connectionSource, long lockKey) {
+        this.connectionSource = connectionSource;
+        this.lockKey = lockKey;
+    }
+
+    /**
+     * Whether this node still holds the lock; drops leadership if the connection is gone
+     */
+    public boolean isHeld() {
+        if (connection == null) {
+            return false;
+        }
+        long now = System.nanoTime();
+        if (now - validatedAt < TimeUnit.SECONDS.toNanos(VALIDATION_INTERVAL_SECONDS)) {
+            return true;
+        }
+        try {
+            if (connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                validatedAt = now;
+                return true;
+            }
+        } catch (SQLException e) {
+            log.warn("Failed to validate advisory lock connection", e);
+        }
+        log.warn("Lost advisory lock {}", lockKey);
+        closeQuietly();
+        return false;
+    }
+
+    /**
+     * Take the lock if no other session holds it
+     */
+    public boolean tryAcquire() {
+        if (isHeld()) {
+            return true;
+        }
+        try {
+            connection = connectionSource.open();
+            connection.setAutoCommit(true);
+            try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+                statement.setLong(1, lockKey);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (resultSet.next() && resultSet.getBoolean(1)) {
+                        validatedAt = System.nanoTime();
+                        log.info("Acquired advisory lock {}", lockKey);
+                        return true;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("Failed to acquire advisory lock {}", lockKey, e);
+        }
+        closeQuietly();
+        return false;
+    }
+
+    public void release() {
+        if (connection == null) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+            statement.setLong(1, lockKey);
+            statement.execute();
+        } catch (SQLException e) {
+            // Closing the session releases the lock anyway
+            log.debug("Failed to release advisory lock {}", lockKey, e);
+        }
+        closeQuietly();
+    }
+
+    private void closeQuietly() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Failed to close advisory lock connection", e);
+        }
+        connection = null;
+    }
+
+    /**
+     * Opens the connection a lock pins while it is held
+     */
+    @FunctionalInterface
+    public interface ConnectionSource {
+
+        Connection open() throws SQLException;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.entity.quiz.QuizAttempt;
+import com.example.mrquiz.enums.AttemptStatus;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Arms the deadline of attempts while they are in progress and disarms it once they are not
+ */
+@Component
+public class AttemptDeadlineListener {
+
+    @Lazy
+    @Autowired
+    private AttemptDeadlineService attemptDeadlineService;
+
+    @PostPersist
+    @PostUpdate
+    public void saved(QuizAttempt attempt) {
+        if (attempt.getStatus() == AttemptStatus.IN_PROGRESS && attempt.getQuiz() != null) {
+            attemptDeadlineService.attemptStarted(attempt.getId(), attempt.getQuiz().getId(),
+                                                  attempt.getStartedAt(), attempt.getTimeLimit());
+        } else {
+            attemptDeadlineService.attemptEnded(attempt.getId());
+        }
+    }
+
+    @PostRemove
+    public void removed(QuizAttempt attempt) {
+        attemptDeadlineService.attemptEnded(attempt.getId());
+    }
+}
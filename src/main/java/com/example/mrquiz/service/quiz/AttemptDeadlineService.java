@@ -0,0 +1,305 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.enums.AttemptStatus;
+import com.example.mrquiz.repository.quiz.AttemptDeadlineJdbcRepository;
+import com.example.mrquiz.repository.quiz.AttemptDeadlineJdbcRepository.Deadline;
+import com.example.mrquiz.service.TransactionHooks;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Ends in-progress attempts when their time runs out.
+ *
+ * Every timed attempt is armed in a {@link TimingWheel} at its deadline plus
+ * {@code mrquiz.attempt.deadline.grace}, which leaves room for the last autosave to land.
+ * Answers are refused from one {@code mrquiz.autosave.flush-interval} before then, so those
+ * buffered on other nodes are written by the time this node flushes its own and closes the attempt.
+ * Due attempts are submitted, or marked EXPIRED, in batches each tick. Only the node holding
+ * the deadline advisory lock runs the wheel. It rebuilds the wheel from the in-progress index
+ * when it becomes leader and every {@code mrquiz.attempt.deadline.rebuild-interval}, and picks
+ * up attempts started on other nodes every {@code mrquiz.attempt.deadline.refresh-interval}.
+ * The UPDATE re-checks status and deadline; attempts that were given more time are re-armed.
+ *
+ * The deadline queries rely on the partial index idx_quiz_attempts_in_progress; with
+ * {@code mrquiz.attempt.deadline.manage-index} on, a node creates it at startup if it is
+ * missing or INVALID.
+ */
+@Slf4j
+@Service
+public class AttemptDeadlineService {
+
+    private static final int WHEEL_SIZE = 60;
+    private static final int WHEEL_LEVELS = 4;
+    private static final int EXPIRE_BATCH_SIZE = 1000;
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Autowired
+    private AttemptDeadlineJdbcRepository attemptDeadlineJdbcRepository;
+
+    @Lazy
+    @Autowired
+    private QuizDefinitionService quizDefinitionService;
+
+    @Lazy
+    @Autowired
+    private ResponseAutosaveBuffer responseAutosaveBuffer;
+
+    @Lazy
+    @Autowired
+    private ActiveAttemptRegistry activeAttemptRegistry;
+
+    @Value("${mrquiz.attempt.deadline.manage-index:false}")
+    private boolean manageIndex;
+
+    private final Clock clock;
+    private final AdvisoryLeaderLock leaderLock;
+    private final long tickMillis;
+    private final Duration grace;
+    private final Duration refreshInterval;
+    private final Duration rebuildInterval;
+    private final AttemptStatus expiredStatus;
+
+    private TimingWheel<UUID> wheel;
+    private long nextRefreshMillis;
+    private long nextRebuildMillis;
+    private LocalDateTime startedWatermark;
+
+    public AttemptDeadlineService(AdvisoryLeaderLock.ConnectionSource leaderLockConnections,
+                                  Clock clock,
+                                  @Value("${mrquiz.attempt.deadline.lock-key:7310588}") long lockKey,
+                                  @Value("${mrquiz.attempt.deadline.tick:PT1S}") Duration tick,
+                                  @Value("${mrquiz.attempt.deadline.grace:PT10S}") Duration grace,
+                                  @Value("${mrquiz.attempt.deadline.refresh-interval:PT30S}") Duration refreshInterval,
+                                  @Value("${mrquiz.attempt.deadline.rebuild-interval:PT1H}") Duration rebuildInterval,
+                                  @Value("${mrquiz.attempt.deadline.auto-submit:true}") boolean autoSubmit) {
+        this.clock = clock;
+        this.leaderLock = new AdvisoryLeaderLock(leaderLockConnections, lockKey);
+        this.tickMillis = tick.toMillis();
+        this.grace = grace;
+        this.refreshInterval = refreshInterval;
+        this.rebuildInterval = rebuildInterval;
+        this.expiredStatus = autoSubmit ? AttemptStatus.SUBMITTED : AttemptStatus.EXPIRED;
+    }
+
+    // ============================================================================
+    // ARMING
+    // ============================================================================
+
+    /**
+     * Arm an attempt's deadline once the current transaction commits; a no-op on non-leader nodes
+     */
+    public void attemptStarted(UUID attemptId, UUID quizId, LocalDateTime startedAt, Integer timeLimit) {
+        TransactionHooks.afterCommit(() -> arm(attemptId, quizId, startedAt, timeLimit));
+    }
+
+    /**
+     * Disarm an attempt that left IN_PROGRESS, once the current transaction commits
+     */
+    public void attemptEnded(UUID attemptId) {
+        TransactionHooks.afterCommit(() -> disarm(attemptId));
+    }
+
+    public synchronized boolean isLeader() {
+        return wheel != null;
+    }
+
+    public synchronized int getPendingCount() {
+        return wheel != null ? wheel.size() : 0;
+    }
+
+    // ============================================================================
+    // TICKING
+    // ============================================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndex() {
+        if (manageIndex && !attemptDeadlineJdbcRepository.isInProgressIndexValid()) {
+            try {
+                attemptDeadlineJdbcRepository.createInProgressIndex();
+            } catch (DataAccessException e) {
+                log.warn("Failed to build idx_quiz_attempts_in_progress; retried on the next start", e);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${mrquiz.attempt.deadline.tick:PT1S}")
+    public void tick() {
+        List<UUID> due;
+        synchronized (this) {
+            if (!ensureLeadership()) {
+                return;
+            }
+            long now = clock.millis();
+            if (now >= nextRebuildMillis) {
+                rebuild(now);
+            } else if (now >= nextRefreshMillis) {
+                refresh(now);
+            }
+            due = wheel.advance(now);
+        }
+        if (!due.isEmpty()) {
+            expire(due);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        wheel = null;
+        leaderLock.release();
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private boolean ensureLeadership() {
+        if (leaderLock.isHeld()) {
+            return true;
+        }
+        wheel = null;
+        if (!leaderLock.tryAcquire()) {
+            return false;
+        }
+        nextRebuildMillis = 0;
+        return true;
+    }
+
+    private void rebuild(long now) {
+        wheel = new TimingWheel<>(tickMillis, WHEEL_SIZE, WHEEL_LEVELS, now);
+        startedWatermark = EPOCH;
+        refresh(now);
+        nextRebuildMillis = now + rebuildInterval.toMillis();
+        log.debug("Loaded {} attempt deadlines", wheel.size());
+    }
+
+    /**
+     * Arm attempts started since the last refresh, including those started on other nodes
+     */
+    private void refresh(long now) {
+        // Overlap by a refresh interval so attempts committed late with an earlier start are not missed
+        LocalDateTime since = startedWatermark.minus(refreshInterval);
+        LocalDateTime watermark = toLocalDateTime(now);
+        for (Deadline deadline : attemptDeadlineJdbcRepository.findDeadlines(since.isBefore(EPOCH) ? EPOCH : since)) {
+            wheel.schedule(deadline.attemptId(), toEpochMillis(deadline.deadline().plus(grace)));
+        }
+        startedWatermark = watermark;
+        nextRefreshMillis = now + refreshInterval.toMillis();
+    }
+
+    private void arm(UUID attemptId, UUID quizId, LocalDateTime startedAt, Integer timeLimit) {
+        if (!isLeader()) {
+            return;
+        }
+        // Resolved outside the lock since it may load the quiz definition
+        LocalDateTime deadline = deadline(quizId, startedAt, timeLimit);
+        synchronized (this) {
+            if (wheel == null) {
+                return;
+            }
+            if (deadline == null) {
+                wheel.cancel(attemptId);
+            } else {
+                wheel.schedule(attemptId, toEpochMillis(deadline.plus(grace)));
+            }
+        }
+    }
+
+    private synchronized void disarm(UUID attemptId) {
+        if (wheel != null) {
+            wheel.cancel(attemptId);
+        }
+    }
+
+    /**
+     * Same rule as the repository's deadline expression, from the cached quiz definition
+     */
+    private LocalDateTime deadline(UUID quizId, LocalDateTime startedAt, Integer timeLimit) {
+        if (startedAt == null) {
+            return null;
+        }
+        if (timeLimit != null) {
+            return startedAt.plusMinutes(timeLimit);
+        }
+        QuizDefinition.StudentView quiz = quizDefinitionService.getStudentView(quizId);
+        if (quiz.timeLimit() != null) {
+            return startedAt.plusMinutes(quiz.timeLimit());
+        }
+        if (quiz.timePerQuestion() != null) {
+            return startedAt.plusSeconds((long) quiz.timePerQuestion() * quiz.questions().size());
+        }
+        return null;
+    }
+
+    private void expire(List<UUID> due) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime dueBy = now.minus(grace);
+        int expired = 0;
+        try {
+            for (int from = 0; from < due.size(); from += EXPIRE_BATCH_SIZE) {
+                List<UUID> batch = due.subList(from, Math.min(from + EXPIRE_BATCH_SIZE, due.size()));
+                // Answers still buffered on this node go in before the attempt is closed; other
+                // nodes stopped taking them a flush interval before the grace ended
+                responseAutosaveBuffer.flushAttempts(batch);
+                List<UUID> changed = attemptDeadlineJdbcRepository.expireAttempts(
+                        batch, expiredStatus.name(), dueBy, now);
+                expired += changed.size();
+                activeAttemptRegistry.attemptsEnded(changed);
+                rearmUnchanged(batch, changed);
+            }
+        } catch (RuntimeException e) {
+            // The next rebuild finds the attempts again since they are still in progress
+            log.warn("Failed to expire attempts", e);
+            synchronized (this) {
+                nextRebuildMillis = 0;
+            }
+        }
+        if (expired > 0) {
+            log.info("Ended {} attempts that ran out of time", expired);
+        }
+    }
+
+    /**
+     * Re-arm attempts that are still in progress because their deadline moved
+     */
+    private void rearmUnchanged(List<UUID> batch, List<UUID> changed) {
+        Set<UUID> unchanged = new HashSet<>(batch);
+        changed.forEach(unchanged::remove);
+        if (unchanged.isEmpty()) {
+            return;
+        }
+        List<Deadline> deadlines = attemptDeadlineJdbcRepository.findDeadlines(unchanged);
+        synchronized (this) {
+            if (wheel == null) {
+                return;
+            }
+            for (Deadline deadline : deadlines) {
+                wheel.schedule(deadline.attemptId(), toEpochMillis(deadline.deadline().plus(grace)));
+            }
+        }
+    }
+
+    private long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(clock.getZone()).toInstant().toEpochMilli();
+    }
+
+    private LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), clock.getZone());
+    }
+}
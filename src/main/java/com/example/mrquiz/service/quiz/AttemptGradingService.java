@@ -0,0 +1,328 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.repository.quiz.AttemptGradingJdbcRepository;
+import com.example.mrquiz.repository.quiz.AttemptGradingJdbcRepository.AttemptGrade;
+import com.example.mrquiz.repository.quiz.AttemptGradingJdbcRepository.Response;
+import com.example.mrquiz.repository.quiz.AttemptGradingJdbcRepository.ResponseGrade;
+import com.example.mrquiz.repository.quiz.AttemptGradingJdbcRepository.SubmittedAttempt;
+import com.example.mrquiz.repository.quiz.QuizStatsJdbcRepository.Counters;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Grades submitted attempts in bulk.
+ *
+ * The node holding the grading advisory lock pages through submitted attempts by id, on a
+ * coordinator thread of its own rather than the scheduler's, and hands each page to a worker
+ * pool, at most {@code mrquiz.grading.max-in-flight} pages at a time.
+ * A worker loads the page's responses in one query, grades them with the compiled graders of
+ * the cached quiz definition and writes response and attempt grades in JDBC batches, in one
+ * transaction per page. Attempts are only finalized while still SUBMITTED, so a run that dies
+ * half way is picked up by the next poll without grading anything twice.
+ *
+ * Attempts of quizzes with questions that need a human grader get their automatic responses
+ * graded but stay SUBMITTED, marked deferred in the same transaction so later polls skip them.
+ * Responses that already carry a grade, a teacher's included, are left as they are, so attempt
+ * scores are summed from the stored response grades once the page's grades are written.
+ */
+@Slf4j
+@Service
+public class AttemptGradingService {
+
+    private static final UUID FIRST_ID = new UUID(0, 0);
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    @Autowired
+    private AttemptGradingJdbcRepository attemptGradingJdbcRepository;
+
+    @Autowired
+    private QuizDefinitionService quizDefinitionService;
+
+    @Autowired
+    private QuizStatsService quizStatsService;
+
+    private final TransactionTemplate transactionTemplate;
+    private final AdvisoryLeaderLock leaderLock;
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor coordinator;
+    private final int pageSize;
+    private final int maxInFlight;
+    private final Duration progressInterval;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final LongAdder attemptsGraded = new LongAdder();
+    private final LongAdder responsesGraded = new LongAdder();
+    private final LongAdder attemptsDeferred = new LongAdder();
+    private final LongAdder pagesFailed = new LongAdder();
+
+    public AttemptGradingService(AdvisoryLeaderLock.ConnectionSource leaderLockConnections,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${mrquiz.grading.lock-key:7310587}") long lockKey,
+                                 @Value("${mrquiz.grading.threads:0}") int threads,
+                                 @Value("${mrquiz.grading.page-size:200}") int pageSize,
+                                 @Value("${mrquiz.grading.max-in-flight:0}") int maxInFlight,
+                                 @Value("${mrquiz.grading.progress-interval:PT10S}") Duration progressInterval) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.leaderLock = new AdvisoryLeaderLock(leaderLockConnections, lockKey);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), gradingThreadFactory("attempt-grading-"));
+        // Pages the attempts and feeds the workers; a separate thread so it never waits on a
+        // page queued behind itself. A poll that finds it busy is dropped.
+        this.coordinator = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(), gradingThreadFactory("attempt-grading-coordinator-"),
+                new ThreadPoolExecutor.DiscardPolicy());
+        this.pageSize = pageSize;
+        this.maxInFlight = maxInFlight > 0 ? maxInFlight : poolSize * 2;
+        this.progressInterval = progressInterval;
+    }
+
+    // ============================================================================
+    // GRADING
+    // ============================================================================
+
+    /**
+     * Start a run on the coordinator thread, so a long run does not hold up the other scheduled jobs
+     */
+    @Scheduled(fixedDelayString = "${mrquiz.grading.poll-interval:PT10S}")
+    public void scheduledGrading() {
+        if (running.get()) {
+            return;
+        }
+        synchronized (leaderLock) {
+            if (!leaderLock.tryAcquire()) {
+                return;
+            }
+        }
+        coordinator.execute(() -> {
+            try {
+                gradeSubmittedAttempts();
+            } catch (RuntimeException e) {
+                log.warn("Grading run failed; submitted attempts are picked up by the next poll", e);
+            }
+        });
+    }
+
+    /**
+     * Grade every submitted attempt; returns the number of attempts graded, or 0 when a run is
+     * already in progress on this node
+     */
+    public long gradeSubmittedAttempts() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        long gradedBefore = attemptsGraded.sum();
+        long startedNanos = System.nanoTime();
+        try {
+            runPages();
+        } finally {
+            running.set(false);
+        }
+        long graded = attemptsGraded.sum() - gradedBefore;
+        if (graded > 0) {
+            log.info("Graded {} attempts in {} ms", graded, (System.nanoTime() - startedNanos) / 1_000_000);
+        }
+        return graded;
+    }
+
+    public Map<String, Object> getProgress() {
+        Map<String, Object> progress = new HashMap<>();
+        progress.put("running", running.get());
+        progress.put("attemptsGraded", attemptsGraded.sum());
+        progress.put("responsesGraded", responsesGraded.sum());
+        progress.put("attemptsDeferred", attemptsDeferred.sum());
+        progress.put("pagesFailed", pagesFailed.sum());
+        progress.put("activeWorkers", executor.getActiveCount());
+        progress.put("queuedPages", executor.getQueue().size());
+        return progress;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdown();
+        executor.shutdown();
+        synchronized (leaderLock) {
+            leaderLock.release();
+        }
+    }
+
+    // ============================================================================
+    // PIPELINE
+    // ============================================================================
+
+    private void runPages() {
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        Map<UUID, QuizDefinition> definitions = new ConcurrentHashMap<>();
+        long nextReport = System.nanoTime() + progressInterval.toNanos();
+        long responsesAtStart = responsesGraded.sum();
+        long startedNanos = System.nanoTime();
+        UUID after = FIRST_ID;
+        try {
+            while (true) {
+                List<SubmittedAttempt> page = attemptGradingJdbcRepository.findSubmittedAttempts(after, pageSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+                after = page.get(page.size() - 1).attemptId();
+
+                // Bounded in-flight work: the reader waits while the workers are busy
+                inFlight.acquire();
+                executor.execute(() -> {
+                    try {
+                        gradePage(page, definitions);
+                    } catch (RuntimeException e) {
+                        pagesFailed.increment();
+                        log.warn("Failed to grade {} attempts; they stay submitted for the next run", page.size(), e);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+
+                if (System.nanoTime() >= nextReport) {
+                    double seconds = (System.nanoTime() - startedNanos) / 1e9;
+                    log.info("Grading in progress: {} responses/s, {} pages queued",
+                             Math.round((responsesGraded.sum() - responsesAtStart) / seconds), executor.getQueue().size());
+                    nextReport = System.nanoTime() + progressInterval.toNanos();
+                }
+            }
+            // Wait for the pages still being graded
+            inFlight.acquire(maxInFlight);
+            inFlight.release(maxInFlight);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void gradePage(List<SubmittedAttempt> attempts, Map<UUID, QuizDefinition> definitions) {
+        Map<UUID, List<Response>> responsesByAttempt = new HashMap<>();
+        for (Response response : attemptGradingJdbcRepository.findResponses(
+                attempts.stream().map(SubmittedAttempt::attemptId).toList())) {
+            responsesByAttempt.computeIfAbsent(response.attemptId(), key -> new ArrayList<>()).add(response);
+        }
+
+        List<ResponseGrade> responseGrades = new ArrayList<>();
+        List<SubmittedAttempt> complete = new ArrayList<>();
+        List<UUID> deferred = new ArrayList<>();
+        for (SubmittedAttempt attempt : attempts) {
+            QuizDefinition definition = definitions.get(attempt.quizId());
+            if (definition == null) {
+                definition = quizDefinitionService.getDefinition(attempt.quizId());
+                definitions.put(attempt.quizId(), definition);
+            }
+            QuizDefinition.GraderView graderView = definition.graderView();
+
+            for (Response response : responsesByAttempt.getOrDefault(attempt.attemptId(), List.of())) {
+                QuizDefinition.GradingQuestion question = graderView.questions().get(response.questionId());
+                QuestionGrader.Grade grade = question != null ? question.grade(response.answerData()) : null;
+                if (grade != null) {
+                    responseGrades.add(new ResponseGrade(response.responseId(), grade.pointsEarned(), grade.maxPoints(),
+                                                         grade.correct(), grade.partialCredit()));
+                }
+            }
+
+            if (graderView.questions().values().stream().allMatch(QuizDefinition.GradingQuestion::autoGraded)) {
+                complete.add(attempt);
+            } else {
+                deferred.add(attempt.attemptId());
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            attemptGradingJdbcRepository.updateResponseGrades(responseGrades, now);
+            attemptGradingJdbcRepository.markDeferred(deferred, now);
+            // Responses graded earlier keep their points, so score what is stored rather than what was computed
+            Map<UUID, BigDecimal> scores = attemptGradingJdbcRepository.findScores(
+                    complete.stream().map(SubmittedAttempt::attemptId).toList());
+            List<AttemptGrade> attemptGrades = new ArrayList<>();
+            for (SubmittedAttempt attempt : complete) {
+                attemptGrades.add(attemptGrade(attempt, definitions.get(attempt.quizId()).graderView(),
+                                               scores.getOrDefault(attempt.attemptId(), BigDecimal.ZERO)));
+            }
+            boolean[] written = attemptGradingJdbcRepository.updateAttemptGrades(attemptGrades, now);
+            for (int i = 0; i < written.length; i++) {
+                AttemptGrade grade = attemptGrades.get(i);
+                if (written[i]) {
+                    // Bulk writes bypass the attempt entity listener
+                    quizStatsService.record(grade.quizId(), new Counters(0, 1, grade.percentage(), 0));
+                    attemptsGraded.increment();
+                }
+            }
+        });
+        responsesGraded.add(responseGrades.size());
+        attemptsDeferred.add(deferred.size());
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private AttemptGrade attemptGrade(SubmittedAttempt attempt, QuizDefinition.GraderView graderView, BigDecimal score) {
+        BigDecimal totalPoints = graderView.totalPoints();
+        if (totalPoints == null || totalPoints.signum() <= 0) {
+            totalPoints = graderView.questions().values().stream()
+                    .map(question -> question.points() != null ? question.points() : BigDecimal.ZERO)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        }
+        // Negative points can take a question below zero, but not the whole attempt
+        BigDecimal earned = score.max(BigDecimal.ZERO).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal percentage = totalPoints.signum() > 0
+                ? earned.multiply(HUNDRED).divide(totalPoints, 2, RoundingMode.HALF_UP).min(HUNDRED)
+                : BigDecimal.ZERO.setScale(2);
+        Boolean passed = graderView.passingScore() != null ? percentage.compareTo(graderView.passingScore()) >= 0 : null;
+        return new AttemptGrade(attempt.attemptId(), attempt.quizId(), earned, totalPoints, percentage,
+                                letterGrade(percentage), passed);
+    }
+
+    static String letterGrade(BigDecimal percentage) {
+        double value = percentage.doubleValue();
+        if (value >= 90) {
+            return "A";
+        }
+        if (value >= 80) {
+            return "B";
+        }
+        if (value >= 70) {
+            return "C";
+        }
+        if (value >= 60) {
+            return "D";
+        }
+        return "F";
+    }
+
+    private static ThreadFactory gradingThreadFactory(String namePrefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
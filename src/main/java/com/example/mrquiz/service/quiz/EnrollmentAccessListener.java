@@ -0,0 +1,29 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.entity.core.CourseEnrollment;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Refreshes a user's quiz access whenever one of their enrollments is saved or removed
+ */
+@Component
+public class EnrollmentAccessListener {
+
+    @Lazy
+    @Autowired
+    private QuizAccessService quizAccessService;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void enrollmentChanged(CourseEnrollment enrollment) {
+        if (enrollment.getUser() != null) {
+            quizAccessService.userChanged(enrollment.getUser().getId());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.service.TransactionHooks;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory map of active join codes to their quiz.
+ *
+ * Loaded from {@code quiz_join_codes} at startup and on every full reload by {@link JoinCodeService},
+ * and kept current as codes are generated or expired on this node, so resolving a code
+ * does not touch the database. Codes created or expired on other nodes arrive with the
+ * service's change poll, or on the first lookup that misses here.
+ */
+@Component
+public class JoinCodeIndex {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public Entry get(String code) {
+        Entry entry = entries.get(code);
+        if (entry == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return entry;
+    }
+
+    /**
+     * Add a code once the transaction that created it has committed
+     */
+    public void putAfterCommit(String code, UUID quizId, LocalDateTime expiresAt) {
+        Entry entry = new Entry(quizId, expiresAt);
+        TransactionHooks.afterCommit(() -> entries.put(code, entry));
+    }
+
+    public void put(String code, UUID quizId, LocalDateTime expiresAt) {
+        entries.put(code, new Entry(quizId, expiresAt));
+    }
+
+    /**
+     * Remove the code if it still maps to the given entry
+     */
+    public void remove(String code, Entry entry) {
+        entries.remove(code, entry);
+    }
+
+    public void removeAll(Collection<String> codes) {
+        codes.forEach(entries::remove);
+    }
+
+    /**
+     * Replace the content with a fresh load of every active code
+     */
+    public void reload(Map<String, Entry> activeCodes) {
+        entries.keySet().retainAll(activeCodes.keySet());
+        entries.putAll(activeCodes);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", entries.size());
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", hitCount + missCount > 0 ? (double) hitCount / (hitCount + missCount) : 0);
+        return stats;
+    }
+
+    public record Entry(UUID quizId, LocalDateTime expiresAt) {
+
+        public boolean isActive(LocalDateTime now) {
+            return expiresAt == null || now.isBefore(expiresAt);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.entity.quiz.Quiz;
+import com.example.mrquiz.entity.quiz.QuizJoinCode;
+import com.example.mrquiz.repository.quiz.QuizJoinCodeRepository;
+import com.example.mrquiz.repository.quiz.QuizRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Join codes live in {@code quiz_join_codes} (unique on code) and are resolved through
+ * {@link JoinCodeIndex}; the database is only read when a code is not in the index yet.
+ *
+ * Codes created or expired on other nodes are polled by {@code updated_at} every
+ * {@code mrquiz.join-codes.refresh-interval}, and the index is reloaded in full every
+ * {@code mrquiz.join-codes.reload-interval} to drop codes deleted outright. An entry found
+ * expired on lookup is dropped there and then.
+ */
+@Slf4j
+@Service
+@Transactional
+public class JoinCodeService {
+
+    public static final String SOURCE_QUIZ = "quiz";
+    public static final String SOURCE_INVITATION = "invitation";
+
+    private static final String CODE_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+    private static final int CODE_LENGTH = 8;
+
+    @Autowired
+    private QuizJoinCodeRepository quizJoinCodeRepository;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private JoinCodeIndex joinCodeIndex;
+
+    @Value("${mrquiz.join-codes.refresh-overlap:PT10S}")
+    private Duration refreshOverlap;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+    private volatile LocalDateTime watermark;
+
+    // ============================================================================
+    // CODE GENERATION
+    // ============================================================================
+
+    public String generateCode(UUID quizId, String source, LocalDateTime expiresAt, Map<String, Object> settings) {
+        return generateCodes(quizId, 1, source, expiresAt, settings).get(0);
+    }
+
+    public List<String> generateCodes(UUID quizId, int count, String source,
+                                      LocalDateTime expiresAt, Map<String, Object> settings) {
+        Quiz quiz = quizRepository.findById(quizId)
+                .orElseThrow(() -> new RuntimeException("Quiz not found"));
+
+        Set<String> codes = new LinkedHashSet<>();
+        while (codes.size() < count) {
+            String code = generateAlphanumericCode(CODE_LENGTH);
+            if (joinCodeIndex.get(code) == null && !quizJoinCodeRepository.existsByCode(code)) {
+                codes.add(code);
+            }
+        }
+
+        List<QuizJoinCode> joinCodes = new ArrayList<>();
+        for (String code : codes) {
+            QuizJoinCode joinCode = new QuizJoinCode();
+            joinCode.setQuiz(quiz);
+            joinCode.setCode(code);
+            joinCode.setSource(source);
+            joinCode.setExpiresAt(expiresAt);
+            joinCode.setSettings(settings);
+            joinCodes.add(joinCode);
+        }
+        quizJoinCodeRepository.saveAll(joinCodes);
+
+        codes.forEach(code -> joinCodeIndex.putAfterCommit(code, quizId, expiresAt));
+        return new ArrayList<>(codes);
+    }
+
+    /**
+     * Expire the quiz's current code(s) from the given source and issue a new one
+     */
+    public String rotateCode(UUID quizId, String source) {
+        expireCodes(quizJoinCodeRepository.findActiveCodesByQuizAndSource(quizId, source, LocalDateTime.now()));
+        return generateCode(quizId, source, null, null);
+    }
+
+    // ============================================================================
+    // CODE RESOLUTION
+    // ============================================================================
+
+    /**
+     * Quiz the code currently grants access to
+     */
+    @Transactional(readOnly = true)
+    public Optional<UUID> resolveQuizId(String code) {
+        String normalized = normalize(code);
+        if (normalized == null) {
+            return Optional.empty();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        JoinCodeIndex.Entry entry = joinCodeIndex.get(normalized);
+        if (entry == null) {
+            entry = loadEntry(normalized, now);
+        }
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (!entry.isActive(now)) {
+            joinCodeIndex.remove(normalized, entry);
+            return Optional.empty();
+        }
+        return Optional.of(entry.quizId());
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isActive(String code) {
+        return resolveQuizId(code).isPresent();
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<QuizJoinCode> findByCode(String code) {
+        String normalized = normalize(code);
+        return normalized != null ? quizJoinCodeRepository.findByCode(normalized) : Optional.empty();
+    }
+
+    // ============================================================================
+    // CODE LIFECYCLE
+    // ============================================================================
+
+    public void expireCodes(List<String> codes) {
+        if (codes.isEmpty()) {
+            return;
+        }
+        quizJoinCodeRepository.expireCodes(codes, LocalDateTime.now());
+        joinCodeIndex.removeAll(codes);
+    }
+
+    public void recordUsage(String code) {
+        String normalized = normalize(code);
+        if (normalized != null) {
+            quizJoinCodeRepository.incrementUsage(normalized, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Load active codes at startup, after moving any codes still kept in quiz settings.
+     *
+     * The moved keys are cleared in the same transaction, so the backfill runs once; a code
+     * that another quiz already holds cannot be moved and is dropped with a warning.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long pending = quizJoinCodeRepository.countQuizSettingsJoinCodes();
+        if (pending > 0) {
+            int migrated = quizJoinCodeRepository.backfillFromQuizSettings();
+            quizJoinCodeRepository.clearQuizSettingsJoinCodes();
+            log.info("Moved {} join codes from quiz settings to quiz_join_codes", migrated);
+            if (migrated < pending) {
+                log.warn("Dropped {} join codes from quiz settings that were already taken", pending - migrated);
+            }
+        }
+        reloadIndex();
+    }
+
+    /**
+     * Apply codes created or expired on other nodes since the last poll
+     */
+    @Scheduled(fixedDelayString = "${mrquiz.join-codes.refresh-interval:PT10S}",
+               initialDelayString = "${mrquiz.join-codes.refresh-interval:PT10S}")
+    @Transactional(readOnly = true)
+    public void refreshIndex() {
+        LocalDateTime since = watermark;
+        if (since == null) {
+            return;
+        }
+        try {
+            // Re-read a little before the last poll so commits that were in flight are not missed
+            LocalDateTime latest = since;
+            LocalDateTime now = LocalDateTime.now();
+            for (Object[] row : quizJoinCodeRepository.findCodeEntriesUpdatedSince(since.minus(refreshOverlap))) {
+                String code = (String) row[0];
+                JoinCodeIndex.Entry entry = new JoinCodeIndex.Entry((UUID) row[1], (LocalDateTime) row[2]);
+                if (entry.isActive(now)) {
+                    joinCodeIndex.put(code, entry.quizId(), entry.expiresAt());
+                } else {
+                    joinCodeIndex.removeAll(List.of(code));
+                }
+                LocalDateTime updatedAt = (LocalDateTime) row[3];
+                if (updatedAt.isAfter(latest)) {
+                    latest = updatedAt;
+                }
+            }
+            watermark = latest;
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh join code index", e);
+        }
+    }
+
+    /**
+     * Reload the whole index so codes deleted on other nodes drop out of it
+     */
+    @Scheduled(fixedDelayString = "${mrquiz.join-codes.reload-interval:PT1H}",
+               initialDelayString = "${mrquiz.join-codes.reload-interval:PT1H}")
+    @Transactional(readOnly = true)
+    public void scheduledReload() {
+        try {
+            reloadIndex();
+        } catch (RuntimeException e) {
+            log.warn("Failed to reload join code index", e);
+        }
+    }
+
+    public Map<String, Object> getIndexStats() {
+        return joinCodeIndex.getStats();
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private void reloadIndex() {
+        LocalDateTime started = LocalDateTime.now();
+        Map<String, JoinCodeIndex.Entry> activeCodes = new HashMap<>();
+        for (Object[] row : quizJoinCodeRepository.findActiveCodeEntries(started)) {
+            activeCodes.put((String) row[0], new JoinCodeIndex.Entry((UUID) row[1], (LocalDateTime) row[2]));
+        }
+        joinCodeIndex.reload(activeCodes);
+        if (watermark == null || watermark.isBefore(started)) {
+            watermark = started;
+        }
+    }
+
+    private JoinCodeIndex.Entry loadEntry(String code, LocalDateTime now) {
+        List<Object[]> rows = quizJoinCodeRepository.findActiveCodeEntry(code, now);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object[] row = rows.get(0);
+        UUID quizId = (UUID) row[1];
+        LocalDateTime expiresAt = (LocalDateTime) row[2];
+        joinCodeIndex.put(code, quizId, expiresAt);
+        return new JoinCodeIndex.Entry(quizId, expiresAt);
+    }
+
+    private String normalize(String code) {
+        if (code == null || code.isBlank()) {
+            return null;
+        }
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private String generateAlphanumericCode(int length) {
+        StringBuilder code = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            code.append(CODE_CHARS.charAt(secureRandom.nextInt(CODE_CHARS.length())));
+        }
+        return code.toString();
+    }
+}
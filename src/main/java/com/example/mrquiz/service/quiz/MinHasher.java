@@ -0,0 +1,168 @@
+package com.example.mrquiz.service.quiz;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.regex.Pattern;
+
+/**
+ * MinHash signatures of question text for near-duplicate detection.
+ *
+ * A question's text and the string values of its question data (answer options and the like)
+ * are normalized, split into word 3-shingles and reduced to {@value #SIGNATURE_LENGTH} minimum
+ * hashes. The share of equal positions in two signatures estimates the Jaccard similarity of
+ * their shingle sets. For locality-sensitive hashing the signature is cut into {@value #BANDS}
+ * bands of {@value #ROWS} rows; two questions share a band key with probability 1 - (1 - s^4)^16,
+ * which is above 0.99 at similarity 0.8, about 0.12 at 0.3 and about 0.025 at 0.2.
+ */
+public final class MinHasher {
+
+    public static final int SIGNATURE_LENGTH = 64;
+    public static final int BANDS = 16;
+    public static final int ROWS = SIGNATURE_LENGTH / BANDS;
+
+    private static final int SHINGLE_WORDS = 3;
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final long[] SEEDS = new SplittableRandom(0x6d727175697aL).longs(SIGNATURE_LENGTH).toArray();
+
+    private MinHasher() {
+    }
+
+    // ============================================================================
+    // SIGNATURES
+    // ============================================================================
+
+    /**
+     * Signature of a question's text and question data; texts without words get all-max hashes
+     */
+    public static int[] signature(String questionText, Map<String, Object> questionData) {
+        List<String> words = new ArrayList<>();
+        addWords(questionText, words);
+        if (questionData != null) {
+            addValueWords(questionData, words);
+        }
+        return signature(words);
+    }
+
+    public static int[] signature(List<String> words) {
+        int[] signature = new int[SIGNATURE_LENGTH];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        int shingles = Math.max(1, words.size() - SHINGLE_WORDS + 1);
+        for (int start = 0; start < shingles && !words.isEmpty(); start++) {
+            long shingle = 0xcbf29ce484222325L;
+            for (int i = start; i < Math.min(words.size(), start + SHINGLE_WORDS); i++) {
+                shingle = fnv(shingle, words.get(i));
+            }
+            for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+                // Non-negative, so the unused all-max signature sorts after every real hash
+                int hash = (int) (mix(shingle ^ SEEDS[i]) >>> 33);
+                if (hash < signature[i]) {
+                    signature[i] = hash;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Whether the signature came from a text without any words
+     */
+    public static boolean isEmpty(int[] signature) {
+        return signature[0] == Integer.MAX_VALUE;
+    }
+
+    /**
+     * One key per band, none for an empty signature; the band number is mixed in, so keys of
+     * different bands never collide
+     */
+    public static long[] bandKeys(int[] signature) {
+        if (isEmpty(signature)) {
+            return new long[0];
+        }
+        long[] keys = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            keys[band] = bandKey(signature, 0, band);
+        }
+        return keys;
+    }
+
+    /**
+     * Key of one band of a signature stored at the given offset of a flat array
+     */
+    public static long bandKey(int[] signatures, int offset, int band) {
+        long key = band;
+        for (int row = band * ROWS; row < (band + 1) * ROWS; row++) {
+            key = mix(key * 31 + signatures[offset + row]);
+        }
+        return key;
+    }
+
+    /**
+     * Estimated Jaccard similarity of the shingle sets behind two signatures
+     */
+    public static double similarity(int[] a, int[] b) {
+        return similarity(a, 0, b, 0);
+    }
+
+    /**
+     * Like {@link #similarity(int[], int[])} for signatures stored back to back in flat arrays
+     */
+    public static double similarity(int[] a, int aOffset, int[] b, int bOffset) {
+        int equal = 0;
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            if (a[aOffset + i] == b[bOffset + i]) {
+                equal++;
+            }
+        }
+        return (double) equal / SIGNATURE_LENGTH;
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    /**
+     * Lower-cased words without accents or punctuation, so formatting edits do not count
+     */
+    private static void addWords(String text, List<String> words) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        String normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFKD)).replaceAll("");
+        for (String word : NON_WORD.split(normalized.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+    }
+
+    private static void addValueWords(Object value, List<String> words) {
+        if (value instanceof String string) {
+            addWords(string, words);
+        } else if (value instanceof Map<?, ?> map) {
+            map.values().forEach(nested -> addValueWords(nested, words));
+        } else if (value instanceof Collection<?> collection) {
+            collection.forEach(nested -> addValueWords(nested, words));
+        }
+    }
+
+    private static long fnv(long hash, String word) {
+        for (int i = 0; i < word.length(); i++) {
+            hash = (hash ^ word.charAt(i)) * 0x100000001b3L;
+        }
+        // Word separator, so "ab c" and "a bc" differ
+        return (hash ^ 0x1f) * 0x100000001b3L;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.entity.quiz.Question;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops cached quiz definitions, and the graders compiled with them, when a question they
+ * contain is edited or deleted; the cache invalidates again once the transaction commits
+ */
+@Component
+public class QuestionDefinitionListener {
+
+    @Lazy
+    @Autowired
+    private QuizDefinitionService quizDefinitionService;
+
+    @PostUpdate
+    @PostRemove
+    public void changed(Question question) {
+        quizDefinitionService.invalidateQuestion(question.getId());
+    }
+}
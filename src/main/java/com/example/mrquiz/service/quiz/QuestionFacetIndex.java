@@ -0,0 +1,376 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.enums.DifficultyLevel;
+import com.example.mrquiz.enums.QuestionStatus;
+import com.example.mrquiz.enums.QuestionType;
+import com.example.mrquiz.repository.quiz.QuestionFacetJdbcRepository;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Columnar in-memory projection of active questions' facet metadata.
+ *
+ * Every question gets a dense row ordinal; each facet is a primitive column indexed by it,
+ * holding an enum ordinal or a dictionary id ({@code -1} for none). A search is a single scan
+ * over the live rows that collects the page and the counts of every facet value. Counts are
+ * disjunctive: a facet's counts ignore the filter on that facet, so selecting one value still
+ * shows how many matches its siblings would give. Removed rows are not reused;
+ * {@link QuestionFacetService} rebuilds the projection periodically, which compacts them.
+ */
+public class QuestionFacetIndex {
+
+    public static final String QUESTION_TYPE = "questionType";
+    public static final String DIFFICULTY_LEVEL = "difficultyLevel";
+    public static final String BLOOM_TAXONOMY = "bloomTaxonomy";
+    public static final String SUBJECT_AREAS = "subjectAreas";
+    public static final String COURSE_ID = "courseId";
+    public static final String INSTITUTION_ID = "institutionId";
+
+    private static final QuestionType[] TYPES = QuestionType.values();
+    private static final DifficultyLevel[] DIFFICULTIES = DifficultyLevel.values();
+    private static final int[] NO_SUBJECTS = new int[0];
+
+    private static final int TYPE = 0;
+    private static final int DIFFICULTY = 1;
+    private static final int BLOOM = 2;
+    private static final int SUBJECT = 3;
+    private static final int COURSE = 4;
+    private static final int INSTITUTION = 5;
+    private static final int FACETS = 6;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private final Dictionary<String> blooms = new Dictionary<>();
+    private final Dictionary<String> subjects = new Dictionary<>();
+    private final Dictionary<UUID> courses = new Dictionary<>();
+    private final Dictionary<UUID> institutions = new Dictionary<>();
+    private final Dictionary<UUID> creators = new Dictionary<>();
+    private final BitSet live = new BitSet();
+    private final BitSet publicRows = new BitSet();
+
+    private int rows;
+    private UUID[] ids = new UUID[0];
+    private byte[] typeColumn = new byte[0];
+    private byte[] difficultyColumn = new byte[0];
+    private int[] bloomColumn = new int[0];
+    private int[][] subjectColumn = new int[0][];
+    private int[] courseColumn = new int[0];
+    private int[] institutionColumn = new int[0];
+    private int[] creatorColumn = new int[0];
+    private long[] createdColumn = new long[0];
+
+    // ============================================================================
+    // UPDATES
+    // ============================================================================
+
+    /**
+     * Insert or replace a question; anything but an active question is dropped
+     */
+    public void put(QuestionFacetJdbcRepository.Row row) {
+        lock.writeLock().lock();
+        try {
+            if (row.status() != QuestionStatus.ACTIVE) {
+                removeLocked(row.id());
+                return;
+            }
+            int ordinal = ordinals.computeIfAbsent(row.id(), key -> {
+                ensureCapacity(rows + 1);
+                ids[rows] = key;
+                return rows++;
+            });
+            typeColumn[ordinal] = row.questionType() != null ? (byte) row.questionType().ordinal() : -1;
+            difficultyColumn[ordinal] = row.difficultyLevel() != null ? (byte) row.difficultyLevel().ordinal() : -1;
+            bloomColumn[ordinal] = blooms.intern(row.bloomTaxonomy());
+            subjectColumn[ordinal] = internAll(row.subjectAreas());
+            courseColumn[ordinal] = courses.intern(row.courseId());
+            institutionColumn[ordinal] = institutions.intern(row.institutionId());
+            creatorColumn[ordinal] = creators.intern(row.creatorId());
+            createdColumn[ordinal] = row.createdAt() != null ? row.createdAt().toInstant(ZoneOffset.UTC).toEpochMilli() : 0L;
+            publicRows.set(ordinal, row.isPublic());
+            live.set(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ============================================================================
+    // QUERIES
+    // ============================================================================
+
+    /**
+     * A page of matching ids, newest first, the number of matches and the counts of every
+     * facet value, most frequent first
+     */
+    public Result search(QuestionFacetQuery query, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            boolean[][] allowed = {
+                    allowedEnums(query.questionTypes(), TYPES.length),
+                    allowedEnums(query.difficultyLevels(), DIFFICULTIES.length),
+                    allowedValues(query.bloomTaxonomies(), blooms),
+                    allowedValues(query.subjectAreas(), subjects),
+                    allowedValues(query.courseIds(), courses),
+                    allowedValues(query.institutionIds(), institutions)
+            };
+            int[][] counts = {
+                    new int[TYPES.length],
+                    new int[DIFFICULTIES.length],
+                    new int[blooms.size()],
+                    new int[subjects.size()],
+                    new int[courses.size()],
+                    new int[institutions.size()]
+            };
+            int owner = query.ownerId() != null ? creators.find(query.ownerId()) : -1;
+
+            int window = (int) Math.min(Integer.MAX_VALUE, Math.max(0L, (long) offset + limit));
+            Comparator<Integer> newestLast = Comparator.<Integer>comparingLong(row -> createdColumn[row])
+                    .thenComparing(Comparator.reverseOrder());
+            PriorityQueue<Integer> top = new PriorityQueue<>(Math.max(1, Math.min(window, 1024)), newestLast);
+            int total = 0;
+
+            for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+                // Private questions are only searched by their creator; without an owner, none are
+                if (!publicRows.get(row) && (owner < 0 || creatorColumn[row] != owner)) {
+                    continue;
+                }
+                int failed = -1;
+                int failures = 0;
+                for (int facet = 0; facet < FACETS && failures < 2; facet++) {
+                    if (allowed[facet] != null && !matches(row, facet, allowed[facet])) {
+                        failed = facet;
+                        failures++;
+                    }
+                }
+                if (failures == 0) {
+                    total++;
+                    for (int facet = 0; facet < FACETS; facet++) {
+                        count(row, facet, counts[facet]);
+                    }
+                    if (window > 0) {
+                        top.offer(row);
+                        if (top.size() > window) {
+                            top.poll();
+                        }
+                    }
+                } else if (failures == 1) {
+                    // Rows missing only this facet's filter still count towards its values
+                    count(row, failed, counts[failed]);
+                }
+            }
+
+            List<Integer> newest = new ArrayList<>(top);
+            newest.sort(newestLast.reversed());
+            List<UUID> page = new ArrayList<>();
+            for (int i = offset; i < newest.size(); i++) {
+                page.add(ids[newest.get(i)]);
+            }
+
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            facets.put(QUESTION_TYPE, facetCounts(counts[TYPE], ordinal -> TYPES[ordinal].name()));
+            facets.put(DIFFICULTY_LEVEL, facetCounts(counts[DIFFICULTY], ordinal -> DIFFICULTIES[ordinal].name()));
+            facets.put(BLOOM_TAXONOMY, facetCounts(counts[BLOOM], blooms::value));
+            facets.put(SUBJECT_AREAS, facetCounts(counts[SUBJECT], subjects::value));
+            facets.put(COURSE_ID, facetCounts(counts[COURSE], id -> courses.value(id).toString()));
+            facets.put(INSTITUTION_ID, facetCounts(counts[INSTITUTION], id -> institutions.value(id).toString()));
+            return new Result(page, total, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private boolean matches(int row, int facet, boolean[] allowed) {
+        if (facet == SUBJECT) {
+            for (int subject : subjectColumn[row]) {
+                if (allowed[subject]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        int value = column(row, facet);
+        return value >= 0 && allowed[value];
+    }
+
+    private void count(int row, int facet, int[] counts) {
+        if (facet == SUBJECT) {
+            for (int subject : subjectColumn[row]) {
+                counts[subject]++;
+            }
+            return;
+        }
+        int value = column(row, facet);
+        if (value >= 0) {
+            counts[value]++;
+        }
+    }
+
+    private int column(int row, int facet) {
+        switch (facet) {
+            case TYPE:
+                return typeColumn[row];
+            case DIFFICULTY:
+                return difficultyColumn[row];
+            case BLOOM:
+                return bloomColumn[row];
+            case COURSE:
+                return courseColumn[row];
+            default:
+                return institutionColumn[row];
+        }
+    }
+
+    private static boolean[] allowedEnums(Collection<? extends Enum<?>> selected, int size) {
+        if (selected == null || selected.isEmpty()) {
+            return null;
+        }
+        boolean[] allowed = new boolean[size];
+        for (Enum<?> value : selected) {
+            allowed[value.ordinal()] = true;
+        }
+        return allowed;
+    }
+
+    private static <T> boolean[] allowedValues(Collection<T> selected, Dictionary<T> dictionary) {
+        if (selected == null || selected.isEmpty()) {
+            return null;
+        }
+        // Values never seen stay unmatched, so the array is allocated even if none resolve
+        boolean[] allowed = new boolean[dictionary.size()];
+        for (T value : selected) {
+            int id = dictionary.find(value);
+            if (id >= 0) {
+                allowed[id] = true;
+            }
+        }
+        return allowed;
+    }
+
+    private static Map<String, Integer> facetCounts(int[] counts, Function<Integer, String> label) {
+        List<Integer> present = new ArrayList<>();
+        for (int value = 0; value < counts.length; value++) {
+            if (counts[value] > 0) {
+                present.add(value);
+            }
+        }
+        present.sort(Comparator.<Integer>comparingInt(value -> counts[value]).reversed()
+                .thenComparing(label::apply));
+
+        Map<String, Integer> facet = new LinkedHashMap<>();
+        for (int value : present) {
+            facet.put(label.apply(value), counts[value]);
+        }
+        return facet;
+    }
+
+    private int[] internAll(List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return NO_SUBJECTS;
+        }
+        return values.stream()
+                .filter(value -> value != null && !value.isBlank())
+                .mapToInt(subjects::intern)
+                .distinct()
+                .toArray();
+    }
+
+    private void removeLocked(UUID id) {
+        Integer ordinal = ordinals.remove(id);
+        if (ordinal == null) {
+            return;
+        }
+        live.clear(ordinal);
+        publicRows.clear(ordinal);
+        ids[ordinal] = null;
+        subjectColumn[ordinal] = NO_SUBJECTS;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int grown = Math.max(capacity, Math.max(1024, ids.length * 2));
+        ids = Arrays.copyOf(ids, grown);
+        typeColumn = Arrays.copyOf(typeColumn, grown);
+        difficultyColumn = Arrays.copyOf(difficultyColumn, grown);
+        bloomColumn = Arrays.copyOf(bloomColumn, grown);
+        subjectColumn = Arrays.copyOf(subjectColumn, grown);
+        courseColumn = Arrays.copyOf(courseColumn, grown);
+        institutionColumn = Arrays.copyOf(institutionColumn, grown);
+        creatorColumn = Arrays.copyOf(creatorColumn, grown);
+        createdColumn = Arrays.copyOf(createdColumn, grown);
+    }
+
+    /**
+     * Dense ids for the distinct values of one column
+     */
+    private static final class Dictionary<T> {
+
+        private final Map<T, Integer> ids = new HashMap<>();
+        private final List<T> values = new ArrayList<>();
+
+        int intern(T value) {
+            if (value == null) {
+                return -1;
+            }
+            return ids.computeIfAbsent(value, key -> {
+                values.add(key);
+                return values.size() - 1;
+            });
+        }
+
+        int find(T value) {
+            return ids.getOrDefault(value, -1);
+        }
+
+        T value(int id) {
+            return values.get(id);
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+
+    /**
+     * A page of matching ids, the total number of matches and the counts per facet value
+     */
+    public record Result(List<UUID> ids, int total, Map<String, Map<String, Integer>> facets) {
+    }
+}
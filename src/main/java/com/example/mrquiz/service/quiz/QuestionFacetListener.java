@@ -0,0 +1,31 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.entity.quiz.Question;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds question saves into the question facet index
+ */
+@Component
+public class QuestionFacetListener {
+
+    @Lazy
+    @Autowired
+    private QuestionFacetService questionFacetService;
+
+    @PostPersist
+    @PostUpdate
+    public void saved(Question question) {
+        questionFacetService.questionSaved(question);
+    }
+
+    @PostRemove
+    public void removed(Question question) {
+        questionFacetService.questionRemoved(question.getId());
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.enums.DifficultyLevel;
+import com.example.mrquiz.enums.QuestionType;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Question bank filter. Values within a facet are OR-ed, facets are AND-ed, and an empty
+ * or null set leaves that facet unfiltered. With an ownerId only the owner's questions and
+ * public ones are searched; without one, only public ones.
+ */
+public record QuestionFacetQuery(UUID ownerId,
+                                 Set<QuestionType> questionTypes,
+                                 Set<DifficultyLevel> difficultyLevels,
+                                 Set<String> bloomTaxonomies,
+                                 Set<String> subjectAreas,
+                                 Set<UUID> courseIds,
+                                 Set<UUID> institutionIds) {
+}
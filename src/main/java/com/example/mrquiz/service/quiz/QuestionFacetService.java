@@ -0,0 +1,114 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.entity.quiz.Question;
+import com.example.mrquiz.repository.quiz.QuestionFacetJdbcRepository;
+import com.example.mrquiz.service.TransactionHooks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Faceted search over the question bank, served from a {@link QuestionFacetIndex}.
+ *
+ * The projection is loaded at startup and rebuilt every {@code mrquiz.questions.facets.rebuild-interval},
+ * which also drops questions deleted on other nodes. Local saves are applied once their transaction
+ * commits, and every {@code mrquiz.questions.facets.refresh-interval} the rows updated since the last
+ * poll are re-read so changes from other nodes and bulk statements show up quickly.
+ */
+@Slf4j
+@Service
+public class QuestionFacetService {
+
+    @Autowired
+    private QuestionFacetJdbcRepository questionFacetJdbcRepository;
+
+    @Value("${mrquiz.questions.facets.refresh-overlap:PT10S}")
+    private Duration refreshOverlap;
+
+    private final RebuildableIndex<QuestionFacetIndex> index = new RebuildableIndex<>(new QuestionFacetIndex());
+    private volatile LocalDateTime watermark;
+
+    // ============================================================================
+    // SEARCH
+    // ============================================================================
+
+    public QuestionFacetIndex.Result search(QuestionFacetQuery query, int offset, int limit) {
+        return index.get().search(query, offset, limit);
+    }
+
+    // ============================================================================
+    // INCREMENTAL UPDATES
+    // ============================================================================
+
+    public void questionSaved(Question question) {
+        QuestionFacetJdbcRepository.Row row = new QuestionFacetJdbcRepository.Row(
+                question.getId(),
+                question.getStatus(),
+                question.getQuestionType(),
+                question.getDifficultyLevel(),
+                question.getBloomTaxonomy(),
+                question.getSubjectAreas() != null ? List.copyOf(question.getSubjectAreas()) : List.of(),
+                question.getCourse() != null ? question.getCourse().getId() : null,
+                question.getInstitution() != null ? question.getInstitution().getId() : null,
+                question.getCreator() != null ? question.getCreator().getId() : null,
+                Boolean.TRUE.equals(question.getIsPublic()),
+                question.getCreatedAt(),
+                question.getUpdatedAt());
+        TransactionHooks.afterCommit(() -> index.apply(current -> current.put(row)));
+    }
+
+    public void questionRemoved(UUID questionId) {
+        TransactionHooks.afterCommit(() -> index.apply(current -> current.remove(questionId)));
+    }
+
+    @Scheduled(fixedDelayString = "${mrquiz.questions.facets.refresh-interval:PT30S}",
+               initialDelayString = "${mrquiz.questions.facets.refresh-interval:PT30S}")
+    public void refresh() {
+        LocalDateTime since = watermark;
+        if (since == null) {
+            return;
+        }
+        // Re-read a little before the last poll so commits that were in flight are not missed
+        LocalDateTime[] latest = {since};
+        questionFacetJdbcRepository.streamUpdatedSince(since.minus(refreshOverlap), row -> {
+            index.apply(current -> current.put(row));
+            if (row.updatedAt().isAfter(latest[0])) {
+                latest[0] = row.updatedAt();
+            }
+        });
+        watermark = latest[0];
+    }
+
+    // ============================================================================
+    // REBUILD
+    // ============================================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${mrquiz.questions.facets.rebuild-interval:PT1H}",
+               initialDelayString = "${mrquiz.questions.facets.rebuild-interval:PT1H}")
+    public void rebuild() {
+        LocalDateTime started = LocalDateTime.now();
+        QuestionFacetIndex fresh = index.rebuild(QuestionFacetIndex::new,
+                                                 loading -> questionFacetJdbcRepository.streamActive(loading::put));
+        if (fresh == null) {
+            return;
+        }
+        if (watermark == null || watermark.isBefore(started)) {
+            watermark = started;
+        }
+        log.info("Question facet index rebuilt: {} questions", fresh.size());
+    }
+}
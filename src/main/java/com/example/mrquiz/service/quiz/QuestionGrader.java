@@ -0,0 +1,43 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.entity.quiz.QuestionResponse;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+
+/**
+ * Grades answers to one question. Instances are compiled once per question by
+ * {@link QuestionGraders} and are immutable, so a cached quiz definition shares them
+ * between every attempt and thread.
+ */
+public interface QuestionGrader {
+
+    Grade grade(Map<String, Object> answerData);
+
+    /**
+     * Outcome of grading one answer. partialCredit is the share of the question answered
+     * correctly, from 0 to 1; a wrong answer earns minus the question's negative points.
+     */
+    record Grade(BigDecimal pointsEarned, BigDecimal maxPoints, boolean correct, BigDecimal partialCredit) {
+
+        static Grade of(BigDecimal points, BigDecimal negativePoints, double fraction) {
+            if (fraction >= 1.0) {
+                return new Grade(points, points, true, BigDecimal.ONE);
+            }
+            if (fraction <= 0.0) {
+                return new Grade(negativePoints.negate(), points, false, BigDecimal.ZERO);
+            }
+            BigDecimal credit = BigDecimal.valueOf(fraction);
+            return new Grade(points.multiply(credit).setScale(2, RoundingMode.HALF_UP), points, false,
+                             credit.setScale(2, RoundingMode.HALF_UP));
+        }
+
+        public void applyTo(QuestionResponse response) {
+            response.setPointsEarned(pointsEarned);
+            response.setMaxPoints(maxPoints);
+            response.setIsCorrect(correct);
+            response.setPartialCredit(partialCredit);
+        }
+    }
+}
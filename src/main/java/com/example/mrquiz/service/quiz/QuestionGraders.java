@@ -0,0 +1,512 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.enums.QuestionType;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles questions into type-specific {@link QuestionGrader}s.
+ *
+ * Everything that does not depend on the answer is worked out once: option ids become bit
+ * positions, accepted texts are normalized into hash sets, pairs and orders become int arrays
+ * and the full, wrong and unanswered grades are prebuilt. Grading an answer then only walks
+ * the answer itself. JSON layout by question type:
+ * <ul>
+ *   <li>MULTIPLE_CHOICE: questionData.options (strings or objects with an id), correctAnswers.correct
+ *       (option ids or indexes), answer {@code selected}; answerValidation.partialCredit enables
+ *       credit for partly right multiple-select answers, where each wrong pick cancels a right
+ *       one. Such an answer with at least one right pick never scores below zero; only an
+ *       answer with no right pick costs the negative points</li>
+ *   <li>TRUE_FALSE: correctAnswers.correct, answer {@code answer}</li>
+ *   <li>FILL_BLANK: correctAnswers.blanks, one string or list of accepted strings per blank, answer
+ *       {@code blanks}</li>
+ *   <li>MATCHING: correctAnswers.pairs, a map from left to right item id, answer {@code pairs}</li>
+ *   <li>ORDERING: correctAnswers.order, the item ids in order, answer {@code order}</li>
+ *   <li>SHORT_ANSWER: correctAnswers.accepted, the accepted texts, answer {@code answer}</li>
+ *   <li>MATH: correctAnswers.value or values, answerValidation.tolerance (absolute) and
+ *       relativeTolerance, answer {@code answer} as a number, decimal or fraction text</li>
+ * </ul>
+ * Text comparisons ignore case, accents and repeated whitespace unless answerValidation.caseSensitive
+ * is set. FILL_BLANK, MATCHING and ORDERING give partial credit unless answerValidation.partialCredit
+ * is false. Other question types, and questions whose answer key is missing or empty, are graded
+ * by hand and compile to null.
+ */
+public final class QuestionGraders {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final double DEFAULT_TOLERANCE = 1e-9;
+
+    private QuestionGraders() {
+    }
+
+    /**
+     * Grader for the question, or null when it is not graded automatically
+     */
+    public static QuestionGrader compile(QuizDefinition.GradingQuestion question) {
+        Scoring scoring = new Scoring(
+                question.points() != null ? question.points() : BigDecimal.ONE,
+                question.negativePoints() != null ? question.negativePoints() : BigDecimal.ZERO);
+        Map<String, Object> data = mapOrEmpty(question.questionData());
+        Map<String, Object> correct = mapOrEmpty(question.correctAnswers());
+        Map<String, Object> validation = mapOrEmpty(question.answerValidation());
+        boolean caseSensitive = Boolean.TRUE.equals(validation.get("caseSensitive"));
+
+        // A missing or misspelled key would otherwise mark every answer right, or every answer wrong
+        QuestionType type = question.questionType();
+        if (type == QuestionType.MULTIPLE_CHOICE) {
+            ChoiceGrader grader = new ChoiceGrader(scoring, data.get("options"), correct.get("correct"),
+                                                   Boolean.TRUE.equals(validation.get("partialCredit")));
+            return grader.correctCount > 0 ? grader : null;
+        }
+        if (type == QuestionType.TRUE_FALSE) {
+            Boolean answer = toBoolean(correct.get("correct"));
+            return answer != null ? new TrueFalseGrader(scoring, answer) : null;
+        }
+        if (type == QuestionType.FILL_BLANK) {
+            List<?> blanks = listOrEmpty(correct.get("blanks"));
+            return blanks.isEmpty() ? null : new FillBlankGrader(scoring, blanks, caseSensitive,
+                    !Boolean.FALSE.equals(validation.get("partialCredit")));
+        }
+        if (type == QuestionType.MATCHING) {
+            Map<String, Object> pairs = mapOrEmpty(correct.get("pairs"));
+            return pairs.isEmpty() ? null : new MatchingGrader(scoring, pairs,
+                    !Boolean.FALSE.equals(validation.get("partialCredit")));
+        }
+        if (type == QuestionType.ORDERING) {
+            List<?> order = listOrEmpty(correct.get("order"));
+            return order.isEmpty() ? null : new OrderingGrader(scoring, order,
+                    !Boolean.FALSE.equals(validation.get("partialCredit")));
+        }
+        if (type == QuestionType.SHORT_ANSWER) {
+            List<?> accepted = listOrEmpty(correct.get("accepted"));
+            return accepted.isEmpty() ? null : new ShortAnswerGrader(scoring, accepted, caseSensitive);
+        }
+        if (type == QuestionType.MATH) {
+            Object values = correct.containsKey("values") ? correct.get("values") : correct.get("value");
+            MathGrader grader = new MathGrader(scoring, listOrSingle(values), toDouble(validation.get("tolerance")),
+                                               toDouble(validation.get("relativeTolerance")));
+            return grader.values.length > 0 ? grader : null;
+        }
+        return null;
+    }
+
+    // ============================================================================
+    // GRADERS
+    // ============================================================================
+
+    /**
+     * Choice sets as bitsets over option positions
+     */
+    private static final class ChoiceGrader implements QuestionGrader {
+
+        private final Scoring scoring;
+        private final Map<String, Integer> positions = new HashMap<>();
+        private final int optionCount;
+        private final long[] correct;
+        private final int correctCount;
+        private final boolean partialCredit;
+
+        ChoiceGrader(Scoring scoring, Object options, Object correctOptions, boolean partialCredit) {
+            this.scoring = scoring;
+            this.partialCredit = partialCredit;
+            List<?> optionList = listOrEmpty(options);
+            this.optionCount = optionList.size();
+            for (int i = 0; i < optionList.size(); i++) {
+                Object option = optionList.get(i);
+                Object id = option instanceof Map<?, ?> map ? map.get("id") : option;
+                if (id != null) {
+                    positions.putIfAbsent(id.toString(), i);
+                }
+            }
+            this.correct = new long[Math.max(1, (optionList.size() + 63) >>> 6)];
+            for (Object option : listOrSingle(correctOptions)) {
+                int position = position(option);
+                if (position >= 0) {
+                    correct[position >>> 6] |= 1L << position;
+                }
+            }
+            this.correctCount = bitCount(correct);
+        }
+
+        @Override
+        public Grade grade(Map<String, Object> answerData) {
+            List<?> selectedOptions = listOrSingle(answerData != null ? answerData.get("selected") : null);
+            if (selectedOptions.isEmpty()) {
+                return scoring.unanswered;
+            }
+            long[] selected = new long[correct.length];
+            boolean unknown = false;
+            for (Object option : selectedOptions) {
+                int position = position(option);
+                if (position < 0) {
+                    unknown = true;
+                } else {
+                    selected[position >>> 6] |= 1L << position;
+                }
+            }
+
+            int hits = 0;
+            int misses = unknown ? 1 : 0;
+            for (int word = 0; word < correct.length; word++) {
+                hits += Long.bitCount(selected[word] & correct[word]);
+                misses += Long.bitCount(selected[word] & ~correct[word]);
+            }
+            if (hits == correctCount && misses == 0) {
+                return scoring.full;
+            }
+            if (!partialCredit || correctCount <= 1 || hits == 0) {
+                return scoring.wrong;
+            }
+            // Wrong picks cancelling every right one leave nothing, not the penalty of a wrong answer
+            return hits > misses ? scoring.partial((double) (hits - misses) / correctCount) : scoring.zero;
+        }
+
+        /**
+         * Position of an option by its id, else of a number taken as an index
+         */
+        private int position(Object option) {
+            if (option == null) {
+                return -1;
+            }
+            Integer position = positions.get(option.toString());
+            if (position != null) {
+                return position;
+            }
+            if (option instanceof Number number) {
+                int index = number.intValue();
+                return index >= 0 && index < optionCount ? index : -1;
+            }
+            return -1;
+        }
+    }
+
+    private static final class TrueFalseGrader implements QuestionGrader {
+
+        private final Scoring scoring;
+        private final Boolean correct;
+
+        TrueFalseGrader(Scoring scoring, Boolean correct) {
+            this.scoring = scoring;
+            this.correct = correct;
+        }
+
+        @Override
+        public Grade grade(Map<String, Object> answerData) {
+            Boolean answer = toBoolean(answerData != null ? answerData.get("answer") : null);
+            if (answer == null) {
+                return scoring.unanswered;
+            }
+            return answer.equals(correct) ? scoring.full : scoring.wrong;
+        }
+    }
+
+    /**
+     * One set of normalized accepted texts per blank
+     */
+    private static final class FillBlankGrader implements QuestionGrader {
+
+        private final Scoring scoring;
+        private final List<Set<String>> accepted;
+        private final boolean caseSensitive;
+        private final boolean partialCredit;
+
+        FillBlankGrader(Scoring scoring, List<?> blanks, boolean caseSensitive, boolean partialCredit) {
+            this.scoring = scoring;
+            this.caseSensitive = caseSensitive;
+            this.partialCredit = partialCredit;
+            List<Set<String>> sets = new ArrayList<>(blanks.size());
+            for (Object blank : blanks) {
+                sets.add(normalizedSet(listOrSingle(blank), caseSensitive));
+            }
+            this.accepted = List.copyOf(sets);
+        }
+
+        @Override
+        public Grade grade(Map<String, Object> answerData) {
+            List<?> answers = listOrEmpty(answerData != null ? answerData.get("blanks") : null);
+            if (answers.isEmpty()) {
+                return scoring.unanswered;
+            }
+            int right = 0;
+            for (int i = 0; i < accepted.size() && i < answers.size(); i++) {
+                Object answer = answers.get(i);
+                if (answer != null && accepted.get(i).contains(normalize(answer.toString(), caseSensitive))) {
+                    right++;
+                }
+            }
+            return scoring.fraction(right, accepted.size(), partialCredit);
+        }
+    }
+
+    /**
+     * Left items as positions, each holding the id of its right item
+     */
+    private static final class MatchingGrader implements QuestionGrader {
+
+        private final Scoring scoring;
+        private final Map<String, Integer> leftPositions = new HashMap<>();
+        private final Map<String, Integer> rightIds = new HashMap<>();
+        private final int[] correctRight;
+        private final boolean partialCredit;
+
+        MatchingGrader(Scoring scoring, Map<String, Object> pairs, boolean partialCredit) {
+            this.scoring = scoring;
+            this.partialCredit = partialCredit;
+            this.correctRight = new int[pairs.size()];
+            for (Map.Entry<String, Object> pair : pairs.entrySet()) {
+                int position = leftPositions.size();
+                leftPositions.put(pair.getKey(), position);
+                correctRight[position] = rightIds.computeIfAbsent(String.valueOf(pair.getValue()), key -> rightIds.size());
+            }
+        }
+
+        @Override
+        public Grade grade(Map<String, Object> answerData) {
+            Map<String, Object> answers = mapOrEmpty(answerData != null ? answerData.get("pairs") : null);
+            if (answers.isEmpty()) {
+                return scoring.unanswered;
+            }
+            int right = 0;
+            for (Map.Entry<String, Object> answer : answers.entrySet()) {
+                Integer position = leftPositions.get(answer.getKey());
+                Integer rightId = answer.getValue() != null ? rightIds.get(answer.getValue().toString()) : null;
+                if (position != null && rightId != null && correctRight[position] == rightId) {
+                    right++;
+                }
+            }
+            return scoring.fraction(right, correctRight.length, partialCredit);
+        }
+    }
+
+    /**
+     * Items as their position in the correct order; credit for items in the right place
+     */
+    private static final class OrderingGrader implements QuestionGrader {
+
+        private final Scoring scoring;
+        private final Map<String, Integer> positions = new HashMap<>();
+        private final int length;
+        private final boolean partialCredit;
+
+        OrderingGrader(Scoring scoring, List<?> order, boolean partialCredit) {
+            this.scoring = scoring;
+            this.partialCredit = partialCredit;
+            this.length = order.size();
+            for (int i = 0; i < order.size(); i++) {
+                positions.putIfAbsent(String.valueOf(order.get(i)), i);
+            }
+        }
+
+        @Override
+        public Grade grade(Map<String, Object> answerData) {
+            List<?> answer = listOrEmpty(answerData != null ? answerData.get("order") : null);
+            if (answer.isEmpty()) {
+                return scoring.unanswered;
+            }
+            int right = 0;
+            for (int i = 0; i < answer.size() && i < length; i++) {
+                Integer position = positions.get(String.valueOf(answer.get(i)));
+                if (position != null && position == i) {
+                    right++;
+                }
+            }
+            return scoring.fraction(right, length, partialCredit);
+        }
+    }
+
+    private static final class ShortAnswerGrader implements QuestionGrader {
+
+        private final Scoring scoring;
+        private final Set<String> accepted;
+        private final boolean caseSensitive;
+
+        ShortAnswerGrader(Scoring scoring, List<?> accepted, boolean caseSensitive) {
+            this.scoring = scoring;
+            this.caseSensitive = caseSensitive;
+            this.accepted = normalizedSet(accepted, caseSensitive);
+        }
+
+        @Override
+        public Grade grade(Map<String, Object> answerData) {
+            Object answer = answerData != null ? answerData.get("answer") : null;
+            if (answer == null || answer.toString().isBlank()) {
+                return scoring.unanswered;
+            }
+            return accepted.contains(normalize(answer.toString(), caseSensitive)) ? scoring.full : scoring.wrong;
+        }
+    }
+
+    private static final class MathGrader implements QuestionGrader {
+
+        private final Scoring scoring;
+        private final double[] values;
+        private final double tolerance;
+        private final double relativeTolerance;
+
+        MathGrader(Scoring scoring, List<?> values, Double tolerance, Double relativeTolerance) {
+            this.scoring = scoring;
+            this.values = values.stream()
+                    .map(QuestionGraders::toDouble)
+                    .filter(value -> value != null && !value.isNaN())
+                    .mapToDouble(Double::doubleValue)
+                    .toArray();
+            this.tolerance = tolerance != null ? tolerance : DEFAULT_TOLERANCE;
+            this.relativeTolerance = relativeTolerance != null ? relativeTolerance : 0.0;
+        }
+
+        @Override
+        public Grade grade(Map<String, Object> answerData) {
+            Object raw = answerData != null ? answerData.get("answer") : null;
+            if (raw == null || raw.toString().isBlank()) {
+                return scoring.unanswered;
+            }
+            Double answer = toDouble(raw);
+            if (answer == null) {
+                return scoring.wrong;
+            }
+            for (double value : values) {
+                double allowed = Math.max(tolerance, Math.abs(value) * relativeTolerance);
+                if (Math.abs(answer - value) <= allowed) {
+                    return scoring.full;
+                }
+            }
+            return scoring.wrong;
+        }
+    }
+
+    /**
+     * Prebuilt grades of one question
+     */
+    private static final class Scoring {
+
+        private final BigDecimal points;
+        private final BigDecimal negativePoints;
+        private final QuestionGrader.Grade full;
+        private final QuestionGrader.Grade wrong;
+        private final QuestionGrader.Grade zero;
+        private final QuestionGrader.Grade unanswered;
+
+        Scoring(BigDecimal points, BigDecimal negativePoints) {
+            this.points = points;
+            this.negativePoints = negativePoints;
+            this.full = QuestionGrader.Grade.of(points, negativePoints, 1.0);
+            this.wrong = QuestionGrader.Grade.of(points, negativePoints, 0.0);
+            this.zero = new QuestionGrader.Grade(BigDecimal.ZERO, points, false, BigDecimal.ZERO);
+            this.unanswered = zero;
+        }
+
+        QuestionGrader.Grade partial(double fraction) {
+            return QuestionGrader.Grade.of(points, negativePoints, fraction);
+        }
+
+        QuestionGrader.Grade fraction(int right, int total, boolean partialCredit) {
+            if (total <= 0) {
+                return wrong;
+            }
+            if (right >= total) {
+                return full;
+            }
+            return partialCredit && right > 0 ? partial((double) right / total) : wrong;
+        }
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private static String normalize(String text, boolean caseSensitive) {
+        String normalized = WHITESPACE.matcher(text.strip()).replaceAll(" ");
+        if (caseSensitive) {
+            return normalized;
+        }
+        normalized = MARKS.matcher(Normalizer.normalize(normalized, Normalizer.Form.NFKD)).replaceAll("");
+        return normalized.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> normalizedSet(List<?> texts, boolean caseSensitive) {
+        Set<String> normalized = new HashSet<>();
+        for (Object text : texts) {
+            if (text != null) {
+                normalized.add(normalize(text.toString(), caseSensitive));
+            }
+        }
+        return Set.copyOf(normalized);
+    }
+
+    private static Boolean toBoolean(Object value) {
+        if (value instanceof Boolean bool) {
+            return bool;
+        }
+        if (value instanceof String string) {
+            String trimmed = string.strip();
+            if (trimmed.equalsIgnoreCase("true")) {
+                return Boolean.TRUE;
+            }
+            if (trimmed.equalsIgnoreCase("false")) {
+                return Boolean.FALSE;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A number, or text holding a decimal or a fraction such as "3/4"
+     */
+    private static Double toDouble(Object value) {
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        if (!(value instanceof String string)) {
+            return null;
+        }
+        String text = WHITESPACE.matcher(string).replaceAll("");
+        try {
+            int slash = text.indexOf('/');
+            if (slash > 0) {
+                double denominator = Double.parseDouble(text.substring(slash + 1));
+                return denominator != 0 ? Double.parseDouble(text.substring(0, slash)) / denominator : null;
+            }
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static int bitCount(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> mapOrEmpty(Object value) {
+        return value instanceof Map<?, ?> map ? (Map<String, Object>) map : Map.of();
+    }
+
+    private static List<?> listOrEmpty(Object value) {
+        return value instanceof List<?> list ? list : List.of();
+    }
+
+    private static List<?> listOrSingle(Object value) {
+        if (value instanceof List<?> list) {
+            return list;
+        }
+        if (value instanceof Collection<?> collection) {
+            return List.copyOf(collection);
+        }
+        return value != null ? List.of(value) : List.of();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.entity.quiz.Question;
+import com.example.mrquiz.repository.quiz.QuizQuestionJdbcRepository;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+/**
+ * Keeps quizzes.total_points in step when a question's default points change.
+ *
+ * The points a question was loaded with are remembered on the entity, so an update adds
+ * only the difference to the quizzes that use the question without their own points, in
+ * the same transaction. Bulk JPQL updates bypass this listener; the reconciliation in
+ * {@link QuizService} covers them.
+ */
+@Component
+public class QuestionPointsListener {
+
+    @Lazy
+    @Autowired
+    private QuizQuestionJdbcRepository quizQuestionJdbcRepository;
+
+    @PostLoad
+    @PostPersist
+    public void remember(Question question) {
+        question.setLoadedPoints(question.getPoints());
+    }
+
+    @PostUpdate
+    public void questionUpdated(Question question) {
+        BigDecimal delta = points(question.getPoints()).subtract(points(question.getLoadedPoints()));
+        if (delta.signum() != 0) {
+            quizQuestionJdbcRepository.adjustTotalPointsForQuestion(question.getId(), delta);
+        }
+        remember(question);
+    }
+
+    private static BigDecimal points(BigDecimal points) {
+        return points != null ? points : BigDecimal.ZERO;
+    }
+}
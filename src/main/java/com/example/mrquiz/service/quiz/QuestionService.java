@@ -1,20 +1,93 @@
 package com.example.mrquiz.service.quiz;
 
+import com.example.mrquiz.dto.quiz.QuestionCreateDto;
+import com.example.mrquiz.dto.quiz.QuestionResponseDto;
 import com.example.mrquiz.entity.quiz.Question;
 import com.example.mrquiz.repository.quiz.QuestionRepository;
+import com.example.mrquiz.service.MappingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class QuestionService {
 
+    private static final int BULK_INSERT_BATCH_SIZE = 100;
+
     @Autowired
     private QuestionRepository questionRepository;
 
+    @Autowired
+    private MappingService mappingService;
+
+    @Autowired
+    private TagIndexService tagIndexService;
+
+    @Autowired
+    private QuestionFacetService questionFacetService;
+
     public Question findQuestionEntityById(UUID questionId) {
         return questionRepository.findById(questionId)
                 .orElseThrow(() -> new RuntimeException("Question not found"));
     }
-}
\ No newline at end of file
+
+    /**
+     * Import many questions at once. Creators, courses, institutions, parent questions and
+     * files referenced by the whole import are loaded with one query per type.
+     */
+    @Transactional
+    public List<QuestionResponseDto> bulkCreateQuestions(List<QuestionCreateDto> createDtos) {
+        List<Question> questions = mappingService.getQuestionMapper().toEntities(createDtos);
+        List<Question> created = new ArrayList<>(questions.size());
+        for (int from = 0; from < questions.size(); from += BULK_INSERT_BATCH_SIZE) {
+            created.addAll(questionRepository.saveAll(
+                    questions.subList(from, Math.min(from + BULK_INSERT_BATCH_SIZE, questions.size()))));
+        }
+        return mappingService.getQuestionMapper().toResponseDtoList(created);
+    }
+
+    /**
+     * Active questions matching the tag expression, served from the tag index
+     */
+    public List<Question> findQuestionsByTags(TagExpression expression, int offset, int limit) {
+        List<UUID> questionIds = tagIndexService.searchQuestions(expression, offset, limit, 0).ids();
+        Map<UUID, Question> questionsById = questionRepository.findAllById(questionIds).stream()
+                .collect(Collectors.toMap(Question::getId, Function.identity()));
+        return questionIds.stream()
+                .map(questionsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Counts of the other tags among active questions matching the expression, most frequent first
+     */
+    public Map<String, Integer> getQuestionTagFacets(TagExpression expression, int limit) {
+        return tagIndexService.searchQuestions(expression, 0, 0, limit).facets();
+    }
+
+    /**
+     * A page of the question bank, newest first, with the counts of every facet value
+     */
+    public QuestionBankPage searchQuestionBank(QuestionFacetQuery query, int offset, int limit) {
+        QuestionFacetIndex.Result result = questionFacetService.search(query, offset, limit);
+        Map<UUID, Question> questionsById = questionRepository.findAllById(result.ids()).stream()
+                .collect(Collectors.toMap(Question::getId, Function.identity()));
+        List<Question> questions = result.ids().stream()
+                .map(questionsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new QuestionBankPage(questions, result.total(), result.facets());
+    }
+
+    public record QuestionBankPage(List<Question> questions, int total, Map<String, Map<String, Integer>> facets) {
+    }
+}
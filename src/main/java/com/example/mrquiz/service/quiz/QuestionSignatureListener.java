@@ -0,0 +1,19 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.entity.quiz.Question;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+
+/**
+ * Keeps a question's MinHash signature and band keys in step with its text
+ */
+public class QuestionSignatureListener {
+
+    @PrePersist
+    @PreUpdate
+    public void sign(Question question) {
+        int[] signature = MinHasher.signature(question.getQuestionText(), question.getQuestionData());
+        question.setMinhashSignature(signature);
+        question.setMinhashBands(MinHasher.bandKeys(signature));
+    }
+}
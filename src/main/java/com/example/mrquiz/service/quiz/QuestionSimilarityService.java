@@ -0,0 +1,283 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.entity.quiz.Question;
+import com.example.mrquiz.repository.quiz.QuestionRepository;
+import com.example.mrquiz.repository.quiz.QuestionSimilarityJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Near-duplicate questions by MinHash similarity.
+ *
+ * Lookups go through the band key index, so only questions sharing a band are compared.
+ * Clustering a whole bank loads its signatures once and works band by band in parallel:
+ * sorting a band's keys puts every bucket next to each other, and only questions within a
+ * bucket are compared, which keeps the work close to linear instead of all pairs.
+ *
+ * With {@code mrquiz.questions.duplicates.manage-schema} on, the node builds the band key
+ * index at startup if it is missing or INVALID, and signs questions saved before signatures
+ * existed in the background, one page per tick. Enable it on one node only.
+ */
+@Slf4j
+@Service
+public class QuestionSimilarityService {
+
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+    private static final UUID FIRST_ID = new UUID(0, 0);
+    private static final int MAX_CANDIDATES = 1000;
+    private static final int ORDINAL_BITS = 24;
+    private static final long ORDINAL_MASK = (1L << ORDINAL_BITS) - 1;
+    // Buckets larger than this compare every member with its leader and neighbour only
+    private static final int MAX_PAIRWISE_BUCKET = 64;
+
+    @Autowired
+    private QuestionSimilarityJdbcRepository questionSimilarityJdbcRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Value("${mrquiz.questions.duplicates.min-similarity:0.8}")
+    private double defaultMinSimilarity;
+
+    @Value("${mrquiz.questions.duplicates.threads:0}")
+    private int threads;
+
+    @Value("${mrquiz.questions.duplicates.manage-schema:false}")
+    private boolean manageSchema;
+
+    private volatile boolean backfillPending;
+    private UUID backfillCursor = FIRST_ID;
+
+    // ============================================================================
+    // LOOKUP
+    // ============================================================================
+
+    /**
+     * Questions similar to the given one, most similar first
+     */
+    public List<SimilarQuestion> findSimilarQuestions(UUID questionId, int limit) {
+        Question question = questionRepository.findById(questionId)
+                .orElseThrow(() -> new RuntimeException("Question not found"));
+        int[] signature = question.getMinhashSignature() != null
+                ? question.getMinhashSignature()
+                : MinHasher.signature(question.getQuestionText(), question.getQuestionData());
+        return findSimilar(signature, questionId, null, limit);
+    }
+
+    /**
+     * Questions of an institution similar to a draft that has not been saved yet
+     */
+    public List<SimilarQuestion> findSimilarToText(String questionText, Map<String, Object> questionData,
+                                                   UUID institutionId, int limit) {
+        return findSimilar(MinHasher.signature(questionText, questionData), null, institutionId, limit);
+    }
+
+    // ============================================================================
+    // CLUSTERING
+    // ============================================================================
+
+    /**
+     * Groups of near-duplicate questions in an institution's bank, largest first.
+     * Questions without a near duplicate are left out.
+     */
+    public List<List<UUID>> clusterInstitution(UUID institutionId) {
+        return clusterInstitution(institutionId, defaultMinSimilarity);
+    }
+
+    public List<List<UUID>> clusterInstitution(UUID institutionId, double minSimilarity) {
+        List<UUID> ids = new ArrayList<>();
+        int[][] signatures = {new int[1024 * MinHasher.SIGNATURE_LENGTH]};
+        questionSimilarityJdbcRepository.streamSignatures(institutionId, candidate -> {
+            if (candidate.signature().length != MinHasher.SIGNATURE_LENGTH || MinHasher.isEmpty(candidate.signature())) {
+                return;
+            }
+            int offset = ids.size() * MinHasher.SIGNATURE_LENGTH;
+            if (offset == signatures[0].length) {
+                signatures[0] = Arrays.copyOf(signatures[0], offset * 2);
+            }
+            System.arraycopy(candidate.signature(), 0, signatures[0], offset, MinHasher.SIGNATURE_LENGTH);
+            ids.add(candidate.id());
+        });
+        if (ids.size() > ORDINAL_MASK) {
+            throw new RuntimeException("Question bank too large to cluster");
+        }
+
+        int[] flat = signatures[0];
+        int count = ids.size();
+        ForkJoinPool pool = new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+        List<long[]> edges;
+        try {
+            edges = pool.submit(() -> IntStream.range(0, MinHasher.BANDS).parallel()
+                    .mapToObj(band -> bandEdges(flat, count, band, minSimilarity))
+                    .toList()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Question clustering interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Question clustering failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        int[] parents = IntStream.range(0, count).toArray();
+        for (long[] bandEdges : edges) {
+            for (long edge : bandEdges) {
+                union(parents, (int) (edge >>> 32), (int) edge);
+            }
+        }
+
+        Map<Integer, List<UUID>> clusters = new HashMap<>();
+        for (int ordinal = 0; ordinal < count; ordinal++) {
+            clusters.computeIfAbsent(find(parents, ordinal), root -> new ArrayList<>()).add(ids.get(ordinal));
+        }
+        List<List<UUID>> duplicates = clusters.values().stream()
+                .filter(cluster -> cluster.size() > 1)
+                .sorted(Comparator.<List<UUID>>comparingInt(List::size).reversed())
+                .toList();
+        log.info("Clustered {} questions of institution {}: {} duplicate groups", count, institutionId, duplicates.size());
+        return duplicates;
+    }
+
+    // ============================================================================
+    // BACKFILL
+    // ============================================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureSignatures() {
+        if (!manageSchema) {
+            return;
+        }
+        if (!questionSimilarityJdbcRepository.isBandIndexValid()) {
+            try {
+                questionSimilarityJdbcRepository.createBandIndex();
+                log.info("Built MinHash band index");
+            } catch (DataAccessException e) {
+                log.warn("Failed to build MinHash band index; retried on the next start", e);
+            }
+        }
+        backfillPending = true;
+    }
+
+    /**
+     * Sign questions saved before signatures existed, one page per tick
+     */
+    @Scheduled(fixedDelayString = "${mrquiz.questions.duplicates.backfill-interval:PT5S}")
+    public void backfillSignatures() {
+        if (!backfillPending) {
+            return;
+        }
+        List<QuestionSimilarityJdbcRepository.Unsigned> batch =
+                questionSimilarityJdbcRepository.findUnsigned(backfillCursor, BACKFILL_BATCH_SIZE);
+        if (batch.isEmpty()) {
+            backfillPending = false;
+            return;
+        }
+        List<QuestionSimilarityJdbcRepository.Signed> updates = batch.parallelStream()
+                .map(question -> {
+                    int[] signature = MinHasher.signature(question.questionText(), question.questionData());
+                    return new QuestionSimilarityJdbcRepository.Signed(
+                            question.id(), signature, MinHasher.bandKeys(signature));
+                })
+                .toList();
+        questionSimilarityJdbcRepository.updateSignatures(updates);
+        backfillCursor = batch.get(batch.size() - 1).id();
+        log.info("Computed MinHash signatures for {} questions", updates.size());
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private List<SimilarQuestion> findSimilar(int[] signature, UUID excludedId, UUID institutionId, int limit) {
+        long[] bands = MinHasher.bandKeys(signature);
+        if (bands.length == 0) {
+            return List.of();
+        }
+        return questionSimilarityJdbcRepository.findCandidates(bands, excludedId, institutionId, MAX_CANDIDATES).stream()
+                .filter(candidate -> candidate.signature() != null
+                        && candidate.signature().length == MinHasher.SIGNATURE_LENGTH)
+                .map(candidate -> new SimilarQuestion(candidate.id(), MinHasher.similarity(signature, candidate.signature())))
+                .filter(similar -> similar.similarity() >= defaultMinSimilarity)
+                .sorted(Comparator.comparingDouble(SimilarQuestion::similarity).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Pairs of similar questions that share a bucket in one band, each packed into a long
+     */
+    private long[] bandEdges(int[] signatures, int count, int band, double minSimilarity) {
+        // High bits hold the bucket key, low bits the ordinal, so sorting lines buckets up
+        long[] keyed = new long[count];
+        for (int ordinal = 0; ordinal < count; ordinal++) {
+            long key = MinHasher.bandKey(signatures, ordinal * MinHasher.SIGNATURE_LENGTH, band);
+            keyed[ordinal] = (key & ~ORDINAL_MASK) | ordinal;
+        }
+        Arrays.sort(keyed);
+
+        long[] edges = new long[64];
+        int edgeCount = 0;
+        int start = 0;
+        while (start < count) {
+            int end = start + 1;
+            while (end < count && (keyed[end] & ~ORDINAL_MASK) == (keyed[start] & ~ORDINAL_MASK)) {
+                end++;
+            }
+            boolean pairwise = end - start <= MAX_PAIRWISE_BUCKET;
+            for (int i = start; i < end; i++) {
+                for (int j = i + 1; j < end; j++) {
+                    if (!pairwise && i != start && j != i + 1) {
+                        break;
+                    }
+                    int a = (int) (keyed[i] & ORDINAL_MASK);
+                    int b = (int) (keyed[j] & ORDINAL_MASK);
+                    if (MinHasher.similarity(signatures, a * MinHasher.SIGNATURE_LENGTH,
+                                             signatures, b * MinHasher.SIGNATURE_LENGTH) >= minSimilarity) {
+                        if (edgeCount == edges.length) {
+                            edges = Arrays.copyOf(edges, edgeCount * 2);
+                        }
+                        edges[edgeCount++] = ((long) a << 32) | b;
+                    }
+                }
+            }
+            start = end;
+        }
+        return Arrays.copyOf(edges, edgeCount);
+    }
+
+    private static int find(int[] parents, int ordinal) {
+        while (parents[ordinal] != ordinal) {
+            parents[ordinal] = parents[parents[ordinal]];
+            ordinal = parents[ordinal];
+        }
+        return ordinal;
+    }
+
+    private static void union(int[] parents, int a, int b) {
+        int rootA = find(parents, a);
+        int rootB = find(parents, b);
+        if (rootA != rootB) {
+            parents[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+    }
+
+    public record SimilarQuestion(UUID questionId, double similarity) {
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.enums.QuizStatus;
+import com.example.mrquiz.service.TransactionHooks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * In-memory access facts for quizzes and users, so an access check is two hash lookups.
+ *
+ * Per quiz: creator, course, status and guest flag. Per user: the quizzes they collaborate
+ * on with their permission, and the courses they are actively enrolled in. Entries are
+ * invalidated when those facts change on this node; {@link QuizAccessService} polls the cached
+ * entries for changes made elsewhere, and {@code mrquiz.quiz.access-cache.ttl} is the backstop.
+ */
+@Component
+public class QuizAccessIndex {
+
+    private final Map<UUID, Entry<QuizAccess>> quizzes = new ConcurrentHashMap<>();
+    private final Map<UUID, Entry<UserAccess>> users = new ConcurrentHashMap<>();
+
+    // Bumped on every invalidation, so a load that raced with one is not cached
+    private final AtomicLong quizGeneration = new AtomicLong();
+    private final AtomicLong userGeneration = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    public QuizAccessIndex(@Value("${mrquiz.quiz.access-cache.max-entries:100000}") int maxEntries,
+                           @Value("${mrquiz.quiz.access-cache.ttl:PT1H}") Duration ttl) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    // ============================================================================
+    // LOOKUP
+    // ============================================================================
+
+    public QuizAccess getQuiz(UUID quizId, Function<UUID, QuizAccess> loader) {
+        return get(quizzes, quizGeneration, quizId, loader);
+    }
+
+    public UserAccess getUser(UUID userId, Function<UUID, UserAccess> loader) {
+        return get(users, userGeneration, userId, loader);
+    }
+
+    /**
+     * Ids of the quizzes currently cached and not expired
+     */
+    public List<UUID> cachedQuizIds() {
+        return new ArrayList<>(live(quizzes).keySet());
+    }
+
+    /**
+     * Users currently cached and not expired, with the access they were loaded with
+     */
+    public Map<UUID, UserAccess> cachedUsers() {
+        return live(users);
+    }
+
+    // ============================================================================
+    // INVALIDATION
+    // ============================================================================
+
+    public void invalidateQuiz(UUID quizId) {
+        TransactionHooks.nowAndAfterCommit(() -> {
+            quizGeneration.incrementAndGet();
+            quizzes.remove(quizId);
+        });
+    }
+
+    public void invalidateQuizzes(Iterable<UUID> quizIds) {
+        TransactionHooks.nowAndAfterCommit(() -> {
+            quizGeneration.incrementAndGet();
+            quizIds.forEach(quizzes::remove);
+        });
+    }
+
+    public void invalidateUser(UUID userId) {
+        TransactionHooks.nowAndAfterCommit(() -> {
+            userGeneration.incrementAndGet();
+            users.remove(userId);
+        });
+    }
+
+    public void invalidateUsers(Iterable<UUID> userIds) {
+        TransactionHooks.nowAndAfterCommit(() -> {
+            userGeneration.incrementAndGet();
+            userIds.forEach(users::remove);
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("quizzes", quizzes.size());
+        stats.put("users", users.size());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        return stats;
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private <V> V get(Map<UUID, Entry<V>> map, AtomicLong generation, UUID key, Function<UUID, V> loader) {
+        long now = System.nanoTime();
+        Entry<V> entry = map.get(key);
+        if (entry != null && now - entry.expiresAtNanos < 0) {
+            hits.increment();
+            return entry.value;
+        }
+
+        misses.increment();
+        long loadGeneration = generation.get();
+        V value = loader.apply(key);
+        if (value != null && generation.get() == loadGeneration) {
+            if (map.size() >= maxEntries) {
+                evict(map, now);
+            }
+            map.put(key, new Entry<>(value, now + ttlNanos));
+        }
+        return value;
+    }
+
+    private <V> Map<UUID, V> live(Map<UUID, Entry<V>> map) {
+        long now = System.nanoTime();
+        Map<UUID, V> values = new HashMap<>();
+        map.forEach((key, entry) -> {
+            if (now - entry.expiresAtNanos < 0) {
+                values.put(key, entry.value);
+            }
+        });
+        return values;
+    }
+
+    /**
+     * Drop expired entries, then arbitrary ones, until the map is 10% under its bound
+     */
+    private <V> void evict(Map<UUID, Entry<V>> map, long now) {
+        map.values().removeIf(entry -> now - entry.expiresAtNanos >= 0);
+        int target = maxEntries - Math.max(1, maxEntries / 10);
+        Iterator<UUID> it = map.keySet().iterator();
+        while (map.size() > target && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAtNanos) {
+    }
+
+    public record QuizAccess(UUID creatorId, UUID courseId, QuizStatus status, boolean guestAccess) {
+    }
+
+    public record UserAccess(Map<UUID, String> collaborations, Set<UUID> courseIds) {
+    }
+}
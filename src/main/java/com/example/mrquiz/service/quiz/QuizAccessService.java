@@ -0,0 +1,215 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.enums.QuizStatus;
+import com.example.mrquiz.repository.core.CourseEnrollmentRepository;
+import com.example.mrquiz.repository.quiz.QuizAccessJdbcRepository;
+import com.example.mrquiz.repository.quiz.QuizAccessJdbcRepository.CachedUser;
+import com.example.mrquiz.repository.quiz.QuizCollaboratorRepository;
+import com.example.mrquiz.repository.quiz.QuizRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Access checks served from {@link QuizAccessIndex}.
+ *
+ * Changes made on this node invalidate the index directly. Every
+ * {@code mrquiz.quiz.access-cache.refresh-interval} the cached quizzes and users are checked
+ * against the updated_at of their rows, collaborations and enrollments, so changes made on
+ * other nodes are dropped within one interval.
+ */
+@Slf4j
+@Service
+@Transactional
+public class QuizAccessService {
+
+    private static final int REFRESH_BATCH_SIZE = 1000;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private QuizCollaboratorRepository quizCollaboratorRepository;
+
+    @Autowired
+    private CourseEnrollmentRepository courseEnrollmentRepository;
+
+    @Autowired
+    private QuizAccessJdbcRepository quizAccessJdbcRepository;
+
+    @Autowired
+    private QuizAccessIndex quizAccessIndex;
+
+    @Value("${mrquiz.quiz.access-cache.refresh-overlap:PT10S}")
+    private Duration refreshOverlap;
+
+    private volatile LocalDateTime watermark = LocalDateTime.now();
+
+    // ============================================================================
+    // ACCESS CHECKS
+    // ============================================================================
+
+    /**
+     * Creator and collaborators always have access; anyone else needs a published quiz
+     * that allows guests or belongs to a course they are actively enrolled in
+     */
+    @Transactional(readOnly = true)
+    public boolean hasAccess(UUID userId, UUID quizId) {
+        QuizAccessIndex.QuizAccess quiz = getQuizAccess(quizId);
+        if (quiz.creatorId().equals(userId)) {
+            return true;
+        }
+
+        QuizAccessIndex.UserAccess user = quizAccessIndex.getUser(userId, this::loadUserAccess);
+        if (user.collaborations().containsKey(quizId)) {
+            return true;
+        }
+
+        return quiz.status() == QuizStatus.PUBLISHED
+                && (quiz.guestAccess() || (quiz.courseId() != null && user.courseIds().contains(quiz.courseId())));
+    }
+
+    /**
+     * Collaborator permission of the user on the quiz, if any
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> getCollaboratorPermission(UUID userId, UUID quizId) {
+        return Optional.ofNullable(quizAccessIndex.getUser(userId, this::loadUserAccess).collaborations().get(quizId));
+    }
+
+    // ============================================================================
+    // COLLABORATORS
+    // ============================================================================
+
+    public void addCollaborator(UUID quizId, UUID userId, String permission) {
+        quizCollaboratorRepository.upsertCollaborator(quizId, userId, permission);
+        quizAccessIndex.invalidateUser(userId);
+    }
+
+    public void removeCollaborator(UUID quizId, UUID userId) {
+        quizCollaboratorRepository.deleteByQuizIdAndUserId(quizId, userId);
+        quizAccessIndex.invalidateUser(userId);
+    }
+
+    // ============================================================================
+    // INVALIDATION
+    // ============================================================================
+
+    /**
+     * Creator, course, status or guest access of the quiz changed
+     */
+    public void quizChanged(UUID quizId) {
+        quizAccessIndex.invalidateQuiz(quizId);
+    }
+
+    public void quizzesChanged(List<UUID> quizIds) {
+        quizAccessIndex.invalidateQuizzes(quizIds);
+    }
+
+    /**
+     * Enrollments or collaborations of the user changed
+     */
+    public void userChanged(UUID userId) {
+        quizAccessIndex.invalidateUser(userId);
+    }
+
+    /**
+     * Drop cached quizzes and users changed since the last poll, wherever the change was made
+     */
+    @Scheduled(fixedDelayString = "${mrquiz.quiz.access-cache.refresh-interval:PT30S}",
+               initialDelayString = "${mrquiz.quiz.access-cache.refresh-interval:PT30S}")
+    @Transactional(readOnly = true)
+    public void refresh() {
+        LocalDateTime started = LocalDateTime.now();
+        // Re-read a little before the last poll so commits that were in flight are not missed
+        LocalDateTime since = watermark.minus(refreshOverlap);
+
+        List<UUID> quizIds = quizAccessIndex.cachedQuizIds();
+        for (int from = 0; from < quizIds.size(); from += REFRESH_BATCH_SIZE) {
+            List<UUID> changed = quizAccessJdbcRepository.findChangedQuizzes(
+                    quizIds.subList(from, Math.min(from + REFRESH_BATCH_SIZE, quizIds.size())), since);
+            if (!changed.isEmpty()) {
+                quizAccessIndex.invalidateQuizzes(changed);
+            }
+        }
+
+        List<CachedUser> users = new ArrayList<>();
+        quizAccessIndex.cachedUsers().forEach((userId, access) -> users.add(
+                new CachedUser(userId, access.collaborations().size(), access.courseIds().size())));
+        for (int from = 0; from < users.size(); from += REFRESH_BATCH_SIZE) {
+            List<UUID> changed = quizAccessJdbcRepository.findChangedUsers(
+                    users.subList(from, Math.min(from + REFRESH_BATCH_SIZE, users.size())), since);
+            if (!changed.isEmpty()) {
+                quizAccessIndex.invalidateUsers(changed);
+            }
+        }
+        watermark = started;
+    }
+
+    public Map<String, Object> getIndexStats() {
+        return quizAccessIndex.getStats();
+    }
+
+    /**
+     * Move collaborators still kept in quizzes.settings.collaborators into quiz_collaborators.
+     *
+     * Once moved the settings key is gone, so later startups stop at the count. Nodes starting
+     * together take turns on an advisory lock, and the ones after the first copy nothing.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateSettingsCollaborators() {
+        if (quizCollaboratorRepository.countQuizSettingsCollaborators() == 0) {
+            return;
+        }
+        quizCollaboratorRepository.lockSettingsMigration();
+        int migrated = quizCollaboratorRepository.backfillFromQuizSettings();
+        quizCollaboratorRepository.clearQuizSettingsCollaborators();
+        if (migrated > 0) {
+            log.info("Moved {} quiz collaborators from quiz settings to quiz_collaborators", migrated);
+        }
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private QuizAccessIndex.QuizAccess getQuizAccess(UUID quizId) {
+        QuizAccessIndex.QuizAccess quiz = quizAccessIndex.getQuiz(quizId, this::loadQuizAccess);
+        if (quiz == null) {
+            throw new RuntimeException("Quiz not found");
+        }
+        return quiz;
+    }
+
+    private QuizAccessIndex.QuizAccess loadQuizAccess(UUID quizId) {
+        List<Object[]> rows = quizRepository.findAccessAttributes(quizId);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object[] row = rows.get(0);
+        return new QuizAccessIndex.QuizAccess(
+                (UUID) row[0],
+                (UUID) row[1],
+                QuizStatus.valueOf((String) row[2]),
+                Boolean.TRUE.equals(row[3]));
+    }
+
+    private QuizAccessIndex.UserAccess loadUserAccess(UUID userId) {
+        Map<UUID, String> collaborations = new HashMap<>();
+        for (Object[] row : quizCollaboratorRepository.findQuizPermissionsByUserId(userId)) {
+            collaborations.put((UUID) row[0], (String) row[1]);
+        }
+        Set<UUID> courseIds = new HashSet<>(courseEnrollmentRepository.findActiveCourseIdsByUserId(userId));
+        return new QuizAccessIndex.UserAccess(Collections.unmodifiableMap(collaborations),
+                                              Collections.unmodifiableSet(courseIds));
+    }
+}
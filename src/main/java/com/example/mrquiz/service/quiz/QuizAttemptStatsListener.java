@@ -0,0 +1,82 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.entity.quiz.QuizAttempt;
+import com.example.mrquiz.enums.AttemptStatus;
+import com.example.mrquiz.repository.quiz.QuizStatsJdbcRepository.Counters;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+/**
+ * Turns attempt inserts, grading and deletes into quiz counter deltas.
+ *
+ * The status and percentage an attempt was loaded with are remembered on the entity,
+ * so an update only contributes the difference it actually made. A user's first attempt
+ * counts them as a participant, as in the recount. Bulk JPQL updates bypass this listener;
+ * the nightly reconciliation in {@link QuizStatsService} covers them.
+ */
+@Component
+public class QuizAttemptStatsListener {
+
+    @Lazy
+    @Autowired
+    private QuizStatsService quizStatsService;
+
+    @PostLoad
+    public void attemptLoaded(QuizAttempt attempt) {
+        remember(attempt);
+    }
+
+    @PostPersist
+    public void attemptCreated(QuizAttempt attempt) {
+        Counters delta = new Counters(1, 0, BigDecimal.ZERO, participants(attempt)).plus(gradedContribution(attempt));
+        record(attempt, delta);
+        remember(attempt);
+    }
+
+    @PostUpdate
+    public void attemptUpdated(QuizAttempt attempt) {
+        Counters before = gradedContribution(attempt.getLoadedStatus(), attempt.getLoadedPercentage());
+        record(attempt, gradedContribution(attempt).plus(before.negate()));
+        remember(attempt);
+    }
+
+    @PostRemove
+    public void attemptRemoved(QuizAttempt attempt) {
+        Counters contribution = new Counters(1, 0, BigDecimal.ZERO, participants(attempt))
+                .plus(gradedContribution(attempt.getLoadedStatus(), attempt.getLoadedPercentage()));
+        record(attempt, contribution.negate());
+    }
+
+    private void record(QuizAttempt attempt, Counters delta) {
+        if (attempt.getQuiz() != null && !delta.isZero()) {
+            quizStatsService.record(attempt.getQuiz().getId(), delta);
+        }
+    }
+
+    private long participants(QuizAttempt attempt) {
+        return Integer.valueOf(1).equals(attempt.getAttemptNumber()) ? 1 : 0;
+    }
+
+    private void remember(QuizAttempt attempt) {
+        attempt.setLoadedStatus(attempt.getStatus());
+        attempt.setLoadedPercentage(attempt.getPercentage());
+    }
+
+    private Counters gradedContribution(QuizAttempt attempt) {
+        return gradedContribution(attempt.getStatus(), attempt.getPercentage());
+    }
+
+    private Counters gradedContribution(AttemptStatus status, BigDecimal percentage) {
+        if (status != AttemptStatus.GRADED || percentage == null) {
+            return Counters.ZERO;
+        }
+        return new Counters(0, 1, percentage, 0);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.enums.QuestionType;
+import com.example.mrquiz.enums.QuizStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Immutable, pre-compiled form of a quiz and its questions used to deliver and grade attempts.
+ *
+ * The student view carries nothing that reveals answers; correct answers, validation rules
+ * and explanations only exist in the grader view. All JSON content is deep-copied into
+ * unmodifiable collections, so one instance can be shared by every attempt.
+ */
+public record QuizDefinition(UUID quizId, QuizStatus status, StudentView studentView, GraderView graderView) {
+
+    public int questionCount() {
+        return studentView.questions().size();
+    }
+
+    public boolean containsQuestion(UUID questionId) {
+        return graderView.questions().containsKey(questionId);
+    }
+
+    public record StudentView(UUID quizId,
+                              String title,
+                              String description,
+                              String instructions,
+                              Integer timeLimit,
+                              Integer timePerQuestion,
+                              Integer questionsPerPage,
+                              Boolean shuffleQuestions,
+                              Boolean shuffleAnswers,
+                              Boolean allowReview,
+                              LocalDateTime availabilityStart,
+                              LocalDateTime availabilityEnd,
+                              List<StudentQuestion> questions) {
+    }
+
+    public record StudentQuestion(UUID questionId,
+                                  int orderIndex,
+                                  String section,
+                                  Integer pageNumber,
+                                  Boolean required,
+                                  Integer timeLimit,
+                                  BigDecimal points,
+                                  QuestionType questionType,
+                                  String title,
+                                  String questionText,
+                                  String hint,
+                                  String altText,
+                                  List<UUID> questionFiles,
+                                  Map<String, Object> questionData,
+                                  Map<String, Object> settings) {
+    }
+
+    public record GraderView(UUID quizId,
+                             BigDecimal totalPoints,
+                             BigDecimal passingScore,
+                             String gradingMethod,
+                             Boolean showCorrectAnswers,
+                             Boolean showExplanations,
+                             Map<UUID, GradingQuestion> questions) {
+    }
+
+    public record GradingQuestion(UUID questionId,
+                                  QuestionType questionType,
+                                  BigDecimal points,
+                                  BigDecimal negativePoints,
+                                  Map<String, Object> questionData,
+                                  Map<String, Object> correctAnswers,
+                                  Map<String, Object> answerValidation,
+                                  String explanation,
+                                  QuestionGrader grader) {
+
+        /**
+         * Whether answers to this question are graded without a person
+         */
+        public boolean autoGraded() {
+            return grader != null;
+        }
+
+        /**
+         * Grade of the answer, or null when the question is graded by hand
+         */
+        public QuestionGrader.Grade grade(Map<String, Object> answerData) {
+            return grader != null ? grader.grade(answerData) : null;
+        }
+
+        GradingQuestion withGrader(QuestionGrader grader) {
+            return new GradingQuestion(questionId, questionType, points, negativePoints, questionData,
+                                       correctAnswers, answerValidation, explanation, grader);
+        }
+    }
+
+    /**
+     * Deep, unmodifiable copy of a JSON value
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T freeze(T value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            map.forEach((k, v) -> copy.put(k, freeze(v)));
+            return (T) Collections.unmodifiableMap(copy);
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            list.forEach(v -> copy.add(freeze(v)));
+            return (T) Collections.unmodifiableList(copy);
+        }
+        return value;
+    }
+}
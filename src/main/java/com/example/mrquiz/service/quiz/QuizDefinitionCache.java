@@ -0,0 +1,246 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.enums.QuizStatus;
+import com.example.mrquiz.service.TransactionHooks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Cache of compiled {@link QuizDefinition}s for published quizzes.
+ *
+ * Loads are single-flight: the first caller for a quiz runs the loader and every concurrent
+ * caller waits on the same future, so a class starting an exam together causes one load.
+ * Size is bounded by the total number of cached questions; least recently used definitions
+ * are evicted first. Definitions of quizzes that are not published are handed to the callers
+ * that waited for them but not kept, and neither are definitions loaded inside a transaction
+ * that then rolls back, since they may reflect its uncommitted changes.
+ *
+ * Invalidation only reaches this node; {@link QuizDefinitionService} polls for quizzes changed
+ * on other nodes, and no definition is served longer than {@code mrquiz.quiz.definition-cache.ttl}
+ * after it was loaded, should a change slip past the poll.
+ */
+@Component
+public class QuizDefinitionCache {
+
+    private final Map<UUID, Slot> slots = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    private final int maxQuestions;
+    private final long ttlNanos;
+
+    public QuizDefinitionCache(@Value("${mrquiz.quiz.definition-cache.max-questions:50000}") int maxQuestions,
+                               @Value("${mrquiz.quiz.definition-cache.ttl:PT10M}") Duration ttl) {
+        this.maxQuestions = maxQuestions;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    // ============================================================================
+    // LOOKUP
+    // ============================================================================
+
+    public QuizDefinition get(UUID quizId, Function<UUID, QuizDefinition> loader) {
+        while (true) {
+            Slot slot = slots.get(quizId);
+            if (slot == null) {
+                Slot created = new Slot();
+                slot = slots.putIfAbsent(quizId, created);
+                if (slot == null) {
+                    return load(quizId, created, loader);
+                }
+            }
+
+            long now = System.nanoTime();
+            if (slot.future.isDone() && now - slot.loadedAt > ttlNanos) {
+                if (slots.remove(quizId, slot)) {
+                    expirations.increment();
+                }
+                continue;
+            }
+            slot.lastAccess = now;
+            if (slot.future.isDone()) {
+                hits.increment();
+            } else {
+                coalesced.increment();
+            }
+            return await(slot.future);
+        }
+    }
+
+    private QuizDefinition load(UUID quizId, Slot slot, Function<UUID, QuizDefinition> loader) {
+        loads.increment();
+        QuizDefinition definition;
+        try {
+            definition = loader.apply(quizId);
+        } catch (RuntimeException e) {
+            slots.remove(quizId, slot);
+            slot.future.completeExceptionally(e);
+            throw e;
+        }
+
+        slot.future.complete(definition);
+        if (definition.status() != QuizStatus.PUBLISHED) {
+            slots.remove(quizId, slot);
+        } else {
+            TransactionHooks.afterRollback(() -> {
+                if (slots.remove(quizId, slot)) {
+                    invalidations.increment();
+                }
+            });
+            evictIfNeeded();
+        }
+        return definition;
+    }
+
+    // ============================================================================
+    // INVALIDATION
+    // ============================================================================
+
+    public void invalidate(UUID quizId) {
+        TransactionHooks.nowAndAfterCommit(() -> {
+            if (slots.remove(quizId) != null) {
+                invalidations.increment();
+            }
+        });
+    }
+
+    public void invalidateAll(List<UUID> quizIds) {
+        TransactionHooks.nowAndAfterCommit(() -> quizIds.forEach(quizId -> {
+            if (slots.remove(quizId) != null) {
+                invalidations.increment();
+            }
+        }));
+    }
+
+    /**
+     * Drop every cached quiz that contains the question
+     */
+    public void invalidateQuestion(UUID questionId) {
+        TransactionHooks.nowAndAfterCommit(() -> slots.entrySet().removeIf(entry -> {
+            QuizDefinition definition = entry.getValue().loaded();
+            boolean contains = definition != null && definition.containsQuestion(questionId);
+            if (contains) {
+                invalidations.increment();
+            }
+            return contains;
+        }));
+    }
+
+    /**
+     * Ids of the quizzes whose definitions are loaded
+     */
+    public List<UUID> cachedQuizIds() {
+        List<UUID> quizIds = new ArrayList<>();
+        slots.forEach((quizId, slot) -> {
+            if (slot.loaded() != null) {
+                quizIds.add(quizId);
+            }
+        });
+        return quizIds;
+    }
+
+    public void clear() {
+        TransactionHooks.nowAndAfterCommit(slots::clear);
+    }
+
+    // ============================================================================
+    // METRICS
+    // ============================================================================
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", slots.size());
+        stats.put("cachedQuestions", cachedQuestions());
+        stats.put("maxQuestions", maxQuestions);
+        stats.put("hits", hits.sum());
+        stats.put("loads", loads.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("invalidations", invalidations.sum());
+        stats.put("expirations", expirations.sum());
+        return stats;
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    /**
+     * Evict least recently used definitions until the cache is 10% under its question bound
+     */
+    private synchronized void evictIfNeeded() {
+        long cached = cachedQuestions();
+        if (cached <= maxQuestions) {
+            return;
+        }
+
+        long target = maxQuestions - Math.max(1, maxQuestions / 10);
+        List<Map.Entry<UUID, Slot>> candidates = new ArrayList<>(slots.entrySet());
+        candidates.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess));
+        for (Map.Entry<UUID, Slot> entry : candidates) {
+            if (cached <= target) {
+                break;
+            }
+            QuizDefinition definition = entry.getValue().loaded();
+            if (definition != null && slots.remove(entry.getKey(), entry.getValue())) {
+                cached -= weight(definition);
+                evictions.increment();
+            }
+        }
+    }
+
+    private long cachedQuestions() {
+        long total = 0;
+        for (Slot slot : slots.values()) {
+            QuizDefinition definition = slot.loaded();
+            if (definition != null) {
+                total += weight(definition);
+            }
+        }
+        return total;
+    }
+
+    private static int weight(QuizDefinition definition) {
+        return definition.questionCount() + 1;
+    }
+
+    private QuizDefinition await(CompletableFuture<QuizDefinition> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("Failed to load quiz definition", e.getCause());
+        }
+    }
+
+    private static final class Slot {
+
+        private final CompletableFuture<QuizDefinition> future = new CompletableFuture<>();
+        private final long loadedAt = System.nanoTime();
+        private volatile long lastAccess = loadedAt;
+
+        private QuizDefinition loaded() {
+            return future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+        }
+    }
+}
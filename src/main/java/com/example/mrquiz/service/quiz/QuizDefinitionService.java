@@ -0,0 +1,222 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.entity.quiz.Question;
+import com.example.mrquiz.entity.quiz.Quiz;
+import com.example.mrquiz.entity.quiz.QuizQuestion;
+import com.example.mrquiz.enums.QuizStatus;
+import com.example.mrquiz.repository.quiz.QuizQuestionJdbcRepository;
+import com.example.mrquiz.repository.quiz.QuizQuestionRepository;
+import com.example.mrquiz.repository.quiz.QuizRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Compiled quiz definitions, served from {@link QuizDefinitionCache}.
+ *
+ * Not transactional as a whole, so a cache hit takes no pooled connection; a miss compiles
+ * the definition in a read-only transaction, or in the caller's if there is one.
+ *
+ * Changes made on this node invalidate the cache directly. Every
+ * {@code mrquiz.quiz.definition-cache.refresh-interval} the cached quizzes are checked against
+ * the updated_at of their rows, question entries and questions, so changes made on other nodes
+ * are dropped within one interval.
+ */
+@Service
+public class QuizDefinitionService {
+
+    private static final int REFRESH_BATCH_SIZE = 1000;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private QuizQuestionRepository quizQuestionRepository;
+
+    @Autowired
+    private QuizQuestionJdbcRepository quizQuestionJdbcRepository;
+
+    @Autowired
+    private QuizDefinitionCache quizDefinitionCache;
+
+    @Value("${mrquiz.quiz.definition-cache.refresh-overlap:PT10S}")
+    private Duration refreshOverlap;
+
+    private final TransactionTemplate readOnlyTransaction;
+    private volatile LocalDateTime watermark = LocalDateTime.now();
+
+    public QuizDefinitionService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // ============================================================================
+    // DEFINITION ACCESS
+    // ============================================================================
+
+    public QuizDefinition getDefinition(UUID quizId) {
+        return quizDefinitionCache.get(quizId, this::compile);
+    }
+
+    public QuizDefinition.StudentView getStudentView(UUID quizId) {
+        return getDefinition(quizId).studentView();
+    }
+
+    /**
+     * Student view of a quiz that can be taken now: published and inside its availability window
+     */
+    public QuizDefinition.StudentView getDeliverableView(UUID quizId, LocalDateTime now) {
+        QuizDefinition definition = getDefinition(quizId);
+        if (definition.status() != QuizStatus.PUBLISHED) {
+            throw new RuntimeException("Quiz is not published");
+        }
+        QuizDefinition.StudentView view = definition.studentView();
+        if (view.availabilityStart() != null && now.isBefore(view.availabilityStart())) {
+            throw new RuntimeException("Quiz is not available yet");
+        }
+        if (view.availabilityEnd() != null && now.isAfter(view.availabilityEnd())) {
+            throw new RuntimeException("Quiz is no longer available");
+        }
+        return view;
+    }
+
+    public QuizDefinition.GraderView getGraderView(UUID quizId) {
+        return getDefinition(quizId).graderView();
+    }
+
+    /**
+     * Grade an answer with the question's compiled grader; null when it is graded by hand
+     */
+    public QuestionGrader.Grade grade(UUID quizId, UUID questionId, Map<String, Object> answerData) {
+        QuizDefinition.GradingQuestion question = getGraderView(quizId).questions().get(questionId);
+        if (question == null) {
+            throw new RuntimeException("Question not found in quiz");
+        }
+        return question.grade(answerData);
+    }
+
+    // ============================================================================
+    // INVALIDATION
+    // ============================================================================
+
+    public void invalidate(UUID quizId) {
+        quizDefinitionCache.invalidate(quizId);
+    }
+
+    public void invalidate(List<UUID> quizIds) {
+        quizDefinitionCache.invalidateAll(quizIds);
+    }
+
+    public void invalidateQuestion(UUID questionId) {
+        quizDefinitionCache.invalidateQuestion(questionId);
+    }
+
+    /**
+     * Drop cached definitions of quizzes changed since the last poll, wherever the change was made
+     */
+    @Scheduled(fixedDelayString = "${mrquiz.quiz.definition-cache.refresh-interval:PT30S}",
+               initialDelayString = "${mrquiz.quiz.definition-cache.refresh-interval:PT30S}")
+    public void refresh() {
+        LocalDateTime started = LocalDateTime.now();
+        // Re-read a little before the last poll so commits that were in flight are not missed
+        LocalDateTime since = watermark.minus(refreshOverlap);
+        List<UUID> cached = quizDefinitionCache.cachedQuizIds();
+        for (int from = 0; from < cached.size(); from += REFRESH_BATCH_SIZE) {
+            List<UUID> changed = quizQuestionJdbcRepository.findChangedQuizzes(
+                    cached.subList(from, Math.min(from + REFRESH_BATCH_SIZE, cached.size())), since);
+            if (!changed.isEmpty()) {
+                quizDefinitionCache.invalidateAll(changed);
+            }
+        }
+        watermark = started;
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return quizDefinitionCache.getStats();
+    }
+
+    // ============================================================================
+    // COMPILATION
+    // ============================================================================
+
+    private QuizDefinition compile(UUID quizId) {
+        return readOnlyTransaction.execute(status -> compileInTransaction(quizId));
+    }
+
+    private QuizDefinition compileInTransaction(UUID quizId) {
+        Quiz quiz = quizRepository.findById(quizId)
+                .orElseThrow(() -> new RuntimeException("Quiz not found"));
+        List<QuizQuestion> quizQuestions = quizQuestionRepository.findByQuizIdOrderByOrderIndex(quizId);
+
+        List<QuizDefinition.StudentQuestion> studentQuestions = new ArrayList<>(quizQuestions.size());
+        Map<UUID, QuizDefinition.GradingQuestion> gradingQuestions = new LinkedHashMap<>();
+        for (QuizQuestion quizQuestion : quizQuestions) {
+            Question question = quizQuestion.getQuestion();
+            BigDecimal points = quizQuestion.getPoints() != null ? quizQuestion.getPoints() : question.getPoints();
+
+            studentQuestions.add(new QuizDefinition.StudentQuestion(
+                    question.getId(),
+                    quizQuestion.getOrderIndex(),
+                    quizQuestion.getSection(),
+                    quizQuestion.getPageNumber(),
+                    quizQuestion.getRequired(),
+                    quizQuestion.getTimeLimit(),
+                    points,
+                    question.getQuestionType(),
+                    question.getTitle(),
+                    question.getQuestionText(),
+                    question.getHint(),
+                    question.getAltText(),
+                    QuizDefinition.freeze(question.getQuestionFiles()),
+                    QuizDefinition.freeze(question.getQuestionData()),
+                    QuizDefinition.freeze(quizQuestion.getSettings())));
+
+            QuizDefinition.GradingQuestion gradingQuestion = new QuizDefinition.GradingQuestion(
+                    question.getId(),
+                    question.getQuestionType(),
+                    points,
+                    question.getNegativePoints(),
+                    QuizDefinition.freeze(question.getQuestionData()),
+                    QuizDefinition.freeze(question.getCorrectAnswers()),
+                    QuizDefinition.freeze(question.getAnswerValidation()),
+                    question.getExplanation(),
+                    null);
+            // Graders are compiled once here and cached with the definition
+            gradingQuestions.put(question.getId(), gradingQuestion.withGrader(QuestionGraders.compile(gradingQuestion)));
+        }
+
+        QuizDefinition.StudentView studentView = new QuizDefinition.StudentView(
+                quiz.getId(),
+                quiz.getTitle(),
+                quiz.getDescription(),
+                quiz.getInstructions(),
+                quiz.getTimeLimit(),
+                quiz.getTimePerQuestion(),
+                quiz.getQuestionsPerPage(),
+                quiz.getShuffleQuestions(),
+                quiz.getShuffleAnswers(),
+                quiz.getAllowReview(),
+                quiz.getAvailabilityStart(),
+                quiz.getAvailabilityEnd(),
+                Collections.unmodifiableList(studentQuestions));
+
+        QuizDefinition.GraderView graderView = new QuizDefinition.GraderView(
+                quiz.getId(),
+                quiz.getTotalPoints(),
+                quiz.getPassingScore(),
+                quiz.getGradingMethod(),
+                quiz.getShowCorrectAnswers(),
+                quiz.getShowExplanations(),
+                Collections.unmodifiableMap(gradingQuestions));
+
+        return new QuizDefinition(quiz.getId(), quiz.getStatus(), studentView, graderView);
+    }
+}
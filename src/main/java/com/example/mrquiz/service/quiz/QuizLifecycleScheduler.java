@@ -0,0 +1,206 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.repository.quiz.QuizRepository;
+import com.example.mrquiz.service.TransactionHooks;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Publishes scheduled quizzes when their availability starts and completes them when it ends.
+ *
+ * Upcoming boundaries within {@code mrquiz.quiz.lifecycle.horizon} are loaded into a
+ * {@link TimingWheel} and fired in batches each tick. Only the node holding the lifecycle
+ * advisory lock runs the wheel; it reloads it from the database when it becomes leader and
+ * every {@code mrquiz.quiz.lifecycle.refresh-interval}, which also picks up quizzes scheduled
+ * on other nodes. Transitions re-check status and boundary in the UPDATE itself, so an entry
+ * left behind by a rescheduled or archived quiz changes nothing.
+ */
+@Slf4j
+@Service
+public class QuizLifecycleScheduler {
+
+    private static final int WHEEL_SIZE = 60;
+    private static final int WHEEL_LEVELS = 4;
+    private static final int TRANSITION_BATCH_SIZE = 1000;
+
+    @Lazy
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    private final AdvisoryLeaderLock leaderLock;
+    private final long tickMillis;
+    private final Duration horizon;
+    private final Duration refreshInterval;
+
+    private TimingWheel<Boundary> wheel;
+    private long nextRefreshMillis;
+
+    public QuizLifecycleScheduler(AdvisoryLeaderLock.ConnectionSource leaderLockConnections,
+                                  @Value("${mrquiz.quiz.lifecycle.lock-key:7310585}") long lockKey,
+                                  @Value("${mrquiz.quiz.lifecycle.tick:PT1S}") Duration tick,
+                                  @Value("${mrquiz.quiz.lifecycle.horizon:PT1H}") Duration horizon,
+                                  @Value("${mrquiz.quiz.lifecycle.refresh-interval:PT1M}") Duration refreshInterval) {
+        this.leaderLock = new AdvisoryLeaderLock(leaderLockConnections, lockKey);
+        this.tickMillis = tick.toMillis();
+        this.horizon = horizon;
+        this.refreshInterval = refreshInterval;
+    }
+
+    // ============================================================================
+    // ARMING
+    // ============================================================================
+
+    /**
+     * Arm the boundaries of a quiz once the current transaction commits; a no-op on non-leader nodes
+     */
+    public void rearm(UUID quizId, LocalDateTime availabilityStart, LocalDateTime availabilityEnd) {
+        TransactionHooks.afterCommit(() -> arm(quizId, availabilityStart, availabilityEnd));
+    }
+
+    public synchronized boolean isLeader() {
+        return wheel != null;
+    }
+
+    public synchronized int getPendingCount() {
+        return wheel != null ? wheel.size() : 0;
+    }
+
+    // ============================================================================
+    // TICKING
+    // ============================================================================
+
+    @Scheduled(fixedDelayString = "${mrquiz.quiz.lifecycle.tick:PT1S}")
+    public void tick() {
+        List<Boundary> due;
+        synchronized (this) {
+            if (!ensureLeadership()) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            if (now >= nextRefreshMillis) {
+                reload(now);
+            }
+            due = wheel.advance(now);
+        }
+        if (!due.isEmpty()) {
+            fire(due);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        wheel = null;
+        leaderLock.release();
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private boolean ensureLeadership() {
+        if (leaderLock.isHeld()) {
+            return true;
+        }
+        wheel = null;
+        if (!leaderLock.tryAcquire()) {
+            return false;
+        }
+        nextRefreshMillis = 0;
+        return true;
+    }
+
+    private void reload(long now) {
+        List<Object[]> boundaries = quizRepository.findLifecycleBoundaries(toLocalDateTime(now).plus(horizon));
+        wheel = new TimingWheel<>(tickMillis, WHEEL_SIZE, WHEEL_LEVELS, now);
+        for (Object[] row : boundaries) {
+            armInWheel((UUID) row[0], (LocalDateTime) row[1], (LocalDateTime) row[2], now);
+        }
+        nextRefreshMillis = now + refreshInterval.toMillis();
+        log.debug("Loaded {} quiz lifecycle boundaries", wheel.size());
+    }
+
+    private synchronized void arm(UUID quizId, LocalDateTime availabilityStart, LocalDateTime availabilityEnd) {
+        if (wheel != null) {
+            armInWheel(quizId, availabilityStart, availabilityEnd, System.currentTimeMillis());
+        }
+    }
+
+    private void armInWheel(UUID quizId, LocalDateTime availabilityStart, LocalDateTime availabilityEnd, long now) {
+        long horizonMillis = now + horizon.toMillis();
+        armBoundary(new Boundary(quizId, Transition.START), availabilityStart, horizonMillis);
+        armBoundary(new Boundary(quizId, Transition.END), availabilityEnd, horizonMillis);
+    }
+
+    private void armBoundary(Boundary boundary, LocalDateTime at, long horizonMillis) {
+        if (at == null) {
+            wheel.cancel(boundary);
+            return;
+        }
+        long atMillis = at.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (atMillis <= horizonMillis) {
+            wheel.schedule(boundary, atMillis);
+        } else {
+            // Loaded by a later refresh once it is within the horizon
+            wheel.cancel(boundary);
+        }
+    }
+
+    private void fire(List<Boundary> due) {
+        List<UUID> started = new ArrayList<>();
+        List<UUID> ended = new ArrayList<>();
+        for (Boundary boundary : due) {
+            (boundary.transition() == Transition.START ? started : ended).add(boundary.quizId());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int changed = 0;
+        try {
+            // Starts first, so a quiz whose whole window passed is published before it is completed
+            for (int from = 0; from < started.size(); from += TRANSITION_BATCH_SIZE) {
+                changed += quizService.applyLifecycleTransitions(
+                        started.subList(from, Math.min(from + TRANSITION_BATCH_SIZE, started.size())), List.of(), now);
+            }
+            for (int from = 0; from < ended.size(); from += TRANSITION_BATCH_SIZE) {
+                changed += quizService.applyLifecycleTransitions(
+                        List.of(), ended.subList(from, Math.min(from + TRANSITION_BATCH_SIZE, ended.size())), now);
+            }
+        } catch (RuntimeException e) {
+            // The next reload finds the quizzes again since their status did not change
+            log.warn("Failed to apply quiz lifecycle transitions", e);
+            synchronized (this) {
+                nextRefreshMillis = 0;
+            }
+        }
+        if (changed > 0) {
+            log.info("Applied {} quiz lifecycle transitions", changed);
+        }
+    }
+
+    private LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private enum Transition {
+        START,
+        END
+    }
+
+    private record Boundary(UUID quizId, Transition transition) {
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.enums.QuizType;
+import com.example.mrquiz.repository.quiz.QuizSearchJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Ranked quiz search on top of {@link QuizSearchJdbcRepository}.
+ *
+ * Every word of at least three characters is matched as a prefix, so results appear while the
+ * user is still typing; shorter words must match whole, since a one or two letter prefix matches
+ * most of the index. A misspelt term still finds titles that are close by trigram similarity.
+ *
+ * With {@code mrquiz.search.manage-schema} on, the node installs what is missing of the search
+ * column, trigger and indexes at startup, rebuilding indexes an interrupted concurrent build left
+ * INVALID, and fills search vectors of older quizzes in the background one batch per tick.
+ * Leave it off where migrations own the schema, or on all but one node.
+ *
+ * Until the search column and pg_trgm are present, searches fall back to matching every word
+ * against titles; each tick checks again, so a schema installed elsewhere is picked up.
+ */
+@Slf4j
+@Service
+public class QuizSearchService {
+
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+    private static final int MAX_WORDS = 8;
+    private static final int MIN_PREFIX_LENGTH = 3;
+    private static final int BACKFILL_BATCH_SIZE = 5000;
+
+    @Autowired
+    private QuizSearchJdbcRepository quizSearchJdbcRepository;
+
+    @Value("${mrquiz.search.manage-schema:false}")
+    private boolean manageSchema;
+
+    private volatile boolean backfillPending;
+    private volatile boolean searchSchemaInstalled;
+    private boolean schemaMissingLogged;
+
+    /**
+     * Ids of published quizzes matching the term, best match first
+     */
+    public List<UUID> search(String term, QuizType quizType, UUID institutionId, int limit, long offset) {
+        List<String> words = words(term);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        if (!searchSchemaInstalled) {
+            return quizSearchJdbcRepository.searchTitles(words, quizType, institutionId, limit, offset);
+        }
+        String prefixQuery = String.join(" & ", words.stream()
+                .map(word -> word.length() >= MIN_PREFIX_LENGTH ? word + ":*" : word)
+                .toList());
+        return quizSearchJdbcRepository.search(prefixQuery, String.join(" ", words), quizType, institutionId,
+                                               limit, offset);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureSearchSchema() {
+        if (!manageSchema) {
+            checkSearchSchema();
+            return;
+        }
+        if (!quizSearchJdbcRepository.isSearchTriggerInstalled()) {
+            quizSearchJdbcRepository.installSearchTrigger();
+        }
+        for (String index : quizSearchJdbcRepository.findUnusableSearchIndexes()) {
+            try {
+                quizSearchJdbcRepository.createSearchIndex(index);
+                log.info("Built search index {}", index);
+            } catch (DataAccessException e) {
+                log.warn("Failed to build search index {}; retried on the next start", index, e);
+            }
+        }
+        checkSearchSchema();
+        backfillPending = true;
+    }
+
+    /**
+     * Fill search vectors of quizzes that predate the trigger, one batch per tick
+     */
+    @Scheduled(fixedDelayString = "${mrquiz.search.backfill-interval:PT5S}")
+    public void backfillSearchVectors() {
+        if (!searchSchemaInstalled) {
+            checkSearchSchema();
+        }
+        if (!backfillPending) {
+            return;
+        }
+        int updated = quizSearchJdbcRepository.backfillSearchVectors(BACKFILL_BATCH_SIZE);
+        if (updated > 0) {
+            log.info("Built search vectors for {} quizzes", updated);
+        } else {
+            backfillPending = false;
+        }
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private void checkSearchSchema() {
+        boolean installed = quizSearchJdbcRepository.isSearchSchemaInstalled();
+        if (installed && !searchSchemaInstalled) {
+            log.info("Quiz search schema found; searching the full-text index");
+        } else if (!installed && !searchSchemaInstalled && !schemaMissingLogged) {
+            log.warn("quizzes.search_vector or pg_trgm is missing; quiz search matches titles only until " +
+                     "the search schema is installed (mrquiz.search.manage-schema)");
+            schemaMissingLogged = true;
+        }
+        searchSchemaInstalled = installed;
+    }
+
+    /**
+     * Lower-cased words of the term; anything else, including tsquery operators, is dropped
+     */
+    private List<String> words(String term) {
+        List<String> words = new ArrayList<>();
+        if (term == null) {
+            return words;
+        }
+        Matcher matcher = WORD.matcher(term.toLowerCase(Locale.ROOT));
+        while (matcher.find() && words.size() < MAX_WORDS) {
+            words.add(matcher.group());
+        }
+        return words;
+    }
+}
@@ -1,36 +1,55 @@
 package com.example.mrquiz.service.quiz;
 
 import com.example.mrquiz.dto.quiz.*;
+import com.example.mrquiz.entity.quiz.Question;
 import com.example.mrquiz.entity.quiz.Quiz;
 import com.example.mrquiz.entity.quiz.QuizQuestion;
 import com.example.mrquiz.enums.QuizStatus;
 import com.example.mrquiz.enums.QuizType;
+import com.example.mrquiz.repository.KeysetSlice;
+import com.example.mrquiz.repository.quiz.QuizAttemptRepository;
 import com.example.mrquiz.repository.quiz.QuizRepository;
+import com.example.mrquiz.repository.quiz.QuizQuestionJdbcRepository;
 import com.example.mrquiz.repository.quiz.QuizQuestionRepository;
+import com.example.mrquiz.repository.quiz.QuizSettingsRepository;
 import com.example.mrquiz.service.MappingService;
 import com.example.mrquiz.service.notification.NotificationService;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @Transactional
 public class QuizService {
 
+    private static final int TOTAL_POINTS_RECONCILE_BATCH = 1000;
+
     @Autowired
     private QuizRepository quizRepository;
 
     @Autowired
     private QuizQuestionRepository quizQuestionRepository;
 
+    @Autowired
+    private QuizQuestionJdbcRepository quizQuestionJdbcRepository;
+
+    @Autowired
+    private QuizSettingsRepository quizSettingsRepository;
+
     @Autowired
     private MappingService mappingService;
 
@@ -40,7 +59,38 @@ public class QuizService {
     @Autowired
     private QuestionService questionService;
 
-    private final SecureRandom secureRandom = new SecureRandom();
+    @Autowired
+    private JoinCodeService joinCodeService;
+
+    @Autowired
+    private QuizVersionService quizVersionService;
+
+    @Autowired
+    private QuizDefinitionService quizDefinitionService;
+
+    @Autowired
+    private QuizAccessService quizAccessService;
+
+    @Autowired
+    private QuizStatsService quizStatsService;
+
+    @Autowired
+    private QuizLifecycleScheduler quizLifecycleScheduler;
+
+    @Autowired
+    private QuizSearchService quizSearchService;
+
+    @Autowired
+    private TagIndexService tagIndexService;
+
+    @Autowired
+    private QuizAttemptRepository quizAttemptRepository;
+
+    @Autowired
+    private ResponseAutosaveBuffer responseAutosaveBuffer;
+
+    @Autowired
+    private ActiveAttemptRegistry activeAttemptRegistry;
 
     // ============================================================================
     // BASIC QUIZ OPERATIONS
@@ -56,6 +106,9 @@ public class QuizService {
         Quiz quiz = findQuizById(quizId);
         mappingService.getQuizMapper().updateEntity(updateDto, quiz);
         quiz = quizRepository.save(quiz);
+        quizDefinitionService.invalidate(quizId);
+        quizAccessService.quizChanged(quizId);
+        quizLifecycleScheduler.rearm(quizId, quiz.getAvailabilityStart(), quiz.getAvailabilityEnd());
         return mappingService.getQuizMapper().toResponseDto(quiz);
     }
 
@@ -64,24 +117,50 @@ public class QuizService {
         return mappingService.getQuizMapper().toResponseDto(quiz);
     }
 
+    /**
+     * Answer-free view of a published quiz inside its availability window, for delivering
+     * attempts; served from the definition cache without a transaction of its own
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public QuizDefinition.StudentView getQuizForAttempt(UUID quizId) {
+        return quizDefinitionService.getDeliverableView(quizId, LocalDateTime.now());
+    }
+
+    /**
+     * Submit an attempt, writing its buffered autosaves and navigation state first in the same transaction
+     */
+    public void submitAttempt(UUID attemptId, Integer timeSpent) {
+        responseAutosaveBuffer.flushAttempt(attemptId);
+        activeAttemptRegistry.attemptEnded(attemptId);
+        quizAttemptRepository.submitAttempt(attemptId, LocalDateTime.now(), timeSpent);
+    }
+
     public void deleteQuiz(UUID quizId) {
         Quiz quiz = findQuizById(quizId);
         quiz.setStatus(QuizStatus.ARCHIVED);
         quizRepository.save(quiz);
+        quizDefinitionService.invalidate(quizId);
+        quizAccessService.quizChanged(quizId);
     }
 
     // ============================================================================
     // TEACHER QUIZ MANAGEMENT
     // ============================================================================
 
-    public Page<QuizResponseDto> getTeacherQuizzes(UUID teacherId, Pageable pageable) {
-        Page<Quiz> quizzes = quizRepository.findByCreatorId(teacherId, pageable);
-        return mappingService.getQuizMapper().toResponseDtoPage(quizzes);
+    /**
+     * Teacher's quizzes, newest first; pass the previous slice's nextCursor for the next page
+     */
+    public KeysetSlice<QuizResponseDto> getTeacherQuizzes(UUID teacherId, String cursor, int size) {
+        KeysetSlice<Quiz> quizzes = quizRepository.findByCreatorId(teacherId, cursor, size);
+        return new KeysetSlice<>(mappingService.getQuizMapper().toResponseDtoList(quizzes.content()),
+                                 quizzes.nextCursor());
     }
 
-    public Page<QuizResponseDto> getTeacherQuizzesByStatus(UUID teacherId, QuizStatus status, Pageable pageable) {
-        Page<Quiz> quizzes = quizRepository.findByCreatorIdAndStatus(teacherId, status, pageable);
-        return mappingService.getQuizMapper().toResponseDtoPage(quizzes);
+    public KeysetSlice<QuizResponseDto> getTeacherQuizzesByStatus(UUID teacherId, QuizStatus status,
+                                                                  String cursor, int size) {
+        KeysetSlice<Quiz> quizzes = quizRepository.findByCreatorIdAndStatus(teacherId, status, cursor, size);
+        return new KeysetSlice<>(mappingService.getQuizMapper().toResponseDtoList(quizzes.content()),
+                                 quizzes.nextCursor());
     }
 
     public List<QuizResponseDto> getTeacherPublishedQuizzes(UUID teacherId) {
@@ -126,15 +205,37 @@ public class QuizService {
     // SEARCH AND FILTERING
     // ============================================================================
 
-    public Page<QuizResponseDto> searchQuizzes(String searchTerm, QuizType type, 
-                                              UUID institutionId, Pageable pageable) {
-        Page<Quiz> quizzes = quizRepository.searchQuizzes(searchTerm, type, institutionId, pageable);
-        return mappingService.getQuizMapper().toResponseDtoPage(quizzes);
+    /**
+     * Published quizzes matching the term, best match first; pages carry no total count
+     */
+    public Slice<QuizResponseDto> searchQuizzes(String searchTerm, QuizType type,
+                                               UUID institutionId, Pageable pageable) {
+        int size = pageable.getPageSize();
+        List<UUID> quizIds = quizSearchService.search(searchTerm, type, institutionId, size + 1, pageable.getOffset());
+        boolean hasNext = quizIds.size() > size;
+        List<QuizResponseDto> quizzes = loadRankedQuizzes(hasNext ? quizIds.subList(0, size) : quizIds, size);
+        return new SliceImpl<>(quizzes, pageable, hasNext);
+    }
+
+    /**
+     * Published quizzes carrying all of the tags
+     */
+    public Page<QuizResponseDto> searchQuizzesByTags(List<String> tags, Pageable pageable) {
+        return searchQuizzesByTags(TagExpression.allOf(tags), pageable);
     }
 
-    public Page<QuizResponseDto> searchQuizzesByTags(List<String> tags, Pageable pageable) {
-        Page<Quiz> quizzes = quizRepository.findByTags(tags, pageable);
-        return mappingService.getQuizMapper().toResponseDtoPage(quizzes);
+    public Page<QuizResponseDto> searchQuizzesByTags(TagExpression expression, Pageable pageable) {
+        TagIndex.Result result = tagIndexService.searchQuizzes(expression, (int) pageable.getOffset(),
+                                                               pageable.getPageSize(), 0);
+        List<QuizResponseDto> quizzes = loadRankedQuizzes(result.ids(), pageable.getPageSize());
+        return new PageImpl<>(quizzes, pageable, result.total());
+    }
+
+    /**
+     * Counts of the other tags among published quizzes matching the expression, most frequent first
+     */
+    public Map<String, Integer> getQuizTagFacets(TagExpression expression, int limit) {
+        return tagIndexService.searchQuizzes(expression, 0, 0, limit).facets();
     }
 
     public Page<QuizResponseDto> getQuizzesByDifficulty(String difficulty, Pageable pageable) {
@@ -174,7 +275,8 @@ public class QuizService {
         createDto.setSettings(template.getSettings());
         
         Quiz newQuiz = mappingService.getQuizMapper().toEntity(createDto);
-        newQuiz = quizRepository.save(newQuiz);
+        // Flush so the quiz row exists before its questions are copied in SQL
+        newQuiz = quizRepository.saveAndFlush(newQuiz);
         
         // Copy questions from template
         copyQuizQuestions(templateId, newQuiz.getId());
@@ -187,18 +289,18 @@ public class QuizService {
     // ============================================================================
 
     public List<QuizResponseDto> getScheduledQuizzes() {
-        List<Quiz> quizzes = quizRepository.findScheduledQuizzes();
+        List<Quiz> quizzes = quizRepository.findScheduledQuizzes(LocalDateTime.now());
         return mappingService.getQuizMapper().toResponseDtoList(quizzes);
     }
 
     public List<QuizResponseDto> getQuizzesStartingSoon(int hours) {
-        LocalDateTime threshold = LocalDateTime.now().plusHours(hours);
-        List<Quiz> quizzes = quizRepository.findQuizzesStartingSoon(threshold);
+        LocalDateTime now = LocalDateTime.now();
+        List<Quiz> quizzes = quizRepository.findQuizzesStartingSoon(now, now.plusHours(hours));
         return mappingService.getQuizMapper().toResponseDtoList(quizzes);
     }
 
     public List<QuizResponseDto> getExpiredQuizzes() {
-        List<Quiz> quizzes = quizRepository.findExpiredQuizzes();
+        List<Quiz> quizzes = quizRepository.findExpiredQuizzes(LocalDateTime.now());
         return mappingService.getQuizMapper().toResponseDtoList(quizzes);
     }
 
@@ -208,6 +310,30 @@ public class QuizService {
         quiz.setAvailabilityEnd(endTime);
         quiz.setStatus(QuizStatus.SCHEDULED);
         quizRepository.save(quiz);
+        quizDefinitionService.invalidate(quizId);
+        quizAccessService.quizChanged(quizId);
+        quizLifecycleScheduler.rearm(quizId, startTime, endTime);
+    }
+
+    /**
+     * Publish quizzes whose availability started and complete those whose availability ended.
+     * The UPDATEs re-check status and boundary, so quizzes changed in the meantime are skipped.
+     */
+    public int applyLifecycleTransitions(List<UUID> startedQuizIds, List<UUID> endedQuizIds, LocalDateTime now) {
+        int changed = 0;
+        if (!startedQuizIds.isEmpty()) {
+            changed += quizRepository.bulkUpdateStatusStarted(startedQuizIds, now);
+            quizDefinitionService.invalidate(startedQuizIds);
+            quizAccessService.quizzesChanged(startedQuizIds);
+            tagIndexService.quizzesChanged(startedQuizIds);
+        }
+        if (!endedQuizIds.isEmpty()) {
+            changed += quizRepository.bulkUpdateStatusEnded(endedQuizIds, now);
+            quizDefinitionService.invalidate(endedQuizIds);
+            quizAccessService.quizzesChanged(endedQuizIds);
+            tagIndexService.quizzesChanged(endedQuizIds);
+        }
+        return changed;
     }
 
     // ============================================================================
@@ -215,13 +341,11 @@ public class QuizService {
     // ============================================================================
 
     public List<QuizResponseDto> getMostPopularQuizzes(int limit) {
-        List<Quiz> quizzes = quizRepository.findMostPopularQuizzes(limit);
-        return mappingService.getQuizMapper().toResponseDtoList(quizzes);
+        return loadRankedQuizzes(quizStatsService.getMostPopularQuizIds(limit), limit);
     }
 
     public List<QuizResponseDto> getHighestRatedQuizzes(int limit) {
-        List<Quiz> quizzes = quizRepository.findHighestRatedQuizzes(limit);
-        return mappingService.getQuizMapper().toResponseDtoList(quizzes);
+        return loadRankedQuizzes(quizStatsService.getHighestRatedQuizIds(limit), limit);
     }
 
     public Map<String, Object> getQuizPerformanceSummary(UUID quizId) {
@@ -238,12 +362,29 @@ public class QuizService {
 
     public void bulkUpdateQuizStatus(List<UUID> quizIds, QuizStatus status) {
         quizRepository.bulkUpdateStatus(quizIds, status);
+        quizDefinitionService.invalidate(quizIds);
+        quizAccessService.quizzesChanged(quizIds);
+        tagIndexService.quizzesChanged(quizIds);
     }
 
     public void bulkUpdateTotalPoints(List<UUID> quizIds) {
-        for (UUID quizId : quizIds) {
-            updateQuizTotalPoints(quizId);
+        quizQuestionJdbcRepository.recomputeTotalPoints(quizIds);
+        quizDefinitionService.invalidate(quizIds);
+    }
+
+    /**
+     * Recompute totals of quizzes whose stored total_points drifted from their questions,
+     * e.g. after bulk updates that bypass {@link QuestionPointsListener}
+     */
+    @Scheduled(fixedDelayString = "${mrquiz.quiz.total-points-reconcile-interval:PT1H}")
+    public int reconcileTotalPoints() {
+        List<UUID> drifted = quizQuestionJdbcRepository.findTotalPointsDrift(TOTAL_POINTS_RECONCILE_BATCH);
+        if (drifted.isEmpty()) {
+            return 0;
         }
+        log.warn("Recomputing total points of {} quizzes that drifted", drifted.size());
+        quizDefinitionService.invalidate(drifted);
+        return quizQuestionJdbcRepository.recomputeTotalPoints(drifted);
     }
 
     public void bulkArchiveQuizzes(List<UUID> quizIds) {
@@ -255,16 +396,10 @@ public class QuizService {
     // ============================================================================
 
     public void shareQuizWithTeacher(UUID quizId, UUID teacherId, String permission) {
-        Quiz quiz = findQuizById(quizId);
-        Map<String, Object> settings = quiz.getSettings();
-        
-        @SuppressWarnings("unchecked")
-        Map<String, String> collaborators = (Map<String, String>) settings.getOrDefault("collaborators", new HashMap<>());
-        collaborators.put(teacherId.toString(), permission);
-        settings.put("collaborators", collaborators);
-        
-        quiz.setSettings(settings);
-        quizRepository.save(quiz);
+        if (!quizRepository.existsById(quizId)) {
+            throw new RuntimeException("Quiz not found");
+        }
+        quizAccessService.addCollaborator(quizId, teacherId, permission);
         
         // Send collaboration notification
         notificationService.sendCollaborationInvitation(teacherId, quizId);
@@ -272,21 +407,15 @@ public class QuizService {
 
     public void createQuizVersion(UUID quizId, String versionNote) {
         Quiz quiz = findQuizById(quizId);
-        Map<String, Object> settings = quiz.getSettings();
-        
-        @SuppressWarnings("unchecked")
-        List<Map<String, Object>> versions = (List<Map<String, Object>>) settings.getOrDefault("versions", new ArrayList<>());
-        
-        Map<String, Object> version = new HashMap<>();
-        version.put("timestamp", LocalDateTime.now());
-        version.put("note", versionNote);
-        version.put("snapshot", createQuizSnapshot(quiz));
-        
-        versions.add(version);
-        settings.put("versions", versions);
-        
-        quiz.setSettings(settings);
-        quizRepository.save(quiz);
+        quizVersionService.createVersion(quizId, versionNote, createQuizSnapshot(quiz));
+    }
+
+    public List<Map<String, Object>> getQuizVersionHistory(UUID quizId) {
+        return quizVersionService.getVersionHistory(quizId);
+    }
+
+    public Map<String, Object> getQuizVersion(UUID quizId, int versionNumber) {
+        return quizVersionService.materializeVersion(quizId, versionNumber);
     }
 
     // ============================================================================
@@ -294,30 +423,24 @@ public class QuizService {
     // ============================================================================
 
     public String generateJoinCode(UUID quizId) {
-        Quiz quiz = findQuizById(quizId);
-        String joinCode = generateAlphanumericCode(8);
-        
-        Map<String, Object> settings = quiz.getSettings();
-        settings.put("joinCode", joinCode);
-        settings.put("joinCodeGenerated", LocalDateTime.now());
-        
-        quiz.setSettings(settings);
-        quizRepository.save(quiz);
-        
-        return joinCode;
+        findQuizById(quizId);
+        return joinCodeService.rotateCode(quizId, JoinCodeService.SOURCE_QUIZ);
     }
 
     public Optional<QuizResponseDto> getQuizByJoinCode(String joinCode) {
-        Optional<Quiz> quiz = quizRepository.findByJoinCode(joinCode);
-        return quiz.map(q -> mappingService.getQuizMapper().toResponseDto(q));
+        LocalDateTime now = LocalDateTime.now();
+        return joinCodeService.resolveQuizId(joinCode)
+                .flatMap(quizRepository::findById)
+                .filter(q -> q.getStatus() == QuizStatus.PUBLISHED)
+                .filter(q -> q.getAvailabilityStart() == null || !q.getAvailabilityStart().isAfter(now))
+                .filter(q -> q.getAvailabilityEnd() == null || !q.getAvailabilityEnd().isBefore(now))
+                .map(q -> mappingService.getQuizMapper().toResponseDto(q));
     }
 
     public void enableGuestAccess(UUID quizId, boolean allowGuests) {
-        Quiz quiz = findQuizById(quizId);
-        Map<String, Object> settings = quiz.getSettings();
-        settings.put("allowGuestAccess", allowGuests);
-        quiz.setSettings(settings);
-        quizRepository.save(quiz);
+        requireUpdated(quizSettingsRepository.set(quizId, "allowGuestAccess", allowGuests));
+        quizDefinitionService.invalidate(quizId);
+        quizAccessService.quizChanged(quizId);
     }
 
     // ============================================================================
@@ -325,29 +448,24 @@ public class QuizService {
     // ============================================================================
 
     public void enableAdaptiveMode(UUID quizId, Map<String, Object> adaptiveSettings) {
-        Quiz quiz = findQuizById(quizId);
-        Map<String, Object> settings = quiz.getSettings();
+        Map<String, Object> settings = new HashMap<>();
         settings.put("adaptiveMode", true);
         settings.put("adaptiveSettings", adaptiveSettings);
-        quiz.setSettings(settings);
-        quizRepository.save(quiz);
+        requireUpdated(quizSettingsRepository.setAll(quizId, settings));
+        quizDefinitionService.invalidate(quizId);
     }
 
     public void enableProctoringMode(UUID quizId, Map<String, Object> proctoringSettings) {
         Quiz quiz = findQuizById(quizId);
         quiz.setProctoringSettings(proctoringSettings);
         quizRepository.save(quiz);
+        quizDefinitionService.invalidate(quizId);
     }
 
     public void setTimedMode(UUID quizId, boolean timed, Integer timeLimit) {
-        Quiz quiz = findQuizById(quizId);
-        quiz.setTimeLimit(timed ? timeLimit : null);
-        
-        Map<String, Object> settings = quiz.getSettings();
-        settings.put("timedMode", timed);
-        quiz.setSettings(settings);
-        
-        quizRepository.save(quiz);
+        requireUpdated(quizRepository.updateTimeLimit(quizId, timed ? timeLimit : null));
+        quizSettingsRepository.set(quizId, "timedMode", timed);
+        quizDefinitionService.invalidate(quizId);
     }
 
     // ============================================================================
@@ -393,51 +511,43 @@ public class QuizService {
     public void addQuestionToQuiz(UUID quizId, UUID questionId, int orderIndex) {
         Quiz quiz = findQuizById(quizId);
         
+        Question question = questionService.findQuestionEntityById(questionId);
+        
         QuizQuestion quizQuestion = new QuizQuestion();
         quizQuestion.setQuiz(quiz);
-        quizQuestion.setQuestion(questionService.findQuestionEntityById(questionId));
+        quizQuestion.setQuestion(question);
         quizQuestion.setOrderIndex(orderIndex);
         
         quizQuestionRepository.save(quizQuestion);
         
-        // Update quiz total points
-        updateQuizTotalPoints(quizId);
+        // Update quiz total points by the added question's points
+        BigDecimal points = quizQuestion.getPoints() != null ? quizQuestion.getPoints() : question.getPoints();
+        if (points != null) {
+            quizRepository.adjustTotalPoints(quizId, points);
+        }
+        quizDefinitionService.invalidate(quizId);
     }
 
     public void removeQuestionFromQuiz(UUID quizId, UUID questionId) {
-        quizQuestionRepository.deleteByQuizIdAndQuestionId(quizId, questionId);
-        updateQuizTotalPoints(quizId);
+        quizQuestionJdbcRepository.removeQuestionAndAdjustTotal(quizId, questionId);
+        quizDefinitionService.invalidate(quizId);
     }
 
     public void reorderQuizQuestions(UUID quizId, List<UUID> questionIds) {
-        for (int i = 0; i < questionIds.size(); i++) {
-            quizQuestionRepository.updateQuestionOrder(quizId, questionIds.get(i), i + 1);
+        if (new HashSet<>(questionIds).size() != questionIds.size()) {
+            throw new RuntimeException("Question order contains duplicates");
         }
+        quizQuestionJdbcRepository.reorder(quizId, questionIds);
+        quizDefinitionService.invalidate(quizId);
     }
 
     private void copyQuizQuestions(UUID sourceQuizId, UUID targetQuizId) {
-        List<QuizQuestion> sourceQuestions = quizQuestionRepository.findByQuizIdOrderByOrderIndex(sourceQuizId);
-        Quiz targetQuiz = findQuizById(targetQuizId);
-        
-        for (QuizQuestion sourceQuestion : sourceQuestions) {
-            QuizQuestion newQuizQuestion = new QuizQuestion();
-            newQuizQuestion.setQuiz(targetQuiz);
-            newQuizQuestion.setQuestion(sourceQuestion.getQuestion());
-            newQuizQuestion.setOrderIndex(sourceQuestion.getOrderIndex());
-            newQuizQuestion.setPoints(sourceQuestion.getPoints());
-            newQuizQuestion.setTimeLimit(sourceQuestion.getTimeLimit());
-            newQuizQuestion.setRequired(sourceQuestion.getRequired());
-            newQuizQuestion.setSettings(sourceQuestion.getSettings());
-            
-            quizQuestionRepository.save(newQuizQuestion);
-        }
-        
+        quizQuestionJdbcRepository.copyQuizQuestions(sourceQuizId, targetQuizId);
         updateQuizTotalPoints(targetQuizId);
     }
 
     private void updateQuizTotalPoints(UUID quizId) {
-        BigDecimal totalPoints = quizQuestionRepository.calculateTotalPoints(quizId);
-        quizRepository.updateTotalPoints(quizId, totalPoints);
+        quizQuestionJdbcRepository.recomputeTotalPoints(List.of(quizId));
     }
 
     // ============================================================================
@@ -449,13 +559,10 @@ public class QuizService {
                 .orElseThrow(() -> new RuntimeException("Quiz not found"));
     }
 
-    private String generateAlphanumericCode(int length) {
-        String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-        StringBuilder code = new StringBuilder();
-        for (int i = 0; i < length; i++) {
-            code.append(chars.charAt(secureRandom.nextInt(chars.length())));
+    private void requireUpdated(int updatedRows) {
+        if (updatedRows == 0) {
+            throw new RuntimeException("Quiz not found");
         }
-        return code.toString();
     }
 
     private Map<String, Object> createQuizSnapshot(Quiz quiz) {
@@ -469,23 +576,23 @@ public class QuizService {
     }
 
     public boolean hasAccessToQuiz(UUID userId, UUID quizId) {
-        Quiz quiz = findQuizById(quizId);
-        
-        // Creator has full access
-        if (quiz.getCreator().getId().equals(userId)) {
-            return true;
-        }
-        
-        // Check collaborator access
-        Map<String, Object> settings = quiz.getSettings();
-        @SuppressWarnings("unchecked")
-        Map<String, String> collaborators = (Map<String, String>) settings.get("collaborators");
-        if (collaborators != null && collaborators.containsKey(userId.toString())) {
-            return true;
+        return quizAccessService.hasAccess(userId, quizId);
+    }
+
+    /**
+     * Load quizzes by id in ranking order, skipping any that are no longer published
+     */
+    private List<QuizResponseDto> loadRankedQuizzes(List<UUID> rankedIds, int limit) {
+        if (rankedIds.isEmpty()) {
+            return List.of();
         }
-        
-        // Check public access or guest access
-        return quiz.getStatus() == QuizStatus.PUBLISHED && 
-               (Boolean) settings.getOrDefault("allowGuestAccess", false);
+        Map<UUID, Quiz> quizzesById = quizRepository.findAllById(rankedIds).stream()
+                .collect(Collectors.toMap(Quiz::getId, quiz -> quiz));
+        List<Quiz> quizzes = rankedIds.stream()
+                .map(quizzesById::get)
+                .filter(quiz -> quiz != null && quiz.getStatus() == QuizStatus.PUBLISHED)
+                .limit(limit)
+                .collect(Collectors.toList());
+        return mappingService.getQuizMapper().toResponseDtoList(quizzes);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,208 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.repository.quiz.QuizStatsJdbcRepository;
+import com.example.mrquiz.repository.quiz.QuizStatsJdbcRepository.Counters;
+import com.example.mrquiz.service.TransactionHooks;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Per-quiz attempt counters and in-memory popularity and rating rankings.
+ *
+ * Attempt changes are recorded as counter deltas once their transaction commits, buffered
+ * and added to quiz_stats every {@code mrquiz.quiz.stats.flush-interval}. The same deltas
+ * are applied to an in-memory copy of the counters of published quizzes, from which the
+ * top {@code mrquiz.quiz.stats.top-k} lists are rebuilt, so rankings never scan attempts.
+ * The copy is reloaded from quiz_stats every {@code mrquiz.quiz.stats.reload-interval}, which
+ * brings in newly published quizzes and the deltas other nodes have flushed.
+ * A nightly job recounts everything from quiz_attempts and reports how many quizzes drifted.
+ */
+@Slf4j
+@Service
+public class QuizStatsService {
+
+    @Autowired
+    private QuizStatsJdbcRepository quizStatsJdbcRepository;
+
+    @Value("${mrquiz.quiz.stats.top-k:100}")
+    private int topK;
+
+    @Value("${mrquiz.quiz.stats.min-graded-for-rating:5}")
+    private long minGradedForRating;
+
+    private final ConcurrentHashMap<UUID, Counters> pending = new ConcurrentHashMap<>();
+    private final Map<UUID, Counters> counters = new HashMap<>();
+
+    private volatile List<UUID> mostPopular = List.of();
+    private volatile List<UUID> highestRated = List.of();
+
+    // ============================================================================
+    // RECORDING
+    // ============================================================================
+
+    /**
+     * Record a change to a quiz's counters, applied once the current transaction commits
+     */
+    public void record(UUID quizId, Counters delta) {
+        if (delta.isZero()) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> pending.merge(quizId, delta, Counters::plus));
+    }
+
+    // ============================================================================
+    // RANKINGS
+    // ============================================================================
+
+    /**
+     * Ids of published quizzes with the most attempts, best first
+     */
+    public List<UUID> getMostPopularQuizIds(int limit) {
+        List<UUID> ranking = mostPopular;
+        return ranking.subList(0, Math.min(limit, ranking.size()));
+    }
+
+    /**
+     * Ids of published quizzes with the highest average graded percentage, best first
+     */
+    public List<UUID> getHighestRatedQuizIds(int limit) {
+        List<UUID> ranking = highestRated;
+        return ranking.subList(0, Math.min(limit, ranking.size()));
+    }
+
+    public synchronized Optional<Counters> getCounters(UUID quizId) {
+        return Optional.ofNullable(counters.get(quizId));
+    }
+
+    // ============================================================================
+    // FLUSHING AND RECONCILIATION
+    // ============================================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void loadCounters() {
+        counters.clear();
+        counters.putAll(quizStatsJdbcRepository.findPublishedCounters());
+        rebuildRankings();
+    }
+
+    /**
+     * Flush this node's deltas, then reload the counters every node has flushed
+     */
+    @Scheduled(fixedDelayString = "${mrquiz.quiz.stats.reload-interval:PT1M}",
+               initialDelayString = "${mrquiz.quiz.stats.reload-interval:PT1M}")
+    public synchronized void reloadCounters() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Reload anyway; the unflushed deltas are applied to the reloaded counters once written
+            log.warn("Failed to flush quiz stats before reloading", e);
+        }
+        loadCounters();
+    }
+
+    @Scheduled(fixedDelayString = "${mrquiz.quiz.stats.flush-interval:PT10S}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Deltas are put back and retried on the next tick
+            log.warn("Failed to flush quiz stats", e);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, Counters> deltas = new HashMap<>();
+        for (UUID quizId : new ArrayList<>(pending.keySet())) {
+            Counters delta = pending.remove(quizId);
+            if (delta != null && !delta.isZero()) {
+                deltas.put(quizId, delta);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try {
+            quizStatsJdbcRepository.applyDeltas(deltas);
+        } catch (RuntimeException e) {
+            deltas.forEach((quizId, delta) -> pending.merge(quizId, delta, Counters::plus));
+            throw e;
+        }
+
+        // Quizzes that are not loaded were not published at the last reload; they join on the next
+        deltas.forEach((quizId, delta) -> counters.computeIfPresent(quizId, (id, current) -> current.plus(delta)));
+        rebuildRankings();
+    }
+
+    /**
+     * Recount every quiz from its attempts and report how many had drifted
+     */
+    @Scheduled(cron = "${mrquiz.quiz.stats.reconcile-cron:0 30 3 * * *}")
+    public synchronized int reconcile() {
+        flush();
+        int drift = quizStatsJdbcRepository.countDrift();
+        if (drift > 0) {
+            log.warn("Quiz stats drifted for {} quizzes, rebuilding from attempts", drift);
+            quizStatsJdbcRepository.rebuild();
+        }
+        // Also picks up quizzes published since the last load
+        loadCounters();
+        return drift;
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private void rebuildRankings() {
+        mostPopular = topQuizIds(counters, Counters::attemptCount);
+        Map<UUID, Counters> rated = new HashMap<>();
+        counters.forEach((quizId, current) -> {
+            if (current.gradedCount() >= minGradedForRating) {
+                rated.put(quizId, current);
+            }
+        });
+        highestRated = topQuizIds(rated, Counters::averagePercentage);
+    }
+
+    /**
+     * Top-k ids by score using a bounded min-heap
+     */
+    private List<UUID> topQuizIds(Map<UUID, Counters> candidates, ToDoubleFunction<Counters> score) {
+        Comparator<Map.Entry<UUID, Counters>> byScore =
+                Comparator.comparingDouble(entry -> score.applyAsDouble(entry.getValue()));
+        PriorityQueue<Map.Entry<UUID, Counters>> heap = new PriorityQueue<>(topK + 1, byScore);
+        for (Map.Entry<UUID, Counters> entry : candidates.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > topK) {
+                heap.poll();
+            }
+        }
+
+        List<UUID> ranking = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            ranking.add(heap.poll().getKey());
+        }
+        Collections.reverse(ranking);
+        return Collections.unmodifiableList(ranking);
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.entity.quiz.Quiz;
+import com.example.mrquiz.entity.quiz.QuizVersion;
+import com.example.mrquiz.repository.quiz.QuizRepository;
+import com.example.mrquiz.repository.quiz.QuizSettingsRepository;
+import com.example.mrquiz.repository.quiz.QuizVersionRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * Quiz version history in {@code quiz_versions}.
+ *
+ * Every {@code mrquiz.quiz.version-checkpoint-interval}-th version stores a full snapshot;
+ * the others store a JSON merge patch (RFC 7386) against the version before them, where a
+ * null value removes a key. A version is materialised by replaying the patches after the
+ * nearest checkpoint, so reading one never touches more than one checkpoint interval.
+ * Version numbers of a quiz are handed out under a transaction-scoped advisory lock, so
+ * concurrent saves and the settings migration never race for the same number.
+ */
+@Slf4j
+@Service
+@Transactional
+public class QuizVersionService {
+
+    private static final String SETTINGS_VERSIONS_KEY = "versions";
+    private static final int MIGRATION_BATCH_SIZE = 100;
+    private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<>() {};
+
+    @Autowired
+    private QuizVersionRepository quizVersionRepository;
+
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Autowired
+    private QuizSettingsRepository quizSettingsRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${mrquiz.quiz.version-checkpoint-interval:10}")
+    private int checkpointInterval;
+
+    private final TransactionTemplate quizTransaction;
+
+    public QuizVersionService(PlatformTransactionManager transactionManager) {
+        this.quizTransaction = new TransactionTemplate(transactionManager);
+        this.quizTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // ============================================================================
+    // VERSION CREATION
+    // ============================================================================
+
+    public int createVersion(UUID quizId, String note, Map<String, Object> snapshot) {
+        Quiz quiz = quizRepository.getReferenceById(quizId);
+        quizVersionRepository.lockVersions(quizId);
+        int latest = quizVersionRepository.findLatestVersionNumber(quizId);
+        Map<String, Object> previous = latest > 0 ? materializeVersion(quizId, latest) : null;
+        return appendVersion(quiz, latest + 1, note, normalize(snapshot), previous);
+    }
+
+    // ============================================================================
+    // VERSION RETRIEVAL
+    // ============================================================================
+
+    /**
+     * Version number, note, checkpoint flag and creation time of each version, newest first
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getVersionHistory(UUID quizId) {
+        List<Map<String, Object>> history = new ArrayList<>();
+        for (Object[] row : quizVersionRepository.findVersionSummaries(quizId)) {
+            Map<String, Object> version = new HashMap<>();
+            version.put("versionNumber", row[0]);
+            version.put("note", row[1]);
+            version.put("checkpoint", row[2]);
+            version.put("createdAt", row[3]);
+            history.add(version);
+        }
+        return history;
+    }
+
+    /**
+     * Full snapshot of a version, rebuilt from its checkpoint and the patches after it
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> materializeVersion(UUID quizId, int versionNumber) {
+        Integer checkpoint = quizVersionRepository.findCheckpointAtOrBefore(quizId, versionNumber);
+        if (checkpoint == null) {
+            throw new RuntimeException("Quiz version not found");
+        }
+
+        List<QuizVersion> versions = quizVersionRepository
+                .findByQuizIdAndVersionNumberBetweenOrderByVersionNumber(quizId, checkpoint, versionNumber);
+        if (versions.isEmpty() || versions.get(versions.size() - 1).getVersionNumber() != versionNumber) {
+            throw new RuntimeException("Quiz version not found");
+        }
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        for (QuizVersion version : versions) {
+            snapshot = applyPatch(snapshot, version.getData());
+        }
+        return snapshot;
+    }
+
+    // ============================================================================
+    // MIGRATION FROM SETTINGS
+    // ============================================================================
+
+    /**
+     * Move histories still kept in quizzes.settings.versions into quiz_versions.
+     *
+     * Each quiz moves in its own transaction under the quiz's version lock, so every node
+     * may run this at startup: a node that waited on the lock finds the history already
+     * moved. A failure stops the run and leaves the remaining quizzes for the next start.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void migrateSettingsVersions() {
+        int migrated = 0;
+        List<UUID> quizIds;
+        batches:
+        do {
+            quizIds = quizRepository.findQuizIdsWithSettingsVersions(MIGRATION_BATCH_SIZE);
+            for (UUID quizId : quizIds) {
+                try {
+                    quizTransaction.executeWithoutResult(status -> migrateSettingsVersions(quizId));
+                } catch (RuntimeException e) {
+                    log.warn("Moving version history of quiz {} failed, retried on the next start", quizId, e);
+                    break batches;
+                }
+                migrated++;
+            }
+        } while (quizIds.size() == MIGRATION_BATCH_SIZE);
+
+        if (migrated > 0) {
+            log.info("Moved version history of {} quizzes from settings to quiz_versions", migrated);
+        }
+    }
+
+    private void migrateSettingsVersions(UUID quizId) {
+        quizVersionRepository.lockVersions(quizId);
+        Quiz quiz = quizRepository.findById(quizId).orElse(null);
+        Object legacy = quiz != null && quiz.getSettings() != null ? quiz.getSettings().get(SETTINGS_VERSIONS_KEY) : null;
+
+        if (legacy instanceof List<?> legacyVersions) {
+            int number = quizVersionRepository.findLatestVersionNumber(quizId);
+            Map<String, Object> previous = number > 0 ? materializeVersion(quizId, number) : null;
+            for (Object entry : legacyVersions) {
+                if (!(entry instanceof Map<?, ?> legacyVersion)) {
+                    continue;
+                }
+                Map<String, Object> snapshot = normalize(legacyVersion.get("snapshot"));
+                stripSettingsVersions(snapshot);
+                Object note = legacyVersion.get("note");
+                appendVersion(quiz, ++number, note != null ? note.toString() : null, snapshot, previous);
+                previous = snapshot;
+            }
+        }
+        quizSettingsRepository.remove(quizId, SETTINGS_VERSIONS_KEY);
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private int appendVersion(Quiz quiz, int versionNumber, String note,
+                              Map<String, Object> snapshot, Map<String, Object> previous) {
+        boolean checkpoint = previous == null || (versionNumber - 1) % checkpointInterval == 0;
+
+        QuizVersion version = new QuizVersion();
+        version.setQuiz(quiz);
+        version.setVersionNumber(versionNumber);
+        version.setNote(note);
+        version.setCheckpoint(checkpoint);
+        version.setData(checkpoint ? snapshot : diff(previous, snapshot));
+        quizVersionRepository.save(version);
+        return versionNumber;
+    }
+
+    /**
+     * Round-trip through JSON so snapshots compare equal to what is read back from jsonb
+     */
+    private Map<String, Object> normalize(Object snapshot) {
+        Map<String, Object> normalized = snapshot != null ? objectMapper.convertValue(snapshot, JSON_OBJECT) : null;
+        return normalized != null ? normalized : new LinkedHashMap<>();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stripSettingsVersions(Map<String, Object> snapshot) {
+        if (snapshot.get("settings") instanceof Map<?, ?> settings) {
+            ((Map<String, Object>) settings).remove(SETTINGS_VERSIONS_KEY);
+        }
+    }
+
+    /**
+     * Merge patch that turns {@code source} into {@code target}
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> diff(Map<String, Object> source, Map<String, Object> target) {
+        Map<String, Object> patch = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : target.entrySet()) {
+            Object before = source.get(entry.getKey());
+            Object after = entry.getValue();
+            if (after == null) {
+                if (before != null) {
+                    patch.put(entry.getKey(), null);
+                }
+            } else if (before instanceof Map<?, ?> beforeMap && after instanceof Map<?, ?> afterMap) {
+                Map<String, Object> nested = diff((Map<String, Object>) beforeMap, (Map<String, Object>) afterMap);
+                if (!nested.isEmpty()) {
+                    patch.put(entry.getKey(), nested);
+                }
+            } else if (!after.equals(before)) {
+                patch.put(entry.getKey(), after);
+            }
+        }
+        for (Map.Entry<String, Object> entry : source.entrySet()) {
+            if (entry.getValue() != null && !target.containsKey(entry.getKey())) {
+                patch.put(entry.getKey(), null);
+            }
+        }
+        return patch;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> applyPatch(Map<String, Object> target, Map<String, Object> patch) {
+        Map<String, Object> result = new LinkedHashMap<>(target);
+        for (Map.Entry<String, Object> entry : patch.entrySet()) {
+            Object value = entry.getValue();
+            if (value == null) {
+                result.remove(entry.getKey());
+            } else if (value instanceof Map<?, ?> nestedPatch) {
+                Object current = result.get(entry.getKey());
+                Map<String, Object> base = current instanceof Map<?, ?> currentMap
+                        ? (Map<String, Object>) currentMap : Collections.emptyMap();
+                result.put(entry.getKey(), applyPatch(base, (Map<String, Object>) nestedPatch));
+            } else {
+                result.put(entry.getKey(), value);
+            }
+        }
+        return result;
+    }
+}
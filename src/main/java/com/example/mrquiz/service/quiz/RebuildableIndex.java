@@ -0,0 +1,62 @@
+package com.example.mrquiz.service.quiz;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A live in-memory index that is rebuilt from a snapshot while it keeps serving.
+ *
+ * Changes are applied to the live index; changes that land while a rebuild is running are
+ * also recorded and replayed onto the new index before it replaces the live one. If the
+ * snapshot fails the live index stays and keeps receiving changes.
+ */
+final class RebuildableIndex<I> {
+
+    private volatile I index;
+    private List<Consumer<I>> replay;
+
+    RebuildableIndex(I initial) {
+        this.index = initial;
+    }
+
+    I get() {
+        return index;
+    }
+
+    synchronized void apply(Consumer<I> change) {
+        change.accept(index);
+        if (replay != null) {
+            replay.add(change);
+        }
+    }
+
+    /**
+     * Build a new index with the loader and swap it in; returns it, or null if another
+     * rebuild was already running
+     */
+    I rebuild(Supplier<I> factory, Consumer<I> loader) {
+        synchronized (this) {
+            if (replay != null) {
+                return null;
+            }
+            replay = new ArrayList<>();
+        }
+        I fresh = factory.get();
+        boolean built = false;
+        try {
+            loader.accept(fresh);
+            built = true;
+        } finally {
+            synchronized (this) {
+                if (built) {
+                    replay.forEach(change -> change.accept(fresh));
+                    index = fresh;
+                }
+                replay = null;
+            }
+        }
+        return fresh;
+    }
+}
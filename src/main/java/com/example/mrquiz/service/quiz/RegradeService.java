@@ -0,0 +1,326 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.entity.quiz.Question;
+import com.example.mrquiz.repository.quiz.QuestionRepository;
+import com.example.mrquiz.repository.quiz.QuizStatsJdbcRepository.Counters;
+import com.example.mrquiz.repository.quiz.RegradeJdbcRepository;
+import com.example.mrquiz.repository.quiz.RegradeJdbcRepository.AttemptChange;
+import com.example.mrquiz.repository.quiz.RegradeJdbcRepository.GradedResponse;
+import com.example.mrquiz.repository.quiz.RegradeJdbcRepository.ResponseChange;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Regrades every graded response to a question after its answer key changed.
+ *
+ * Responses are read page by page through the question index and each page is regraded on a
+ * small worker pool with the question's freshly compiled grader. Only responses whose grade
+ * changed are written, and only their attempts are recomputed, in one set-based statement per
+ * page. Pages are committed in their own short transactions with a lock timeout, and workers
+ * pause between pages, so exams running at the same time are not held up; a page that loses a
+ * lock race is retried after a back-off.
+ *
+ * Responses of submitted attempts that bulk grading has already graded, such as attempts
+ * deferred to a teacher, are regraded too; their attempt totals are computed when the attempt is
+ * graded. Responses a teacher graded by hand keep the teacher's grade.
+ *
+ * Other nodes drop the old answer key at their next definition refresh, so the scan waits
+ * {@code mrquiz.quiz.definition-cache.refresh-interval} twice before it starts: once for every
+ * node to refresh, and once more for grading that had already loaded the old key to be written.
+ * Responses graded with the old key in the meantime are then regraded with the rest. Background regrades run one at a time on a coordinator thread of their own, with at
+ * most {@code mrquiz.regrade.max-queued} waiting.
+ */
+@Slf4j
+@Service
+public class RegradeService {
+
+    private static final UUID FIRST_ID = new UUID(0, 0);
+    private static final int MAX_PAGE_RETRIES = 3;
+
+    @Autowired
+    private RegradeJdbcRepository regradeJdbcRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private QuizDefinitionService quizDefinitionService;
+
+    @Autowired
+    private QuizStatsService quizStatsService;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor coordinator;
+    private final int threads;
+    private final int pageSize;
+    private final Duration pause;
+    private final Duration lockTimeout;
+    private final int reportLimit;
+    private final Duration definitionRefreshInterval;
+
+    public RegradeService(PlatformTransactionManager transactionManager,
+                          @Value("${mrquiz.regrade.threads:2}") int threads,
+                          @Value("${mrquiz.regrade.page-size:500}") int pageSize,
+                          @Value("${mrquiz.regrade.pause:PT0.05S}") Duration pause,
+                          @Value("${mrquiz.regrade.lock-timeout:PT2S}") Duration lockTimeout,
+                          @Value("${mrquiz.regrade.report-limit:10000}") int reportLimit,
+                          @Value("${mrquiz.regrade.max-queued:8}") int maxQueued,
+                          @Value("${mrquiz.quiz.definition-cache.refresh-interval:PT30S}") Duration definitionRefreshInterval) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.threads = threads;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), regradeThreadFactory("regrade-"));
+        this.coordinator = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(maxQueued), regradeThreadFactory("regrade-coordinator-"));
+        this.pageSize = pageSize;
+        this.pause = pause;
+        this.lockTimeout = lockTimeout;
+        this.reportLimit = reportLimit;
+        this.definitionRefreshInterval = definitionRefreshInterval;
+    }
+
+    // ============================================================================
+    // REGRADING
+    // ============================================================================
+
+    /**
+     * Regrade in the background; the future completes with the diff report
+     */
+    public CompletableFuture<RegradeReport> regradeQuestionAsync(UUID questionId) {
+        try {
+            return CompletableFuture.supplyAsync(() -> regradeQuestion(questionId), coordinator);
+        } catch (RejectedExecutionException e) {
+            throw new RuntimeException("Too many regrades in progress, try again later", e);
+        }
+    }
+
+    /**
+     * Regrade every graded response to the question and return what changed
+     */
+    public RegradeReport regradeQuestion(UUID questionId) {
+        Question question = questionRepository.findById(questionId)
+                .orElseThrow(() -> new RuntimeException("Question not found"));
+        // Attempts graded from now on must not use the old key either; other nodes drop it at
+        // their next refresh, and what they grade before that is scanned below
+        quizDefinitionService.invalidateQuestion(questionId);
+        sleep(definitionRefreshInterval.multipliedBy(2));
+
+        Run run = new Run(question);
+        if (run.template.grader() == null) {
+            throw new RuntimeException("Question type is not graded automatically");
+        }
+        Semaphore inFlight = new Semaphore(threads * 2);
+        UUID after = FIRST_ID;
+        try {
+            while (true) {
+                List<GradedResponse> page = regradeJdbcRepository.findGradedResponses(questionId, after, pageSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+                after = page.get(page.size() - 1).responseId();
+                inFlight.acquire();
+                executor.execute(() -> {
+                    try {
+                        regradePage(run, page);
+                    } catch (RuntimeException e) {
+                        run.pagesFailed.increment();
+                        log.warn("Failed to regrade {} responses of question {}", page.size(), questionId, e);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            inFlight.acquire(threads * 2);
+            inFlight.release(threads * 2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Regrade interrupted", e);
+        }
+
+        RegradeReport report = run.report();
+        log.info("Regraded question {}: {} of {} responses and {} attempts changed, {} pages failed",
+                 questionId, report.responsesChanged(), report.responsesScanned(), report.attemptsChanged(),
+                 report.pagesFailed());
+        return report;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdown();
+        executor.shutdown();
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private void regradePage(Run run, List<GradedResponse> page) {
+        List<ResponseChange> changes = new ArrayList<>();
+        for (GradedResponse response : page) {
+            QuestionGrader.Grade grade = run.grader(response.points()).grade(response.answerData());
+            if (!sameGrade(response, grade)) {
+                changes.add(new ResponseChange(response.responseId(), response.attemptId(), grade.maxPoints(),
+                                               response.pointsEarned(), grade.pointsEarned(),
+                                               response.correct(), grade.correct(),
+                                               response.partialCredit(), grade.partialCredit()));
+            }
+        }
+        run.responsesScanned.add(page.size());
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        Set<UUID> attemptIds = new LinkedHashSet<>();
+        changes.forEach(change -> attemptIds.add(change.attemptId()));
+        for (int attempt = 1; ; attempt++) {
+            try {
+                LocalDateTime now = LocalDateTime.now();
+                List<AttemptChange> attemptChanges = transactionTemplate.execute(status -> {
+                    regradeJdbcRepository.limitLockWait(lockTimeout);
+                    regradeJdbcRepository.updateResponseGrades(changes, now);
+                    List<AttemptChange> recomputed = regradeJdbcRepository.recomputeAttempts(attemptIds, now);
+                    for (AttemptChange change : recomputed) {
+                        // Set-based writes bypass the attempt entity listener
+                        BigDecimal delta = Objects.requireNonNullElse(change.newPercentage(), BigDecimal.ZERO)
+                                .subtract(Objects.requireNonNullElse(change.oldPercentage(), BigDecimal.ZERO));
+                        quizStatsService.record(change.quizId(), new Counters(0, 0, delta, 0));
+                    }
+                    return recomputed;
+                });
+                run.recordChanges(changes, attemptChanges);
+                break;
+            } catch (DataAccessException e) {
+                if (attempt >= MAX_PAGE_RETRIES) {
+                    run.pagesFailed.increment();
+                    log.warn("Giving up on regrading {} responses of question {}", changes.size(), run.template.questionId(), e);
+                    return;
+                }
+                sleep(pause.multipliedBy(10L * attempt));
+            }
+        }
+        sleep(pause);
+    }
+
+    private static boolean sameGrade(GradedResponse response, QuestionGrader.Grade grade) {
+        return response.pointsEarned() != null && response.pointsEarned().compareTo(grade.pointsEarned()) == 0
+                && Boolean.valueOf(grade.correct()).equals(response.correct())
+                && response.partialCredit() != null && response.partialCredit().compareTo(grade.partialCredit()) == 0;
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadFactory regradeThreadFactory(String namePrefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * State of one regrade: the compiled graders, one per point value the question has in
+     * its quizzes, and the changes found so far
+     */
+    private final class Run {
+
+        private final QuizDefinition.GradingQuestion template;
+        private final Map<BigDecimal, QuestionGrader> graders = new ConcurrentHashMap<>();
+        private final LongAdder responsesScanned = new LongAdder();
+        private final LongAdder responsesChanged = new LongAdder();
+        private final LongAdder attemptsChanged = new LongAdder();
+        private final LongAdder pagesFailed = new LongAdder();
+        private final List<ResponseChange> responseChanges = Collections.synchronizedList(new ArrayList<>());
+        private final List<AttemptChange> attemptChanges = Collections.synchronizedList(new ArrayList<>());
+
+        Run(Question question) {
+            QuizDefinition.GradingQuestion base = new QuizDefinition.GradingQuestion(
+                    question.getId(),
+                    question.getQuestionType(),
+                    question.getPoints(),
+                    question.getNegativePoints(),
+                    QuizDefinition.freeze(question.getQuestionData()),
+                    QuizDefinition.freeze(question.getCorrectAnswers()),
+                    QuizDefinition.freeze(question.getAnswerValidation()),
+                    question.getExplanation(),
+                    null);
+            this.template = base.withGrader(QuestionGraders.compile(base));
+        }
+
+        QuestionGrader grader(BigDecimal points) {
+            if (points == null || Objects.equals(points, template.points())) {
+                return template.grader();
+            }
+            return graders.computeIfAbsent(points, key -> QuestionGraders.compile(new QuizDefinition.GradingQuestion(
+                    template.questionId(), template.questionType(), key, template.negativePoints(),
+                    template.questionData(), template.correctAnswers(), template.answerValidation(),
+                    template.explanation(), null)));
+        }
+
+        void recordChanges(List<ResponseChange> changes, List<AttemptChange> attempts) {
+            responsesChanged.add(changes.size());
+            attemptsChanged.add(attempts.size());
+            // The report keeps the first reportLimit changes of each kind; the counts cover all of them
+            synchronized (this) {
+                responseChanges.addAll(changes.subList(0, Math.max(0, Math.min(changes.size(),
+                        reportLimit - responseChanges.size()))));
+                attemptChanges.addAll(attempts.subList(0, Math.max(0, Math.min(attempts.size(),
+                        reportLimit - attemptChanges.size()))));
+            }
+        }
+
+        RegradeReport report() {
+            return new RegradeReport(template.questionId(), responsesScanned.sum(), responsesChanged.sum(),
+                                     attemptsChanged.sum(), pagesFailed.sum(),
+                                     List.copyOf(responseChanges), List.copyOf(attemptChanges));
+        }
+    }
+
+    /**
+     * Outcome of a regrade. The change lists are capped at {@code mrquiz.regrade.report-limit}
+     * entries each; the counts are complete.
+     */
+    public record RegradeReport(UUID questionId,
+                                long responsesScanned,
+                                long responsesChanged,
+                                long attemptsChanged,
+                                long pagesFailed,
+                                List<ResponseChange> responseChanges,
+                                List<AttemptChange> attemptChanges) {
+    }
+}
@@ -0,0 +1,304 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.repository.quiz.ResponseAutosaveJdbcRepository;
+import com.example.mrquiz.repository.quiz.ResponseAutosaveJdbcRepository.AutosavedResponse;
+import com.example.mrquiz.service.TransactionHooks;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind buffer for answer autosaves.
+ *
+ * Saves are coalesced in memory per attempt and question, keeping the latest answer and
+ * how many saves it stands for, and written in multi-row upserts every
+ * {@code mrquiz.autosave.flush-interval}. Submitting an attempt flushes its answers first,
+ * in the submitting transaction. Saves for attempts that are not in progress are refused.
+ * With the journal enabled every save is also appended to a local file and fsynced in
+ * groups before it is acknowledged; whatever is left in the journal on startup is replayed,
+ * so a crash loses no acknowledged save. Without it, up to one flush interval of saves can
+ * be lost.
+ *
+ * Journal segments are deleted only by a flush that wrote every save they may hold: none while
+ * a submitting transaction holds saves it drained, since they are not in the database until it
+ * commits, and none if such a transaction ended during the flush, since a rollback puts its
+ * saves back after the flush drained the buffer. Those segments go with the next clear flush.
+ */
+@Slf4j
+@Component
+public class ResponseAutosaveBuffer {
+
+    @Autowired
+    private ResponseAutosaveJdbcRepository responseAutosaveJdbcRepository;
+
+    @Autowired
+    private ActiveAttemptRegistry activeAttemptRegistry;
+
+    private final ConcurrentHashMap<UUID, AttemptBuffer> attempts = new ConcurrentHashMap<>();
+    // Buffers drained by a flush whose write has not finished yet
+    private final ConcurrentHashMap<UUID, AttemptBuffer> writing = new ConcurrentHashMap<>();
+    // flushAttempt calls whose saves are not committed yet, and how many such calls have ended
+    private final AtomicInteger attemptFlushesHeld = new AtomicInteger();
+    private final AtomicLong attemptFlushesReleased = new AtomicLong();
+    private final ResponseJournal journal;
+    private final int maxPendingAttempts;
+
+    public ResponseAutosaveBuffer(ObjectMapper objectMapper,
+                                  @Value("${mrquiz.autosave.max-pending-attempts:20000}") int maxPendingAttempts,
+                                  @Value("${mrquiz.autosave.journal.enabled:false}") boolean journalEnabled,
+                                  @Value("${mrquiz.autosave.journal.directory:autosave-journal}") String journalDirectory,
+                                  @Value("${mrquiz.autosave.journal.max-group-size:512}") int maxGroupSize) {
+        this.maxPendingAttempts = maxPendingAttempts;
+        if (!journalEnabled) {
+            this.journal = null;
+            return;
+        }
+        this.journal = new ResponseJournal(Path.of(journalDirectory), objectMapper, maxGroupSize);
+        List<AutosavedResponse> recovered = journal.readSealed();
+        recovered.forEach(this::buffer);
+        if (!recovered.isEmpty()) {
+            // Written on the first flush; saves that already reached the database are skipped there
+            log.info("Recovered {} autosaves from the response journal", recovered.size());
+        }
+    }
+
+    // ============================================================================
+    // SAVING
+    // ============================================================================
+
+    /**
+     * Buffer the latest answer to a question; returns once it is journaled, if the journal is
+     * enabled. Refuses attempts that are not in progress.
+     */
+    public void save(UUID attemptId, UUID questionId, UUID quizQuestionId, Map<String, Object> answerData,
+                     Map<String, Object> responseMetadata, Integer timeSpent, Integer confidenceLevel,
+                     Boolean flaggedForReview) {
+        activeAttemptRegistry.answered(attemptId, questionId);
+        LocalDateTime now = LocalDateTime.now();
+        AutosavedResponse response = new AutosavedResponse(attemptId, questionId, quizQuestionId, answerData,
+                                                           responseMetadata, timeSpent, confidenceLevel,
+                                                           flaggedForReview, now, now, 1);
+        // Buffered before it is journaled, so a flush that seals the journal segment holding it
+        // has it in hand
+        buffer(response);
+        if (journal != null) {
+            journal.append(response);
+        }
+        if (attempts.size() > maxPendingAttempts) {
+            // The database is falling behind; make this caller write its own answers
+            flushAttempt(attemptId);
+        }
+    }
+
+    public int getPendingAttemptCount() {
+        return attempts.size();
+    }
+
+    // ============================================================================
+    // FLUSHING
+    // ============================================================================
+
+    @Scheduled(fixedDelayString = "${mrquiz.autosave.flush-interval:PT1S}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Saves are put back and retried on the next tick
+            log.warn("Failed to flush autosave buffer", e);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } finally {
+            if (journal != null) {
+                // Anything not flushed stays in the journal for the next start
+                journal.close();
+            }
+        }
+    }
+
+    public synchronized void flush() {
+        long releasedBefore = attemptFlushesReleased.get();
+        long sealedSegment = journal != null ? journal.rotate() : -1;
+        List<AutosavedResponse> responses = new ArrayList<>();
+        Map<UUID, AttemptBuffer> drained = new HashMap<>();
+        for (UUID attemptId : new ArrayList<>(attempts.keySet())) {
+            AttemptBuffer buffer = attempts.get(attemptId);
+            if (buffer == null) {
+                continue;
+            }
+            // Published before it leaves the map, so flushAttempt always finds it in one of them
+            writing.put(attemptId, buffer);
+            if (attempts.remove(attemptId, buffer)) {
+                responses.addAll(buffer.drain());
+                drained.put(attemptId, buffer);
+            } else {
+                writing.remove(attemptId, buffer);
+            }
+        }
+        try {
+            write(responses);
+        } finally {
+            // Failed saves are back in the buffer by now
+            drained.forEach((attemptId, buffer) -> {
+                writing.remove(attemptId, buffer);
+                buffer.written();
+            });
+        }
+        if (journal != null && attemptFlushesHeld.get() == 0 && attemptFlushesReleased.get() == releasedBefore) {
+            journal.deleteThrough(sealedSegment);
+        }
+    }
+
+    /**
+     * Write the buffered answers of one attempt now, in the caller's transaction if there is
+     * one; call before submitting the attempt. Waits for a background flush that holds some of
+     * them, and buffers them again if the transaction does not commit.
+     */
+    public void flushAttempt(UUID attemptId) {
+        flushAttempts(List.of(attemptId));
+    }
+
+    /**
+     * {@link #flushAttempt(UUID)} for many attempts, in a single write
+     */
+    public void flushAttempts(Collection<UUID> attemptIds) {
+        // Held from before the drain until the transaction ends, so their journal segments stay
+        attemptFlushesHeld.incrementAndGet();
+        boolean handedOver = false;
+        try {
+            List<AutosavedResponse> responses = new ArrayList<>();
+            for (UUID attemptId : attemptIds) {
+                responses.addAll(drainAttempt(attemptId));
+            }
+            if (responses.isEmpty()) {
+                return;
+            }
+            try {
+                responseAutosaveJdbcRepository.upsertResponses(responses);
+            } catch (RuntimeException e) {
+                responses.forEach(this::buffer);
+                throw e;
+            }
+            TransactionHooks.afterRollback(() -> {
+                responses.forEach(this::buffer);
+                releaseAttemptFlush();
+            });
+            TransactionHooks.afterCommit(this::releaseAttemptFlush);
+            handedOver = true;
+        } finally {
+            if (!handedOver) {
+                releaseAttemptFlush();
+            }
+        }
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private void write(List<AutosavedResponse> responses) {
+        if (responses.isEmpty()) {
+            return;
+        }
+        try {
+            responseAutosaveJdbcRepository.upsertResponses(responses);
+        } catch (RuntimeException e) {
+            responses.forEach(this::buffer);
+            throw e;
+        }
+    }
+
+    /**
+     * Take an attempt's buffered answers, waiting for a background flush that holds some of them
+     */
+    private Collection<AutosavedResponse> drainAttempt(UUID attemptId) {
+        Map<UUID, AutosavedResponse> pending = new HashMap<>();
+        AttemptBuffer buffer = attempts.remove(attemptId);
+        drainInto(buffer, pending);
+        AttemptBuffer inFlight = writing.get(attemptId);
+        if (inFlight != null && inFlight != buffer) {
+            inFlight.awaitWritten();
+            // A failed background write puts its saves back
+            drainInto(attempts.remove(attemptId), pending);
+        }
+        return pending.values();
+    }
+
+    private void releaseAttemptFlush() {
+        // Counted as ended before it stops being held, so a flush sees one or the other
+        attemptFlushesReleased.incrementAndGet();
+        attemptFlushesHeld.decrementAndGet();
+    }
+
+    private static void drainInto(AttemptBuffer buffer, Map<UUID, AutosavedResponse> pending) {
+        if (buffer != null) {
+            buffer.drain().forEach(response -> pending.merge(response.questionId(), response, AutosavedResponse::plus));
+        }
+    }
+
+    private void buffer(AutosavedResponse response) {
+        // A buffer drained by a concurrent flush refuses the save and a fresh one is made
+        while (!attempts.computeIfAbsent(response.attemptId(), id -> new AttemptBuffer()).add(response)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Latest save per question of one attempt
+     */
+    private static final class AttemptBuffer {
+
+        private final Map<UUID, AutosavedResponse> responses = new HashMap<>();
+        private boolean drained;
+        private boolean written;
+
+        synchronized boolean add(AutosavedResponse response) {
+            if (drained) {
+                return false;
+            }
+            responses.merge(response.questionId(), response, AutosavedResponse::plus);
+            return true;
+        }
+
+        synchronized List<AutosavedResponse> drain() {
+            drained = true;
+            return new ArrayList<>(responses.values());
+        }
+
+        synchronized void written() {
+            written = true;
+            notifyAll();
+        }
+
+        synchronized void awaitWritten() {
+            while (!written) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while waiting for autosaves to be written", e);
+                }
+            }
+        }
+    }
+}
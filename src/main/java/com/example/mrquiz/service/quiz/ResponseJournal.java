@@ -0,0 +1,276 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.repository.quiz.ResponseAutosaveJdbcRepository.AutosavedResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only local journal of autosaves, split into numbered segment files.
+ *
+ * Appends block until their record is on disk. A single writer thread takes whatever appends
+ * are queued, writes them in one go and fsyncs once for the whole group, so the cost of an
+ * fsync is shared by every save that arrived while the previous one was running. Records are
+ * length-prefixed and checksummed; reading a segment stops at the first torn or corrupt record.
+ * Segments are sealed by {@link #rotate()} and deleted once their saves are in the database.
+ */
+public class ResponseJournal implements AutoCloseable {
+
+    private static final String SEGMENT_PREFIX = "responses-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final int HEADER_BYTES = 8;
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final int maxGroupSize;
+    private final LinkedBlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final Object segmentLock = new Object();
+
+    private FileChannel channel;
+    private long segment;
+    private long segmentBytes;
+    private volatile boolean closed;
+
+    public ResponseJournal(Path directory, ObjectMapper objectMapper, int maxGroupSize) {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+        this.maxGroupSize = Math.max(1, maxGroupSize);
+        try {
+            Files.createDirectories(directory);
+            openSegment(segmentNumbers().stream().mapToLong(Long::longValue).max().orElse(0) + 1);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open response journal in " + directory, e);
+        }
+        this.writer = new Thread(this::writeGroups, "response-journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // ============================================================================
+    // APPENDING
+    // ============================================================================
+
+    /**
+     * Append a save and wait until it is fsynced
+     */
+    public void append(AutosavedResponse response) {
+        if (closed) {
+            throw new RuntimeException("Response journal is closed");
+        }
+        PendingWrite write = new PendingWrite(encode(response), new CompletableFuture<>());
+        queue.add(write);
+        if (closed && queue.remove(write)) {
+            // Closed after the check above and the writer may already have drained the queue
+            throw new RuntimeException("Response journal is closed");
+        }
+        try {
+            write.done().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while writing response journal", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to write response journal", e.getCause());
+        }
+    }
+
+    /**
+     * Seal the current segment so later appends go to a new one; returns the number of the
+     * last sealed segment
+     */
+    public long rotate() {
+        synchronized (segmentLock) {
+            if (segmentBytes == 0) {
+                return segment - 1;
+            }
+            try {
+                // The writer has already fsynced everything in it
+                channel.close();
+                openSegment(segment + 1);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to rotate response journal", e);
+            }
+            return segment - 1;
+        }
+    }
+
+    /**
+     * Delete sealed segments up to and including the given one
+     */
+    public void deleteThrough(long sealedSegment) {
+        try {
+            for (long number : segmentNumbers()) {
+                if (number <= sealedSegment && number < currentSegment()) {
+                    Files.deleteIfExists(segmentPath(number));
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to delete response journal segments", e);
+        }
+    }
+
+    // ============================================================================
+    // RECOVERY
+    // ============================================================================
+
+    /**
+     * Saves in the segments left over from before this journal was opened, oldest first
+     */
+    public List<AutosavedResponse> readSealed() {
+        List<AutosavedResponse> responses = new ArrayList<>();
+        try {
+            for (long number : segmentNumbers()) {
+                if (number < currentSegment()) {
+                    readSegment(segmentPath(number), responses);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read response journal", e);
+        }
+        return responses;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        writer.interrupt();
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (segmentLock) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Everything written was already fsynced
+            }
+        }
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private void writeGroups() {
+        List<PendingWrite> group = new ArrayList<>(maxGroupSize);
+        while (!closed) {
+            try {
+                group.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(group, maxGroupSize - 1);
+            try {
+                writeGroup(group);
+                group.forEach(write -> write.done().complete(null));
+            } catch (IOException e) {
+                group.forEach(write -> write.done().completeExceptionally(e));
+            }
+            group.clear();
+        }
+
+        IOException closedException = new IOException("Response journal closed");
+        queue.drainTo(group);
+        group.forEach(write -> write.done().completeExceptionally(closedException));
+    }
+
+    private void writeGroup(List<PendingWrite> group) throws IOException {
+        ByteBuffer[] buffers = new ByteBuffer[group.size()];
+        long bytes = 0;
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = group.get(i).record();
+            bytes += buffers[i].remaining();
+        }
+        synchronized (segmentLock) {
+            long written = 0;
+            while (written < bytes) {
+                written += channel.write(buffers);
+            }
+            channel.force(false);
+            segmentBytes += bytes;
+        }
+    }
+
+    private ByteBuffer encode(AutosavedResponse response) {
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(response);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to serialize response", e);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        record.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        return record;
+    }
+
+    private void readSegment(Path path, List<AutosavedResponse> responses) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(path));
+        while (data.remaining() >= HEADER_BYTES) {
+            int length = data.getInt();
+            int checksum = data.getInt();
+            if (length < 0 || length > data.remaining()) {
+                return;
+            }
+            byte[] payload = new byte[length];
+            data.get(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                return;
+            }
+            responses.add(objectMapper.readValue(payload, AutosavedResponse.class));
+        }
+    }
+
+    private void openSegment(long number) throws IOException {
+        channel = FileChannel.open(segmentPath(number), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segment = number;
+        segmentBytes = 0;
+    }
+
+    private long currentSegment() {
+        synchronized (segmentLock) {
+            return segment;
+        }
+    }
+
+    private List<Long> segmentNumbers() throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                 .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                 .forEach(name -> {
+                     try {
+                         numbers.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                                                                    name.length() - SEGMENT_SUFFIX.length())));
+                     } catch (NumberFormatException e) {
+                         // Not one of ours
+                     }
+                 });
+        }
+        numbers.sort(null);
+        return numbers;
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(SEGMENT_PREFIX + String.format("%019d", number) + SEGMENT_SUFFIX);
+    }
+
+    private record PendingWrite(ByteBuffer record, CompletableFuture<Void> done) {
+    }
+}
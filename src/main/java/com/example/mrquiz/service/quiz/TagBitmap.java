@@ -0,0 +1,443 @@
+package com.example.mrquiz.service.quiz;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of non-negative ints in the style of a Roaring bitmap.
+ *
+ * Values are split into 65536-wide chunks keyed by their high 16 bits. A chunk holding at
+ * most {@value #ARRAY_MAX} values stores them as a sorted char array, a denser one as a
+ * 1024-word bitmap, so both rare and common tags stay small and intersect quickly.
+ * Set operations return new bitmaps; mutation is not thread-safe.
+ */
+public final class TagBitmap {
+
+    static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    private char[] keys = new char[0];
+    private Container[] containers = new Container[0];
+    private int size;
+
+    // ============================================================================
+    // MUTATION
+    // ============================================================================
+
+    public void add(int value) {
+        char key = highBits(value);
+        int index = indexOf(key);
+        if (index < 0) {
+            index = -index - 1;
+            insertContainer(index, key, new Container());
+        }
+        containers[index].add(lowBits(value));
+    }
+
+    public void remove(int value) {
+        int index = indexOf(highBits(value));
+        if (index < 0) {
+            return;
+        }
+        Container container = containers[index];
+        container.remove(lowBits(value));
+        if (container.cardinality == 0) {
+            removeContainer(index);
+        }
+    }
+
+    // ============================================================================
+    // QUERIES
+    // ============================================================================
+
+    public boolean contains(int value) {
+        int index = indexOf(highBits(value));
+        return index >= 0 && containers[index].contains(lowBits(value));
+    }
+
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void forEach(IntConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, consumer);
+        }
+    }
+
+    /**
+     * Up to limit values in ascending order, skipping the first offset
+     */
+    public int[] toArray(int offset, int limit) {
+        int[] values = new int[Math.max(0, Math.min(limit, cardinality() - offset))];
+        int filled = 0;
+        int skip = offset;
+        for (int i = 0; i < size && filled < values.length; i++) {
+            Container container = containers[i];
+            if (skip >= container.cardinality) {
+                skip -= container.cardinality;
+                continue;
+            }
+            int[] chunk = container.toArray(keys[i] << 16);
+            int take = Math.min(chunk.length - skip, values.length - filled);
+            System.arraycopy(chunk, skip, values, filled, take);
+            filled += take;
+            skip = 0;
+        }
+        return values;
+    }
+
+    // ============================================================================
+    // SET OPERATIONS
+    // ============================================================================
+
+    public TagBitmap and(TagBitmap other) {
+        TagBitmap result = new TagBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                result.appendIfNotEmpty(keys[i], Container.and(containers[i], other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public TagBitmap or(TagBitmap other) {
+        TagBitmap result = new TagBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j >= other.size || (i < size && keys[i] < other.keys[j])) {
+                result.appendIfNotEmpty(keys[i], containers[i].copy());
+                i++;
+            } else if (i >= size || keys[i] > other.keys[j]) {
+                result.appendIfNotEmpty(other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.appendIfNotEmpty(keys[i], Container.or(containers[i], other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public TagBitmap andNot(TagBitmap other) {
+        TagBitmap result = new TagBitmap();
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) {
+                j++;
+            }
+            Container container = j < other.size && other.keys[j] == keys[i]
+                    ? Container.andNot(containers[i], other.containers[j])
+                    : containers[i].copy();
+            result.appendIfNotEmpty(keys[i], container);
+        }
+        return result;
+    }
+
+    /**
+     * Size of the intersection, without building it
+     */
+    public int andCardinality(TagBitmap other) {
+        int cardinality = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                cardinality += Container.andCardinality(containers[i], other.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return cardinality;
+    }
+
+    public TagBitmap copy() {
+        TagBitmap copy = new TagBitmap();
+        for (int i = 0; i < size; i++) {
+            copy.appendIfNotEmpty(keys[i], containers[i].copy());
+        }
+        return copy;
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private static char highBits(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value: " + value);
+        }
+        return (char) (value >>> 16);
+    }
+
+    private static char lowBits(int value) {
+        return (char) value;
+    }
+
+    private int indexOf(char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insertContainer(int index, char key, Container container) {
+        if (size == keys.length) {
+            int capacity = Math.max(4, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void removeContainer(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        size--;
+        containers[size] = null;
+    }
+
+    private void appendIfNotEmpty(char key, Container container) {
+        if (container.cardinality > 0) {
+            insertContainer(size, key, container);
+        }
+    }
+
+    /**
+     * One 65536-wide chunk: a sorted array while sparse, a bitmap once dense
+     */
+    private static final class Container {
+
+        private char[] array = new char[4];
+        private long[] bits;
+        private int cardinality;
+
+        void add(char value) {
+            if (bits != null) {
+                long mask = 1L << value;
+                if ((bits[value >>> 6] & mask) == 0) {
+                    bits[value >>> 6] |= mask;
+                    cardinality++;
+                }
+                return;
+            }
+            int index = Arrays.binarySearch(array, 0, cardinality, value);
+            if (index >= 0) {
+                return;
+            }
+            if (cardinality == ARRAY_MAX) {
+                toBitmap();
+                add(value);
+                return;
+            }
+            index = -index - 1;
+            if (cardinality == array.length) {
+                array = Arrays.copyOf(array, Math.min(ARRAY_MAX, cardinality * 2));
+            }
+            System.arraycopy(array, index, array, index + 1, cardinality - index);
+            array[index] = value;
+            cardinality++;
+        }
+
+        void remove(char value) {
+            if (bits != null) {
+                long mask = 1L << value;
+                if ((bits[value >>> 6] & mask) != 0) {
+                    bits[value >>> 6] &= ~mask;
+                    cardinality--;
+                    if (cardinality <= ARRAY_MAX / 2) {
+                        toArray();
+                    }
+                }
+                return;
+            }
+            int index = Arrays.binarySearch(array, 0, cardinality, value);
+            if (index >= 0) {
+                System.arraycopy(array, index + 1, array, index, cardinality - index - 1);
+                cardinality--;
+            }
+        }
+
+        boolean contains(char value) {
+            if (bits != null) {
+                return (bits[value >>> 6] & (1L << value)) != 0;
+            }
+            return Arrays.binarySearch(array, 0, cardinality, value) >= 0;
+        }
+
+        void forEach(int base, IntConsumer consumer) {
+            if (bits == null) {
+                for (int i = 0; i < cardinality; i++) {
+                    consumer.accept(base | array[i]);
+                }
+                return;
+            }
+            for (int word = 0; word < BITMAP_WORDS; word++) {
+                long remaining = bits[word];
+                while (remaining != 0) {
+                    consumer.accept(base | (word << 6) | Long.numberOfTrailingZeros(remaining));
+                    remaining &= remaining - 1;
+                }
+            }
+        }
+
+        int[] toArray(int base) {
+            int[] values = new int[cardinality];
+            int[] filled = {0};
+            forEach(base, value -> values[filled[0]++] = value);
+            return values;
+        }
+
+        Container copy() {
+            Container copy = new Container();
+            copy.cardinality = cardinality;
+            if (bits != null) {
+                copy.bits = bits.clone();
+                copy.array = null;
+            } else {
+                copy.array = Arrays.copyOf(array, Math.max(4, cardinality));
+            }
+            return copy;
+        }
+
+        static Container and(Container a, Container b) {
+            if (a.bits != null && b.bits != null) {
+                Container result = bitmapContainer();
+                for (int word = 0; word < BITMAP_WORDS; word++) {
+                    result.bits[word] = a.bits[word] & b.bits[word];
+                    result.cardinality += Long.bitCount(result.bits[word]);
+                }
+                return result.normalized();
+            }
+            Container sparse = a.bits == null ? a : b;
+            Container other = sparse == a ? b : a;
+            Container result = new Container();
+            for (int i = 0; i < sparse.cardinality; i++) {
+                if (other.contains(sparse.array[i])) {
+                    result.appendSorted(sparse.array[i]);
+                }
+            }
+            return result;
+        }
+
+        static Container or(Container a, Container b) {
+            Container result = a.copy();
+            if (result.bits == null && a.cardinality + b.cardinality > ARRAY_MAX) {
+                result.toBitmap();
+            }
+            b.forEach(0, value -> result.add((char) value));
+            return result;
+        }
+
+        static Container andNot(Container a, Container b) {
+            if (a.bits == null) {
+                Container result = new Container();
+                for (int i = 0; i < a.cardinality; i++) {
+                    if (!b.contains(a.array[i])) {
+                        result.appendSorted(a.array[i]);
+                    }
+                }
+                return result;
+            }
+            Container result = a.copy();
+            if (b.bits != null) {
+                result.cardinality = 0;
+                for (int word = 0; word < BITMAP_WORDS; word++) {
+                    result.bits[word] &= ~b.bits[word];
+                    result.cardinality += Long.bitCount(result.bits[word]);
+                }
+                return result.normalized();
+            }
+            for (int i = 0; i < b.cardinality; i++) {
+                result.remove(b.array[i]);
+            }
+            return result;
+        }
+
+        static int andCardinality(Container a, Container b) {
+            if (a.bits != null && b.bits != null) {
+                int cardinality = 0;
+                for (int word = 0; word < BITMAP_WORDS; word++) {
+                    cardinality += Long.bitCount(a.bits[word] & b.bits[word]);
+                }
+                return cardinality;
+            }
+            Container sparse = a.bits == null ? a : b;
+            Container other = sparse == a ? b : a;
+            int cardinality = 0;
+            for (int i = 0; i < sparse.cardinality; i++) {
+                if (other.contains(sparse.array[i])) {
+                    cardinality++;
+                }
+            }
+            return cardinality;
+        }
+
+        private static Container bitmapContainer() {
+            Container container = new Container();
+            container.array = null;
+            container.bits = new long[BITMAP_WORDS];
+            return container;
+        }
+
+        private void appendSorted(char value) {
+            if (cardinality == array.length) {
+                array = Arrays.copyOf(array, Math.min(ARRAY_MAX, cardinality * 2));
+            }
+            array[cardinality++] = value;
+        }
+
+        private Container normalized() {
+            if (bits != null && cardinality <= ARRAY_MAX) {
+                toArray();
+            }
+            return this;
+        }
+
+        private void toBitmap() {
+            long[] newBits = new long[BITMAP_WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                newBits[array[i] >>> 6] |= 1L << array[i];
+            }
+            bits = newBits;
+            array = null;
+        }
+
+        private void toArray() {
+            char[] newArray = new char[Math.max(4, cardinality)];
+            int filled = 0;
+            for (int word = 0; word < BITMAP_WORDS; word++) {
+                long remaining = bits[word];
+                while (remaining != 0) {
+                    newArray[filled++] = (char) ((word << 6) | Long.numberOfTrailingZeros(remaining));
+                    remaining &= remaining - 1;
+                }
+            }
+            array = newArray;
+            bits = null;
+        }
+    }
+}
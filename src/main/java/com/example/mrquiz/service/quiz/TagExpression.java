@@ -0,0 +1,70 @@
+package com.example.mrquiz.service.quiz;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Boolean expression over tags, evaluated by {@link TagIndex}
+ */
+public sealed interface TagExpression {
+
+    static TagExpression tag(String tag) {
+        return new Tag(normalize(tag));
+    }
+
+    static TagExpression allOf(Collection<String> tags) {
+        return new And(tags.stream().map(TagExpression::tag).toList());
+    }
+
+    static TagExpression anyOf(Collection<String> tags) {
+        return new Or(tags.stream().map(TagExpression::tag).toList());
+    }
+
+    static TagExpression and(TagExpression... operands) {
+        return new And(List.of(operands));
+    }
+
+    static TagExpression or(TagExpression... operands) {
+        return new Or(List.of(operands));
+    }
+
+    static TagExpression not(TagExpression operand) {
+        return new Not(operand);
+    }
+
+    /**
+     * Tags are matched exactly, case and whitespace included, as the JSON containment
+     * queries this index replaced did
+     */
+    static String normalize(String tag) {
+        return tag == null ? "" : tag;
+    }
+
+    /**
+     * Every tag named anywhere in the expression
+     */
+    default Set<String> tags() {
+        if (this instanceof Tag tag) {
+            return Set.of(tag.name());
+        }
+        if (this instanceof Not not) {
+            return not.operand().tags();
+        }
+        List<TagExpression> operands = this instanceof And and ? and.operands() : ((Or) this).operands();
+        return operands.stream().flatMap(operand -> operand.tags().stream()).collect(Collectors.toSet());
+    }
+
+    record Tag(String name) implements TagExpression {
+    }
+
+    record And(List<TagExpression> operands) implements TagExpression {
+    }
+
+    record Or(List<TagExpression> operands) implements TagExpression {
+    }
+
+    record Not(TagExpression operand) implements TagExpression {
+    }
+}
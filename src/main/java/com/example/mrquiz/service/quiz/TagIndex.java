@@ -0,0 +1,204 @@
+package com.example.mrquiz.service.quiz;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory inverted index from tag to a {@link TagBitmap} of document ordinals.
+ *
+ * Each indexed id gets a dense int ordinal on first sight, tagged or not, so NOT is taken
+ * against every indexed id and matches untagged ones too. Removed ordinals are not reused;
+ * {@link TagIndexService} rebuilds the index periodically, which compacts them.
+ */
+public class TagIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private final List<UUID> ids = new ArrayList<>();
+    private final Map<Integer, Set<String>> tagsByOrdinal = new HashMap<>();
+    private final Map<String, TagBitmap> bitmaps = new HashMap<>();
+    private final TagBitmap live = new TagBitmap();
+
+    // ============================================================================
+    // UPDATES
+    // ============================================================================
+
+    /**
+     * Index an id with the given tags, replacing its previous ones; an empty collection keeps
+     * it as an untagged id
+     */
+    public void put(UUID id, Collection<String> tags) {
+        Set<String> normalized = tags == null ? Set.of() : tags.stream()
+                .map(TagExpression::normalize)
+                .filter(tag -> !tag.isEmpty())
+                .collect(Collectors.toSet());
+
+        lock.writeLock().lock();
+        try {
+            int ordinal = ordinals.computeIfAbsent(id, key -> {
+                ids.add(key);
+                return ids.size() - 1;
+            });
+            Set<String> previous = tagsByOrdinal.getOrDefault(ordinal, Set.of());
+            for (String tag : previous) {
+                if (!normalized.contains(tag)) {
+                    unsetTag(tag, ordinal);
+                }
+            }
+            for (String tag : normalized) {
+                if (!previous.contains(tag)) {
+                    bitmaps.computeIfAbsent(tag, key -> new TagBitmap()).add(ordinal);
+                }
+            }
+            tagsByOrdinal.put(ordinal, normalized);
+            live.add(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ============================================================================
+    // QUERIES
+    // ============================================================================
+
+    /**
+     * Ids matching the expression, a page of them in index order, and the number of matches
+     * carrying each tag not named in the expression, most frequent first
+     */
+    public Result search(TagExpression expression, int offset, int limit, int facetLimit) {
+        lock.readLock().lock();
+        try {
+            TagBitmap matches = evaluate(expression);
+            List<UUID> page = new ArrayList<>();
+            for (int ordinal : matches.toArray(offset, limit)) {
+                page.add(ids.get(ordinal));
+            }
+            return new Result(page, matches.cardinality(), facets(matches, expression.tags(), facetLimit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int tagCount() {
+        lock.readLock().lock();
+        try {
+            return bitmaps.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private TagBitmap evaluate(TagExpression expression) {
+        if (expression instanceof TagExpression.Tag tag) {
+            TagBitmap bitmap = bitmaps.get(tag.name());
+            return bitmap != null ? bitmap : new TagBitmap();
+        }
+        if (expression instanceof TagExpression.Not not) {
+            return live.andNot(evaluate(not.operand()));
+        }
+        if (expression instanceof TagExpression.And and) {
+            if (and.operands().isEmpty()) {
+                return live;
+            }
+            // Intersect the rarest operands first so intermediate results stay small
+            List<TagBitmap> operands = and.operands().stream()
+                    .map(this::evaluate)
+                    .sorted(Comparator.comparingInt(TagBitmap::cardinality))
+                    .toList();
+            TagBitmap result = operands.get(0);
+            for (int i = 1; i < operands.size() && !result.isEmpty(); i++) {
+                result = result.and(operands.get(i));
+            }
+            return result;
+        }
+        TagBitmap result = new TagBitmap();
+        for (TagExpression operand : ((TagExpression.Or) expression).operands()) {
+            result = result.or(evaluate(operand));
+        }
+        return result;
+    }
+
+    private Map<String, Integer> facets(TagBitmap matches, Set<String> excluded, int facetLimit) {
+        if (facetLimit <= 0 || matches.isEmpty()) {
+            return Map.of();
+        }
+        List<Map.Entry<String, Integer>> counts = new ArrayList<>();
+        for (Map.Entry<String, TagBitmap> entry : bitmaps.entrySet()) {
+            if (excluded.contains(entry.getKey())) {
+                continue;
+            }
+            int count = matches.andCardinality(entry.getValue());
+            if (count > 0) {
+                counts.add(Map.entry(entry.getKey(), count));
+            }
+        }
+        counts.sort(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+
+        Map<String, Integer> facets = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : counts.subList(0, Math.min(facetLimit, counts.size()))) {
+            facets.put(entry.getKey(), entry.getValue());
+        }
+        return facets;
+    }
+
+    private void removeLocked(UUID id) {
+        Integer ordinal = ordinals.remove(id);
+        if (ordinal == null) {
+            return;
+        }
+        for (String tag : tagsByOrdinal.getOrDefault(ordinal, Set.of())) {
+            unsetTag(tag, ordinal);
+        }
+        tagsByOrdinal.remove(ordinal);
+        live.remove(ordinal);
+    }
+
+    private void unsetTag(String tag, int ordinal) {
+        TagBitmap bitmap = bitmaps.get(tag);
+        if (bitmap != null) {
+            bitmap.remove(ordinal);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(tag);
+            }
+        }
+    }
+
+    /**
+     * A page of matching ids, the total number of matches and facet counts
+     */
+    public record Result(List<UUID> ids, int total, Map<String, Integer> facets) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.entity.quiz.Question;
+import com.example.mrquiz.entity.quiz.Quiz;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds quiz and question saves into the tag indexes
+ */
+@Component
+public class TagIndexListener {
+
+    @Lazy
+    @Autowired
+    private TagIndexService tagIndexService;
+
+    @PostPersist
+    @PostUpdate
+    public void saved(Object entity) {
+        if (entity instanceof Quiz quiz) {
+            tagIndexService.quizSaved(quiz.getId(), quiz.getStatus(), quiz.getSettings());
+        } else if (entity instanceof Question question) {
+            tagIndexService.questionSaved(question.getId(), question.getStatus(), question.getTags());
+        }
+    }
+
+    @PostRemove
+    public void removed(Object entity) {
+        if (entity instanceof Quiz quiz) {
+            tagIndexService.quizRemoved(quiz.getId());
+        } else if (entity instanceof Question question) {
+            tagIndexService.questionRemoved(question.getId());
+        }
+    }
+}
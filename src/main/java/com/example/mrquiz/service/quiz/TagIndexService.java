@@ -0,0 +1,187 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.enums.QuestionStatus;
+import com.example.mrquiz.enums.QuizStatus;
+import com.example.mrquiz.repository.quiz.TagSnapshotJdbcRepository;
+import com.example.mrquiz.repository.quiz.TagSnapshotJdbcRepository.UpdatedTags;
+import com.example.mrquiz.service.TransactionHooks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Tag indexes of published quizzes and active questions.
+ *
+ * Both are built from a database snapshot at startup and rebuilt every
+ * {@code mrquiz.tags.rebuild-interval}, which compacts ordinals and drops rows deleted outright.
+ * In between, saves are applied incrementally once their transaction commits, and every
+ * {@code mrquiz.tags.refresh-interval} the rows updated since the last poll are re-read so
+ * changes from other nodes and bulk statements show up quickly. Saves that land while a
+ * rebuild is running are replayed onto the new index.
+ */
+@Slf4j
+@Service
+public class TagIndexService {
+
+    @Autowired
+    private TagSnapshotJdbcRepository tagSnapshotJdbcRepository;
+
+    @Value("${mrquiz.tags.refresh-overlap:PT10S}")
+    private Duration refreshOverlap;
+
+    private final RebuildableIndex<TagIndex> quizzes = new RebuildableIndex<>(new TagIndex());
+    private final RebuildableIndex<TagIndex> questions = new RebuildableIndex<>(new TagIndex());
+    private volatile LocalDateTime quizWatermark;
+    private volatile LocalDateTime questionWatermark;
+
+    // ============================================================================
+    // SEARCH
+    // ============================================================================
+
+    public TagIndex.Result searchQuizzes(TagExpression expression, int offset, int limit, int facetLimit) {
+        return quizzes.get().search(expression, offset, limit, facetLimit);
+    }
+
+    public TagIndex.Result searchQuestions(TagExpression expression, int offset, int limit, int facetLimit) {
+        return questions.get().search(expression, offset, limit, facetLimit);
+    }
+
+    // ============================================================================
+    // INCREMENTAL UPDATES
+    // ============================================================================
+
+    public void quizSaved(UUID quizId, QuizStatus status, Map<String, Object> settings) {
+        if (status != QuizStatus.PUBLISHED) {
+            quizRemoved(quizId);
+            return;
+        }
+        List<String> tags = settings != null ? tagList(settings.get("tags")) : List.of();
+        TransactionHooks.afterCommit(() -> quizzes.apply(index -> index.put(quizId, tags)));
+    }
+
+    public void quizRemoved(UUID quizId) {
+        TransactionHooks.afterCommit(() -> quizzes.apply(index -> index.remove(quizId)));
+    }
+
+    /**
+     * Re-read the tags of quizzes changed by bulk statements, once the transaction commits
+     */
+    public void quizzesChanged(Collection<UUID> quizIds) {
+        List<UUID> ids = List.copyOf(quizIds);
+        TransactionHooks.afterCommit(() -> {
+            Map<UUID, List<String>> tags = tagSnapshotJdbcRepository.findQuizTags(ids);
+            quizzes.apply(index -> ids.forEach(id -> {
+                if (tags.containsKey(id)) {
+                    index.put(id, tags.get(id));
+                } else {
+                    index.remove(id);
+                }
+            }));
+        });
+    }
+
+    public void questionSaved(UUID questionId, QuestionStatus status, List<String> tags) {
+        if (status != QuestionStatus.ACTIVE) {
+            questionRemoved(questionId);
+            return;
+        }
+        List<String> indexed = tags != null ? tags.stream().filter(Objects::nonNull).toList() : List.of();
+        TransactionHooks.afterCommit(() -> questions.apply(index -> index.put(questionId, indexed)));
+    }
+
+    public void questionRemoved(UUID questionId) {
+        TransactionHooks.afterCommit(() -> questions.apply(index -> index.remove(questionId)));
+    }
+
+    @Scheduled(fixedDelayString = "${mrquiz.tags.refresh-interval:PT30S}",
+               initialDelayString = "${mrquiz.tags.refresh-interval:PT30S}")
+    public void refresh() {
+        LocalDateTime quizzesSince = quizWatermark;
+        if (quizzesSince != null) {
+            quizWatermark = refresh(quizzes, quizzesSince, tagSnapshotJdbcRepository::streamQuizTagsUpdatedSince);
+        }
+        LocalDateTime questionsSince = questionWatermark;
+        if (questionsSince != null) {
+            questionWatermark = refresh(questions, questionsSince,
+                                        tagSnapshotJdbcRepository::streamQuestionTagsUpdatedSince);
+        }
+    }
+
+    // ============================================================================
+    // REBUILD
+    // ============================================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndexes() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${mrquiz.tags.rebuild-interval:PT1H}",
+               initialDelayString = "${mrquiz.tags.rebuild-interval:PT1H}")
+    public void rebuild() {
+        LocalDateTime started = LocalDateTime.now();
+        if (quizzes.rebuild(TagIndex::new, fresh -> tagSnapshotJdbcRepository.streamQuizTags(fresh::put)) != null
+                && (quizWatermark == null || quizWatermark.isBefore(started))) {
+            quizWatermark = started;
+        }
+        if (questions.rebuild(TagIndex::new, fresh -> tagSnapshotJdbcRepository.streamQuestionTags(fresh::put)) != null
+                && (questionWatermark == null || questionWatermark.isBefore(started))) {
+            questionWatermark = started;
+        }
+        log.info("Tag indexes rebuilt: {} quizzes, {} questions", quizzes.get().size(), questions.get().size());
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    /**
+     * Apply the rows updated since the watermark; returns the next watermark
+     */
+    private LocalDateTime refresh(RebuildableIndex<TagIndex> index, LocalDateTime since,
+                                  BiConsumer<LocalDateTime, Consumer<UpdatedTags>> updatedSince) {
+        // Re-read a little before the last poll so commits that were in flight are not missed
+        LocalDateTime[] latest = {since};
+        updatedSince.accept(since.minus(refreshOverlap), row -> {
+            index.apply(current -> {
+                if (row.indexed()) {
+                    current.put(row.id(), row.tags());
+                } else {
+                    current.remove(row.id());
+                }
+            });
+            if (row.updatedAt().isAfter(latest[0])) {
+                latest[0] = row.updatedAt();
+            }
+        });
+        return latest[0];
+    }
+
+    private List<String> tagList(Object value) {
+        if (!(value instanceof Collection<?> collection)) {
+            return List.of();
+        }
+        List<String> tags = new ArrayList<>();
+        for (Object tag : collection) {
+            if (tag instanceof String string) {
+                tags.add(string);
+            }
+        }
+        return tags;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.mrquiz.service.quiz;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel of keyed deadlines.
+ *
+ * Level 0 has one slot per tick; each higher level has slots as wide as the whole level
+ * below it, and its entries cascade down when the wheel reaches their slot. Scheduling,
+ * re-arming and cancelling are O(1) and advancing costs one slot per elapsed tick, however
+ * many deadlines are pending. Deadlines past the top level wait in an overflow map that is
+ * re-sorted into the wheel each time the top level wraps. Not thread-safe; callers synchronize.
+ */
+public class TimingWheel<K> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long[] levelSpans;
+    private final List<Map<K, Entry<K>>[]> levels = new ArrayList<>();
+    private final Map<K, Entry<K>> overflow = new HashMap<>();
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+    private final List<K> due = new ArrayList<>();
+
+    private long currentTick;
+
+    public TimingWheel(long tickMillis, int wheelSize, int levelCount, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2 || levelCount < 1) {
+            throw new IllegalArgumentException("Invalid timing wheel dimensions");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.levelSpans = new long[levelCount + 1];
+        long span = 1;
+        for (int level = 0; level <= levelCount; level++) {
+            levelSpans[level] = span;
+            span = Math.multiplyExact(span, wheelSize);
+        }
+        for (int level = 0; level < levelCount; level++) {
+            levels.add(newSlots());
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    // ============================================================================
+    // SCHEDULING
+    // ============================================================================
+
+    /**
+     * Schedule a key, replacing any deadline it already had. Past deadlines fire on the next advance.
+     */
+    public void schedule(K key, long deadlineMillis) {
+        cancel(key);
+        Entry<K> entry = new Entry<>(key, Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis));
+        entries.put(key, entry);
+        place(entry);
+    }
+
+    public boolean cancel(K key) {
+        Entry<K> entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        if (entry.slots != null) {
+            entry.slots.remove(key);
+        }
+        due.remove(key);
+        return true;
+    }
+
+    public boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        for (Map<K, Entry<K>>[] slots : levels) {
+            for (Map<K, Entry<K>> slot : slots) {
+                slot.clear();
+            }
+        }
+        overflow.clear();
+        entries.clear();
+        due.clear();
+    }
+
+    // ============================================================================
+    // ADVANCING
+    // ============================================================================
+
+    /**
+     * Move the wheel to the given time and return the keys whose deadlines have passed,
+     * in deadline order per tick
+     */
+    public List<K> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+
+            // Cascade from the top so entries can fall through several levels in one tick
+            if (currentTick % levelSpans[levels.size()] == 0) {
+                reinsert(overflow);
+            }
+            for (int level = levels.size() - 1; level >= 1; level--) {
+                if (currentTick % levelSpans[level] == 0) {
+                    reinsert(levels.get(level)[slotIndex(currentTick, level)]);
+                }
+            }
+            expire(levels.get(0)[slotIndex(currentTick, 0)]);
+        }
+
+        List<K> fired = new ArrayList<>(due);
+        due.clear();
+        fired.forEach(entries::remove);
+        return fired;
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private void place(Entry<K> entry) {
+        long delta = entry.deadlineTick - currentTick;
+        if (delta <= 0) {
+            entry.slots = null;
+            due.add(entry.key);
+            return;
+        }
+        for (int level = 0; level < levels.size(); level++) {
+            if (delta < levelSpans[level + 1]) {
+                entry.slots = levels.get(level)[slotIndex(entry.deadlineTick, level)];
+                entry.slots.put(entry.key, entry);
+                return;
+            }
+        }
+        entry.slots = overflow;
+        overflow.put(entry.key, entry);
+    }
+
+    private void reinsert(Map<K, Entry<K>> slot) {
+        if (slot.isEmpty()) {
+            return;
+        }
+        List<Entry<K>> cascading = new ArrayList<>(slot.values());
+        slot.clear();
+        cascading.forEach(this::place);
+    }
+
+    private void expire(Map<K, Entry<K>> slot) {
+        for (Entry<K> entry : slot.values()) {
+            entry.slots = null;
+            due.add(entry.key);
+        }
+        slot.clear();
+    }
+
+    private int slotIndex(long tick, int level) {
+        return (int) Math.floorMod(tick / levelSpans[level], (long) wheelSize);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Map<K, Entry<K>>[] newSlots() {
+        Map<K, Entry<K>>[] slots = new Map[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            slots[i] = new LinkedHashMap<>();
+        }
+        return slots;
+    }
+
+    private static final class Entry<K> {
+        private final K key;
+        private final long deadlineTick;
+        private Map<K, Entry<K>> slots;
+
+        private Entry(K key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.mrquiz.service.student;
 
+import com.example.mrquiz.entity.quiz.QuizJoinCode;
 import com.example.mrquiz.service.MappingService;
 import com.example.mrquiz.service.notification.EmailService;
+import com.example.mrquiz.service.quiz.JoinCodeService;
 import com.example.mrquiz.service.quiz.QuizService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -25,6 +27,9 @@ public class StudentInvitationService {
     @Autowired
     private QuizService quizService;
 
+    @Autowired
+    private JoinCodeService joinCodeService;
+
     private final SecureRandom secureRandom = new SecureRandom();
 
     // ============================================================================
@@ -103,82 +108,42 @@ public class StudentInvitationService {
     // ============================================================================
 
     public String generateJoinCode(UUID quizId, Map<String, Object> codeSettings) {
-        String code = generateAlphanumericCode(8);
-        
-        Map<String, Object> joinCodeData = new HashMap<>();
-        joinCodeData.put("code", code);
-        joinCodeData.put("quizId", quizId);
-        joinCodeData.put("createdAt", LocalDateTime.now());
-        joinCodeData.put("settings", codeSettings);
-        
-        // Set expiration if specified
-        if (codeSettings.containsKey("expirationHours")) {
-            int hours = (Integer) codeSettings.get("expirationHours");
-            joinCodeData.put("expiresAt", LocalDateTime.now().plusHours(hours));
-        }
-        
-        // Store join code data
-        storeJoinCodeData(code, joinCodeData);
-        
-        return code;
+        return generateBulkJoinCodes(quizId, 1, codeSettings).get(0);
     }
 
     public List<String> generateBulkJoinCodes(UUID quizId, int count, Map<String, Object> settings) {
-        List<String> codes = new ArrayList<>();
-        for (int i = 0; i < count; i++) {
-            String code = generateJoinCode(quizId, settings);
-            codes.add(code);
+        // Set expiration if specified
+        LocalDateTime expiresAt = null;
+        if (settings.containsKey("expirationHours")) {
+            int hours = (Integer) settings.get("expirationHours");
+            expiresAt = LocalDateTime.now().plusHours(hours);
         }
-        return codes;
+        
+        return joinCodeService.generateCodes(quizId, count, JoinCodeService.SOURCE_INVITATION, expiresAt, settings);
     }
 
     public boolean validateJoinCode(String code) {
-        Map<String, Object> codeData = getJoinCodeData(code);
-        if (codeData == null) {
-            return false;
-        }
-        
-        // Check expiration
-        LocalDateTime expiresAt = (LocalDateTime) codeData.get("expiresAt");
-        if (expiresAt != null && LocalDateTime.now().isAfter(expiresAt)) {
-            return false;
-        }
-        
-        return true;
+        return joinCodeService.isActive(code);
     }
 
     public Map<String, Object> getJoinCodeAnalytics(String code) {
-        Map<String, Object> codeData = getJoinCodeData(code);
-        if (codeData == null) {
+        Optional<QuizJoinCode> joinCode = joinCodeService.findByCode(code);
+        if (joinCode.isEmpty()) {
             return new HashMap<>();
         }
         
         Map<String, Object> analytics = new HashMap<>();
-        analytics.put("code", code);
-        analytics.put("createdAt", codeData.get("createdAt"));
-        analytics.put("usageCount", codeData.getOrDefault("usageCount", 0));
-        analytics.put("lastUsed", codeData.get("lastUsed"));
+        analytics.put("code", joinCode.get().getCode());
+        analytics.put("createdAt", joinCode.get().getCreatedAt());
+        analytics.put("usageCount", joinCode.get().getUsageCount());
+        analytics.put("lastUsed", joinCode.get().getLastUsedAt());
         analytics.put("isActive", validateJoinCode(code));
         
         return analytics;
     }
 
     public void trackJoinCodeUsage(String code, UUID userId) {
-        Map<String, Object> codeData = getJoinCodeData(code);
-        if (codeData != null) {
-            int usageCount = (Integer) codeData.getOrDefault("usageCount", 0);
-            codeData.put("usageCount", usageCount + 1);
-            codeData.put("lastUsed", LocalDateTime.now());
-            
-            @SuppressWarnings("unchecked")
-            List<UUID> users = (List<UUID>) codeData.getOrDefault("usedBy", new ArrayList<>());
-            if (!users.contains(userId)) {
-                users.add(userId);
-                codeData.put("usedBy", users);
-            }
-            
-            updateJoinCodeData(code, codeData);
-        }
+        joinCodeService.recordUsage(code);
     }
 
     // ============================================================================
@@ -483,19 +448,6 @@ public class StudentInvitationService {
         return new ArrayList<>();
     }
 
-    private void storeJoinCodeData(String code, Map<String, Object> data) {
-        // Implementation would store in database or cache
-    }
-
-    private Map<String, Object> getJoinCodeData(String code) {
-        // Implementation would retrieve from database or cache
-        return new HashMap<>();
-    }
-
-    private void updateJoinCodeData(String code, Map<String, Object> data) {
-        // Implementation would update in database or cache
-    }
-
     private void storeQRCodeData(String qrData, Map<String, Object> data) {
         // Implementation would store in database or cache
     }
@@ -0,0 +1,34 @@
+package com.example.mrquiz.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SecurityConfigTest {
+
+    private final SecurityConfig config = new SecurityConfig();
+
+    @Test
+    void fixedStrengthSkipsCalibration() {
+        PasswordEncoder encoder = config.passwordEncoder(5, Duration.ZERO, 4, 6);
+
+        assertEquals(5, strength(encoder));
+    }
+
+    @Test
+    void calibrationStaysWithinItsBounds() {
+        // Nothing hashes in no time, and anything hashes within a minute
+        assertEquals(4, strength(config.passwordEncoder(0, Duration.ZERO, 4, 6)));
+        assertEquals(6, strength(config.passwordEncoder(0, Duration.ofMinutes(1), 4, 6)));
+    }
+
+    private static int strength(PasswordEncoder encoder) {
+        // $2a$NN$...
+        String hash = encoder.encode("secret");
+        assertTrue(encoder.matches("secret", hash));
+        return Integer.parseInt(hash.substring(4, 6));
+    }
+}
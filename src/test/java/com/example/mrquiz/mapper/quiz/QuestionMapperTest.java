@@ -0,0 +1,189 @@
+package com.example.mrquiz.mapper.quiz;
+
+import com.example.mrquiz.dto.quiz.QuestionCreateDto;
+import com.example.mrquiz.dto.quiz.QuestionUpdateDto;
+import com.example.mrquiz.entity.BaseEntity;
+import com.example.mrquiz.entity.auth.User;
+import com.example.mrquiz.entity.core.Course;
+import com.example.mrquiz.entity.core.Institution;
+import com.example.mrquiz.entity.file.File;
+import com.example.mrquiz.entity.quiz.Question;
+import com.example.mrquiz.repository.auth.UserRepository;
+import com.example.mrquiz.repository.core.CourseRepository;
+import com.example.mrquiz.repository.core.InstitutionRepository;
+import com.example.mrquiz.repository.file.FileRepository;
+import com.example.mrquiz.repository.quiz.QuestionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+/**
+ * Maps batches of question DTOs against repository mocks that count their reads
+ */
+class QuestionMapperTest {
+
+    private final UUID creatorId = UUID.randomUUID();
+    private final UUID institutionId = UUID.randomUUID();
+    private final UUID parentQuestionId = UUID.randomUUID();
+    private final List<UUID> courseIds = List.of(UUID.randomUUID(), UUID.randomUUID());
+    private final List<UUID> fileIds = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+    private final UUID missingFileId = UUID.randomUUID();
+
+    private UserRepository userRepository;
+    private CourseRepository courseRepository;
+    private InstitutionRepository institutionRepository;
+    private FileRepository fileRepository;
+    private QuestionRepository questionRepository;
+    private QuestionMapper mapper;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = repository(UserRepository.class, User::new);
+        courseRepository = repository(CourseRepository.class, Course::new);
+        institutionRepository = repository(InstitutionRepository.class, Institution::new);
+        fileRepository = repository(FileRepository.class, File::new);
+        questionRepository = repository(QuestionRepository.class, Question::new);
+
+        ModelMapper modelMapper = new ModelMapper();
+        modelMapper.getConfiguration()
+                .setMatchingStrategy(MatchingStrategies.STRICT)
+                .setSkipNullEnabled(true);
+
+        mapper = new QuestionMapper();
+        ReflectionTestUtils.setField(mapper, "modelMapper", modelMapper);
+        ReflectionTestUtils.setField(mapper, "userRepository", userRepository);
+        ReflectionTestUtils.setField(mapper, "courseRepository", courseRepository);
+        ReflectionTestUtils.setField(mapper, "institutionRepository", institutionRepository);
+        ReflectionTestUtils.setField(mapper, "fileRepository", fileRepository);
+        ReflectionTestUtils.setField(mapper, "questionRepository", questionRepository);
+    }
+
+    // ============================================================================
+    // CREATE
+    // ============================================================================
+
+    @Test
+    void createBatchReadsEachReferencedTypeOnce() {
+        List<QuestionCreateDto> createDtos = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            QuestionCreateDto createDto = new QuestionCreateDto();
+            createDto.setTitle("Question " + i);
+            createDto.setCreatorId(creatorId);
+            createDto.setCourseId(courseIds.get(i % 2));
+            createDto.setInstitutionId(institutionId);
+            createDto.setParentQuestionId(i == 0 ? parentQuestionId : null);
+            createDto.setQuestionFiles(List.of(fileIds.get(i % 3), missingFileId));
+            createDtos.add(createDto);
+        }
+
+        List<Question> questions = mapper.toEntities(createDtos);
+
+        for (JpaRepository<?, UUID> repository : List.of(userRepository, courseRepository, institutionRepository,
+                                                         fileRepository, questionRepository)) {
+            verify(repository, times(1)).findAllById(anyIterable());
+            verify(repository, never()).findById(any());
+        }
+        verify(courseRepository).findAllById(argThat(ids -> Set.copyOf(toList(ids)).equals(Set.copyOf(courseIds))));
+        verify(fileRepository).findAllById(argThat(ids -> toList(ids).size() == 4));
+
+        assertEquals(10, questions.size());
+        for (int i = 0; i < 10; i++) {
+            Question question = questions.get(i);
+            assertEquals(creatorId, question.getCreator().getId());
+            assertEquals(courseIds.get(i % 2), question.getCourse().getId());
+            assertEquals(institutionId, question.getInstitution().getId());
+            assertEquals(i == 0 ? parentQuestionId : null,
+                         question.getParentQuestion() != null ? question.getParentQuestion().getId() : null);
+            // The file that does not exist is dropped
+            assertEquals(List.of(fileIds.get(i % 3)), question.getQuestionFiles());
+        }
+    }
+
+    @Test
+    void singleCreateGoesThroughTheSameBatch() {
+        QuestionCreateDto createDto = new QuestionCreateDto();
+        createDto.setCreatorId(creatorId);
+
+        Question question = mapper.toEntity(createDto);
+
+        assertEquals(creatorId, question.getCreator().getId());
+        verify(userRepository, times(1)).findAllById(anyIterable());
+        verifyNoInteractions(courseRepository, institutionRepository, fileRepository, questionRepository);
+    }
+
+    // ============================================================================
+    // UPDATE
+    // ============================================================================
+
+    @Test
+    void updateBatchReadsEachReferencedTypeOnce() {
+        List<QuestionUpdateDto> updateDtos = new ArrayList<>();
+        List<Question> questions = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            QuestionUpdateDto updateDto = new QuestionUpdateDto();
+            updateDto.setCourseId(courseIds.get(i % 2));
+            updateDto.setQuestionFiles(List.of(fileIds.get(i % 3)));
+            updateDtos.add(updateDto);
+            questions.add(new Question());
+        }
+
+        mapper.updateEntities(updateDtos, questions);
+
+        verify(courseRepository, times(1)).findAllById(anyIterable());
+        verify(fileRepository, times(1)).findAllById(anyIterable());
+        // Types no update refers to are not read at all
+        verifyNoInteractions(userRepository, institutionRepository, questionRepository);
+        for (int i = 0; i < 6; i++) {
+            assertEquals(courseIds.get(i % 2), questions.get(i).getCourse().getId());
+            assertEquals(List.of(fileIds.get(i % 3)), questions.get(i).getQuestionFiles());
+        }
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    /**
+     * A repository mock whose findAllById returns an entity for every id except the missing file
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private <R extends JpaRepository> R repository(Class<R> type, Supplier<? extends BaseEntity> entities) {
+        R repository = mock(type);
+        when(repository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<BaseEntity> found = new ArrayList<>();
+            for (UUID id : toList(invocation.getArgument(0))) {
+                if (!id.equals(missingFileId)) {
+                    BaseEntity entity = entities.get();
+                    entity.setId(id);
+                    found.add(entity);
+                }
+            }
+            return found;
+        });
+        return repository;
+    }
+
+    private static List<UUID> toList(Iterable<UUID> ids) {
+        if (ids instanceof Collection<UUID> collection) {
+            return new ArrayList<>(collection);
+        }
+        List<UUID> list = new ArrayList<>();
+        ids.forEach(list::add);
+        return list;
+    }
+}
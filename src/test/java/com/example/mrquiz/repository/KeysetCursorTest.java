@@ -0,0 +1,110 @@
+package com.example.mrquiz.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+    private static final List<String> KEYS = List.of("createdAt", "id");
+
+    // ============================================================================
+    // ROUND TRIPS
+    // ============================================================================
+
+    @Test
+    void everySupportedTypeRoundTrips() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("createdAt", LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000));
+        keys.put("id", UUID.randomUUID());
+        keys.put("count", 42L);
+        keys.put("order", 7);
+        keys.put("score", new BigDecimal("12.50"));
+        keys.put("title", "Algebra: part 2 / \u00e9");
+        List<String> properties = List.copyOf(keys.keySet());
+
+        String cursor = KeysetCursor.encode(ScrollPosition.forward(keys), properties);
+
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"));
+        KeysetScrollPosition decoded = (KeysetScrollPosition) KeysetCursor.decode(cursor, properties);
+        assertEquals(keys, decoded.getKeys());
+        assertEquals(properties, List.copyOf(decoded.getKeys().keySet()));
+    }
+
+    @Test
+    void blankCursorIsTheFirstPage() {
+        assertTrue(KeysetCursor.decode(null, KEYS).isInitial());
+        assertTrue(KeysetCursor.decode(" ", KEYS).isInitial());
+    }
+
+    @Test
+    void propertyNamesComeFromTheCaller() {
+        String cursor = cursor(LocalDateTime.of(2024, 1, 1, 0, 0), UUID.randomUUID());
+
+        KeysetScrollPosition decoded = (KeysetScrollPosition) KeysetCursor.decode(cursor, List.of("startedAt", "id"));
+
+        assertEquals(List.of("startedAt", "id"), List.copyOf(decoded.getKeys().keySet()));
+    }
+
+    @Test
+    void unsupportedValuesAreNotEncoded() {
+        Map<String, Object> nullKey = new LinkedHashMap<>();
+        nullKey.put("createdAt", null);
+        nullKey.put("id", UUID.randomUUID());
+
+        assertThrows(IllegalArgumentException.class,
+                     () -> KeysetCursor.encode(ScrollPosition.forward(nullKey), KEYS));
+        assertThrows(IllegalArgumentException.class,
+                     () -> KeysetCursor.encode(ScrollPosition.forward(Map.of("createdAt", "a\nb", "id", "x")), KEYS));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.encode(ScrollPosition.offset(10), KEYS));
+    }
+
+    // ============================================================================
+    // MALFORMED CURSORS
+    // ============================================================================
+
+    @Test
+    void malformedCursorsAreRejected() {
+        String valid = cursor(LocalDateTime.of(2024, 1, 1, 0, 0), UUID.randomUUID());
+
+        for (String cursor : List.of(
+                "not base64!",
+                encoded("T2024-01-01T00:00"),
+                encoded("T2024-01-01T00:00\nU" + UUID.randomUUID() + "\nI1"),
+                encoded("X2024-01-01T00:00\nU" + UUID.randomUUID()),
+                encoded("T2024-13-01T00:00\nU" + UUID.randomUUID()),
+                encoded("T2024-01-01T00:00\nUnot-a-uuid"),
+                encoded("T2024-01-01T00:00\n"),
+                valid.substring(0, valid.length() / 2))) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                                                      () -> KeysetCursor.decode(cursor, KEYS), cursor);
+            assertEquals("Invalid cursor", e.getMessage());
+        }
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private String cursor(LocalDateTime createdAt, UUID id) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("createdAt", createdAt);
+        keys.put("id", id);
+        return KeysetCursor.encode(ScrollPosition.forward(keys), KEYS);
+    }
+
+    private String encoded(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.mrquiz.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deep-page latency of {@link BaseRepository#findSlice} against an OFFSET {@code Page} query
+ * through the same repository, on an embedded Postgres holding one owner's rows.
+ *
+ * The OFFSET side is Spring Data's {@code findAll(spec, pageable)}, which issues the page and a
+ * COUNT(*); the keyset side is findSlice for a descending (created_at, id) sort, from the cursor a
+ * client holds after reading the page before the measured one. Both go through Hibernate and are
+ * served by the (owner_id, created_at, id) index. The persistence context is cleared after each
+ * call so neither side is served from it.
+ *
+ * Run with {@code java -cp target/test-classes:<test classpath> com.example.mrquiz.repository.KeysetPaginationBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeysetPaginationBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+    private static final UUID OWNER_ID = new UUID(0, 1);
+    private static final List<String> KEYS = List.of("createdAt", "id");
+
+    @Param("1000000")
+    private int rows;
+
+    @Param({"10", "500", "5000"})
+    private int page;
+
+    private EmbeddedPostgres postgres;
+    private EntityManager entityManager;
+    private KeysetRowRepository repository;
+    private Specification<KeysetRow> owned;
+    private PageRequest pageRequest;
+    private String cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+        jdbcTemplate.execute(KeysetRowRepository.SCHEMA);
+        // Several rows share each timestamp, so the id tie-break matters
+        jdbcTemplate.execute("INSERT INTO keyset_rows SELECT gen_random_uuid(), '" + OWNER_ID + "', " +
+                             "TIMESTAMP '2024-01-01' + (i / 4) * INTERVAL '1 second' " +
+                             "FROM generate_series(1, " + rows + ") AS i");
+        jdbcTemplate.execute("ANALYZE keyset_rows");
+
+        entityManager = KeysetRowRepository.entityManager(postgres.getPostgresDatabase());
+        repository = KeysetRowRepository.create(entityManager);
+        owned = (root, query, cb) -> cb.equal(root.get("ownerId"), OWNER_ID);
+        pageRequest = PageRequest.of(page - 1, PAGE_SIZE,
+                                     Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id")));
+
+        // The last row of the page before the measured one
+        Map<String, Object> last = jdbcTemplate.queryForMap(
+                "SELECT created_at, id FROM keyset_rows WHERE owner_id = ? " +
+                "ORDER BY created_at DESC, id DESC OFFSET ? LIMIT 1", OWNER_ID, (page - 1) * PAGE_SIZE - 1);
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("createdAt", ((Timestamp) last.get("created_at")).toLocalDateTime());
+        keys.put("id", last.get("id"));
+        cursor = KeysetCursor.encode(ScrollPosition.forward(keys), KEYS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        entityManager.getEntityManagerFactory().close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public Page<KeysetRow> offset() {
+        Page<KeysetRow> result = repository.findAll(owned, pageRequest);
+        entityManager.clear();
+        return result;
+    }
+
+    @Benchmark
+    public KeysetSlice<KeysetRow> keyset() {
+        KeysetSlice<KeysetRow> result = repository.findByOwner(OWNER_ID, cursor, PAGE_SIZE);
+        entityManager.clear();
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(KeysetPaginationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.mrquiz.repository;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A row with nothing but the columns a keyset listing needs, so {@link BaseRepository#findSlice}
+ * can run against a real database without the rest of the model
+ */
+@Data
+@Entity
+@Table(name = "keyset_rows")
+public class KeysetRow {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "owner_id", nullable = false)
+    private UUID ownerId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,48 @@
+package com.example.mrquiz.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.jpa.HibernatePersistenceProvider;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+/**
+ * Repository over {@link KeysetRow}, built by hand through {@link #create} rather than scanned
+ */
+@NoRepositoryBean
+public interface KeysetRowRepository extends BaseRepository<KeysetRow> {
+
+    String SCHEMA = "CREATE TABLE keyset_rows (id uuid PRIMARY KEY, owner_id uuid NOT NULL, " +
+                    "created_at timestamp NOT NULL);" +
+                    "CREATE INDEX idx_keyset_rows_owner_created ON keyset_rows (owner_id, created_at, id)";
+
+    /**
+     * Rows of an owner, newest first
+     */
+    default KeysetSlice<KeysetRow> findByOwner(UUID ownerId, String cursor, int size) {
+        return findSlice((root, query, cb) -> cb.equal(root.get("ownerId"), ownerId), cursor, size);
+    }
+
+    /**
+     * An entity manager over the given database that knows only {@link KeysetRow}. Reads through
+     * it need no transaction; clear it between reads that should not share a persistence context
+     */
+    static EntityManager entityManager(DataSource dataSource) {
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPersistenceProvider(new HibernatePersistenceProvider());
+        factory.setManagedTypes(PersistenceManagedTypes.of(KeysetRow.class.getName()));
+        factory.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = factory.getObject();
+        return entityManagerFactory.createEntityManager();
+    }
+
+    static KeysetRowRepository create(EntityManager entityManager) {
+        return new JpaRepositoryFactory(entityManager).getRepository(KeysetRowRepository.class);
+    }
+}
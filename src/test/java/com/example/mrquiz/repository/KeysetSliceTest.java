@@ -0,0 +1,144 @@
+package com.example.mrquiz.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pages through {@link BaseRepository#findSlice} against an embedded Postgres, where rows share
+ * sort keys so only the id tie-break keeps pages apart
+ */
+class KeysetSliceTest {
+
+    private static final UUID OWNER = new UUID(0, 1);
+    private static final UUID OTHER_OWNER = new UUID(0, 2);
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    // Postgres orders uuids by their unsigned bytes, as their text sorts; UUID.compareTo does not
+    private static final Comparator<KeysetRow> DATABASE_ORDER = Comparator.comparing(KeysetRow::getCreatedAt)
+            .thenComparing(row -> row.getId().toString());
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+    private static EntityManager entityManager;
+    private static KeysetRowRepository repository;
+
+    private final List<KeysetRow> rows = new ArrayList<>();
+
+    @BeforeAll
+    static void startDatabase() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+        jdbcTemplate.execute(KeysetRowRepository.SCHEMA);
+        entityManager = KeysetRowRepository.entityManager(postgres.getPostgresDatabase());
+        repository = KeysetRowRepository.create(entityManager);
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        entityManager.getEntityManagerFactory().close();
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE keyset_rows");
+        entityManager.clear();
+        // Five rows at each of five timestamps, and rows of another owner in between
+        for (int i = 0; i < 25; i++) {
+            rows.add(insert(OWNER, START.plusMinutes(i / 5)));
+            insert(OTHER_OWNER, START.plusMinutes(i / 5));
+        }
+    }
+
+    // ============================================================================
+    // PAGING
+    // ============================================================================
+
+    @Test
+    void pagesSplitInsideTiesWithoutSkippingOrRepeating() {
+        List<KeysetRow> expected = rows.stream()
+                .sorted(DATABASE_ORDER.reversed())
+                .toList();
+
+        // Three does not divide five, so most pages end inside a run of equal timestamps
+        List<KeysetRow> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            KeysetSlice<KeysetRow> slice = repository.findByOwner(OWNER, cursor, 3);
+            seen.addAll(slice.content());
+            cursor = slice.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(ids(expected), ids(seen));
+        assertEquals(9, pages);
+    }
+
+    @Test
+    void ascendingPagesFollowTheSameTieBreak() {
+        List<KeysetRow> expected = rows.stream()
+                .sorted(DATABASE_ORDER)
+                .toList();
+        Specification<KeysetRow> owned = (root, query, cb) -> cb.equal(root.get("ownerId"), OWNER);
+
+        List<KeysetRow> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            KeysetSlice<KeysetRow> slice = repository.findSlice(owned, "createdAt", Sort.Direction.ASC, cursor, 4);
+            seen.addAll(slice.content());
+            cursor = slice.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(ids(expected), ids(seen));
+    }
+
+    @Test
+    void lastFullPageHasNoNextCursor() {
+        KeysetSlice<KeysetRow> first = repository.findByOwner(OWNER, null, 20);
+        KeysetSlice<KeysetRow> last = repository.findByOwner(OWNER, first.nextCursor(), 5);
+
+        assertTrue(first.hasNext());
+        assertEquals(5, last.size());
+        assertFalse(last.hasNext());
+        assertEquals(0, repository.findByOwner(UUID.randomUUID(), null, 5).size());
+    }
+
+    @Test
+    void malformedCursorIsRejectedBeforeTheQuery() {
+        assertThrows(IllegalArgumentException.class, () -> repository.findByOwner(OWNER, "bogus", 5));
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private KeysetRow insert(UUID ownerId, LocalDateTime createdAt) {
+        KeysetRow row = new KeysetRow();
+        row.setId(UUID.randomUUID());
+        row.setOwnerId(ownerId);
+        row.setCreatedAt(createdAt);
+        jdbcTemplate.update("INSERT INTO keyset_rows (id, owner_id, created_at) VALUES (?, ?, ?)",
+                            row.getId(), row.getOwnerId(), row.getCreatedAt());
+        return row;
+    }
+
+    private List<UUID> ids(List<KeysetRow> rows) {
+        return rows.stream().map(KeysetRow::getId).toList();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.mrquiz.repository.auth;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the batched last-activity writes against an embedded Postgres
+ */
+class UserActivityJdbcRepositoryTest {
+
+    // More than one statement
+    private static final int USERS = 2500;
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    private UserActivityJdbcRepository repository;
+
+    @BeforeAll
+    static void startDatabase() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+        jdbcTemplate.execute("CREATE TABLE users (id uuid PRIMARY KEY, last_activity timestamp)");
+        jdbcTemplate.execute("CREATE TABLE user_sessions (id uuid PRIMARY KEY, last_activity timestamp)");
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        repository = new UserActivityJdbcRepository();
+        ReflectionTestUtils.setField(repository, "jdbcTemplate", jdbcTemplate);
+        jdbcTemplate.execute("TRUNCATE users, user_sessions");
+    }
+
+    @Test
+    void everyUserIsWrittenAcrossStatements() {
+        Map<UUID, LocalDateTime> lastActivity = new HashMap<>();
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            UUID userId = UUID.randomUUID();
+            users.add(new Object[]{userId});
+            lastActivity.put(userId, now.plusSeconds(i));
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id) VALUES (?)", users);
+
+        assertEquals(USERS, repository.updateUserLastActivity(lastActivity));
+
+        Map<UUID, LocalDateTime> stored = new HashMap<>();
+        jdbcTemplate.query("SELECT id, last_activity FROM users", rs -> {
+            stored.put(rs.getObject(1, UUID.class), rs.getObject(2, LocalDateTime.class));
+        });
+        assertEquals(lastActivity, stored);
+    }
+
+    @Test
+    void newerStoredTimestampsAreKept() {
+        UUID behind = UUID.randomUUID();
+        UUID ahead = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO user_sessions (id, last_activity) VALUES (?, ?)", behind, now.minusMinutes(1));
+        jdbcTemplate.update("INSERT INTO user_sessions (id, last_activity) VALUES (?, ?)", ahead, now.plusMinutes(1));
+
+        assertEquals(1, repository.updateSessionLastActivity(Map.of(behind, now, ahead, now, UUID.randomUUID(), now)));
+
+        assertEquals(now, sessionActivity(behind));
+        assertEquals(now.plusMinutes(1), sessionActivity(ahead));
+    }
+
+    private LocalDateTime sessionActivity(UUID sessionId) {
+        return jdbcTemplate.queryForObject("SELECT last_activity FROM user_sessions WHERE id = ?",
+                                           LocalDateTime.class, sessionId);
+    }
+}
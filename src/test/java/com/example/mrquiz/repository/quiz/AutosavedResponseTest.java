@@ -0,0 +1,58 @@
+package com.example.mrquiz.repository.quiz;
+
+import com.example.mrquiz.repository.quiz.ResponseAutosaveJdbcRepository.AutosavedResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AutosavedResponseTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 10, 0);
+
+    private final UUID attemptId = UUID.randomUUID();
+    private final UUID questionId = UUID.randomUUID();
+
+    @Test
+    void laterSaveWinsInEitherOrder() {
+        AutosavedResponse first = save("a", 10, 3, T0);
+        AutosavedResponse second = save("b", 20, 4, T0.plusSeconds(5));
+
+        for (AutosavedResponse merged : new AutosavedResponse[]{first.plus(second), second.plus(first)}) {
+            assertEquals(Map.of("answer", "b"), merged.answerData());
+            assertEquals(20, merged.timeSpent());
+            assertEquals(4, merged.confidenceLevel());
+            assertEquals(T0, merged.firstSavedAt());
+            assertEquals(T0.plusSeconds(5), merged.lastSavedAt());
+            assertEquals(2, merged.saveCount());
+        }
+    }
+
+    @Test
+    void missingTimeSpentAndConfidenceKeepTheEarlierValues() {
+        AutosavedResponse merged = save("a", 30, 2, T0).plus(save("b", null, null, T0.plusSeconds(1)));
+
+        assertEquals(Map.of("answer", "b"), merged.answerData());
+        assertEquals(30, merged.timeSpent());
+        assertEquals(2, merged.confidenceLevel());
+    }
+
+    @Test
+    void countsEverySaveAcrossMerges() {
+        AutosavedResponse merged = save("a", 1, null, T0)
+                .plus(save("b", 2, null, T0.plusSeconds(1)))
+                .plus(save("c", 3, null, T0.plusSeconds(2)).plus(save("d", 4, null, T0.plusSeconds(3))));
+
+        assertEquals(4, merged.saveCount());
+        assertEquals(Map.of("answer", "d"), merged.answerData());
+        assertEquals(T0, merged.firstSavedAt());
+    }
+
+    private AutosavedResponse save(String answer, Integer timeSpent, Integer confidence, LocalDateTime at) {
+        return new AutosavedResponse(attemptId, questionId, null, Map.of("answer", answer), null, timeSpent,
+                                     confidence, false, at, at, 1);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.mrquiz.repository.quiz;
+
+import com.example.mrquiz.repository.quiz.QuizAccessJdbcRepository.CachedUser;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the access index change checks against an embedded Postgres
+ */
+class QuizAccessJdbcRepositoryTest {
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime since = LocalDateTime.now().minusMinutes(1);
+    private final LocalDateTime before = since.minusMinutes(1);
+    private final LocalDateTime after = since.plusSeconds(1);
+    private QuizAccessJdbcRepository repository;
+
+    @BeforeAll
+    static void startDatabase() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+        jdbcTemplate.execute("CREATE TABLE quizzes (id uuid PRIMARY KEY, updated_at timestamp)");
+        jdbcTemplate.execute("CREATE TABLE quiz_collaborators (id uuid PRIMARY KEY, quiz_id uuid NOT NULL, " +
+                             "user_id uuid NOT NULL, permission varchar(50), updated_at timestamp)");
+        jdbcTemplate.execute("CREATE TABLE course_enrollments (id uuid PRIMARY KEY, course_id uuid NOT NULL, " +
+                             "user_id uuid NOT NULL, status varchar(20) NOT NULL, updated_at timestamp)");
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        repository = new QuizAccessJdbcRepository();
+        ReflectionTestUtils.setField(repository, "jdbcTemplate", jdbcTemplate);
+        jdbcTemplate.execute("TRUNCATE quizzes, quiz_collaborators, course_enrollments");
+    }
+
+    // ============================================================================
+    // QUIZZES
+    // ============================================================================
+
+    @Test
+    void quizzesUpdatedOrDeletedSinceAreChanged() {
+        UUID unchanged = quiz(before);
+        UUID updated = quiz(after);
+        UUID deleted = UUID.randomUUID();
+
+        assertEquals(Set.of(updated, deleted),
+                     Set.copyOf(repository.findChangedQuizzes(List.of(unchanged, updated, deleted), since)));
+        assertEquals(List.of(), repository.findChangedQuizzes(List.of(), since));
+    }
+
+    // ============================================================================
+    // USERS
+    // ============================================================================
+
+    @Test
+    void usersWithRowsUpdatedSinceAreChanged() {
+        UUID unchanged = UUID.randomUUID();
+        collaborator(unchanged, before);
+        enrollment(unchanged, "ACTIVE", before);
+        UUID collaborating = UUID.randomUUID();
+        collaborator(collaborating, after);
+        UUID enrolled = UUID.randomUUID();
+        enrollment(enrolled, "DROPPED", after);
+
+        List<UUID> changed = repository.findChangedUsers(List.of(
+                new CachedUser(unchanged, 1, 1),
+                new CachedUser(collaborating, 1, 0),
+                new CachedUser(enrolled, 0, 0)), since);
+
+        assertEquals(Set.of(collaborating, enrolled), Set.copyOf(changed));
+    }
+
+    @Test
+    void usersWithRowsDeletedOutrightAreChanged() {
+        UUID uncollaborated = UUID.randomUUID();
+        collaborator(uncollaborated, before);
+        UUID unenrolled = UUID.randomUUID();
+        enrollment(unenrolled, "ACTIVE", before);
+        enrollment(unenrolled, "DROPPED", before);
+
+        // Each was cached with one more row than is left
+        List<UUID> changed = repository.findChangedUsers(List.of(
+                new CachedUser(uncollaborated, 2, 0),
+                new CachedUser(unenrolled, 0, 2)), since);
+
+        assertEquals(Set.of(uncollaborated, unenrolled), Set.copyOf(changed));
+        assertEquals(List.of(), repository.findChangedUsers(List.of(), since));
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private UUID quiz(LocalDateTime updatedAt) {
+        UUID quizId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO quizzes (id, updated_at) VALUES (?, ?)", quizId, updatedAt);
+        return quizId;
+    }
+
+    private void collaborator(UUID userId, LocalDateTime updatedAt) {
+        jdbcTemplate.update("INSERT INTO quiz_collaborators (id, quiz_id, user_id, permission, updated_at) " +
+                            "VALUES (?, ?, ?, 'edit', ?)", UUID.randomUUID(), UUID.randomUUID(), userId, updatedAt);
+    }
+
+    private void enrollment(UUID userId, String status, LocalDateTime updatedAt) {
+        jdbcTemplate.update("INSERT INTO course_enrollments (id, course_id, user_id, status, updated_at) " +
+                            "VALUES (?, ?, ?, ?, ?)", UUID.randomUUID(), UUID.randomUUID(), userId, status, updatedAt);
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.mrquiz.repository.quiz;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the set-based quiz question statements against an embedded Postgres, counting the
+ * statements each operation sends
+ */
+class QuizQuestionJdbcRepositoryTest {
+
+    private static final int QUESTIONS = 200;
+
+    private static final AtomicInteger statements = new AtomicInteger();
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+
+    private final UUID quizId = UUID.randomUUID();
+    private final List<UUID> questionIds = new ArrayList<>();
+    private QuizQuestionJdbcRepository repository;
+
+    @BeforeAll
+    static void startDatabase() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        jdbcTemplate = new JdbcTemplate(counting(postgres.getPostgresDatabase()));
+        jdbcTemplate.execute("CREATE TABLE quizzes (id uuid PRIMARY KEY, total_points numeric(7, 2), " +
+                             "updated_at timestamp)");
+        jdbcTemplate.execute("CREATE TABLE questions (id uuid PRIMARY KEY, points numeric(5, 2), updated_at timestamp)");
+        jdbcTemplate.execute("CREATE TABLE quiz_questions (id uuid PRIMARY KEY, " +
+                             "quiz_id uuid NOT NULL REFERENCES quizzes, question_id uuid NOT NULL REFERENCES questions, " +
+                             "order_index integer NOT NULL, section varchar(100), page_number integer, " +
+                             "points numeric(5, 2), time_limit integer, required boolean NOT NULL, settings jsonb, " +
+                             "created_at timestamp, updated_at timestamp, UNIQUE (quiz_id, order_index))");
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        repository = new QuizQuestionJdbcRepository();
+        ReflectionTestUtils.setField(repository, "jdbcTemplate", jdbcTemplate);
+        // Tests share the database, and some of the statements look at every quiz
+        jdbcTemplate.execute("TRUNCATE quiz_questions, questions, quizzes");
+        jdbcTemplate.update("INSERT INTO quizzes (id, total_points) VALUES (?, 0)", quizId);
+        for (int i = 0; i < QUESTIONS; i++) {
+            UUID questionId = UUID.randomUUID();
+            questionIds.add(questionId);
+            jdbcTemplate.update("INSERT INTO questions (id, points) VALUES (?, 1)", questionId);
+            jdbcTemplate.update("INSERT INTO quiz_questions (id, quiz_id, question_id, order_index, required) " +
+                                "VALUES (?, ?, ?, ?, true)", UUID.randomUUID(), quizId, questionId, i + 1);
+        }
+        statements.set(0);
+    }
+
+    // ============================================================================
+    // REORDER
+    // ============================================================================
+
+    @Test
+    void reorderRewritesEveryIndexInTwoStatements() {
+        List<UUID> reversed = new ArrayList<>(questionIds);
+        Collections.reverse(reversed);
+
+        assertEquals(QUESTIONS, repository.reorder(quizId, reversed));
+
+        assertEquals(2, statements.get());
+        assertEquals(reversed, order(quizId));
+    }
+
+    @Test
+    void questionsLeftOutKeepTheirOrderAfterTheGivenOnes() {
+        repository.reorder(quizId, List.of(questionIds.get(5), questionIds.get(2)));
+
+        List<UUID> expected = new ArrayList<>(List.of(questionIds.get(5), questionIds.get(2)));
+        questionIds.stream().filter(id -> !expected.contains(id)).forEach(expected::add);
+        assertEquals(expected, order(quizId));
+    }
+
+    // ============================================================================
+    // COPY
+    // ============================================================================
+
+    @Test
+    void copyClonesEveryEntryInOneStatement() {
+        UUID copyId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO quizzes (id, total_points) VALUES (?, 0)", copyId);
+        statements.set(0);
+
+        assertEquals(QUESTIONS, repository.copyQuizQuestions(quizId, copyId));
+
+        assertEquals(1, statements.get());
+        assertEquals(questionIds, order(copyId));
+    }
+
+    // ============================================================================
+    // TOTAL POINTS
+    // ============================================================================
+
+    @Test
+    void totalsAreRecomputedWithOverridesInOneStatement() {
+        jdbcTemplate.update("UPDATE quiz_questions SET points = 3 WHERE question_id = ?", questionIds.get(0));
+        statements.set(0);
+
+        assertEquals(1, repository.recomputeTotalPoints(List.of(quizId)));
+
+        assertEquals(1, statements.get());
+        assertEquals(new BigDecimal(QUESTIONS + 2), totalPoints().stripTrailingZeros());
+        assertEquals(List.of(), repository.findTotalPointsDrift(10));
+    }
+
+    @Test
+    void removingAQuestionSubtractsItsPoints() {
+        repository.recomputeTotalPoints(List.of(quizId));
+        statements.set(0);
+
+        assertEquals(1, repository.removeQuestionAndAdjustTotal(quizId, questionIds.get(0)));
+        assertEquals(0, repository.removeQuestionAndAdjustTotal(quizId, questionIds.get(0)));
+
+        assertEquals(2, statements.get());
+        assertEquals(new BigDecimal(QUESTIONS - 1), totalPoints().stripTrailingZeros());
+    }
+
+    // ============================================================================
+    // CHANGES
+    // ============================================================================
+
+    @Test
+    void changedQuizzesCountTheirEntriesAndQuestions() {
+        LocalDateTime since = LocalDateTime.now();
+        UUID untouched = UUID.randomUUID();
+        UUID deleted = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO quizzes (id, total_points, updated_at) VALUES (?, 0, ?)", untouched, since);
+
+        assertEquals(List.of(deleted), repository.findChangedQuizzes(List.of(quizId, untouched, deleted), since));
+
+        jdbcTemplate.update("UPDATE questions SET updated_at = ? WHERE id = ?", since.plusSeconds(1), questionIds.get(7));
+        assertEquals(Set.of(quizId, deleted),
+                     Set.copyOf(repository.findChangedQuizzes(List.of(quizId, untouched, deleted), since)));
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private List<UUID> order(UUID quiz) {
+        return jdbcTemplate.queryForList("SELECT question_id FROM quiz_questions WHERE quiz_id = ? ORDER BY order_index",
+                                         UUID.class, quiz);
+    }
+
+    private BigDecimal totalPoints() {
+        return jdbcTemplate.queryForObject("SELECT total_points FROM quizzes WHERE id = ?", BigDecimal.class, quizId);
+    }
+
+    /**
+     * Counts prepared statements, i.e. round trips; a JDBC batch counts once
+     */
+    private static DataSource counting(DataSource dataSource) {
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                Connection connection = super.getConnection();
+                return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                        new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                            if (method.getName().equals("prepareStatement")) {
+                                statements.incrementAndGet();
+                            }
+                            try {
+                                return method.invoke(connection, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                        });
+            }
+        };
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.mrquiz.repository.quiz;
+
+import com.example.mrquiz.enums.QuizType;
+import com.example.mrquiz.service.quiz.QuizSearchService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the search schema, the ranked search and the title fallback against an embedded
+ * Postgres, through the service that builds the queries
+ */
+class QuizSearchJdbcRepositoryTest {
+
+    private static final String SCHEMA =
+            "CREATE TABLE quizzes (id uuid PRIMARY KEY, title varchar(255) NOT NULL, description text, " +
+            "instructions text, settings jsonb, status varchar(20) NOT NULL, quiz_type varchar(20), " +
+            "institution_id uuid, updated_at timestamp);" +
+            "CREATE TABLE quiz_sessions (id uuid PRIMARY KEY, name varchar(255));" +
+            "CREATE TABLE files (id uuid PRIMARY KEY, filename varchar(255), original_filename varchar(255));" +
+            "CREATE TABLE questions (id uuid PRIMARY KEY, title varchar(255), question_text text)";
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate searchable;
+    private static JdbcTemplate plain;
+
+    private static QuizSearchService searchService;
+    private static QuizSearchService fallbackService;
+
+    private static UUID photosynthesis;
+    private static UUID plants;
+    private static UUID cells;
+    private static UUID draft;
+    private static UUID exam;
+
+    @BeforeAll
+    static void startDatabase() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        JdbcTemplate admin = new JdbcTemplate(postgres.getPostgresDatabase());
+        admin.execute("CREATE DATABASE searchable");
+        admin.execute("CREATE DATABASE plain");
+        searchable = new JdbcTemplate(postgres.getDatabase("postgres", "searchable"));
+        plain = new JdbcTemplate(postgres.getDatabase("postgres", "plain"));
+
+        for (JdbcTemplate jdbcTemplate : List.of(searchable, plain)) {
+            jdbcTemplate.execute(SCHEMA);
+            LocalDateTime now = LocalDateTime.now();
+            photosynthesis = insert(jdbcTemplate, "Photosynthesis basics", "How plants make sugar", "PUBLISHED", "PRACTICE", now);
+            plants = insert(jdbcTemplate, "Plant biology", "Covers photosynthesis and respiration", "PUBLISHED", "PRACTICE",
+                            now.minusDays(1));
+            cells = insert(jdbcTemplate, "Cell division", "Mitosis and meiosis", "PUBLISHED", "PRACTICE", now.minusDays(2));
+            draft = insert(jdbcTemplate, "Photosynthesis draft", null, "DRAFT", "PRACTICE", now);
+            exam = insert(jdbcTemplate, "Photosynthesis final", null, "PUBLISHED", "EXAM", now.minusDays(3));
+        }
+
+        searchService = service(searchable, true);
+        searchService.ensureSearchSchema();
+        // Quizzes inserted before the trigger get their vectors from the backfill
+        searchService.backfillSearchVectors();
+        searchService.backfillSearchVectors();
+
+        fallbackService = service(plain, false);
+        fallbackService.ensureSearchSchema();
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        postgres.close();
+    }
+
+    // ============================================================================
+    // SCHEMA
+    // ============================================================================
+
+    @Test
+    void schemaIsInstalledWithValidIndexes() {
+        QuizSearchJdbcRepository repository = repository(searchable);
+
+        assertTrue(repository.isSearchSchemaInstalled());
+        assertTrue(repository.isSearchTriggerInstalled());
+        assertEquals(List.of(), repository.findUnusableSearchIndexes());
+        assertEquals(0, searchable.queryForObject("SELECT COUNT(*) FROM quizzes WHERE search_vector IS NULL",
+                                                  Integer.class));
+        assertFalse(repository(plain).isSearchSchemaInstalled());
+    }
+
+    @Test
+    void triggerKeepsVectorsCurrent() {
+        UUID quizId = insert(searchable, "Volcanoes", null, "PUBLISHED", "PRACTICE", LocalDateTime.now());
+        searchable.update("UPDATE quizzes SET description = 'Magma chambers' WHERE id = ?", quizId);
+
+        assertEquals(List.of(quizId), searchService.search("magma", null, null, 20, 0));
+        searchable.update("DELETE FROM quizzes WHERE id = ?", quizId);
+    }
+
+    // ============================================================================
+    // RANKED SEARCH
+    // ============================================================================
+
+    @Test
+    void partialWordsMatchAsPrefixes() {
+        List<UUID> results = searchService.search("photosynth", null, null, 20, 0);
+
+        // Equal ranks are ordered by id
+        assertEquals(Set.of(photosynthesis, exam), Set.copyOf(results.subList(0, 2)));
+        assertEquals(plants, results.get(2));
+        assertEquals(3, results.size());
+    }
+
+    @Test
+    void titleMatchesRankAboveDescriptionMatches() {
+        List<UUID> results = searchService.search("photosynthesis", null, null, 20, 0);
+
+        assertEquals(3, results.size());
+        assertEquals(plants, results.get(2));
+        assertFalse(results.contains(draft));
+    }
+
+    @Test
+    void misspeltTermsFindCloseTitles() {
+        assertTrue(searchService.search("photosynthsis", null, null, 20, 0).contains(photosynthesis));
+        assertEquals(List.of(cells), searchService.search("divison", null, null, 20, 0));
+    }
+
+    @Test
+    void filtersAndPagingApply() {
+        assertEquals(List.of(exam), searchService.search("photosynthesis", QuizType.EXAM, null, 20, 0));
+        assertEquals(List.of(), searchService.search("photosynthesis", null, UUID.randomUUID(), 20, 0));
+
+        List<UUID> all = searchService.search("photosynthesis", null, null, 20, 0);
+        assertEquals(all.subList(1, 2), searchService.search("photosynthesis", null, null, 1, 1));
+    }
+
+    // ============================================================================
+    // FALLBACK
+    // ============================================================================
+
+    @Test
+    void titlesAreMatchedWithoutTheSearchSchema() {
+        assertEquals(List.of(photosynthesis, exam), fallbackService.search("PHOTO synthesis", null, null, 20, 0));
+        assertEquals(List.of(exam), fallbackService.search("photosynthesis", QuizType.EXAM, null, 20, 0));
+        assertEquals(List.of(), fallbackService.search("photosynthsis", null, null, 20, 0));
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private static QuizSearchService service(JdbcTemplate jdbcTemplate, boolean manageSchema) {
+        QuizSearchService service = new QuizSearchService();
+        ReflectionTestUtils.setField(service, "quizSearchJdbcRepository", repository(jdbcTemplate));
+        ReflectionTestUtils.setField(service, "manageSchema", manageSchema);
+        return service;
+    }
+
+    private static QuizSearchJdbcRepository repository(JdbcTemplate jdbcTemplate) {
+        QuizSearchJdbcRepository repository = new QuizSearchJdbcRepository();
+        ReflectionTestUtils.setField(repository, "jdbcTemplate", jdbcTemplate);
+        return repository;
+    }
+
+    private static UUID insert(JdbcTemplate jdbcTemplate, String title, String description, String status,
+                               String quizType, LocalDateTime updatedAt) {
+        // Ids are fixed by title so both databases hold the same quizzes
+        UUID quizId = UUID.nameUUIDFromBytes(title.getBytes());
+        jdbcTemplate.update("INSERT INTO quizzes (id, title, description, status, quiz_type, updated_at) " +
+                            "VALUES (?, ?, ?, ?, ?, ?)", quizId, title, description, status, quizType, updatedAt);
+        return quizId;
+    }
+}
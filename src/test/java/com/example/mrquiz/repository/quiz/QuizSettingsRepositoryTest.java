@@ -0,0 +1,165 @@
+package com.example.mrquiz.repository.quiz;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the settings statements against an embedded Postgres
+ */
+class QuizSettingsRepositoryTest {
+
+    private static final int WRITERS = 32;
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UUID quizId = UUID.randomUUID();
+    private QuizSettingsRepository repository;
+
+    @BeforeAll
+    static void startDatabase() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+        jdbcTemplate.execute("CREATE TABLE quizzes (id uuid PRIMARY KEY, settings jsonb, updated_at timestamp)");
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        repository = new QuizSettingsRepository();
+        ReflectionTestUtils.setField(repository, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(repository, "objectMapper", objectMapper);
+        jdbcTemplate.update("INSERT INTO quizzes (id, settings) VALUES (?, CAST(? AS jsonb))",
+                            quizId, "{\"timeLimit\": 30}");
+    }
+
+    // ============================================================================
+    // KEY-LEVEL UPDATES
+    // ============================================================================
+
+    @Test
+    void setKeepsOtherKeys() {
+        assertEquals(1, repository.set(quizId, "allowGuestAccess", true));
+
+        assertEquals(Map.of("timeLimit", 30, "allowGuestAccess", true), settings());
+    }
+
+    @Test
+    void mergeIntoCreatesAndExtendsTheObject() {
+        repository.mergeInto(quizId, "adaptive", Map.of("enabled", true));
+        repository.mergeInto(quizId, "adaptive", Map.of("minQuestions", 5));
+
+        assertEquals(Map.of("enabled", true, "minQuestions", 5), settings().get("adaptive"));
+    }
+
+    @Test
+    void appendCreatesAndExtendsTheArray() {
+        repository.append(quizId, "joinCodes", "ABC123");
+        repository.append(quizId, "joinCodes", Map.of("code", "XYZ789"));
+
+        assertEquals(List.of("ABC123", Map.of("code", "XYZ789")), settings().get("joinCodes"));
+    }
+
+    @Test
+    void removeDropsOnlyTheKey() {
+        repository.set(quizId, "versions", List.of());
+
+        repository.remove(quizId, "versions");
+
+        assertEquals(Map.of("timeLimit", 30), settings());
+    }
+
+    @Test
+    void nullSettingsAreStartedFresh() {
+        jdbcTemplate.update("UPDATE quizzes SET settings = NULL WHERE id = ?", quizId);
+
+        repository.append(quizId, "joinCodes", "ABC123");
+
+        assertEquals(Map.of("joinCodes", List.of("ABC123")), settings());
+    }
+
+    @Test
+    void missingQuizUpdatesNothing() {
+        assertEquals(0, repository.set(UUID.randomUUID(), "allowGuestAccess", true));
+    }
+
+    // ============================================================================
+    // CONCURRENCY
+    // ============================================================================
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void parallelWritersLoseNoUpdates() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writes = new ArrayList<>();
+        try {
+            for (int writer = 0; writer < WRITERS; writer++) {
+                int id = writer;
+                writes.add(executor.submit(() -> {
+                    start.await();
+                    repository.append(quizId, "log", id);
+                    repository.mergeInto(quizId, "collaborators", Map.of("teacher" + id, "EDIT"));
+                    repository.set(quizId, "writer" + id, id);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> write : writes) {
+                write.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Map<String, Object> settings = settings();
+        Set<Object> logged = new HashSet<>((List<Object>) settings.get("log"));
+        assertEquals(WRITERS, ((List<Object>) settings.get("log")).size());
+        assertEquals(WRITERS, ((Map<String, Object>) settings.get("collaborators")).size());
+        for (int writer = 0; writer < WRITERS; writer++) {
+            assertTrue(logged.contains(writer), "append of writer " + writer + " was lost");
+            assertEquals(writer, settings.get("writer" + writer));
+        }
+        assertEquals(30, settings.get("timeLimit"));
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> settings() {
+        String json = jdbcTemplate.queryForObject("SELECT CAST(settings AS text) FROM quizzes WHERE id = ?",
+                                                  String.class, quizId);
+        try {
+            return objectMapper.readValue(json, Map.class);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
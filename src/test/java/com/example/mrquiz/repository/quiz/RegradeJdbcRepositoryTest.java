@@ -0,0 +1,181 @@
+package com.example.mrquiz.repository.quiz;
+
+import com.example.mrquiz.repository.quiz.RegradeJdbcRepository.AttemptChange;
+import com.example.mrquiz.repository.quiz.RegradeJdbcRepository.GradedResponse;
+import com.example.mrquiz.repository.quiz.RegradeJdbcRepository.ResponseChange;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the regrade statements against an embedded Postgres
+ */
+class RegradeJdbcRepositoryTest {
+
+    // More than one write batch
+    private static final int GRADED_ATTEMPTS = 1200;
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+
+    private final UUID quizId = UUID.randomUUID();
+    private final UUID questionId = UUID.randomUUID();
+    private final UUID quizQuestionId = UUID.randomUUID();
+    private final List<UUID> gradedAttemptIds = new ArrayList<>();
+    private UUID submittedAttemptId;
+    private UUID manualAttemptId;
+    private RegradeJdbcRepository repository;
+
+    @BeforeAll
+    static void startDatabase() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+        jdbcTemplate.execute("CREATE TABLE quizzes (id uuid PRIMARY KEY, passing_score numeric(5, 2))");
+        jdbcTemplate.execute("CREATE TABLE questions (id uuid PRIMARY KEY, points numeric(5, 2))");
+        jdbcTemplate.execute("CREATE TABLE quiz_questions (id uuid PRIMARY KEY, points numeric(5, 2))");
+        jdbcTemplate.execute("CREATE TABLE quiz_attempts (id uuid PRIMARY KEY, quiz_id uuid NOT NULL REFERENCES quizzes, " +
+                             "status varchar(20) NOT NULL, score numeric(7, 2), total_points numeric(7, 2), " +
+                             "percentage numeric(5, 2), grade varchar(5), passed boolean, updated_at timestamp)");
+        jdbcTemplate.execute("CREATE TABLE question_responses (id uuid PRIMARY KEY, " +
+                             "attempt_id uuid NOT NULL REFERENCES quiz_attempts, question_id uuid NOT NULL REFERENCES questions, " +
+                             "quiz_question_id uuid REFERENCES quiz_questions, answer_data jsonb NOT NULL, " +
+                             "points_earned numeric(5, 2), max_points numeric(5, 2), is_correct boolean, " +
+                             "partial_credit numeric(5, 2), graded_manually boolean, updated_at timestamp)");
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        repository = new RegradeJdbcRepository();
+        ReflectionTestUtils.setField(repository, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(repository, "objectMapper", new ObjectMapper());
+
+        jdbcTemplate.execute("TRUNCATE question_responses, quiz_attempts, quiz_questions, questions, quizzes");
+        jdbcTemplate.update("INSERT INTO quizzes (id, passing_score) VALUES (?, 60)", quizId);
+        jdbcTemplate.update("INSERT INTO questions (id, points) VALUES (?, 1)", questionId);
+        jdbcTemplate.update("INSERT INTO quiz_questions (id, points) VALUES (?, 2)", quizQuestionId);
+        for (int i = 0; i < GRADED_ATTEMPTS; i++) {
+            gradedAttemptIds.add(attempt("GRADED", false));
+        }
+        submittedAttemptId = attempt("SUBMITTED", false);
+        manualAttemptId = attempt("GRADED", true);
+    }
+
+    // ============================================================================
+    // READS
+    // ============================================================================
+
+    @Test
+    void readsGradedResponsesButNotThoseGradedByHand() {
+        List<GradedResponse> responses = repository.findGradedResponses(questionId, new UUID(0, 0), 5000);
+
+        assertEquals(GRADED_ATTEMPTS + 1, responses.size());
+        assertTrue(responses.stream().noneMatch(response -> response.attemptId().equals(manualAttemptId)));
+        assertTrue(responses.stream().allMatch(response -> response.points().compareTo(new BigDecimal(2)) == 0));
+        assertEquals(Map.of("selected", "a"), responses.get(0).answerData());
+
+        List<GradedResponse> page = repository.findGradedResponses(questionId, responses.get(9).responseId(), 10);
+        assertEquals(responses.subList(10, 20), page);
+    }
+
+    // ============================================================================
+    // WRITES
+    // ============================================================================
+
+    @Test
+    void changedResponsesAreWrittenAndTheirGradedAttemptsRecomputed() {
+        List<ResponseChange> changes = new ArrayList<>();
+        for (GradedResponse response : repository.findGradedResponses(questionId, new UUID(0, 0), 5000)) {
+            changes.add(change(response.responseId(), response.attemptId()));
+        }
+        List<UUID> attemptIds = new ArrayList<>(gradedAttemptIds);
+        attemptIds.add(submittedAttemptId);
+        attemptIds.add(manualAttemptId);
+        LocalDateTime now = LocalDateTime.now();
+
+        repository.updateResponseGrades(changes, now);
+        List<AttemptChange> attemptChanges = repository.recomputeAttempts(attemptIds, now);
+
+        assertEquals(GRADED_ATTEMPTS + 1, (int) jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM question_responses WHERE points_earned = 0 AND is_correct = false", Integer.class));
+        assertEquals(GRADED_ATTEMPTS, attemptChanges.size());
+        AttemptChange change = attemptChanges.get(0);
+        assertEquals(0, change.oldScore().compareTo(new BigDecimal(2)));
+        assertEquals(0, change.newScore().compareTo(BigDecimal.ZERO));
+        assertEquals("A", change.oldGrade());
+        assertEquals("F", change.newGrade());
+        assertEquals(false, change.newPassed());
+        // Submitted attempts are left to grading, and unchanged totals are not written
+        assertEquals("SUBMITTED", status(submittedAttemptId));
+        assertEquals(0, score(submittedAttemptId).compareTo(new BigDecimal(2)));
+        assertEquals(0, score(manualAttemptId).compareTo(new BigDecimal(2)));
+    }
+
+    @Test
+    void responsesGradedByHandAfterTheReadAreNotOverwritten() {
+        UUID responseId = jdbcTemplate.queryForObject(
+                "SELECT id FROM question_responses WHERE attempt_id = ?", UUID.class, manualAttemptId);
+
+        repository.updateResponseGrades(List.of(change(responseId, manualAttemptId)), LocalDateTime.now());
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT points_earned FROM question_responses WHERE id = ?",
+                                                    BigDecimal.class, responseId).compareTo(new BigDecimal(2)));
+    }
+
+    @Test
+    void attemptsWithUnchangedScoresAreNotRecomputed() {
+        assertEquals(List.of(), repository.recomputeAttempts(gradedAttemptIds, LocalDateTime.now()));
+        assertEquals(List.of(), repository.recomputeAttempts(List.of(), LocalDateTime.now()));
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    /**
+     * An attempt scored full marks on its one response to the question
+     */
+    private UUID attempt(String status, boolean gradedManually) {
+        UUID attemptId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO quiz_attempts (id, quiz_id, status, score, total_points, percentage, grade, passed) " +
+                            "VALUES (?, ?, ?, 2, 2, 100, 'A', true)", attemptId, quizId, status);
+        jdbcTemplate.update("INSERT INTO question_responses (id, attempt_id, question_id, quiz_question_id, answer_data, " +
+                            "points_earned, max_points, is_correct, partial_credit, graded_manually) " +
+                            "VALUES (?, ?, ?, ?, CAST(? AS jsonb), 2, 2, true, 1, ?)",
+                            UUID.randomUUID(), attemptId, questionId, quizQuestionId, "{\"selected\": \"a\"}",
+                            gradedManually);
+        return attemptId;
+    }
+
+    private ResponseChange change(UUID responseId, UUID attemptId) {
+        return new ResponseChange(responseId, attemptId, new BigDecimal(2), new BigDecimal(2), BigDecimal.ZERO,
+                                  true, false, BigDecimal.ONE, BigDecimal.ZERO);
+    }
+
+    private String status(UUID attemptId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM quiz_attempts WHERE id = ?", String.class, attemptId);
+    }
+
+    private BigDecimal score(UUID attemptId) {
+        return jdbcTemplate.queryForObject("SELECT score FROM quiz_attempts WHERE id = ?", BigDecimal.class, attemptId);
+    }
+}
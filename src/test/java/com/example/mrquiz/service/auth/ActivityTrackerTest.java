@@ -0,0 +1,124 @@
+package com.example.mrquiz.service.auth;
+
+import com.example.mrquiz.repository.auth.UserActivityJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+class ActivityTrackerTest {
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    private UserActivityJdbcRepository repository;
+    // Copies of the batch each write was given
+    private final List<Map<UUID, LocalDateTime>> userWrites = new ArrayList<>();
+    private final List<Map<UUID, LocalDateTime>> sessionWrites = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(UserActivityJdbcRepository.class);
+        when(repository.updateUserLastActivity(anyMap())).thenAnswer(invocation -> {
+            userWrites.add(new HashMap<>(invocation.getArgument(0)));
+            return 0;
+        });
+        when(repository.updateSessionLastActivity(anyMap())).thenAnswer(invocation -> {
+            sessionWrites.add(new HashMap<>(invocation.getArgument(0)));
+            return 0;
+        });
+    }
+
+    // ============================================================================
+    // COALESCING
+    // ============================================================================
+
+    @Test
+    void onlyTheLatestTimestampPerIdIsWrittenInOneBatchPerTable() {
+        ActivityTracker tracker = tracker(100);
+        UUID user = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        UUID session = UUID.randomUUID();
+
+        tracker.recordUserActivity(user, now);
+        tracker.recordUserActivity(user, now.plusSeconds(5));
+        // Out of order: an older timestamp does not move it back
+        tracker.recordUserActivity(user, now.plusSeconds(2));
+        tracker.recordUserActivity(other, now);
+        tracker.recordSessionActivity(session, now);
+        tracker.recordSessionActivity(session, now.plusSeconds(1));
+        assertEquals(2, tracker.getPendingUserCount());
+        assertEquals(1, tracker.getPendingSessionCount());
+
+        tracker.flush();
+
+        assertEquals(List.of(Map.of(user, now.plusSeconds(5), other, now)), userWrites);
+        assertEquals(List.of(Map.of(session, now.plusSeconds(1))), sessionWrites);
+        assertEquals(0, tracker.getPendingUserCount());
+        assertEquals(0, tracker.getPendingSessionCount());
+
+        tracker.flush();
+        verify(repository, times(1)).updateUserLastActivity(anyMap());
+    }
+
+    @Test
+    void failedFlushKeepsItsEntries() {
+        ActivityTracker tracker = tracker(100);
+        UUID user = UUID.randomUUID();
+        tracker.recordUserActivity(user, now);
+        doThrow(new RuntimeException("down")).when(repository).updateUserLastActivity(anyMap());
+
+        tracker.scheduledFlush();
+
+        assertEquals(1, tracker.getPendingUserCount());
+    }
+
+    // ============================================================================
+    // BOUND
+    // ============================================================================
+
+    @Test
+    void bufferPastItsBoundIsFlushedByTheCaller() {
+        ActivityTracker tracker = tracker(3);
+        for (int i = 0; i < 3; i++) {
+            tracker.recordUserActivity(UUID.randomUUID(), now);
+        }
+        verifyNoInteractions(repository);
+
+        tracker.recordUserActivity(UUID.randomUUID(), now);
+
+        assertEquals(1, userWrites.size());
+        assertEquals(4, userWrites.get(0).size());
+        assertEquals(0, tracker.getPendingUserCount());
+    }
+
+    @Test
+    void failedEarlyFlushDoesNotFailTheRecording() {
+        ActivityTracker tracker = tracker(1);
+        doThrow(new RuntimeException("down")).when(repository).updateSessionLastActivity(anyMap());
+
+        tracker.recordSessionActivity(UUID.randomUUID(), now);
+        tracker.recordSessionActivity(UUID.randomUUID(), now);
+
+        assertEquals(2, tracker.getPendingSessionCount());
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private ActivityTracker tracker(int maxPending) {
+        ActivityTracker tracker = new ActivityTracker(maxPending);
+        ReflectionTestUtils.setField(tracker, "userActivityJdbcRepository", repository);
+        return tracker;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.mrquiz.service.auth;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LegacyTokenFallbackTest {
+
+    private final LocalDateTime now = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    @Test
+    void offByDefault() {
+        LegacyTokenFallback fallback = new LegacyTokenFallback(false, "", 5, 100);
+
+        assertFalse(fallback.tryAcquire("legacy$x", now));
+    }
+
+    @Test
+    void requiresADeadlineWhenOn() {
+        assertThrows(IllegalStateException.class, () -> new LegacyTokenFallback(true, "", 5, 100));
+    }
+
+    @Test
+    void stopsAtTheDeadline() {
+        LegacyTokenFallback fallback = new LegacyTokenFallback(true, "2026-01-01T12:00:00", 5, 100);
+
+        assertTrue(fallback.tryAcquire("legacy$x", now.minusSeconds(1)));
+        assertFalse(fallback.tryAcquire("legacy$y", now));
+    }
+
+    @Test
+    void neverRescansAFailedDigest() {
+        LegacyTokenFallback fallback = fallback(5, 100);
+
+        assertTrue(fallback.tryAcquire("legacy$x", now));
+        fallback.failed("legacy$x");
+
+        assertFalse(fallback.tryAcquire("legacy$x", now));
+        assertEquals(1L, fallback.getStats().get("knownFailures"));
+    }
+
+    @Test
+    void floodOfDistinctGuessesIsThrottled() {
+        LegacyTokenFallback fallback = fallback(5, 100);
+
+        int scans = 0;
+        for (int i = 0; i < 1000; i++) {
+            String digest = "legacy$" + UUID.randomUUID();
+            if (fallback.tryAcquire(digest, now)) {
+                scans++;
+                fallback.failed(digest);
+            }
+        }
+
+        // One second window at most, usually the first
+        assertTrue(scans >= 5 && scans <= 10, "scans " + scans);
+        assertEquals(1000L - scans, fallback.getStats().get("throttled"));
+    }
+
+    @Test
+    void throttledDigestsMayBeScannedLater() {
+        LegacyTokenFallback fallback = fallback(1, 100);
+
+        assertTrue(fallback.tryAcquire("legacy$x", now));
+        fallback.failed("legacy$x");
+        assertFalse(fallback.tryAcquire("legacy$y", now));
+
+        assertTrue(fallback.mayScanLater("legacy$y", now));
+        assertFalse(fallback.mayScanLater("legacy$x", now));
+        assertFalse(fallback.mayScanLater("legacy$y", LocalDateTime.of(2027, 1, 1, 0, 0)));
+        assertFalse(new LegacyTokenFallback(false, "", 5, 100).mayScanLater("legacy$y", now));
+    }
+
+    @Test
+    void failedDigestsStayBounded() {
+        LegacyTokenFallback fallback = fallback(5, 100);
+
+        for (int i = 0; i < 1000; i++) {
+            fallback.failed("legacy$" + i);
+        }
+
+        assertTrue((int) fallback.getStats().get("failedDigests") <= 100);
+    }
+
+    private LegacyTokenFallback fallback(int scansPerSecond, int maxFailedDigests) {
+        return new LegacyTokenFallback(true, "2027-01-01T00:00:00", scansPerSecond, maxFailedDigests);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.mrquiz.service.auth;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PasswordHashingServiceTest {
+
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    // ============================================================================
+    // POOL
+    // ============================================================================
+
+    @Test
+    void hashesOnThePool() {
+        service = service(new BCryptPasswordEncoder(4), 2, 8);
+
+        String callerThread = Thread.currentThread().getName();
+        String hashingThread = service.await(service.encodeAsync("secret")
+                                                     .thenApply(hash -> Thread.currentThread().getName()));
+
+        assertNotEquals(callerThread, hashingThread);
+        assertEquals(2, service.getPoolSize());
+        assertTrue(service.matches("secret", service.encode("secret")));
+        assertFalse(service.matches("secret", null));
+        assertFalse(service.matches(null, service.encode("secret")));
+    }
+
+    @Test
+    void fullQueueRejectsAfterTheTimeout() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder encoder = mock(PasswordEncoder.class);
+        when(encoder.encode(any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "hash";
+        });
+        service = service(encoder, 1, 1);
+
+        CompletableFuture<String> running = service.encodeAsync("a");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = service.encodeAsync("b");
+
+        assertThrows(RejectedExecutionException.class, () -> service.encodeAsync("c"));
+        release.countDown();
+        assertEquals("hash", service.await(running));
+        assertEquals("hash", service.await(queued));
+    }
+
+    @Test
+    void failuresAreRethrownUnwrapped() {
+        PasswordEncoder encoder = mock(PasswordEncoder.class);
+        when(encoder.encode(any())).thenThrow(new IllegalArgumentException("rawPassword cannot be null"));
+        service = service(encoder, 1, 8);
+
+        assertThrows(IllegalArgumentException.class, () -> service.encode(null));
+        assertThrows(IllegalArgumentException.class, () -> service.await(service.encodeAsync(null)));
+    }
+
+    // ============================================================================
+    // REHASH
+    // ============================================================================
+
+    @Test
+    void hashesBelowTheCurrentCostNeedRehashing() {
+        service = service(new BCryptPasswordEncoder(5), 1, 8);
+
+        assertTrue(service.needsRehash(new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(service.needsRehash(service.encode("secret")));
+        assertFalse(service.needsRehash(null));
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private static PasswordHashingService service(PasswordEncoder encoder, int threads, int queueCapacity) {
+        PasswordHashingService service = new PasswordHashingService(threads, queueCapacity, Duration.ofMillis(50));
+        ReflectionTestUtils.setField(service, "passwordEncoder", encoder);
+        return service;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.mrquiz.service.auth;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenHasherTest {
+
+    private static final String SECRET = "0123456789abcdefghijklmnopqrstuv";
+
+    private final TokenHasher hasher = new TokenHasher(SECRET);
+
+    @Test
+    void digestIsStableAndKeepsTheSelector() {
+        String token = hasher.generateToken();
+        String selector = token.substring(0, token.indexOf(TokenHasher.SEPARATOR));
+
+        String digest = hasher.digest(token);
+
+        assertEquals(digest, hasher.digest(token));
+        assertTrue(digest.startsWith(selector + TokenHasher.DIGEST_SEPARATOR));
+        assertFalse(digest.contains(token.substring(token.indexOf(TokenHasher.SEPARATOR) + 1)));
+    }
+
+    @Test
+    void digestDependsOnTheSecret() {
+        String token = hasher.generateToken();
+        TokenHasher other = new TokenHasher("vutsrqponmlkjihgfedcba9876543210");
+
+        assertNotEquals(hasher.digest(token), other.digest(token));
+        assertTrue(hasher.matches(hasher.digest(token), hasher.digest(token)));
+        assertFalse(hasher.matches(hasher.digest(token), other.digest(token)));
+    }
+
+    @Test
+    void tellsTokenFormatsApart() {
+        String legacy = "a".repeat(64);
+
+        assertTrue(hasher.isSelectorVerifierToken(hasher.generateToken()));
+        assertFalse(hasher.isSelectorVerifierToken(legacy));
+        assertTrue(hasher.isLegacyToken(legacy));
+        assertFalse(hasher.isLegacyToken("A".repeat(64)));
+        assertNull(hasher.digest(legacy));
+        assertTrue(hasher.legacyDigest(legacy).startsWith(TokenHasher.LEGACY_PREFIX));
+    }
+
+    @Test
+    void refusesMissingOrWeakSecrets() {
+        assertThrows(IllegalStateException.class, () -> new TokenHasher(""));
+        assertThrows(IllegalStateException.class, () -> new TokenHasher(null));
+        assertThrows(IllegalStateException.class, () -> new TokenHasher("short"));
+        assertThrows(IllegalStateException.class, () -> new TokenHasher("a".repeat(64)));
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.mrquiz.service.auth;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of validating one token against a table of valid tokens, for the selector/verifier
+ * format and for the BCrypt scan that tokens issued before it still need.
+ *
+ * The selector/verifier side does what {@code AuthTokenService} does per request: digest the
+ * token, look the digest up, compare in constant time. A hash map stands in for the unique
+ * index on token_hash, so its cost stays flat as the table grows. The legacy side matches the
+ * token against every stored BCrypt hash of its type and finds it last, which is also what an
+ * unknown legacy-shaped token costs. Hashes use BCrypt's lowest strength, 4, so the scan can
+ * finish at all; production strengths of 10 and up make each match 64 times slower or more.
+ * Decoy hashes are reused across the table, as a match costs the same whichever hash it checks.
+ *
+ * The scan of a million tokens takes minutes, so it runs as single shots. Run its main method
+ * on the test classpath, after {@code mvn test-compile} has generated the JMH harness.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+public class TokenLookupBenchmark {
+
+    private static final String SECRET = "0123456789abcdefghijklmnopqrstuv";
+    private static final int DISTINCT_DECOYS = 256;
+
+    @Param({"1000", "100000", "1000000"})
+    private int tokens;
+
+    private TokenHasher tokenHasher;
+    private BCryptPasswordEncoder passwordEncoder;
+    // Stored token_hash by the digest it is looked up with
+    private Map<String, String> tokensByDigest;
+    private String selectorVerifierToken;
+    private List<String> legacyHashes;
+    private String legacyToken;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tokenHasher = new TokenHasher(SECRET);
+        passwordEncoder = new BCryptPasswordEncoder(4);
+
+        tokensByDigest = new HashMap<>(tokens * 2);
+        for (int i = 0; i < tokens; i++) {
+            selectorVerifierToken = tokenHasher.generateToken();
+            String digest = tokenHasher.digest(selectorVerifierToken);
+            tokensByDigest.put(digest, digest);
+        }
+
+        List<String> decoys = new ArrayList<>(DISTINCT_DECOYS);
+        for (int i = 0; i < DISTINCT_DECOYS; i++) {
+            decoys.add(passwordEncoder.encode(legacyToken()));
+        }
+        legacyToken = legacyToken();
+        legacyHashes = new ArrayList<>(tokens);
+        for (int i = 0; i < tokens - 1; i++) {
+            legacyHashes.add(decoys.get(i % DISTINCT_DECOYS));
+        }
+        legacyHashes.add(passwordEncoder.encode(legacyToken));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public boolean selectorVerifier() {
+        String digest = tokenHasher.digest(selectorVerifierToken);
+        return tokenHasher.matches(digest, tokensByDigest.get(digest));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public int legacyScan() {
+        for (int i = 0; i < legacyHashes.size(); i++) {
+            if (passwordEncoder.matches(legacyToken, legacyHashes.get(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TokenLookupBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static String legacyToken() {
+        byte[] bytes = new byte[32];
+        new SecureRandom().nextBytes(bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.mrquiz.service.auth;
+
+import com.example.mrquiz.dto.auth.UserCreateDto;
+import com.example.mrquiz.dto.auth.UserResponseDto;
+import com.example.mrquiz.entity.auth.User;
+import com.example.mrquiz.mapper.auth.UserMapper;
+import com.example.mrquiz.repository.auth.UserRepository;
+import com.example.mrquiz.service.MappingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserServiceTest {
+
+    private UserRepository userRepository;
+    private UserMapper userMapper;
+    private PasswordHashingService passwordHashingService;
+    private UserService service;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        userMapper = mock(UserMapper.class);
+        MappingService mappingService = mock(MappingService.class);
+        when(mappingService.getUserMapper()).thenReturn(userMapper);
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userRepository.saveAll(any())).thenAnswer(invocation -> new ArrayList<>(invocation.getArgument(0)));
+        when(userMapper.toResponseDto(any(User.class))).thenReturn(new UserResponseDto());
+        when(userMapper.toEntity(any(UserCreateDto.class), any())).thenAnswer(invocation -> {
+            User user = new User();
+            user.setEmailVerified(true);
+            user.setPasswordHash(invocation.getArgument(1));
+            return user;
+        });
+
+        passwordHashingService = hashingService(new BCryptPasswordEncoder(5));
+        service = new UserService();
+        ReflectionTestUtils.setField(service, "userRepository", userRepository);
+        ReflectionTestUtils.setField(service, "mappingService", mappingService);
+        ReflectionTestUtils.setField(service, "authTokenService", mock(AuthTokenService.class));
+        ReflectionTestUtils.setField(service, "passwordHashingService", passwordHashingService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHashingService.shutdown();
+    }
+
+    // ============================================================================
+    // BULK CREATION
+    // ============================================================================
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void bulkCreationHashesEveryPasswordAndSkipsMissingOnes() {
+        List<UserCreateDto> createDtos = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            createDtos.add(createDto("user" + i + "@example.com", i == 3 ? null : "password" + i));
+        }
+
+        service.bulkCreateUsers(createDtos);
+
+        verify(userMapper).toEntity(createDtos.get(3), null);
+        verify(userMapper, times(24)).toEntity(any(UserCreateDto.class),
+                                                argThat((String hash) -> hash != null && hash.startsWith("$2a$05$")));
+    }
+
+    @Test
+    void bulkCreationRethrowsHashingFailuresUnwrapped() {
+        PasswordEncoder encoder = mock(PasswordEncoder.class);
+        when(encoder.encode(any())).thenThrow(new IllegalStateException("encoder unavailable"));
+        passwordHashingService.shutdown();
+        passwordHashingService = hashingService(encoder);
+        ReflectionTestUtils.setField(service, "passwordHashingService", passwordHashingService);
+
+        assertThrows(IllegalStateException.class,
+                     () -> service.bulkCreateUsers(List.of(createDto("user@example.com", "password"))));
+        verify(userRepository, never()).saveAll(argThat(users -> users.iterator().hasNext()));
+    }
+
+    // ============================================================================
+    // LOGIN
+    // ============================================================================
+
+    @Test
+    void loginRehashesPasswordsStoredWithALowerCost() {
+        User user = new User();
+        user.setPasswordHash(new BCryptPasswordEncoder(4).encode("secret"));
+        when(userRepository.findByEmailOrUsername("user")).thenReturn(Optional.of(user));
+
+        assertTrue(service.verifyCredentials("user", "secret").isPresent());
+
+        assertTrue(user.getPasswordHash().startsWith("$2a$05$"));
+        assertTrue(passwordHashingService.matches("secret", user.getPasswordHash()));
+        assertNotNull(user.getLastLogin());
+    }
+
+    @Test
+    void loginKeepsHashesAtTheCurrentCost() {
+        String hash = passwordHashingService.encode("secret");
+        User user = new User();
+        user.setPasswordHash(hash);
+        when(userRepository.findByEmailOrUsername("user")).thenReturn(Optional.of(user));
+
+        assertTrue(service.verifyCredentials("user", "secret").isPresent());
+        assertTrue(service.verifyCredentials("user", "wrong").isEmpty());
+
+        assertEquals(hash, user.getPasswordHash());
+        verify(userRepository, times(1)).save(user);
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private static PasswordHashingService hashingService(PasswordEncoder encoder) {
+        PasswordHashingService hashingService = new PasswordHashingService(2, 16, Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(hashingService, "passwordEncoder", encoder);
+        return hashingService;
+    }
+
+    private static UserCreateDto createDto(String email, String password) {
+        UserCreateDto createDto = new UserCreateDto();
+        createDto.setEmail(email);
+        createDto.setPassword(password);
+        return createDto;
+    }
+}
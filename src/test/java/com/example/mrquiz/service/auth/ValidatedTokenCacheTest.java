@@ -0,0 +1,126 @@
+package com.example.mrquiz.service.auth;
+
+import com.example.mrquiz.dto.auth.AuthTokenResponseDto;
+import com.example.mrquiz.enums.TokenType;
+import com.example.mrquiz.repository.auth.AuthTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ValidatedTokenCacheTest {
+
+    private final UUID userId = UUID.randomUUID();
+
+    private AuthTokenRepository repository;
+    private ValidatedTokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(AuthTokenRepository.class);
+        cache = new ValidatedTokenCache(100, 100, Duration.ofMinutes(5), Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(cache, "authTokenRepository", repository);
+        ReflectionTestUtils.setField(cache, "revocationOverlap", Duration.ofMinutes(1));
+    }
+
+    @Test
+    void cachesAndServesValidatedTokens() {
+        AuthTokenResponseDto token = token(TokenType.API_TOKEN);
+        cache.put("d1", token, cache.generation());
+
+        assertEquals(token.getId(), cache.get("d1", TokenType.API_TOKEN).token().getId());
+        assertTrue(cache.get("d1", TokenType.REFRESH_TOKEN).isUnknown());
+    }
+
+    @Test
+    void readThatRacedARevocationIsNotCached() {
+        AuthTokenResponseDto token = token(TokenType.API_TOKEN);
+        long generation = cache.generation();
+
+        // Revoked after the validation read the row, before it cached it
+        cache.invalidateToken(token.getId());
+        cache.put("d1", token, generation);
+
+        assertTrue(cache.get("d1", TokenType.API_TOKEN).isMiss());
+        assertEquals(0, cache.getStats().get("size"));
+    }
+
+    @Test
+    void invalidatesOnlyTheUsersTokensOfTheType() {
+        AuthTokenResponseDto api = token(TokenType.API_TOKEN);
+        AuthTokenResponseDto refresh = token(TokenType.REFRESH_TOKEN);
+        AuthTokenResponseDto otherUser = token(TokenType.API_TOKEN);
+        otherUser.setUserId(UUID.randomUUID());
+        cache.put("api", api, cache.generation());
+        cache.put("refresh", refresh, cache.generation());
+        cache.put("other", otherUser, cache.generation());
+
+        cache.invalidateUser(userId, TokenType.API_TOKEN);
+
+        assertTrue(cache.get("api", TokenType.API_TOKEN).isMiss());
+        assertFalse(cache.get("refresh", TokenType.REFRESH_TOKEN).isMiss());
+        assertFalse(cache.get("other", TokenType.API_TOKEN).isMiss());
+
+        cache.invalidateUser(userId);
+        assertTrue(cache.get("refresh", TokenType.REFRESH_TOKEN).isMiss());
+    }
+
+    @Test
+    void revocationsOnOtherNodesArePolled() {
+        AuthTokenResponseDto token = token(TokenType.API_TOKEN);
+        cache.put("d1", token, cache.generation());
+        when(repository.findTokenIdsUsedSince(any())).thenReturn(List.of(token.getId()));
+
+        cache.pollRevocations();
+
+        assertTrue(cache.get("d1", TokenType.API_TOKEN).isMiss());
+    }
+
+    @Test
+    void polledRevocationsShareOneGenerationAndAreNotProcessedTwice() {
+        AuthTokenResponseDto first = token(TokenType.API_TOKEN);
+        AuthTokenResponseDto second = token(TokenType.API_TOKEN);
+        AuthTokenResponseDto kept = token(TokenType.API_TOKEN);
+        cache.put("d1", first, cache.generation());
+        cache.put("d2", second, cache.generation());
+        cache.put("d3", kept, cache.generation());
+        when(repository.findTokenIdsUsedSince(any())).thenReturn(List.of(first.getId(), second.getId()));
+        long before = cache.generation();
+
+        cache.pollRevocations();
+
+        assertEquals(before + 1, cache.generation());
+        assertTrue(cache.get("d1", TokenType.API_TOKEN).isMiss());
+        assertTrue(cache.get("d2", TokenType.API_TOKEN).isMiss());
+
+        // The overlap returns the same ids again, which bump nothing
+        cache.pollRevocations();
+
+        assertEquals(before + 1, cache.generation());
+        assertFalse(cache.get("d3", TokenType.API_TOKEN).isMiss());
+    }
+
+    @Test
+    void pollSkipsTheQueryWhenNothingIsCached() {
+        cache.pollRevocations();
+
+        verifyNoInteractions(repository);
+    }
+
+    private AuthTokenResponseDto token(TokenType tokenType) {
+        AuthTokenResponseDto token = new AuthTokenResponseDto();
+        token.setId(UUID.randomUUID());
+        token.setUserId(userId);
+        token.setTokenType(tokenType);
+        token.setExpiresAt(LocalDateTime.now().plusHours(1));
+        return token;
+    }
+}
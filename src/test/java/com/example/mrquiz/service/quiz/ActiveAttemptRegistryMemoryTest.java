@@ -0,0 +1,64 @@
+package com.example.mrquiz.service.quiz;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+import org.openjdk.jol.vm.VM;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Measures the footprint of held attempts with JOL and checks the estimate getStats() reports
+ */
+class ActiveAttemptRegistryMemoryTest {
+
+    private static final int QUESTIONS = 100;
+    private static final int ATTEMPTS = 10_000;
+
+    private final UUID quizId = UUID.randomUUID();
+
+    @BeforeAll
+    static void requireCompressedReferences() {
+        // The estimate assumes compressed references, the default below 32 GB of heap
+        assumeTrue(VM.current().sizeOfField("java.lang.Object") == 4, "needs compressed references");
+    }
+
+    @Test
+    void stateMatchesEstimate() {
+        ActiveAttemptRegistry.ActiveAttempt attempt = new ActiveAttemptRegistry.ActiveAttempt(quizId, QUESTIONS, 0, 0);
+
+        // The quiz id is shared by every attempt of the quiz
+        long measured = withoutQuizId(attempt).totalSize();
+        long bitset = ActiveAttemptRegistry.ARRAY_HEADER_BYTES + 8L * ((QUESTIONS + 63) / 64);
+
+        assertEquals(ActiveAttemptRegistry.STATE_BYTES + bitset, measured);
+        assertEquals(measured + ActiveAttemptRegistry.MAP_ENTRY_BYTES, attempt.estimatedBytes());
+    }
+
+    @Test
+    void heldAttemptsStayUnderOneKilobyteEach() {
+        ConcurrentHashMap<UUID, ActiveAttemptRegistry.ActiveAttempt> attempts = new ConcurrentHashMap<>();
+        long estimated = 0;
+        for (int i = 0; i < ATTEMPTS; i++) {
+            ActiveAttemptRegistry.ActiveAttempt attempt = new ActiveAttemptRegistry.ActiveAttempt(quizId, QUESTIONS, 0, 0);
+            attempts.put(UUID.randomUUID(), attempt);
+            estimated += attempt.estimatedBytes();
+        }
+
+        long perAttempt = withoutQuizId(attempts).totalSize() / ATTEMPTS;
+
+        assertTrue(perAttempt < 1024, "measured " + perAttempt + " bytes per attempt");
+        // The estimate leaves out the map's table, a few bytes per entry
+        long estimatedPerAttempt = estimated / ATTEMPTS;
+        assertTrue(perAttempt >= estimatedPerAttempt && perAttempt <= estimatedPerAttempt * 11 / 10,
+                   "measured " + perAttempt + ", estimated " + estimatedPerAttempt);
+    }
+
+    private GraphLayout withoutQuizId(Object root) {
+        return GraphLayout.parseInstance(root).subtract(GraphLayout.parseInstance(quizId));
+    }
+}
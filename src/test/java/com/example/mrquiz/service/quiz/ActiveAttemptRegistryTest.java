@@ -0,0 +1,160 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.repository.quiz.ActiveAttemptJdbcRepository;
+import com.example.mrquiz.repository.quiz.ActiveAttemptJdbcRepository.AttemptRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ActiveAttemptRegistryTest {
+
+    private final UUID quizId = UUID.randomUUID();
+    private final UUID attemptId = UUID.randomUUID();
+
+    private ActiveAttemptJdbcRepository repository;
+    private QuizDefinitionService definitions;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ActiveAttemptJdbcRepository.class);
+        definitions = mock(QuizDefinitionService.class);
+        when(definitions.getStudentView(quizId)).thenReturn(quiz(20));
+        when(repository.findAnsweredQuestionIds(attemptId)).thenReturn(List.of());
+        when(repository.updateProgress(anyList(), any())).thenReturn(List.of());
+    }
+
+    // ============================================================================
+    // SHUFFLE SEED
+    // ============================================================================
+
+    @Test
+    void nodesRehydratingTheSameAttemptShuffleAlike() {
+        stubAttempt("IN_PROGRESS", null, null);
+
+        ActiveAttemptRegistry.AttemptState first = registry().get(attemptId);
+        ActiveAttemptRegistry.AttemptState second = registry().get(attemptId);
+
+        assertEquals(ActiveAttemptRegistry.shuffleSeed(attemptId), first.shuffleSeed());
+        assertEquals(first.questionOrder(), second.questionOrder());
+    }
+
+    @Test
+    void storedSeedWins() {
+        stubAttempt("IN_PROGRESS", 42L, null);
+
+        assertEquals(42L, registry().get(attemptId).shuffleSeed());
+    }
+
+    // ============================================================================
+    // ENDED ATTEMPTS
+    // ============================================================================
+
+    @Test
+    void refusesAttemptsPastTheirDeadline() {
+        stubAttempt("IN_PROGRESS", null, LocalDateTime.now().minusSeconds(1));
+        ActiveAttemptRegistry registry = registry();
+
+        assertThrows(RuntimeException.class, () -> registry.navigate(attemptId, 1));
+        assertEquals(0, registry.getStats().get("size"));
+    }
+
+    @Test
+    void revalidationDropsAttemptsEndedElsewhere() {
+        stubAttempt("IN_PROGRESS", null, null);
+        ActiveAttemptRegistry registry = registry();
+        registry.navigate(attemptId, 1);
+
+        AttemptRow submitted = row("SUBMITTED", null, null);
+        when(repository.findAttempts(any())).thenReturn(List.of(submitted));
+        when(repository.findAttempt(attemptId)).thenReturn(Optional.of(submitted));
+        registry.revalidate();
+
+        assertEquals(0, registry.getStats().get("size"));
+        assertThrows(RuntimeException.class, () -> registry.navigate(attemptId, 2));
+    }
+
+    @Test
+    void revalidationPicksUpMovedDeadlines() {
+        stubAttempt("IN_PROGRESS", null, LocalDateTime.now().plusMinutes(5));
+        ActiveAttemptRegistry registry = registry();
+        registry.get(attemptId);
+
+        when(repository.findAttempts(any()))
+                .thenReturn(List.of(row("IN_PROGRESS", null, LocalDateTime.now().minusSeconds(1))));
+        registry.revalidate();
+
+        assertThrows(RuntimeException.class, () -> registry.get(attemptId));
+    }
+
+    @Test
+    void answersLandUntilAFlushIntervalBeforeTheGraceEnds() {
+        UUID questionId = quiz(0).quizId();
+        stubAttempt("IN_PROGRESS", null, LocalDateTime.now().minusSeconds(5));
+        registry().answered(attemptId, questionId);
+
+        // Nine seconds in, a save buffered now might not be flushed before the grace ends
+        stubAttempt("IN_PROGRESS", null, LocalDateTime.now().minusSeconds(9));
+        assertThrows(RuntimeException.class, () -> registry().answered(attemptId, questionId));
+
+        stubAttempt("SUBMITTED", null, null);
+        assertThrows(RuntimeException.class, () -> registry().answered(attemptId, questionId));
+    }
+
+    @Test
+    void flushDropsAttemptsTheWriteNoLongerApplied() {
+        stubAttempt("IN_PROGRESS", null, null);
+        ActiveAttemptRegistry registry = registry();
+        registry.navigate(attemptId, 3);
+        when(repository.updateProgress(anyList(), any())).thenReturn(List.of(attemptId));
+
+        registry.flush();
+
+        assertEquals(0, registry.getStats().get("size"));
+        assertEquals(1L, registry.getStats().get("endedElsewhere"));
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private ActiveAttemptRegistry registry() {
+        ActiveAttemptRegistry registry = new ActiveAttemptRegistry();
+        ReflectionTestUtils.setField(registry, "activeAttemptJdbcRepository", repository);
+        ReflectionTestUtils.setField(registry, "quizDefinitionService", definitions);
+        ReflectionTestUtils.setField(registry, "idleTimeout", Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(registry, "maxCountedGap", Duration.ofMinutes(2));
+        ReflectionTestUtils.setField(registry, "deadlineGrace", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(registry, "autosaveFlushInterval", Duration.ofSeconds(1));
+        return registry;
+    }
+
+    private void stubAttempt(String status, Long seed, LocalDateTime deadline) {
+        when(repository.findAttempt(attemptId)).thenReturn(Optional.of(row(status, seed, deadline)));
+    }
+
+    private AttemptRow row(String status, Long seed, LocalDateTime deadline) {
+        return new AttemptRow(attemptId, quizId, status, 0, null, seed, deadline);
+    }
+
+    private QuizDefinition.StudentView quiz(int questionCount) {
+        List<QuizDefinition.StudentQuestion> questions = new ArrayList<>();
+        for (int i = 0; i < questionCount; i++) {
+            questions.add(new QuizDefinition.StudentQuestion(UUID.randomUUID(), i, null, null, null, null, null,
+                                                             null, null, null, null, null, List.of(), null, null));
+        }
+        return new QuizDefinition.StudentView(quizId, "Quiz", null, null, null, null, null, true, false, true,
+                                              null, null, questions);
+    }
+}
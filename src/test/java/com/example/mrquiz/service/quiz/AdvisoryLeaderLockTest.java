@@ -0,0 +1,81 @@
+package com.example.mrquiz.service.quiz;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class AdvisoryLeaderLockTest {
+
+    private Connection connection;
+    private ResultSet resultSet;
+    private AdvisoryLeaderLock.ConnectionSource connections;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getBoolean(1)).thenReturn(true);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        connections = mock(AdvisoryLeaderLock.ConnectionSource.class);
+        when(connections.open()).thenReturn(connection);
+    }
+
+    @Test
+    void heldLockKeepsItsOneConnection() throws SQLException {
+        AdvisoryLeaderLock lock = new AdvisoryLeaderLock(connections, 1L);
+
+        assertTrue(lock.tryAcquire());
+        assertTrue(lock.tryAcquire());
+        assertTrue(lock.isHeld());
+
+        verify(connections, times(1)).open();
+        verify(connection, never()).close();
+    }
+
+    @Test
+    void connectionIsNotValidatedOnEveryCheck() throws SQLException {
+        AdvisoryLeaderLock lock = new AdvisoryLeaderLock(connections, 1L);
+        lock.tryAcquire();
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(lock.isHeld());
+        }
+
+        verify(connection, never()).isValid(anyInt());
+    }
+
+    @Test
+    void lostConnectionGivesUpLeadershipOnTheNextValidation() throws SQLException {
+        AdvisoryLeaderLock lock = new AdvisoryLeaderLock(connections, 1L);
+        lock.tryAcquire();
+        when(connection.isValid(anyInt())).thenReturn(false);
+        ReflectionTestUtils.setField(lock, "validatedAt", System.nanoTime() - 60_000_000_000L);
+
+        assertFalse(lock.isHeld());
+        verify(connection).close();
+    }
+
+    @Test
+    void refusedLockClosesTheConnection() throws SQLException {
+        when(resultSet.getBoolean(1)).thenReturn(false);
+        AdvisoryLeaderLock lock = new AdvisoryLeaderLock(connections, 1L);
+
+        assertFalse(lock.tryAcquire());
+        assertFalse(lock.isHeld());
+        verify(connection).close();
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.repository.quiz.AttemptDeadlineJdbcRepository;
+import com.example.mrquiz.repository.quiz.AttemptDeadlineJdbcRepository.Deadline;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AttemptDeadlineServiceTest {
+
+    private static final Duration GRACE = Duration.ofSeconds(10);
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T10:00:00Z"));
+    private final UUID quizId = UUID.randomUUID();
+
+    private AttemptDeadlineJdbcRepository repository;
+    private ActiveAttemptRegistry activeAttemptRegistry;
+    private ResponseAutosaveBuffer responseAutosaveBuffer;
+    private AttemptDeadlineService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        repository = mock(AttemptDeadlineJdbcRepository.class);
+        activeAttemptRegistry = mock(ActiveAttemptRegistry.class);
+        responseAutosaveBuffer = mock(ResponseAutosaveBuffer.class);
+
+        service = new AttemptDeadlineService(lockGrantingConnections(), clock, 1L, Duration.ofSeconds(1), GRACE,
+                                             Duration.ofSeconds(30), Duration.ofHours(1), true);
+        ReflectionTestUtils.setField(service, "attemptDeadlineJdbcRepository", repository);
+        ReflectionTestUtils.setField(service, "quizDefinitionService", mock(QuizDefinitionService.class));
+        ReflectionTestUtils.setField(service, "responseAutosaveBuffer", responseAutosaveBuffer);
+        ReflectionTestUtils.setField(service, "activeAttemptRegistry", activeAttemptRegistry);
+
+        // Becomes leader and loads an empty wheel
+        service.tick();
+        assertTrue(service.isLeader());
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void expiresDueAttemptsInOneBatch() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID later = UUID.randomUUID();
+        service.attemptStarted(first, quizId, now(), 1);
+        service.attemptStarted(second, quizId, now(), 1);
+        service.attemptStarted(later, quizId, now(), 5);
+        when(repository.expireAttempts(any(), anyString(), any(), any()))
+                .thenAnswer(invocation -> List.copyOf(invocation.<Collection<UUID>>getArgument(0)));
+
+        advance(Duration.ofMinutes(1));
+        service.tick();
+        verify(repository, never()).expireAttempts(any(), anyString(), any(), any());
+
+        advance(GRACE);
+        service.tick();
+
+        verify(repository).expireAttempts(argThat(ids -> Set.copyOf(ids).equals(Set.of(first, second))),
+                                          eq("SUBMITTED"), eq(now().minus(GRACE)), eq(now()));
+        verify(activeAttemptRegistry).attemptsEnded(argThat(ids -> ids.size() == 2));
+        verify(responseAutosaveBuffer).flushAttempts(argThat(ids -> Set.copyOf(ids).equals(Set.of(first, second))));
+        assertEquals(1, service.getPendingCount());
+    }
+
+    @Test
+    void reArmsAttemptsWhoseDeadlineWasExtended() {
+        UUID attemptId = UUID.randomUUID();
+        LocalDateTime startedAt = now();
+        service.attemptStarted(attemptId, quizId, startedAt, 1);
+        // Given five more minutes after it was armed, so the first expiry leaves it alone
+        when(repository.expireAttempts(any(), anyString(), any(), any())).thenReturn(List.of());
+        when(repository.findDeadlines(Set.of(attemptId)))
+                .thenReturn(List.of(new Deadline(attemptId, startedAt.plusMinutes(6))));
+
+        advance(Duration.ofMinutes(1).plus(GRACE));
+        service.tick();
+
+        verify(repository, times(1)).expireAttempts(eq(List.of(attemptId)), anyString(), any(), any());
+        assertEquals(1, service.getPendingCount());
+
+        advance(Duration.ofMinutes(4));
+        service.tick();
+        verify(repository, times(1)).expireAttempts(any(), anyString(), any(), any());
+
+        when(repository.expireAttempts(any(), anyString(), any(), any())).thenReturn(List.of(attemptId));
+        advance(Duration.ofMinutes(1));
+        service.tick();
+
+        verify(repository, times(2)).expireAttempts(eq(List.of(attemptId)), anyString(), any(), any());
+        assertEquals(0, service.getPendingCount());
+    }
+
+    @Test
+    void disarmedAttemptsNeverExpire() {
+        UUID attemptId = UUID.randomUUID();
+        service.attemptStarted(attemptId, quizId, now(), 1);
+        service.attemptEnded(attemptId);
+
+        advance(Duration.ofMinutes(2));
+        service.tick();
+
+        verify(repository, never()).expireAttempts(any(), anyString(), any(), any());
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private LocalDateTime now() {
+        return LocalDateTime.now(clock);
+    }
+
+    private void advance(Duration duration) {
+        clock.instant = clock.instant.plus(duration);
+    }
+
+    private static AdvisoryLeaderLock.ConnectionSource lockGrantingConnections() throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getBoolean(1)).thenReturn(true);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        return () -> connection;
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.enums.QuizStatus;
+import com.example.mrquiz.repository.quiz.AttemptGradingJdbcRepository;
+import com.example.mrquiz.repository.quiz.AttemptGradingJdbcRepository.AttemptGrade;
+import com.example.mrquiz.repository.quiz.AttemptGradingJdbcRepository.Response;
+import com.example.mrquiz.repository.quiz.AttemptGradingJdbcRepository.ResponseGrade;
+import com.example.mrquiz.repository.quiz.AttemptGradingJdbcRepository.SubmittedAttempt;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AttemptGradingServiceTest {
+
+    private final UUID quizId = UUID.randomUUID();
+    private final UUID autoQuizId = UUID.randomUUID();
+    private final UUID attemptId = UUID.randomUUID();
+    private final UUID autoQuestionId = UUID.randomUUID();
+    private final UUID essayQuestionId = UUID.randomUUID();
+
+    private AttemptGradingJdbcRepository repository;
+    private AttemptGradingService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(AttemptGradingJdbcRepository.class);
+        QuizDefinitionService definitions = mock(QuizDefinitionService.class);
+        when(definitions.getDefinition(quizId)).thenReturn(definition());
+        when(definitions.getDefinition(autoQuizId)).thenReturn(autoDefinition());
+
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        service = new AttemptGradingService(mock(AdvisoryLeaderLock.ConnectionSource.class), transactionManager,
+                                            1L, 1, 10, 1, Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(service, "attemptGradingJdbcRepository", repository);
+        ReflectionTestUtils.setField(service, "quizDefinitionService", definitions);
+        ReflectionTestUtils.setField(service, "quizStatsService", mock(QuizStatsService.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void attemptsNeedingATeacherArePersistedAsDeferred() {
+        when(repository.findSubmittedAttempts(any(), anyInt()))
+                .thenReturn(List.of(new SubmittedAttempt(attemptId, quizId)))
+                .thenReturn(List.of());
+        when(repository.updateAttemptGrades(any(), any())).thenReturn(new boolean[0]);
+        when(repository.findResponses(any())).thenReturn(List.of(
+                new Response(UUID.randomUUID(), attemptId, autoQuestionId, Map.of("answer", "a")),
+                new Response(UUID.randomUUID(), attemptId, essayQuestionId, Map.of("text", "essay"))));
+
+        assertEquals(0, service.gradeSubmittedAttempts());
+
+        verify(repository).markDeferred(eq(List.of(attemptId)), any());
+        verify(repository).updateResponseGrades(argThat((List<ResponseGrade> grades) -> grades.size() == 1), any());
+        verify(repository).updateAttemptGrades(eq(List.of()), any());
+        assertEquals(1L, service.getProgress().get("attemptsDeferred"));
+    }
+
+    @Test
+    void nothingIsRegradedWhenOnlyDeferredAttemptsRemain() {
+        // Deferred attempts are filtered by the query, so the run sees an empty page
+        when(repository.findSubmittedAttempts(any(), anyInt())).thenReturn(List.of());
+
+        assertEquals(0, service.gradeSubmittedAttempts());
+
+        verify(repository, never()).findResponses(any());
+        verify(repository, never()).updateResponseGrades(any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void attemptsAreScoredFromTheStoredResponseGrades() {
+        when(repository.findSubmittedAttempts(any(), anyInt()))
+                .thenReturn(List.of(new SubmittedAttempt(attemptId, autoQuizId)))
+                .thenReturn(List.of());
+        when(repository.findResponses(any())).thenReturn(List.of(
+                new Response(UUID.randomUUID(), attemptId, autoQuestionId, Map.of("answer", "a"))));
+        // A teacher already gave the response half a point, which the fresh grade does not overwrite
+        when(repository.findScores(List.of(attemptId))).thenReturn(Map.of(attemptId, new BigDecimal("0.5")));
+        when(repository.updateAttemptGrades(any(), any())).thenReturn(new boolean[]{true});
+
+        assertEquals(1, service.gradeSubmittedAttempts());
+
+        ArgumentCaptor<List<AttemptGrade>> grades = ArgumentCaptor.forClass(List.class);
+        verify(repository).updateAttemptGrades(grades.capture(), any());
+        AttemptGrade grade = grades.getValue().get(0);
+        assertEquals(0, grade.score().compareTo(new BigDecimal("0.5")));
+        assertEquals(0, grade.percentage().compareTo(BigDecimal.valueOf(50)));
+        assertEquals("F", grade.grade());
+    }
+
+    private QuizDefinition autoDefinition() {
+        QuestionGrader grader = answer -> new QuestionGrader.Grade(BigDecimal.ONE, BigDecimal.ONE, true, BigDecimal.ONE);
+        Map<UUID, QuizDefinition.GradingQuestion> questions = Map.of(autoQuestionId, question(autoQuestionId, grader));
+        QuizDefinition.GraderView graderView = new QuizDefinition.GraderView(autoQuizId, BigDecimal.ONE, null,
+                                                                             "automatic", false, false, questions);
+        return new QuizDefinition(autoQuizId, QuizStatus.PUBLISHED, null, graderView);
+    }
+
+    private QuizDefinition definition() {
+        QuestionGrader grader = answer -> new QuestionGrader.Grade(BigDecimal.ONE, BigDecimal.ONE, true, BigDecimal.ONE);
+        Map<UUID, QuizDefinition.GradingQuestion> questions = new LinkedHashMap<>();
+        questions.put(autoQuestionId, question(autoQuestionId, grader));
+        questions.put(essayQuestionId, question(essayQuestionId, null));
+        QuizDefinition.GraderView graderView = new QuizDefinition.GraderView(quizId, BigDecimal.valueOf(2), null,
+                                                                             "automatic", false, false, questions);
+        return new QuizDefinition(quizId, QuizStatus.PUBLISHED, null, graderView);
+    }
+
+    private QuizDefinition.GradingQuestion question(UUID questionId, QuestionGrader grader) {
+        return new QuizDefinition.GradingQuestion(questionId, null, BigDecimal.ONE, null, null, null, null, null, grader);
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.repository.quiz.QuizJoinCodeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class JoinCodeServiceTest {
+
+    private final UUID quizId = UUID.randomUUID();
+
+    private QuizJoinCodeRepository repository;
+    private JoinCodeIndex index;
+    private JoinCodeService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(QuizJoinCodeRepository.class);
+        index = new JoinCodeIndex();
+        service = new JoinCodeService();
+        ReflectionTestUtils.setField(service, "quizJoinCodeRepository", repository);
+        ReflectionTestUtils.setField(service, "joinCodeIndex", index);
+        ReflectionTestUtils.setField(service, "refreshOverlap", Duration.ofSeconds(10));
+    }
+
+    // ============================================================================
+    // RESOLUTION
+    // ============================================================================
+
+    @Test
+    void expiredEntriesAreDroppedOnLookup() {
+        index.put("ABCD1234", quizId, LocalDateTime.now().minusSeconds(1));
+        index.put("EFGH5678", quizId, LocalDateTime.now().plusHours(1));
+
+        assertEquals(Optional.empty(), service.resolveQuizId("abcd1234"));
+        assertEquals(Optional.of(quizId), service.resolveQuizId("efgh5678"));
+
+        assertEquals(1, index.size());
+        verify(repository, never()).findActiveCodeEntry(any(), any());
+    }
+
+    // ============================================================================
+    // REFRESH
+    // ============================================================================
+
+    @Test
+    void refreshAppliesCodesChangedOnOtherNodes() {
+        List<Object[]> active = new ArrayList<>();
+        active.add(new Object[]{"EXPIRED1", quizId, null});
+        when(repository.findActiveCodeEntries(any())).thenReturn(active);
+        service.warmUp();
+        assertNotNull(index.get("EXPIRED1"));
+
+        LocalDateTime updatedAt = LocalDateTime.now().plusSeconds(1);
+        List<Object[]> changed = new ArrayList<>();
+        changed.add(new Object[]{"CREATED1", quizId, null, updatedAt});
+        changed.add(new Object[]{"EXPIRED1", quizId, LocalDateTime.now().minusSeconds(1), updatedAt});
+        when(repository.findCodeEntriesUpdatedSince(any())).thenReturn(changed);
+
+        service.refreshIndex();
+
+        assertEquals(Optional.of(quizId), service.resolveQuizId("CREATED1"));
+        assertNull(index.get("EXPIRED1"));
+
+        service.refreshIndex();
+        verify(repository).findCodeEntriesUpdatedSince(argThat(since -> since.isEqual(updatedAt.minusSeconds(10))));
+    }
+
+    @Test
+    void refreshWaitsForTheFirstLoad() {
+        service.refreshIndex();
+
+        verify(repository, never()).findCodeEntriesUpdatedSince(any());
+    }
+
+    // ============================================================================
+    // BACKFILL
+    // ============================================================================
+
+    @Test
+    void backfillClearsTheCodesItMoved() {
+        when(repository.countQuizSettingsJoinCodes()).thenReturn(3L);
+        when(repository.backfillFromQuizSettings()).thenReturn(2);
+
+        service.warmUp();
+
+        InOrder inOrder = inOrder(repository);
+        inOrder.verify(repository).backfillFromQuizSettings();
+        inOrder.verify(repository).clearQuizSettingsJoinCodes();
+        inOrder.verify(repository).findActiveCodeEntries(any());
+    }
+
+    @Test
+    void backfillIsSkippedOnceSettingsHoldNoCodes() {
+        when(repository.countQuizSettingsJoinCodes()).thenReturn(0L);
+
+        service.warmUp();
+
+        verify(repository, never()).backfillFromQuizSettings();
+        verify(repository, never()).clearQuizSettingsJoinCodes();
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.enums.DifficultyLevel;
+import com.example.mrquiz.enums.QuestionStatus;
+import com.example.mrquiz.enums.QuestionType;
+import com.example.mrquiz.repository.quiz.QuestionFacetJdbcRepository.Row;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuestionFacetIndexTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+
+    private final UUID alicePrivate = UUID.randomUUID();
+    private final UUID alicePublic = UUID.randomUUID();
+    private final UUID bobPrivate = UUID.randomUUID();
+    private final UUID bobPublic = UUID.randomUUID();
+
+    private QuestionFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new QuestionFacetIndex();
+        index.put(row(alicePrivate, alice, false, QuestionType.MULTIPLE_CHOICE, DifficultyLevel.EASY, 1));
+        index.put(row(alicePublic, alice, true, QuestionType.TRUE_FALSE, DifficultyLevel.EASY, 2));
+        index.put(row(bobPrivate, bob, false, QuestionType.MULTIPLE_CHOICE, DifficultyLevel.HARD, 3));
+        index.put(row(bobPublic, bob, true, QuestionType.MULTIPLE_CHOICE, DifficultyLevel.HARD, 4));
+    }
+
+    // ============================================================================
+    // VISIBILITY
+    // ============================================================================
+
+    @Test
+    void ownersSeeTheirPrivateQuestionsAndPublicOnes() {
+        assertEquals(List.of(bobPublic, alicePublic, alicePrivate), search(alice, null).ids());
+        assertEquals(List.of(bobPublic, bobPrivate, alicePublic), search(bob, null).ids());
+    }
+
+    @Test
+    void unscopedSearchesSeePublicQuestionsOnly() {
+        assertEquals(List.of(bobPublic, alicePublic), search(null, null).ids());
+        // An owner with no questions is no different
+        assertEquals(List.of(bobPublic, alicePublic), search(UUID.randomUUID(), null).ids());
+    }
+
+    // ============================================================================
+    // FACETS
+    // ============================================================================
+
+    @Test
+    void countsIgnoreTheFacetsOwnFilter() {
+        QuestionFacetIndex.Result result = search(alice, Set.of(QuestionType.TRUE_FALSE));
+
+        assertEquals(List.of(alicePublic), result.ids());
+        assertEquals(Map.of("MULTIPLE_CHOICE", 2, "TRUE_FALSE", 1), result.facets().get(QuestionFacetIndex.QUESTION_TYPE));
+        assertEquals(Map.of("EASY", 1), result.facets().get(QuestionFacetIndex.DIFFICULTY_LEVEL));
+    }
+
+    @Test
+    void questionsWithoutATypeAreIndexedButNeverMatchATypeFilter() {
+        UUID untyped = UUID.randomUUID();
+        index.put(row(untyped, alice, true, null, null, 5));
+
+        assertEquals(untyped, search(alice, null).ids().get(0));
+        assertFalse(search(alice, Set.of(QuestionType.TRUE_FALSE)).ids().contains(untyped));
+    }
+
+    @Test
+    void inactiveQuestionsAreDropped() {
+        index.put(new Row(bobPublic, QuestionStatus.ARCHIVED, QuestionType.MULTIPLE_CHOICE, null, null, List.of(),
+                          null, null, bob, true, T0, T0));
+
+        assertEquals(List.of(alicePublic), search(null, null).ids());
+        assertEquals(3, index.size());
+    }
+
+    private QuestionFacetIndex.Result search(UUID ownerId, Set<QuestionType> types) {
+        return index.search(new QuestionFacetQuery(ownerId, types, null, null, null, null, null), 0, 10);
+    }
+
+    private Row row(UUID id, UUID creator, boolean isPublic, QuestionType type, DifficultyLevel difficulty, int minutes) {
+        return new Row(id, QuestionStatus.ACTIVE, type, difficulty, null, List.of(), null, null, creator, isPublic,
+                       T0.plusMinutes(minutes), T0.plusMinutes(minutes));
+    }
+}
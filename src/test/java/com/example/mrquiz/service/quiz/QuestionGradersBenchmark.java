@@ -0,0 +1,104 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.enums.QuestionType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grading throughput of compiled graders per question type.
+ *
+ * Each type grades a fixed mix of a right, a partly right and a wrong answer in turn, so the
+ * full, partial and wrong paths all count. Compilation happens once in the setup, as it does
+ * when a quiz definition is cached.
+ *
+ * Run its main method on the test classpath, after {@code mvn test-compile} has generated the
+ * JMH harness.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuestionGradersBenchmark {
+
+    @Param({"MULTIPLE_CHOICE", "TRUE_FALSE", "FILL_BLANK", "MATCHING", "ORDERING", "SHORT_ANSWER", "MATH"})
+    private QuestionType type;
+
+    private QuestionGrader grader;
+    private List<Map<String, Object>> answers;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Object> data = Map.of();
+        Map<String, Object> key;
+        Map<String, Object> validation = Map.of();
+        switch (type) {
+            case MULTIPLE_CHOICE -> {
+                data = Map.of("options", List.of("a", "b", "c", "d", "e", "f"));
+                key = Map.of("correct", List.of("a", "c", "e"));
+                validation = Map.of("partialCredit", true);
+                answers = List.of(Map.of("selected", List.of("e", "c", "a")),
+                                  Map.of("selected", List.of("a", "c", "b")),
+                                  Map.of("selected", List.of("b", "d")));
+            }
+            case TRUE_FALSE -> {
+                key = Map.of("correct", true);
+                answers = List.of(Map.of("answer", true), Map.of("answer", "True"), Map.of("answer", false));
+            }
+            case FILL_BLANK -> {
+                key = Map.of("blanks", List.of(List.of("Paris", "paris, france"), "Seine",
+                                               List.of("Louvre", "the Louvre")));
+                answers = List.of(Map.of("blanks", List.of("paris", "SEINE", "the louvre")),
+                                  Map.of("blanks", List.of("Paris", "Loire", "Louvre")),
+                                  Map.of("blanks", List.of("Lyon", "Rhone", "Orsay")));
+            }
+            case MATCHING -> {
+                key = Map.of("pairs", Map.of("1", "w", "2", "x", "3", "y", "4", "z"));
+                answers = List.of(Map.of("pairs", Map.of("1", "w", "2", "x", "3", "y", "4", "z")),
+                                  Map.of("pairs", Map.of("1", "w", "2", "y", "3", "x", "4", "z")),
+                                  Map.of("pairs", Map.of("1", "z", "2", "y", "3", "x", "4", "w")));
+            }
+            case ORDERING -> {
+                key = Map.of("order", List.of("a", "b", "c", "d", "e", "f"));
+                answers = List.of(Map.of("order", List.of("a", "b", "c", "d", "e", "f")),
+                                  Map.of("order", List.of("a", "b", "d", "c", "e", "f")),
+                                  Map.of("order", List.of("f", "e", "d", "c", "b", "a")));
+            }
+            case SHORT_ANSWER -> {
+                key = Map.of("accepted", List.of("photosynthesis", "photo-synthesis"));
+                answers = List.of(Map.of("answer", "  Photosynthesis "),
+                                  Map.of("answer", "PHOTO-SYNTHESIS"),
+                                  Map.of("answer", "respiration"));
+            }
+            case MATH -> {
+                key = Map.of("value", "22/7");
+                validation = Map.of("relativeTolerance", 0.001);
+                answers = List.of(Map.of("answer", "22/7"), Map.of("answer", 3.1428), Map.of("answer", "3.2"));
+            }
+            default -> throw new IllegalArgumentException("No benchmark for " + type);
+        }
+        grader = QuestionGraders.compile(new QuizDefinition.GradingQuestion(UUID.randomUUID(), type, BigDecimal.TEN,
+                BigDecimal.ONE, data, key, validation, null, null));
+    }
+
+    @Benchmark
+    public QuestionGrader.Grade grade() {
+        Map<String, Object> answer = answers.get(next);
+        next = next == answers.size() - 1 ? 0 : next + 1;
+        return grader.grade(answer);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(QuestionGradersBenchmark.class.getSimpleName()).build()).run();
+    }
+}
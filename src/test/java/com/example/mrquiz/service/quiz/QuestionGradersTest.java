@@ -0,0 +1,206 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.enums.QuestionType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuestionGradersTest {
+
+    private static final BigDecimal TWO = BigDecimal.valueOf(2);
+
+    // ============================================================================
+    // MULTIPLE CHOICE AND TRUE/FALSE
+    // ============================================================================
+
+    @Test
+    void choiceMatchesByIdThenByIndex() {
+        QuestionGrader grader = compile(QuestionType.MULTIPLE_CHOICE,
+                Map.of("options", List.of(Map.of("id", "a"), Map.of("id", "b"), Map.of("id", "c"))),
+                Map.of("correct", "b"), Map.of());
+
+        assertTrue(grader.grade(Map.of("selected", "b")).correct());
+        assertTrue(grader.grade(Map.of("selected", 1)).correct());
+        assertFalse(grader.grade(Map.of("selected", "a")).correct());
+        assertFalse(grader.grade(Map.of("selected", 7)).correct());
+        assertEquals(BigDecimal.ZERO, grader.grade(Map.of()).pointsEarned());
+    }
+
+    @Test
+    void numericOptionIdsWinOverIndexes() {
+        // Option ids that are numbers themselves must not be read as positions
+        QuestionGrader grader = compile(QuestionType.MULTIPLE_CHOICE,
+                Map.of("options", List.of(Map.of("id", 2), Map.of("id", 0), Map.of("id", 1))),
+                Map.of("correct", 0), Map.of());
+
+        assertTrue(grader.grade(Map.of("selected", 0)).correct());
+        assertFalse(grader.grade(Map.of("selected", 2)).correct());
+    }
+
+    @Test
+    void multipleSelectGivesPartialCreditWhenEnabled() {
+        Map<String, Object> data = Map.of("options", List.of("a", "b", "c", "d"));
+        Map<String, Object> key = Map.of("correct", List.of("a", "b"));
+
+        QuestionGrader strict = compile(QuestionType.MULTIPLE_CHOICE, data, key, Map.of());
+        QuestionGrader partial = compile(QuestionType.MULTIPLE_CHOICE, data, key, Map.of("partialCredit", true));
+
+        assertTrue(strict.grade(Map.of("selected", List.of("b", "a"))).correct());
+        assertEquals(BigDecimal.ZERO, strict.grade(Map.of("selected", List.of("a"))).pointsEarned());
+        assertEquals(new BigDecimal("1.00"), partial.grade(Map.of("selected", List.of("a"))).pointsEarned());
+        // A wrong pick cancels a right one
+        assertEquals(BigDecimal.ZERO, partial.grade(Map.of("selected", List.of("a", "c"))).pointsEarned());
+    }
+
+    @Test
+    void cancelledMultipleSelectEarnsNothingButNoPenalty() {
+        Map<String, Object> data = Map.of("options", List.of("a", "b", "c", "d"));
+        QuestionGrader grader = QuestionGraders.compile(new QuizDefinition.GradingQuestion(UUID.randomUUID(),
+                QuestionType.MULTIPLE_CHOICE, TWO, new BigDecimal("0.5"), data, Map.of("correct", List.of("a", "b")),
+                Map.of("partialCredit", true), null, null));
+
+        QuestionGrader.Grade cancelled = grader.grade(Map.of("selected", List.of("a", "c")));
+        assertEquals(BigDecimal.ZERO, cancelled.pointsEarned());
+        assertFalse(cancelled.correct());
+        assertEquals(BigDecimal.ZERO, grader.grade(Map.of("selected", List.of("a", "c", "d"))).pointsEarned());
+        // Only an answer without a single right pick costs the negative points
+        assertEquals(new BigDecimal("-0.5"), grader.grade(Map.of("selected", List.of("c", "d"))).pointsEarned());
+    }
+
+    @Test
+    void trueFalseAcceptsBooleansAndText() {
+        QuestionGrader grader = compile(QuestionType.TRUE_FALSE, Map.of(), Map.of("correct", true), Map.of());
+
+        assertTrue(grader.grade(Map.of("answer", true)).correct());
+        assertTrue(grader.grade(Map.of("answer", " TRUE ")).correct());
+        assertFalse(grader.grade(Map.of("answer", false)).correct());
+        assertEquals(BigDecimal.ZERO, grader.grade(Map.of("answer", "maybe")).pointsEarned());
+    }
+
+    // ============================================================================
+    // FILL BLANK, MATCHING AND ORDERING
+    // ============================================================================
+
+    @Test
+    void fillBlankNormalizesTextAndGivesPartialCredit() {
+        QuestionGrader grader = compile(QuestionType.FILL_BLANK, Map.of(),
+                Map.of("blanks", List.of(List.of("Paris", "paris, france"), "Caf\u00e9")), Map.of());
+
+        assertTrue(grader.grade(Map.of("blanks", List.of("  PARIS ", "cafe"))).correct());
+        QuestionGrader.Grade half = grader.grade(Map.of("blanks", List.of("Lyon", "Caf\u00e9")));
+        assertFalse(half.correct());
+        assertEquals(new BigDecimal("0.50"), half.partialCredit());
+    }
+
+    @Test
+    void fillBlankRespectsCaseSensitivity() {
+        QuestionGrader grader = compile(QuestionType.FILL_BLANK, Map.of(),
+                Map.of("blanks", List.of("NaCl")), Map.of("caseSensitive", true));
+
+        assertTrue(grader.grade(Map.of("blanks", List.of("NaCl"))).correct());
+        assertFalse(grader.grade(Map.of("blanks", List.of("nacl"))).correct());
+    }
+
+    @Test
+    void matchingCountsRightPairs() {
+        QuestionGrader grader = compile(QuestionType.MATCHING, Map.of(),
+                Map.of("pairs", Map.of("1", "x", "2", "y", "3", "z", "4", "x")), Map.of("partialCredit", true));
+
+        assertTrue(grader.grade(Map.of("pairs", Map.of("1", "x", "2", "y", "3", "z", "4", "x"))).correct());
+        assertEquals(new BigDecimal("0.50"),
+                grader.grade(Map.of("pairs", Map.of("1", "x", "2", "z", "3", "y", "4", "x"))).partialCredit());
+        assertEquals(BigDecimal.ZERO, grader.grade(Map.of("pairs", Map.of("9", "x"))).pointsEarned());
+    }
+
+    @Test
+    void orderingCreditsItemsInPlace() {
+        Map<String, Object> key = Map.of("order", List.of("a", "b", "c", "d"));
+        QuestionGrader partial = compile(QuestionType.ORDERING, Map.of(), key, Map.of());
+        QuestionGrader strict = compile(QuestionType.ORDERING, Map.of(), key, Map.of("partialCredit", false));
+
+        assertTrue(partial.grade(Map.of("order", List.of("a", "b", "c", "d"))).correct());
+        assertEquals(new BigDecimal("0.50"), partial.grade(Map.of("order", List.of("a", "b", "d", "c"))).partialCredit());
+        assertEquals(BigDecimal.ZERO, strict.grade(Map.of("order", List.of("a", "b", "d", "c"))).pointsEarned());
+    }
+
+    // ============================================================================
+    // SHORT ANSWER AND MATH
+    // ============================================================================
+
+    @Test
+    void shortAnswerMatchesAnyAcceptedText() {
+        QuestionGrader grader = compile(QuestionType.SHORT_ANSWER, Map.of(),
+                Map.of("accepted", List.of("photosynthesis", "Photo synthesis")), Map.of());
+
+        assertTrue(grader.grade(Map.of("answer", "Photosynthesis")).correct());
+        assertTrue(grader.grade(Map.of("answer", "photo   synthesis")).correct());
+        assertFalse(grader.grade(Map.of("answer", "respiration")).correct());
+        assertEquals(BigDecimal.ZERO, grader.grade(Map.of("answer", "  ")).pointsEarned());
+    }
+
+    @Test
+    void mathAcceptsFractionsWithinTolerance() {
+        QuestionGrader grader = compile(QuestionType.MATH, Map.of(), Map.of("value", 0.75),
+                Map.of("tolerance", 0.001));
+
+        assertTrue(grader.grade(Map.of("answer", "3/4")).correct());
+        assertTrue(grader.grade(Map.of("answer", 0.7505)).correct());
+        assertFalse(grader.grade(Map.of("answer", "0.76")).correct());
+        assertFalse(grader.grade(Map.of("answer", "3/0")).correct());
+    }
+
+    @Test
+    void mathUsesRelativeToleranceForLargeValues() {
+        QuestionGrader grader = compile(QuestionType.MATH, Map.of(), Map.of("values", List.of(6.022e23)),
+                Map.of("relativeTolerance", 0.01));
+
+        assertTrue(grader.grade(Map.of("answer", "6.0e23")).correct());
+        assertFalse(grader.grade(Map.of("answer", "5.9e23")).correct());
+    }
+
+    // ============================================================================
+    // SCORING AND MISSING KEYS
+    // ============================================================================
+
+    @Test
+    void wrongAnswersCostNegativePoints() {
+        QuizDefinition.GradingQuestion question = new QuizDefinition.GradingQuestion(UUID.randomUUID(),
+                QuestionType.TRUE_FALSE, TWO, new BigDecimal("0.5"), Map.of(), Map.of("correct", false), Map.of(),
+                null, null);
+        QuestionGrader grader = QuestionGraders.compile(question);
+
+        assertEquals(TWO, grader.grade(Map.of("answer", false)).pointsEarned());
+        assertEquals(new BigDecimal("-0.5"), grader.grade(Map.of("answer", true)).pointsEarned());
+        // Skipping a question costs nothing
+        assertEquals(BigDecimal.ZERO, grader.grade(Map.of()).pointsEarned());
+    }
+
+    @Test
+    void missingOrEmptyKeysAreGradedByHand() {
+        assertNull(compile(QuestionType.FILL_BLANK, Map.of(), Map.of("blank", List.of("x")), Map.of()));
+        assertNull(compile(QuestionType.FILL_BLANK, Map.of(), Map.of("blanks", List.of()), Map.of()));
+        assertNull(compile(QuestionType.MATCHING, Map.of(), Map.of("pairs", Map.of()), Map.of()));
+        assertNull(compile(QuestionType.ORDERING, Map.of(), Map.of("orders", List.of("a")), Map.of()));
+        assertNull(compile(QuestionType.SHORT_ANSWER, Map.of(), Map.of(), Map.of()));
+        assertNull(compile(QuestionType.MATH, Map.of(), Map.of("value", "n/a"), Map.of()));
+        assertNull(compile(QuestionType.TRUE_FALSE, Map.of(), Map.of(), Map.of()));
+        assertNull(compile(QuestionType.MULTIPLE_CHOICE, Map.of("options", List.of("a")), Map.of("correct", "z"),
+                Map.of()));
+    }
+
+    @Test
+    void unsupportedTypesAreGradedByHand() {
+        assertNull(compile(QuestionType.ESSAY, Map.of(), Map.of("accepted", List.of("x")), Map.of()));
+    }
+
+    private static QuestionGrader compile(QuestionType type, Map<String, Object> data, Map<String, Object> key,
+                                          Map<String, Object> validation) {
+        return QuestionGraders.compile(new QuizDefinition.GradingQuestion(UUID.randomUUID(), type, TWO, null,
+                data, key, validation, null, null));
+    }
+}
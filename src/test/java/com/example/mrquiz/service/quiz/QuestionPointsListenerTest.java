@@ -0,0 +1,61 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.entity.quiz.Question;
+import com.example.mrquiz.repository.quiz.QuizQuestionJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class QuestionPointsListenerTest {
+
+    private final UUID questionId = UUID.randomUUID();
+
+    private QuizQuestionJdbcRepository repository;
+    private QuestionPointsListener listener;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(QuizQuestionJdbcRepository.class);
+        listener = new QuestionPointsListener();
+        ReflectionTestUtils.setField(listener, "quizQuestionJdbcRepository", repository);
+    }
+
+    @Test
+    void changedPointsAdjustTotalsByTheDifference() {
+        Question question = question(new BigDecimal("2.00"));
+        listener.remember(question);
+
+        question.setPoints(new BigDecimal("5.00"));
+        listener.questionUpdated(question);
+        question.setPoints(new BigDecimal("4.50"));
+        listener.questionUpdated(question);
+
+        verify(repository).adjustTotalPointsForQuestion(questionId, new BigDecimal("3.00"));
+        verify(repository).adjustTotalPointsForQuestion(questionId, new BigDecimal("-0.50"));
+    }
+
+    @Test
+    void otherEditsLeaveTotalsAlone() {
+        Question question = question(new BigDecimal("2.00"));
+        listener.remember(question);
+
+        question.setQuestionText("Edited");
+        question.setPoints(new BigDecimal("2.0"));
+        listener.questionUpdated(question);
+
+        verify(repository, never()).adjustTotalPointsForQuestion(any(), any());
+    }
+
+    private Question question(BigDecimal points) {
+        Question question = new Question();
+        question.setId(questionId);
+        question.setPoints(points);
+        return question;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.repository.quiz.QuestionSimilarityJdbcRepository;
+import com.example.mrquiz.repository.quiz.QuestionSimilarityJdbcRepository.Unsigned;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class QuestionSimilarityServiceTest {
+
+    private QuestionSimilarityJdbcRepository repository;
+    private QuestionSimilarityService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(QuestionSimilarityJdbcRepository.class);
+        service = new QuestionSimilarityService();
+        ReflectionTestUtils.setField(service, "questionSimilarityJdbcRepository", repository);
+    }
+
+    @Test
+    void nothingHappensWithTheFlagOff() {
+        service.ensureSignatures();
+        service.backfillSignatures();
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void invalidBandIndexIsRebuilt() {
+        ReflectionTestUtils.setField(service, "manageSchema", true);
+        when(repository.isBandIndexValid()).thenReturn(false);
+
+        service.ensureSignatures();
+
+        verify(repository).createBandIndex();
+    }
+
+    @Test
+    void backfillSignsOnePagePerTickAfterTheLastSignedId() {
+        ReflectionTestUtils.setField(service, "manageSchema", true);
+        when(repository.isBandIndexValid()).thenReturn(true);
+        UUID first = new UUID(0, 1);
+        UUID second = new UUID(0, 2);
+        when(repository.findUnsigned(eq(new UUID(0, 0)), anyInt())).thenReturn(List.of(unsigned(first)));
+        when(repository.findUnsigned(eq(first), anyInt())).thenReturn(List.of(unsigned(second)));
+        when(repository.findUnsigned(eq(second), anyInt())).thenReturn(List.of());
+
+        service.ensureSignatures();
+        service.backfillSignatures();
+        verify(repository, times(1)).updateSignatures(anyList());
+
+        service.backfillSignatures();
+        service.backfillSignatures();
+        service.backfillSignatures();
+
+        verify(repository, times(2)).updateSignatures(anyList());
+        verify(repository, times(3)).findUnsigned(any(), anyInt());
+        verify(repository, never()).createBandIndex();
+    }
+
+    private Unsigned unsigned(UUID id) {
+        return new Unsigned(id, "Which planet is closest to the sun?", Map.of("options", List.of("Mercury", "Venus")));
+    }
+}
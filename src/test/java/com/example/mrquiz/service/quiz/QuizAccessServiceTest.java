@@ -0,0 +1,134 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.enums.QuizStatus;
+import com.example.mrquiz.repository.core.CourseEnrollmentRepository;
+import com.example.mrquiz.repository.quiz.QuizAccessJdbcRepository;
+import com.example.mrquiz.repository.quiz.QuizAccessJdbcRepository.CachedUser;
+import com.example.mrquiz.repository.quiz.QuizCollaboratorRepository;
+import com.example.mrquiz.repository.quiz.QuizRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class QuizAccessServiceTest {
+
+    private final UUID quizId = UUID.randomUUID();
+    private final UUID creatorId = UUID.randomUUID();
+    private final UUID userId = UUID.randomUUID();
+    private final UUID courseId = UUID.randomUUID();
+
+    private QuizRepository quizRepository;
+    private QuizCollaboratorRepository collaboratorRepository;
+    private CourseEnrollmentRepository enrollmentRepository;
+    private QuizAccessJdbcRepository accessRepository;
+    private QuizAccessIndex index;
+    private QuizAccessService service;
+
+    @BeforeEach
+    void setUp() {
+        quizRepository = mock(QuizRepository.class);
+        collaboratorRepository = mock(QuizCollaboratorRepository.class);
+        enrollmentRepository = mock(CourseEnrollmentRepository.class);
+        accessRepository = mock(QuizAccessJdbcRepository.class);
+        index = new QuizAccessIndex(100, Duration.ofHours(1));
+        service = new QuizAccessService();
+        ReflectionTestUtils.setField(service, "quizRepository", quizRepository);
+        ReflectionTestUtils.setField(service, "quizCollaboratorRepository", collaboratorRepository);
+        ReflectionTestUtils.setField(service, "courseEnrollmentRepository", enrollmentRepository);
+        ReflectionTestUtils.setField(service, "quizAccessJdbcRepository", accessRepository);
+        ReflectionTestUtils.setField(service, "quizAccessIndex", index);
+        ReflectionTestUtils.setField(service, "refreshOverlap", Duration.ofSeconds(10));
+
+        List<Object[]> quiz = new ArrayList<>();
+        quiz.add(new Object[]{creatorId, courseId, QuizStatus.PUBLISHED.name(), false});
+        when(quizRepository.findAccessAttributes(quizId)).thenReturn(quiz);
+        when(enrollmentRepository.findActiveCourseIdsByUserId(userId)).thenReturn(List.of(courseId));
+    }
+
+    // ============================================================================
+    // REFRESH
+    // ============================================================================
+
+    @Test
+    void refreshDropsEntriesChangedOnOtherNodes() {
+        assertTrue(service.hasAccess(userId, quizId));
+        when(accessRepository.findChangedQuizzes(anyCollection(), any())).thenReturn(List.of(quizId));
+        when(accessRepository.findChangedUsers(anyCollection(), any())).thenReturn(List.of(userId));
+        // Another node dropped the enrollment
+        when(enrollmentRepository.findActiveCourseIdsByUserId(userId)).thenReturn(List.of());
+
+        service.refresh();
+
+        verify(accessRepository).findChangedQuizzes(eq(List.of(quizId)), any());
+        verify(accessRepository).findChangedUsers(eq(List.of(new CachedUser(userId, 0, 1))), any());
+        assertEquals(List.of(), index.cachedQuizIds());
+        assertFalse(service.hasAccess(userId, quizId));
+        verify(quizRepository, times(2)).findAccessAttributes(quizId);
+    }
+
+    @Test
+    void refreshKeepsUnchangedEntriesAndAdvancesTheWatermark() {
+        assertTrue(service.hasAccess(userId, quizId));
+        when(accessRepository.findChangedQuizzes(anyCollection(), any())).thenReturn(List.of());
+        when(accessRepository.findChangedUsers(anyCollection(), any())).thenReturn(List.of());
+        LocalDateTime before = LocalDateTime.now();
+
+        service.refresh();
+        service.refresh();
+
+        assertTrue(service.hasAccess(userId, quizId));
+        verify(quizRepository, times(1)).findAccessAttributes(quizId);
+        verify(enrollmentRepository, times(1)).findActiveCourseIdsByUserId(userId);
+        // The second poll reads from the first one's start, less the overlap
+        verify(accessRepository).findChangedQuizzes(anyCollection(),
+                argThat(since -> !since.isBefore(before.minusSeconds(10))));
+    }
+
+    @Test
+    void refreshWithNothingCachedReadsNothing() {
+        service.refresh();
+
+        verify(accessRepository, never()).findChangedQuizzes(anyCollection(), any());
+        verify(accessRepository, never()).findChangedUsers(anyCollection(), any());
+    }
+
+    // ============================================================================
+    // MIGRATION
+    // ============================================================================
+
+    @Test
+    void migrationStopsAtTheCountOnceSettingsAreClear() {
+        when(collaboratorRepository.countQuizSettingsCollaborators()).thenReturn(0L);
+
+        service.migrateSettingsCollaborators();
+
+        verify(collaboratorRepository, never()).lockSettingsMigration();
+        verify(collaboratorRepository, never()).backfillFromQuizSettings();
+        verify(collaboratorRepository, never()).clearQuizSettingsCollaborators();
+    }
+
+    @Test
+    void migrationTakesTheLockBeforeCopyingAndClearing() {
+        when(collaboratorRepository.countQuizSettingsCollaborators()).thenReturn(3L);
+        when(collaboratorRepository.backfillFromQuizSettings()).thenReturn(5);
+
+        service.migrateSettingsCollaborators();
+
+        InOrder inOrder = inOrder(collaboratorRepository);
+        inOrder.verify(collaboratorRepository).lockSettingsMigration();
+        inOrder.verify(collaboratorRepository).backfillFromQuizSettings();
+        inOrder.verify(collaboratorRepository).clearQuizSettingsCollaborators();
+    }
+}
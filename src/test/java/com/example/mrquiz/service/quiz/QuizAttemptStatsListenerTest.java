@@ -0,0 +1,76 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.entity.quiz.Quiz;
+import com.example.mrquiz.entity.quiz.QuizAttempt;
+import com.example.mrquiz.enums.AttemptStatus;
+import com.example.mrquiz.repository.quiz.QuizStatsJdbcRepository.Counters;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+
+class QuizAttemptStatsListenerTest {
+
+    private final UUID quizId = UUID.randomUUID();
+
+    private QuizStatsService quizStatsService;
+    private QuizAttemptStatsListener listener;
+
+    @BeforeEach
+    void setUp() {
+        quizStatsService = mock(QuizStatsService.class);
+        listener = new QuizAttemptStatsListener();
+        ReflectionTestUtils.setField(listener, "quizStatsService", quizStatsService);
+    }
+
+    @Test
+    void onlyTheFirstAttemptCountsAParticipant() {
+        listener.attemptCreated(attempt(1));
+        listener.attemptCreated(attempt(2));
+
+        verify(quizStatsService).record(quizId, new Counters(1, 0, BigDecimal.ZERO, 1));
+        verify(quizStatsService).record(quizId, new Counters(1, 0, BigDecimal.ZERO, 0));
+    }
+
+    @Test
+    void gradingAddsOnlyTheDifference() {
+        QuizAttempt attempt = attempt(1);
+        attempt.setStatus(AttemptStatus.SUBMITTED);
+        listener.attemptLoaded(attempt);
+
+        attempt.setStatus(AttemptStatus.GRADED);
+        attempt.setPercentage(new BigDecimal("80.00"));
+        listener.attemptUpdated(attempt);
+
+        attempt.setPercentage(new BigDecimal("90.00"));
+        listener.attemptUpdated(attempt);
+
+        verify(quizStatsService).record(quizId, new Counters(0, 1, new BigDecimal("80.00"), 0));
+        verify(quizStatsService).record(quizId, new Counters(0, 0, new BigDecimal("10.00"), 0));
+    }
+
+    @Test
+    void removingTakesBackTheLoadedContribution() {
+        QuizAttempt attempt = attempt(1);
+        attempt.setStatus(AttemptStatus.GRADED);
+        attempt.setPercentage(new BigDecimal("50.00"));
+        listener.attemptLoaded(attempt);
+
+        listener.attemptRemoved(attempt);
+
+        verify(quizStatsService).record(quizId, new Counters(-1, -1, new BigDecimal("-50.00"), -1));
+    }
+
+    private QuizAttempt attempt(int attemptNumber) {
+        Quiz quiz = new Quiz();
+        quiz.setId(quizId);
+        QuizAttempt attempt = new QuizAttempt();
+        attempt.setQuiz(quiz);
+        attempt.setAttemptNumber(attemptNumber);
+        return attempt;
+    }
+}
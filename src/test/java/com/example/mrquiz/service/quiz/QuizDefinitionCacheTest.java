@@ -0,0 +1,165 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.enums.QuizStatus;
+import com.example.mrquiz.repository.quiz.QuizQuestionJdbcRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class QuizDefinitionCacheTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 6, 1, 12, 0);
+
+    private final QuizDefinitionCache cache = new QuizDefinitionCache(1000, Duration.ofMinutes(10));
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    // ============================================================================
+    // CACHING
+    // ============================================================================
+
+    @Test
+    void keepsPublishedDefinitionsOnly() {
+        UUID published = UUID.randomUUID();
+        UUID draft = UUID.randomUUID();
+
+        cache.get(published, id -> load(id, QuizStatus.PUBLISHED, null, null));
+        cache.get(published, id -> load(id, QuizStatus.PUBLISHED, null, null));
+        cache.get(draft, id -> load(id, QuizStatus.DRAFT, null, null));
+        cache.get(draft, id -> load(id, QuizStatus.DRAFT, null, null));
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void dropsDefinitionsLoadedInATransactionThatRollsBack() {
+        UUID quizId = UUID.randomUUID();
+        TransactionSynchronizationManager.initSynchronization();
+        cache.get(quizId, id -> load(id, QuizStatus.PUBLISHED, null, null));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+        cache.get(quizId, id -> load(id, QuizStatus.PUBLISHED, null, null));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void keepsDefinitionsLoadedInATransactionThatCommits() {
+        UUID quizId = UUID.randomUUID();
+        TransactionSynchronizationManager.initSynchronization();
+        cache.get(quizId, id -> load(id, QuizStatus.PUBLISHED, null, null));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+        cache.get(quizId, id -> load(id, QuizStatus.PUBLISHED, null, null));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void expiredDefinitionsAreReloaded() {
+        QuizDefinitionCache expiring = new QuizDefinitionCache(1000, Duration.ZERO);
+        UUID quizId = UUID.randomUUID();
+
+        expiring.get(quizId, id -> load(id, QuizStatus.PUBLISHED, null, null));
+        expiring.get(quizId, id -> load(id, QuizStatus.PUBLISHED, null, null));
+
+        assertEquals(2, loads.get());
+        assertEquals(1L, expiring.getStats().get("expirations"));
+    }
+
+    // ============================================================================
+    // CROSS-NODE REFRESH
+    // ============================================================================
+
+    @Test
+    void refreshDropsQuizzesChangedElsewhere() {
+        UUID changed = UUID.randomUUID();
+        UUID unchanged = UUID.randomUUID();
+        QuizQuestionJdbcRepository repository = mock(QuizQuestionJdbcRepository.class);
+        when(repository.findChangedQuizzes(anyCollection(), any())).thenReturn(List.of(changed));
+        QuizDefinitionService service = new QuizDefinitionService(mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "quizDefinitionCache", cache);
+        ReflectionTestUtils.setField(service, "quizQuestionJdbcRepository", repository);
+        ReflectionTestUtils.setField(service, "refreshOverlap", Duration.ofSeconds(10));
+        cache.get(changed, id -> load(id, QuizStatus.PUBLISHED, null, null));
+        cache.get(unchanged, id -> load(id, QuizStatus.PUBLISHED, null, null));
+
+        service.refresh();
+        cache.get(changed, id -> load(id, QuizStatus.PUBLISHED, null, null));
+        cache.get(unchanged, id -> load(id, QuizStatus.PUBLISHED, null, null));
+
+        assertEquals(3, loads.get());
+    }
+
+    // ============================================================================
+    // DELIVERY
+    // ============================================================================
+
+    @Test
+    void deliversOnlyPublishedQuizzesInsideTheirWindow() {
+        QuizDefinitionCache definitions = mock(QuizDefinitionCache.class);
+        QuizDefinitionService service = new QuizDefinitionService(mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "quizDefinitionCache", definitions);
+        UUID open = stub(definitions, QuizStatus.PUBLISHED, NOW.minusDays(1), NOW.plusDays(1));
+        UUID unbounded = stub(definitions, QuizStatus.PUBLISHED, null, null);
+        UUID archived = stub(definitions, QuizStatus.ARCHIVED, null, null);
+        UUID draft = stub(definitions, QuizStatus.DRAFT, null, null);
+        UUID notYet = stub(definitions, QuizStatus.PUBLISHED, NOW.plusHours(1), null);
+        UUID over = stub(definitions, QuizStatus.PUBLISHED, null, NOW.minusHours(1));
+
+        assertEquals(open, service.getDeliverableView(open, NOW).quizId());
+        assertEquals(unbounded, service.getDeliverableView(unbounded, NOW).quizId());
+        assertThrows(RuntimeException.class, () -> service.getDeliverableView(archived, NOW));
+        assertThrows(RuntimeException.class, () -> service.getDeliverableView(draft, NOW));
+        assertThrows(RuntimeException.class, () -> service.getDeliverableView(notYet, NOW));
+        assertThrows(RuntimeException.class, () -> service.getDeliverableView(over, NOW));
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private UUID stub(QuizDefinitionCache definitions, QuizStatus status, LocalDateTime start, LocalDateTime end) {
+        UUID quizId = UUID.randomUUID();
+        QuizDefinition definition = load(quizId, status, start, end);
+        when(definitions.get(eq(quizId), any())).thenReturn(definition);
+        return quizId;
+    }
+
+    private QuizDefinition load(UUID quizId, QuizStatus status, LocalDateTime start, LocalDateTime end) {
+        loads.incrementAndGet();
+        QuizDefinition.StudentView view = new QuizDefinition.StudentView(
+                quizId, "Quiz", null, null, null, null, null, false, false, true, start, end, List.of());
+        QuizDefinition.GraderView graderView = new QuizDefinition.GraderView(
+                quizId, BigDecimal.ZERO, null, null, null, null, Map.of());
+        return new QuizDefinition(quizId, status, view, graderView);
+    }
+}
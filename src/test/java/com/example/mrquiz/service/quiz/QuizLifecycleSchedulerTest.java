@@ -0,0 +1,167 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.repository.quiz.QuizRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class QuizLifecycleSchedulerTest {
+
+    private static final Duration HORIZON = Duration.ofHours(1);
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    private QuizService quizService;
+    private QuizRepository quizRepository;
+    private QuizLifecycleScheduler scheduler;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        quizService = mock(QuizService.class);
+        quizRepository = mock(QuizRepository.class);
+        scheduler = scheduler(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    // ============================================================================
+    // FIRING
+    // ============================================================================
+
+    @Test
+    void passedBoundariesPublishBeforeTheyExpire() {
+        UUID running = UUID.randomUUID();
+        UUID over = UUID.randomUUID();
+        UUID later = UUID.randomUUID();
+        UUID distant = UUID.randomUUID();
+        when(quizRepository.findLifecycleBoundaries(any())).thenReturn(rows(
+                new Object[]{running, now.minusMinutes(5), now.plusMinutes(30)},
+                new Object[]{over, now.minusHours(2), now.minusHours(1)},
+                new Object[]{later, now.plusMinutes(10), null},
+                new Object[]{distant, now.minusMinutes(1), now.plusHours(3)}));
+
+        scheduler.tick();
+
+        InOrder inOrder = inOrder(quizService);
+        inOrder.verify(quizService).applyLifecycleTransitions(
+                argThat(ids -> Set.copyOf(ids).equals(Set.of(running, over, distant))), eq(List.of()), any());
+        inOrder.verify(quizService).applyLifecycleTransitions(eq(List.of()), eq(List.of(over)), any());
+        verifyNoMoreInteractions(quizService);
+        // The end of running and the start of later; the end of distant is past the horizon
+        assertEquals(2, scheduler.getPendingCount());
+        verify(quizRepository).findLifecycleBoundaries(
+                argThat(until -> !until.isBefore(now.plus(HORIZON)) && until.isBefore(now.plus(HORIZON).plusMinutes(1))));
+    }
+
+    @Test
+    void rearmedQuizFiresOnTheNextTick() {
+        when(quizRepository.findLifecycleBoundaries(any())).thenReturn(List.of());
+        scheduler.tick();
+        UUID quizId = UUID.randomUUID();
+
+        // No transaction, so the boundaries are armed right away
+        scheduler.rearm(quizId, now.minusSeconds(1), now.plusMinutes(30));
+        assertEquals(2, scheduler.getPendingCount());
+        scheduler.tick();
+
+        verify(quizService).applyLifecycleTransitions(eq(List.of(quizId)), eq(List.of()), any());
+        verify(quizService, never()).applyLifecycleTransitions(eq(List.of()), anyList(), any());
+        assertEquals(1, scheduler.getPendingCount());
+    }
+
+    @Test
+    void transitionsAreAppliedInBatches() {
+        List<Object[]> boundaries = new ArrayList<>();
+        for (int i = 0; i < 1001; i++) {
+            boundaries.add(new Object[]{UUID.randomUUID(), now.minusMinutes(1), null});
+        }
+        when(quizRepository.findLifecycleBoundaries(any())).thenReturn(boundaries);
+
+        scheduler.tick();
+
+        verify(quizService).applyLifecycleTransitions(argThat(ids -> ids.size() == 1000), eq(List.of()), any());
+        verify(quizService).applyLifecycleTransitions(argThat(ids -> ids.size() == 1), eq(List.of()), any());
+    }
+
+    // ============================================================================
+    // LEADERSHIP AND FAILURES
+    // ============================================================================
+
+    @Test
+    void nodeWithoutTheLockFiresNothing() throws Exception {
+        scheduler.shutdown();
+        scheduler = scheduler(false);
+
+        scheduler.tick();
+
+        assertFalse(scheduler.isLeader());
+        verifyNoInteractions(quizRepository, quizService);
+        // Rearming on a follower is a no-op
+        scheduler.rearm(UUID.randomUUID(), now.minusSeconds(1), null);
+        assertEquals(0, scheduler.getPendingCount());
+    }
+
+    @Test
+    void failedTransitionReloadsOnTheNextTick() {
+        UUID quizId = UUID.randomUUID();
+        when(quizRepository.findLifecycleBoundaries(any()))
+                .thenReturn(rows(new Object[]{quizId, now.minusMinutes(1), null}));
+        when(quizService.applyLifecycleTransitions(anyList(), anyList(), any()))
+                .thenThrow(new RuntimeException("down"))
+                .thenReturn(1);
+
+        scheduler.tick();
+        scheduler.tick();
+
+        // Reloaded well before the refresh interval, and the quiz fired again
+        verify(quizRepository, times(2)).findLifecycleBoundaries(any());
+        verify(quizService, times(2)).applyLifecycleTransitions(eq(List.of(quizId)), eq(List.of()), any());
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private QuizLifecycleScheduler scheduler(boolean lockGranted) throws Exception {
+        QuizLifecycleScheduler scheduler = new QuizLifecycleScheduler(connections(lockGranted), 1L,
+                                                                      Duration.ofSeconds(1), HORIZON, Duration.ofHours(1));
+        ReflectionTestUtils.setField(scheduler, "quizService", quizService);
+        ReflectionTestUtils.setField(scheduler, "quizRepository", quizRepository);
+        return scheduler;
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return List.of(rows);
+    }
+
+    private static AdvisoryLeaderLock.ConnectionSource connections(boolean lockGranted) throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getBoolean(1)).thenReturn(lockGranted);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        return () -> connection;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.repository.quiz.QuizSearchJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class QuizSearchServiceTest {
+
+    private QuizSearchJdbcRepository repository;
+    private QuizSearchService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(QuizSearchJdbcRepository.class);
+        service = new QuizSearchService();
+        ReflectionTestUtils.setField(service, "quizSearchJdbcRepository", repository);
+    }
+
+    // ============================================================================
+    // SEARCH
+    // ============================================================================
+
+    @Test
+    void onlyWordsOfThreeCharactersOrMoreArePrefixes() {
+        ReflectionTestUtils.setField(service, "searchSchemaInstalled", true);
+        service.search("An introduction to SQL!", null, null, 20, 0);
+
+        verify(repository).search(eq("an & introduction:* & to & sql:*"), eq("an introduction to sql"),
+                                  isNull(), isNull(), eq(20), eq(0L));
+    }
+
+    @Test
+    void titlesAreMatchedUntilTheSearchSchemaIsInstalled() {
+        service.ensureSearchSchema();
+        service.search("Intro SQL", null, null, 20, 0);
+
+        when(repository.isSearchSchemaInstalled()).thenReturn(true);
+        service.backfillSearchVectors();
+        service.search("Intro SQL", null, null, 20, 0);
+
+        verify(repository).searchTitles(eq(List.of("intro", "sql")), isNull(), isNull(), eq(20), eq(0L));
+        verify(repository).search(eq("intro:* & sql:*"), eq("intro sql"), isNull(), isNull(), eq(20), eq(0L));
+    }
+
+    @Test
+    void operatorsAreDropped() {
+        assertEquals(List.of(), service.search("& | !", null, null, 20, 0));
+        verifyNoInteractions(repository);
+    }
+
+    // ============================================================================
+    // SCHEMA
+    // ============================================================================
+
+    @Test
+    void leavesTheSchemaAloneByDefault() {
+        service.ensureSearchSchema();
+        service.backfillSearchVectors();
+
+        verify(repository, never()).installSearchTrigger();
+        verify(repository, never()).findUnusableSearchIndexes();
+        verify(repository, never()).backfillSearchVectors(anyInt());
+    }
+
+    @Test
+    void rebuildsOnlyUnusableIndexesAndSurvivesFailures() {
+        ReflectionTestUtils.setField(service, "manageSchema", true);
+        when(repository.isSearchTriggerInstalled()).thenReturn(true);
+        when(repository.findUnusableSearchIndexes()).thenReturn(List.of("idx_a", "idx_b"));
+        doThrow(new DataAccessResourceFailureException("deadlock")).when(repository).createSearchIndex("idx_a");
+
+        service.ensureSearchSchema();
+
+        verify(repository, never()).installSearchTrigger();
+        verify(repository).createSearchIndex("idx_a");
+        verify(repository).createSearchIndex("idx_b");
+        verify(repository, never()).backfillSearchVectors(anyInt());
+    }
+
+    @Test
+    void backfillsOneBatchPerTickUntilDone() {
+        ReflectionTestUtils.setField(service, "manageSchema", true);
+        when(repository.findUnusableSearchIndexes()).thenReturn(List.of());
+        when(repository.backfillSearchVectors(anyInt())).thenReturn(5000, 10, 0);
+
+        service.ensureSearchSchema();
+        for (int i = 0; i < 5; i++) {
+            service.backfillSearchVectors();
+        }
+
+        verify(repository).installSearchTrigger();
+        verify(repository, times(3)).backfillSearchVectors(anyInt());
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.repository.quiz.QuizStatsJdbcRepository;
+import com.example.mrquiz.repository.quiz.QuizStatsJdbcRepository.Counters;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class QuizStatsServiceTest {
+
+    private final UUID popular = UUID.randomUUID();
+    private final UUID published = UUID.randomUUID();
+
+    private QuizStatsJdbcRepository repository;
+    private QuizStatsService service;
+    private final Map<UUID, Counters> stored = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(QuizStatsJdbcRepository.class);
+        when(repository.findPublishedCounters()).thenAnswer(invocation -> new HashMap<>(stored));
+
+        service = new QuizStatsService();
+        ReflectionTestUtils.setField(service, "quizStatsJdbcRepository", repository);
+        ReflectionTestUtils.setField(service, "topK", 10);
+        ReflectionTestUtils.setField(service, "minGradedForRating", 1L);
+
+        stored.put(popular, attempts(10));
+        service.loadCounters();
+    }
+
+    @Test
+    void flushedDeltasMoveLoadedCounters() {
+        service.record(popular, attempts(2));
+        service.flush();
+
+        verify(repository).applyDeltas(Map.of(popular, attempts(2)));
+        assertEquals(Optional.of(attempts(12)), service.getCounters(popular));
+    }
+
+    @Test
+    void reloadPicksUpNewlyPublishedQuizzes() {
+        service.record(published, attempts(50));
+        service.flush();
+        assertEquals(List.of(popular), service.getMostPopularQuizIds(10));
+
+        // Published since the last load, with counts flushed by this and other nodes
+        stored.put(published, attempts(80));
+        service.reloadCounters();
+
+        assertEquals(List.of(published, popular), service.getMostPopularQuizIds(10));
+    }
+
+    @Test
+    void reloadFlushesPendingDeltasFirst() {
+        service.record(popular, attempts(1));
+
+        service.reloadCounters();
+
+        InOrder order = inOrder(repository);
+        order.verify(repository).applyDeltas(any());
+        order.verify(repository).findPublishedCounters();
+    }
+
+    @Test
+    void failedFlushKeepsDeltasForTheNextOne() {
+        service.record(popular, attempts(1));
+        doThrow(new IllegalStateException("down")).doReturn(1).when(repository).applyDeltas(any());
+
+        service.reloadCounters();
+        service.flush();
+
+        verify(repository, times(2)).applyDeltas(Map.of(popular, attempts(1)));
+    }
+
+    private static Counters attempts(long count) {
+        return new Counters(count, 0, BigDecimal.ZERO, count);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.entity.quiz.Quiz;
+import com.example.mrquiz.repository.quiz.QuizRepository;
+import com.example.mrquiz.repository.quiz.QuizSettingsRepository;
+import com.example.mrquiz.repository.quiz.QuizVersionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class QuizVersionServiceTest {
+
+    private final UUID quizId = UUID.randomUUID();
+
+    private QuizVersionRepository versions;
+    private QuizRepository quizzes;
+    private QuizSettingsRepository settings;
+    private PlatformTransactionManager transactionManager;
+    private QuizVersionService service;
+
+    @BeforeEach
+    void setUp() {
+        versions = mock(QuizVersionRepository.class);
+        quizzes = mock(QuizRepository.class);
+        settings = mock(QuizSettingsRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(versions.findLatestVersionNumber(any())).thenReturn(0);
+
+        service = new QuizVersionService(transactionManager);
+        ReflectionTestUtils.setField(service, "quizVersionRepository", versions);
+        ReflectionTestUtils.setField(service, "quizRepository", quizzes);
+        ReflectionTestUtils.setField(service, "quizSettingsRepository", settings);
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "checkpointInterval", 10);
+    }
+
+    // ============================================================================
+    // VERSION CREATION
+    // ============================================================================
+
+    @Test
+    void versionNumberIsReadUnderTheQuizLock() {
+        service.createVersion(quizId, "note", Map.of("title", "Quiz"));
+
+        InOrder inOrder = inOrder(versions);
+        inOrder.verify(versions).lockVersions(quizId);
+        inOrder.verify(versions).findLatestVersionNumber(quizId);
+        inOrder.verify(versions).save(any());
+    }
+
+    // ============================================================================
+    // MIGRATION FROM SETTINGS
+    // ============================================================================
+
+    @Test
+    void eachQuizMovesInItsOwnLockedTransaction() {
+        UUID otherQuizId = UUID.randomUUID();
+        when(quizzes.findQuizIdsWithSettingsVersions(anyInt())).thenReturn(List.of(quizId, otherQuizId));
+        when(quizzes.findById(quizId)).thenReturn(Optional.of(quizWithLegacyVersions(quizId)));
+        when(quizzes.findById(otherQuizId)).thenReturn(Optional.of(quizWithLegacyVersions(otherQuizId)));
+
+        service.migrateSettingsVersions();
+
+        verify(transactionManager, times(2)).getTransaction(any());
+        verify(transactionManager, times(2)).commit(any());
+        verify(versions).lockVersions(quizId);
+        verify(versions).lockVersions(otherQuizId);
+        verify(settings).remove(quizId, "versions");
+        verify(settings).remove(otherQuizId, "versions");
+    }
+
+    @Test
+    void historyMovedByAnotherNodeIsOnlyCleanedUp() {
+        when(quizzes.findQuizIdsWithSettingsVersions(anyInt())).thenReturn(List.of(quizId));
+        when(quizzes.findById(quizId)).thenReturn(Optional.of(new Quiz()));
+
+        service.migrateSettingsVersions();
+
+        verify(versions, never()).save(any());
+        verify(settings).remove(quizId, "versions");
+    }
+
+    @Test
+    void failureStopsTheRunWithoutFailingStartup() {
+        UUID otherQuizId = UUID.randomUUID();
+        when(quizzes.findQuizIdsWithSettingsVersions(anyInt())).thenReturn(List.of(quizId, otherQuizId));
+        when(quizzes.findById(quizId)).thenThrow(new RuntimeException("connection reset"));
+
+        service.migrateSettingsVersions();
+
+        verify(transactionManager).rollback(any());
+        verify(quizzes, never()).findById(otherQuizId);
+        verify(quizzes, times(1)).findQuizIdsWithSettingsVersions(anyInt());
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private Quiz quizWithLegacyVersions(UUID id) {
+        Quiz quiz = new Quiz();
+        quiz.setId(id);
+        quiz.setSettings(Map.of("versions", List.of(Map.of("note", "first", "snapshot", Map.of("title", "Quiz")))));
+        return quiz;
+    }
+}
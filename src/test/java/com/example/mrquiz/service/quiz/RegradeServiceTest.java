@@ -0,0 +1,97 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.entity.quiz.Question;
+import com.example.mrquiz.enums.QuestionType;
+import com.example.mrquiz.repository.quiz.QuestionRepository;
+import com.example.mrquiz.repository.quiz.RegradeJdbcRepository;
+import com.example.mrquiz.repository.quiz.RegradeJdbcRepository.GradedResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RegradeServiceTest {
+
+    private final UUID questionId = UUID.randomUUID();
+
+    private RegradeJdbcRepository repository;
+    private RegradeService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(RegradeJdbcRepository.class);
+        QuestionRepository questionRepository = mock(QuestionRepository.class);
+        when(questionRepository.findById(questionId)).thenReturn(Optional.of(question()));
+
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        service = new RegradeService(transactionManager, 1, 10, Duration.ZERO, Duration.ofSeconds(2), 100, 1,
+                                    Duration.ZERO);
+        ReflectionTestUtils.setField(service, "regradeJdbcRepository", repository);
+        ReflectionTestUtils.setField(service, "questionRepository", questionRepository);
+        ReflectionTestUtils.setField(service, "quizDefinitionService", mock(QuizDefinitionService.class));
+        ReflectionTestUtils.setField(service, "quizStatsService", mock(QuizStatsService.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void unexpectedPageFailuresAreCounted() {
+        when(repository.findGradedResponses(eq(questionId), any(), anyInt()))
+                .thenReturn(List.of(response("a")))
+                .thenReturn(List.of());
+        doThrow(new IllegalStateException("bad row")).when(repository).updateResponseGrades(any(), any());
+
+        RegradeService.RegradeReport report = service.regradeQuestion(questionId);
+
+        assertEquals(1, report.pagesFailed());
+        assertEquals(0, report.responsesChanged());
+    }
+
+    @Test
+    void backgroundRegradesRunOnTheirOwnThread() throws Exception {
+        AtomicReference<String> thread = new AtomicReference<>();
+        when(repository.findGradedResponses(eq(questionId), any(), anyInt())).thenAnswer(invocation -> {
+            thread.set(Thread.currentThread().getName());
+            return List.of();
+        });
+
+        service.regradeQuestionAsync(questionId).get();
+
+        assertTrue(thread.get().startsWith("regrade-coordinator-"), thread.get());
+    }
+
+    private GradedResponse response(String selected) {
+        // Graded as correct under the old key, which is wrong under the new one
+        return new GradedResponse(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), Map.of("selected", selected),
+                                  BigDecimal.ONE, BigDecimal.ONE, true, BigDecimal.ONE);
+    }
+
+    private Question question() {
+        Question question = new Question();
+        question.setId(questionId);
+        question.setQuestionType(QuestionType.MULTIPLE_CHOICE);
+        question.setPoints(BigDecimal.ONE);
+        question.setQuestionData(Map.of("options", List.of("a", "b")));
+        question.setCorrectAnswers(Map.of("correct", "b"));
+        return question;
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.repository.quiz.ResponseAutosaveJdbcRepository;
+import com.example.mrquiz.repository.quiz.ResponseAutosaveJdbcRepository.AutosavedResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ResponseAutosaveBufferTest {
+
+    private final UUID attemptId = UUID.randomUUID();
+    private final UUID questionId = UUID.randomUUID();
+
+    private ResponseAutosaveJdbcRepository repository;
+    private ActiveAttemptRegistry registry;
+    private ResponseAutosaveBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ResponseAutosaveJdbcRepository.class);
+        registry = mock(ActiveAttemptRegistry.class);
+        buffer = new ResponseAutosaveBuffer(new ObjectMapper(), 20000, false, null, 1);
+        ReflectionTestUtils.setField(buffer, "responseAutosaveJdbcRepository", repository);
+        ReflectionTestUtils.setField(buffer, "activeAttemptRegistry", registry);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void refusesSavesForAttemptsNotInProgress() {
+        doThrow(new RuntimeException("Attempt is not in progress")).when(registry).answered(attemptId, questionId);
+
+        assertThrows(RuntimeException.class, () -> save("a", 5));
+        assertEquals(0, buffer.getPendingAttemptCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushAttemptWritesTheCoalescedAnswerOnce() {
+        save("a", 5);
+        save("b", null);
+
+        buffer.flushAttempt(attemptId);
+
+        ArgumentCaptor<List<AutosavedResponse>> written = ArgumentCaptor.forClass(List.class);
+        verify(repository).upsertResponses(written.capture());
+        AutosavedResponse response = written.getValue().get(0);
+        assertEquals(1, written.getValue().size());
+        assertEquals(Map.of("answer", "b"), response.answerData());
+        assertEquals(5, response.timeSpent());
+        assertEquals(2, response.saveCount());
+        assertEquals(0, buffer.getPendingAttemptCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushAttemptsWritesEveryAttemptInOneCall() {
+        UUID otherAttemptId = UUID.randomUUID();
+        save("a", 5);
+        buffer.save(otherAttemptId, questionId, null, Map.of("answer", "b"), null, null, null, false);
+
+        buffer.flushAttempts(List.of(attemptId, otherAttemptId, UUID.randomUUID()));
+
+        ArgumentCaptor<List<AutosavedResponse>> written = ArgumentCaptor.forClass(List.class);
+        verify(repository).upsertResponses(written.capture());
+        assertEquals(Set.of(attemptId, otherAttemptId),
+                     written.getValue().stream().map(AutosavedResponse::attemptId).collect(Collectors.toSet()));
+        assertEquals(0, buffer.getPendingAttemptCount());
+    }
+
+    @Test
+    void flushAttemptBuffersAgainWhenTheTransactionRollsBack() {
+        save("a", 5);
+        TransactionSynchronizationManager.initSynchronization();
+
+        buffer.flushAttempt(attemptId);
+        assertEquals(0, buffer.getPendingAttemptCount());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        assertEquals(1, buffer.getPendingAttemptCount());
+    }
+
+    @Test
+    void failedFlushKeepsTheAnswersForTheNextOne() {
+        save("a", 5);
+        when(repository.upsertResponses(anyList())).thenThrow(new RuntimeException("down")).thenReturn(1);
+
+        assertThrows(RuntimeException.class, () -> buffer.flush());
+        assertEquals(1, buffer.getPendingAttemptCount());
+
+        buffer.flushAttempt(attemptId);
+        verify(repository, times(2)).upsertResponses(any());
+        assertEquals(0, buffer.getPendingAttemptCount());
+    }
+
+    // ============================================================================
+    // JOURNAL
+    // ============================================================================
+
+    @Test
+    void journalKeepsSavesASubmitHoldsUntilItCommits(@TempDir Path directory) throws IOException {
+        ResponseAutosaveBuffer journaled = journaled(directory);
+        try {
+            save(journaled, "a");
+            TransactionSynchronizationManager.initSynchronization();
+            journaled.flushAttempt(attemptId);
+
+            journaled.flush();
+            assertTrue(journalBytes(directory) > 0);
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+            synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            journaled.flush();
+            assertEquals(0, journalBytes(directory));
+        } finally {
+            journaled.flushOnShutdown();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void journalKeepsSavesARolledBackSubmitPutBack(@TempDir Path directory) throws IOException {
+        ResponseAutosaveBuffer journaled = journaled(directory);
+        try {
+            save(journaled, "a");
+            TransactionSynchronizationManager.initSynchronization();
+            journaled.flushAttempt(attemptId);
+            journaled.flush();
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            assertTrue(journalBytes(directory) > 0);
+
+            journaled.flush();
+            assertEquals(0, journalBytes(directory));
+            ArgumentCaptor<List<AutosavedResponse>> written = ArgumentCaptor.forClass(List.class);
+            verify(repository, times(2)).upsertResponses(written.capture());
+            assertEquals(Map.of("answer", "a"), written.getValue().get(0).answerData());
+        } finally {
+            journaled.flushOnShutdown();
+        }
+    }
+
+    private ResponseAutosaveBuffer journaled(Path directory) {
+        ResponseAutosaveBuffer journaled = new ResponseAutosaveBuffer(new ObjectMapper().findAndRegisterModules(),
+                                                                      20000, true, directory.toString(), 1);
+        ReflectionTestUtils.setField(journaled, "responseAutosaveJdbcRepository", repository);
+        ReflectionTestUtils.setField(journaled, "activeAttemptRegistry", registry);
+        return journaled;
+    }
+
+    private static long journalBytes(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    private void save(ResponseAutosaveBuffer target, String answer) {
+        target.save(attemptId, questionId, null, Map.of("answer", answer), null, null, null, false);
+    }
+
+    private void save(String answer, Integer timeSpent) {
+        buffer.save(attemptId, questionId, null, Map.of("answer", answer), null, timeSpent, null, false);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.repository.quiz.ResponseAutosaveJdbcRepository.AutosavedResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseJournalTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path directory;
+
+    // ============================================================================
+    // REPLAY
+    // ============================================================================
+
+    @Test
+    void replaysSavesLeftOverFromThePreviousRun() {
+        List<AutosavedResponse> saves = List.of(save("a"), save("b"), save("c"));
+        ResponseJournal journal = open();
+        saves.forEach(journal::append);
+        journal.close();
+
+        ResponseJournal reopened = open();
+        assertEquals(saves, reopened.readSealed());
+        reopened.close();
+    }
+
+    @Test
+    void deletedSegmentsAreNotReplayed() {
+        ResponseJournal journal = open();
+        journal.append(save("a"));
+        journal.deleteThrough(journal.rotate());
+        journal.append(save("b"));
+        journal.close();
+
+        ResponseJournal reopened = open();
+        assertEquals(List.of(save("b")), reopened.readSealed());
+        reopened.close();
+    }
+
+    // ============================================================================
+    // TORN AND CORRUPT RECORDS
+    // ============================================================================
+
+    @Test
+    void stopsAtATornTail() throws IOException {
+        ResponseJournal journal = open();
+        journal.append(save("a"));
+        journal.append(save("b"));
+        journal.close();
+
+        Path segment = onlySegment();
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        ResponseJournal reopened = open();
+        assertEquals(List.of(save("a")), reopened.readSealed());
+        reopened.close();
+    }
+
+    @Test
+    void stopsAtAChecksumMismatch() throws IOException {
+        ResponseJournal journal = open();
+        journal.append(save("a"));
+        journal.append(save("b"));
+        journal.append(save("c"));
+        journal.close();
+
+        Path segment = onlySegment();
+        byte[] bytes = Files.readAllBytes(segment);
+        int secondRecord = 8 + readInt(bytes, 0);
+        // Flip a payload byte of the second record
+        bytes[secondRecord + 8 + 2] ^= 0x01;
+        Files.write(segment, bytes);
+
+        ResponseJournal reopened = open();
+        assertEquals(List.of(save("a")), reopened.readSealed());
+        reopened.close();
+    }
+
+    @Test
+    void refusesAppendsOnceClosed() {
+        ResponseJournal journal = open();
+        journal.close();
+
+        assertThrows(RuntimeException.class, () -> journal.append(save("a")));
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    private ResponseJournal open() {
+        return new ResponseJournal(directory, objectMapper, 16);
+    }
+
+    private Path onlySegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            // The reopened journal has not run yet, so only the written segment exists
+            List<Path> segments = files.filter(path -> Files.isRegularFile(path)).sorted().toList();
+            return segments.get(0);
+        }
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xff) << 24) | ((bytes[offset + 1] & 0xff) << 16)
+               | ((bytes[offset + 2] & 0xff) << 8) | (bytes[offset + 3] & 0xff);
+    }
+
+    private static AutosavedResponse save(String answer) {
+        LocalDateTime at = LocalDateTime.of(2026, 1, 1, 10, 0);
+        UUID id = UUID.nameUUIDFromBytes(answer.getBytes());
+        return new AutosavedResponse(id, id, null, Map.of("answer", answer), null, 5, null, false, at, at, 1);
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.mrquiz.service.quiz;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TagBitmapTest {
+
+    private static final int CHUNK = 1 << 16;
+
+    // ============================================================================
+    // MUTATION AND CONTAINER TRANSITIONS
+    // ============================================================================
+
+    @Test
+    void addsRemovesAndIgnoresDuplicates() {
+        TagBitmap bitmap = new TagBitmap();
+        bitmap.add(5);
+        bitmap.add(5);
+        bitmap.add(CHUNK + 1);
+
+        assertEquals(2, bitmap.cardinality());
+        assertTrue(bitmap.contains(5));
+        assertTrue(bitmap.contains(CHUNK + 1));
+        assertFalse(bitmap.contains(6));
+
+        bitmap.remove(5);
+        bitmap.remove(5);
+        bitmap.remove(CHUNK + 1);
+        assertTrue(bitmap.isEmpty());
+        assertEquals(0, bitmap.cardinality());
+    }
+
+    @Test
+    void rejectsNegativeValues() {
+        assertThrows(IllegalArgumentException.class, () -> new TagBitmap().add(-1));
+    }
+
+    @Test
+    void keepsContentsAcrossArrayAndBitmapTransitions() {
+        TagBitmap bitmap = new TagBitmap();
+        Set<Integer> expected = new TreeSet<>();
+        // Past ARRAY_MAX the chunk turns into a bitmap
+        for (int value = 0; value < TagBitmap.ARRAY_MAX + 500; value++) {
+            bitmap.add(value * 3);
+            expected.add(value * 3);
+        }
+        assertContents(expected, bitmap);
+
+        // Down to half of ARRAY_MAX it turns back into an array
+        for (int value = 0; value < TagBitmap.ARRAY_MAX; value++) {
+            bitmap.remove(value * 3);
+            expected.remove(value * 3);
+        }
+        assertContents(expected, bitmap);
+
+        // And grows into a bitmap again
+        for (int value = 0; value < TagBitmap.ARRAY_MAX; value++) {
+            bitmap.add(value * 3 + 1);
+            expected.add(value * 3 + 1);
+        }
+        assertContents(expected, bitmap);
+    }
+
+    @Test
+    void pagesInAscendingOrderAcrossChunks() {
+        TagBitmap bitmap = new TagBitmap();
+        bitmap.add(3 * CHUNK);
+        bitmap.add(7);
+        bitmap.add(CHUNK + 2);
+        bitmap.add(2);
+
+        assertArrayEquals(new int[]{2, 7, CHUNK + 2, 3 * CHUNK}, bitmap.toArray(0, 10));
+        assertArrayEquals(new int[]{7, CHUNK + 2}, bitmap.toArray(1, 2));
+        assertArrayEquals(new int[0], bitmap.toArray(4, 2));
+    }
+
+    // ============================================================================
+    // SET OPERATIONS
+    // ============================================================================
+
+    @Test
+    void setOperationsMatchTreeSetsOnEveryContainerMix() {
+        Random random = new Random(7);
+        // Sparse, dense and mixed chunks on both sides
+        int[] densities = {10, TagBitmap.ARRAY_MAX / 2, TagBitmap.ARRAY_MAX * 3};
+        for (int left : densities) {
+            for (int right : densities) {
+                Set<Integer> a = new TreeSet<>();
+                Set<Integer> b = new TreeSet<>();
+                TagBitmap bitmapA = randomBitmap(random, left, a);
+                TagBitmap bitmapB = randomBitmap(random, right, b);
+
+                Set<Integer> and = new TreeSet<>(a);
+                and.retainAll(b);
+                Set<Integer> or = new TreeSet<>(a);
+                or.addAll(b);
+                Set<Integer> andNot = new TreeSet<>(a);
+                andNot.removeAll(b);
+
+                assertContents(and, bitmapA.and(bitmapB));
+                assertContents(or, bitmapA.or(bitmapB));
+                assertContents(andNot, bitmapA.andNot(bitmapB));
+                assertEquals(and.size(), bitmapA.andCardinality(bitmapB));
+            }
+        }
+    }
+
+    @Test
+    void setOperationsLeaveOperandsUnchanged() {
+        TagBitmap a = new TagBitmap();
+        TagBitmap b = new TagBitmap();
+        for (int value = 0; value < TagBitmap.ARRAY_MAX * 2; value++) {
+            a.add(value);
+            b.add(value + 1000);
+        }
+
+        a.and(b).add(CHUNK * 2);
+        a.or(b).remove(0);
+        a.andNot(b).remove(1);
+        TagBitmap copy = a.copy();
+        copy.remove(2);
+
+        assertEquals(TagBitmap.ARRAY_MAX * 2, a.cardinality());
+        assertEquals(TagBitmap.ARRAY_MAX * 2, b.cardinality());
+        assertTrue(a.contains(0) && a.contains(1) && a.contains(2));
+        assertFalse(a.contains(CHUNK * 2));
+    }
+
+    @Test
+    void disjointAndEmptyOperands() {
+        TagBitmap a = new TagBitmap();
+        TagBitmap b = new TagBitmap();
+        a.add(1);
+        b.add(CHUNK + 1);
+
+        assertTrue(a.and(b).isEmpty());
+        assertTrue(a.and(new TagBitmap()).isEmpty());
+        assertEquals(2, a.or(b).cardinality());
+        assertEquals(1, a.andNot(b).cardinality());
+        assertTrue(new TagBitmap().andNot(a).isEmpty());
+    }
+
+    private static TagBitmap randomBitmap(Random random, int perChunk, Set<Integer> reference) {
+        TagBitmap bitmap = new TagBitmap();
+        for (int chunk = 0; chunk < 3; chunk++) {
+            for (int i = 0; i < perChunk; i++) {
+                // Chunk 1 draws from 200 values, so it stays an array however dense the others get
+                int value = chunk * CHUNK + random.nextInt(chunk == 1 ? 200 : 20000);
+                bitmap.add(value);
+                reference.add(value);
+            }
+        }
+        return bitmap;
+    }
+
+    private static void assertContents(Set<Integer> expected, TagBitmap bitmap) {
+        assertEquals(expected.size(), bitmap.cardinality());
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), bitmap.toArray(0, Integer.MAX_VALUE));
+        TreeSet<Integer> visited = new TreeSet<>();
+        bitmap.forEach(visited::add);
+        assertEquals(expected, visited);
+    }
+}
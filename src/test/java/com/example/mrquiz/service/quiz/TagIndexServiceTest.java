@@ -0,0 +1,111 @@
+package com.example.mrquiz.service.quiz;
+
+import com.example.mrquiz.repository.quiz.TagSnapshotJdbcRepository;
+import com.example.mrquiz.repository.quiz.TagSnapshotJdbcRepository.UpdatedTags;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static com.example.mrquiz.service.quiz.TagExpression.tag;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TagIndexServiceTest {
+
+    private final UUID algebra = UUID.randomUUID();
+    private final UUID unpublished = UUID.randomUUID();
+
+    private TagSnapshotJdbcRepository repository;
+    private TagIndexService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        repository = mock(TagSnapshotJdbcRepository.class);
+        doAnswer(invocation -> {
+            BiConsumer<UUID, List<String>> consumer = invocation.getArgument(0);
+            consumer.accept(unpublished, List.of("math"));
+            return null;
+        }).when(repository).streamQuizTags(any());
+
+        service = new TagIndexService();
+        ReflectionTestUtils.setField(service, "tagSnapshotJdbcRepository", repository);
+        ReflectionTestUtils.setField(service, "refreshOverlap", Duration.ofSeconds(10));
+    }
+
+    @Test
+    void refreshAppliesRowsChangedOnOtherNodes() {
+        LocalDateTime beforeRebuild = LocalDateTime.now();
+        service.rebuild();
+        assertEquals(List.of(unpublished), service.searchQuizzes(tag("math"), 0, 10, 0).ids());
+
+        LocalDateTime updatedAt = LocalDateTime.now().plusSeconds(1);
+        stubUpdatedQuizzes(new UpdatedTags(algebra, List.of("math", "algebra"), true, updatedAt),
+                           new UpdatedTags(unpublished, List.of("math"), false, updatedAt));
+        service.refresh();
+
+        assertEquals(List.of(algebra), service.searchQuizzes(tag("math"), 0, 10, 0).ids());
+        // Polls from the rebuild, less the overlap, then from the newest row seen
+        verify(repository).streamQuizTagsUpdatedSince(
+                argThatIsBetween(beforeRebuild.minusSeconds(10), LocalDateTime.now().minusSeconds(10)), any());
+
+        service.refresh();
+        verify(repository).streamQuizTagsUpdatedSince(eqTime(updatedAt.minusSeconds(10)), any());
+    }
+
+    @Test
+    void refreshWaitsForTheFirstBuild() {
+        service.refresh();
+
+        verify(repository, never()).streamQuizTagsUpdatedSince(any(), any());
+        verify(repository, never()).streamQuestionTagsUpdatedSince(any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void questionsArePolledSeparately() {
+        service.rebuild();
+        UUID question = UUID.randomUUID();
+        doAnswer(invocation -> {
+            Consumer<UpdatedTags> consumer = invocation.getArgument(1);
+            consumer.accept(new UpdatedTags(question, List.of("geometry"), true, LocalDateTime.now()));
+            return null;
+        }).when(repository).streamQuestionTagsUpdatedSince(any(), any());
+
+        service.refresh();
+
+        assertEquals(List.of(question), service.searchQuestions(tag("geometry"), 0, 10, 0).ids());
+        assertEquals(List.of(), service.searchQuizzes(tag("geometry"), 0, 10, 0).ids());
+    }
+
+    // ============================================================================
+    // HELPER METHODS
+    // ============================================================================
+
+    @SuppressWarnings("unchecked")
+    private void stubUpdatedQuizzes(UpdatedTags... rows) {
+        doAnswer(invocation -> {
+            Consumer<UpdatedTags> consumer = invocation.getArgument(1);
+            for (UpdatedTags row : rows) {
+                consumer.accept(row);
+            }
+            return null;
+        }).when(repository).streamQuizTagsUpdatedSince(any(), any());
+    }
+
+    private static LocalDateTime argThatIsBetween(LocalDateTime from, LocalDateTime to) {
+        return argThat(time -> !time.isBefore(from) && !time.isAfter(to));
+    }
+
+    private static LocalDateTime eqTime(LocalDateTime time) {
+        return argThat(time::isEqual);
+    }
+}
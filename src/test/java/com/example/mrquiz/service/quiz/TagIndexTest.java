@@ -0,0 +1,107 @@
+package com.example.mrquiz.service.quiz;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.example.mrquiz.service.quiz.TagExpression.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TagIndexTest {
+
+    private final UUID algebra = UUID.randomUUID();
+    private final UUID geometry = UUID.randomUUID();
+    private final UUID chemistry = UUID.randomUUID();
+    private final UUID biology = UUID.randomUUID();
+    private final UUID untagged = UUID.randomUUID();
+
+    private TagIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TagIndex();
+        index.put(algebra, List.of("math", "algebra", "easy"));
+        index.put(geometry, List.of("math", "geometry"));
+        index.put(chemistry, List.of("science", "chemistry", "easy"));
+        index.put(biology, List.of("science", "biology"));
+        index.put(untagged, List.of());
+    }
+
+    // ============================================================================
+    // EXPRESSIONS
+    // ============================================================================
+
+    @Test
+    void tagsMatchExactly() {
+        index.put(algebra, List.of("Math", "algebra", "easy"));
+
+        assertEquals(Set.of(geometry), ids(tag("math")));
+        assertEquals(Set.of(algebra), ids(tag("Math")));
+        assertEquals(Set.of(), ids(tag(" math")));
+        assertEquals(Set.of(), ids(tag("history")));
+    }
+
+    @Test
+    void evaluatesAndOrNot() {
+        assertEquals(Set.of(algebra), ids(allOf(List.of("math", "easy"))));
+        assertEquals(Set.of(algebra, geometry, biology), ids(anyOf(List.of("math", "biology"))));
+        // NOT matches untagged ids too
+        assertEquals(Set.of(geometry, biology, untagged), ids(not(tag("easy"))));
+        assertEquals(Set.of(chemistry, biology, geometry),
+                     ids(or(tag("science"), and(tag("math"), not(tag("easy"))))));
+        // An empty conjunction matches everything
+        assertEquals(5, ids(allOf(List.of())).size());
+    }
+
+    @Test
+    void updatesAndRemovalsAreReflected() {
+        index.put(geometry, List.of("math", "easy"));
+        index.remove(chemistry);
+        index.put(biology, List.of());
+
+        assertEquals(Set.of(algebra, geometry), ids(tag("easy")));
+        assertEquals(Set.of(), ids(tag("science")));
+        // Biology stays indexed, untagged
+        assertEquals(4, index.size());
+        assertTrue(ids(not(tag("math"))).contains(biology));
+        // Science, chemistry, biology and geometry lost their last holder
+        assertEquals(3, index.tagCount());
+    }
+
+    // ============================================================================
+    // PAGING AND FACETS
+    // ============================================================================
+
+    @Test
+    void pagesInIndexOrderWithTotal() {
+        TagIndex.Result first = index.search(tag("easy"), 0, 1, 0);
+        TagIndex.Result second = index.search(tag("easy"), 1, 1, 0);
+
+        assertEquals(2, first.total());
+        assertEquals(List.of(algebra), first.ids());
+        assertEquals(List.of(chemistry), second.ids());
+    }
+
+    @Test
+    void facetsCountOtherTagsAmongMatches() {
+        Map<String, Integer> facets = index.search(tag("easy"), 0, 10, 10).facets();
+
+        assertFalse(facets.containsKey("easy"));
+        assertEquals(Map.of("math", 1, "algebra", 1, "science", 1, "chemistry", 1), facets);
+        // Ties go by tag name
+        assertEquals(Map.of("algebra", 1), index.search(tag("math"), 0, 10, 1).facets());
+    }
+
+    @Test
+    void namesEveryTagOfAnExpression() {
+        assertEquals(Set.of("A", "b", "c"), or(tag("A"), and(tag("b"), not(tag("c")))).tags());
+    }
+
+    private Set<UUID> ids(TagExpression expression) {
+        return Set.copyOf(index.search(expression, 0, 100, 0).ids());
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.mrquiz.service.quiz;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    private static final long TICK = 1000;
+    private static final int WHEEL_SIZE = 4;
+    private static final int LEVELS = 2;
+
+    // Level 0 covers 4 ticks, level 1 covers 16; anything further is in the overflow map
+    private final TimingWheel<String> wheel = new TimingWheel<>(TICK, WHEEL_SIZE, LEVELS, 0);
+
+    // ============================================================================
+    // FIRING
+    // ============================================================================
+
+    @Test
+    void firesWithinLevelZero() {
+        wheel.schedule("a", 3 * TICK);
+
+        assertEquals(List.of(), wheel.advance(2 * TICK));
+        assertEquals(List.of("a"), wheel.advance(3 * TICK));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void partialTicksRoundUp() {
+        wheel.schedule("a", 2 * TICK + 1);
+
+        assertEquals(List.of(), wheel.advance(2 * TICK));
+        assertEquals(List.of("a"), wheel.advance(3 * TICK));
+    }
+
+    @Test
+    void pastDeadlinesFireOnNextAdvance() {
+        wheel.advance(5 * TICK);
+        wheel.schedule("late", TICK);
+
+        assertEquals(List.of("late"), wheel.advance(5 * TICK));
+    }
+
+    @Test
+    void cascadesFromLevelOneOnTheExactTick() {
+        wheel.schedule("a", 9 * TICK);
+        wheel.schedule("b", 13 * TICK);
+
+        assertFiresAt("a", 9);
+        assertFiresAt("b", 13);
+    }
+
+    @Test
+    void overflowFallsThroughEveryLevel() {
+        // 16 ticks is the top level's span, so these start in the overflow map
+        wheel.schedule("a", 16 * TICK);
+        wheel.schedule("b", 21 * TICK);
+        wheel.schedule("c", 40 * TICK);
+
+        assertFiresAt("a", 16);
+        assertFiresAt("b", 21);
+        assertFiresAt("c", 40);
+    }
+
+    @Test
+    void jumpingAheadFiresEverythingPassed() {
+        wheel.schedule("a", 2 * TICK);
+        wheel.schedule("b", 11 * TICK);
+        wheel.schedule("c", 50 * TICK);
+
+        assertEquals(List.of("a", "b"), wheel.advance(30 * TICK));
+        assertEquals(List.of("c"), wheel.advance(50 * TICK));
+    }
+
+    // ============================================================================
+    // CANCEL AND RESCHEDULE
+    // ============================================================================
+
+    @Test
+    void cancelRemovesFromEveryLevel() {
+        wheel.schedule("near", 2 * TICK);
+        wheel.schedule("mid", 10 * TICK);
+        wheel.schedule("far", 30 * TICK);
+
+        assertTrue(wheel.cancel("near"));
+        assertTrue(wheel.cancel("mid"));
+        assertTrue(wheel.cancel("far"));
+        assertFalse(wheel.cancel("far"));
+
+        assertEquals(List.of(), wheel.advance(60 * TICK));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancelAfterCascadeRemovesFromLowerLevel() {
+        wheel.schedule("a", 22 * TICK);
+        // At 20 the entry has cascaded out of the overflow map into a lower level
+        assertEquals(List.of(), wheel.advance(20 * TICK));
+
+        assertTrue(wheel.cancel("a"));
+        assertEquals(List.of(), wheel.advance(40 * TICK));
+    }
+
+    @Test
+    void cancelDropsAKeyAlreadyDue() {
+        wheel.advance(5 * TICK);
+        wheel.schedule("late", TICK);
+
+        assertTrue(wheel.cancel("late"));
+        assertEquals(List.of(), wheel.advance(6 * TICK));
+    }
+
+    @Test
+    void rescheduleMovesTheDeadlineEitherWay() {
+        wheel.schedule("later", 3 * TICK);
+        wheel.schedule("sooner", 30 * TICK);
+        wheel.schedule("later", 25 * TICK);
+        wheel.schedule("sooner", 6 * TICK);
+
+        assertEquals(2, wheel.size());
+        assertFiresAt("sooner", 6);
+        assertFiresAt("later", 25);
+    }
+
+    @Test
+    void clearDropsEverythingButKeepsTheClock() {
+        wheel.schedule("near", 2 * TICK);
+        wheel.schedule("far", 30 * TICK);
+        wheel.advance(5 * TICK);
+        wheel.schedule("late", TICK);
+
+        wheel.clear();
+
+        assertEquals(0, wheel.size());
+        assertFalse(wheel.contains("far"));
+        assertEquals(List.of(), wheel.advance(60 * TICK));
+        wheel.schedule("again", 61 * TICK);
+        assertEquals(List.of("again"), wheel.advance(61 * TICK));
+    }
+
+    @Test
+    void containsFollowsScheduleFireAndCancel() {
+        wheel.schedule("a", 2 * TICK);
+        wheel.schedule("b", 20 * TICK);
+        assertTrue(wheel.contains("a"));
+
+        wheel.advance(2 * TICK);
+        assertFalse(wheel.contains("a"));
+        assertTrue(wheel.contains("b"));
+
+        wheel.cancel("b");
+        assertFalse(wheel.contains("b"));
+    }
+
+    @Test
+    void matchesABruteForceScheduleOverManyCascades() {
+        Random random = new Random(42);
+        Map<String, Long> deadlines = new HashMap<>();
+        long now = 0;
+        for (int step = 0; step < 400; step++) {
+            // Schedule, reschedule and cancel against keys that may sit in any level
+            for (int i = 0; i < 3; i++) {
+                String key = "k" + random.nextInt(50);
+                int action = random.nextInt(4);
+                if (action == 0) {
+                    wheel.cancel(key);
+                    deadlines.remove(key);
+                } else {
+                    long deadlineTick = now / TICK + random.nextInt(40);
+                    wheel.schedule(key, deadlineTick * TICK);
+                    deadlines.put(key, Math.max(deadlineTick, now / TICK));
+                }
+            }
+            now += TICK * (1 + random.nextInt(3));
+
+            List<String> expected = new ArrayList<>();
+            for (Map.Entry<String, Long> entry : deadlines.entrySet()) {
+                if (entry.getValue() <= now / TICK) {
+                    expected.add(entry.getKey());
+                }
+            }
+            List<String> fired = wheel.advance(now);
+            assertEquals(expected.stream().sorted().toList(), fired.stream().sorted().toList(), "at tick " + now / TICK);
+            expected.forEach(deadlines::remove);
+            assertEquals(deadlines.size(), wheel.size());
+        }
+    }
+
+    @Test
+    void rejectsInvalidDimensions() {
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel<String>(0, 4, 2, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel<String>(TICK, 1, 2, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel<String>(TICK, 4, 0, 0));
+    }
+
+    /**
+     * Advance one tick at a time and check the key fires exactly at the given tick
+     */
+    private void assertFiresAt(String key, long tick) {
+        for (long t = 1; t <= tick; t++) {
+            List<String> fired = wheel.advance(t * TICK);
+            if (t < tick) {
+                assertFalse(fired.contains(key), key + " fired early at tick " + t);
+            } else {
+                assertTrue(fired.contains(key), key + " did not fire at tick " + t);
+            }
+        }
+    }
+}